@@ -0,0 +1,187 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.benchmark.search.aggregations;
+
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.SortedNumericDocValuesField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.DocValues;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.LeafReader;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.util.NumericUtils;
+import org.elasticsearch.common.util.BigArrays;
+import org.elasticsearch.common.util.DoubleArray;
+import org.elasticsearch.index.fielddata.FieldData;
+import org.elasticsearch.index.fielddata.SortedNumericDoubleValues;
+import org.elasticsearch.search.aggregations.BatchingLeafBucketCollector;
+import org.elasticsearch.search.aggregations.LeafBucketCollector;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares collecting the docs of a segment into a sum metric one doc at a time with collecting them in batches through
+ * {@link BatchingLeafBucketCollector}. The collector mirrors the leaf collector of the sum aggregation.
+ */
+@Fork(3)
+@Warmup(iterations = 10)
+@Measurement(iterations = 10)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@SuppressWarnings("unused") //invoked by benchmarking framework
+public class MetricCollectionBenchmark {
+
+    private static final String FIELD = "value";
+
+    @Param({"1000000"})
+    private int numDocs;
+
+    @Param({"256"})
+    private int batchSize;
+
+    private Directory directory;
+    private DirectoryReader reader;
+    private LeafReader leaf;
+
+    @Setup
+    public void setUp() throws IOException {
+        final Random random = new Random(0);
+        directory = new ByteBuffersDirectory();
+        try (IndexWriter writer = new IndexWriter(directory, new IndexWriterConfig())) {
+            for (int i = 0; i < numDocs; i++) {
+                final Document doc = new Document();
+                doc.add(new SortedNumericDocValuesField(FIELD, NumericUtils.doubleToSortableLong(random.nextDouble() * 1000)));
+                writer.addDocument(doc);
+            }
+            writer.forceMerge(1);
+        }
+        reader = DirectoryReader.open(directory);
+        leaf = reader.leaves().get(0).reader();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        reader.close();
+        directory.close();
+    }
+
+    @Benchmark
+    public double collectOneByOne() throws IOException {
+        final SumCollector collector = new SumCollector(values());
+        for (int doc = 0; doc < numDocs; doc++) {
+            collector.collect(doc, 0);
+        }
+        return collector.sums.get(0);
+    }
+
+    @Benchmark
+    public double collectInBatches() throws IOException {
+        final SumCollector collector = new SumCollector(values());
+        final BatchingLeafBucketCollector batching = new BatchingLeafBucketCollector(collector, new int[batchSize]);
+        for (int doc = 0; doc < numDocs; doc++) {
+            batching.collect(doc, 0);
+        }
+        batching.flush();
+        return collector.sums.get(0);
+    }
+
+    private SortedNumericDoubleValues values() throws IOException {
+        return FieldData.sortableLongBitsToDoubles(DocValues.getSortedNumeric(leaf, FIELD));
+    }
+
+    private static class SumCollector extends LeafBucketCollector {
+
+        private final BigArrays bigArrays = BigArrays.NON_RECYCLING_INSTANCE;
+        private final SortedNumericDoubleValues values;
+        private DoubleArray sums = bigArrays.newDoubleArray(1, true);
+        private DoubleArray compensations = bigArrays.newDoubleArray(1, true);
+
+        SumCollector(SortedNumericDoubleValues values) {
+            this.values = values;
+        }
+
+        @Override
+        public void collect(int doc, long bucket) throws IOException {
+            sums = bigArrays.grow(sums, bucket + 1);
+            compensations = bigArrays.grow(compensations, bucket + 1);
+            if (values.advanceExact(doc)) {
+                final int valuesCount = values.docValueCount();
+                double sum = sums.get(bucket);
+                double compensation = compensations.get(bucket);
+                for (int i = 0; i < valuesCount; i++) {
+                    double value = values.nextValue();
+                    if (Double.isFinite(value) == false) {
+                        sum += value;
+                    } else if (Double.isFinite(sum)) {
+                        double corrected = value - compensation;
+                        double newSum = sum + corrected;
+                        compensation = (newSum - sum) - corrected;
+                        sum = newSum;
+                    }
+                }
+                compensations.set(bucket, compensation);
+                sums.set(bucket, sum);
+            }
+        }
+
+        @Override
+        public void collect(int[] docs, int count, long bucket) throws IOException {
+            sums = bigArrays.grow(sums, bucket + 1);
+            compensations = bigArrays.grow(compensations, bucket + 1);
+            double sum = sums.get(bucket);
+            double compensation = compensations.get(bucket);
+            for (int d = 0; d < count; d++) {
+                if (values.advanceExact(docs[d])) {
+                    final int valuesCount = values.docValueCount();
+                    for (int i = 0; i < valuesCount; i++) {
+                        double value = values.nextValue();
+                        if (Double.isFinite(value) == false) {
+                            sum += value;
+                        } else if (Double.isFinite(sum)) {
+                            double corrected = value - compensation;
+                            double newSum = sum + corrected;
+                            compensation = (newSum - sum) - corrected;
+                            sum = newSum;
+                        }
+                    }
+                }
+            }
+            compensations.set(bucket, compensation);
+            sums.set(bucket, sum);
+        }
+    }
+}
@@ -76,6 +76,7 @@ public final class Grok {
     private final Map<String, String> patternBank;
     private final boolean namedCaptures;
     private final Regex compiledExpression;
+    private final LiteralPrefilter prefilter;
     private final ThreadWatchdog threadWatchdog;
 
     public Grok(Map<String, String> patternBank, String grokPattern) {
@@ -104,6 +105,7 @@ public final class Grok {
         String expression = toRegex(grokPattern);
         byte[] expressionBytes = expression.getBytes(StandardCharsets.UTF_8);
         this.compiledExpression = new Regex(expressionBytes, 0, expressionBytes.length, Option.DEFAULT, UTF8Encoding.INSTANCE);
+        this.prefilter = LiteralPrefilter.build(grokPattern);
     }
 
     /**
@@ -220,6 +222,9 @@ public final class Grok {
      * @return true if grok expression matches text, false otherwise.
      */
     public boolean match(String text) {
+        if (prefilter != null && prefilter.mayMatch(text) == false) {
+            return false;
+        }
         Matcher matcher = compiledExpression.matcher(text.getBytes(StandardCharsets.UTF_8));
         int result;
         try {
@@ -239,6 +244,10 @@ public final class Grok {
      * @return a map containing field names and their respective coerced values that matched.
      */
     public Map<String, Object> captures(String text) {
+        if (prefilter != null && prefilter.mayMatch(text) == false) {
+            // the text doesn't contain the literals that the pattern requires, no need to run the regular expression
+            return null;
+        }
         byte[] textAsBytes = text.getBytes(StandardCharsets.UTF_8);
         Map<String, Object> fields = new HashMap<>();
         Matcher matcher = compiledExpression.matcher(textAsBytes);
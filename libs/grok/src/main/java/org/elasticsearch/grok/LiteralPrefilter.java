@@ -0,0 +1,314 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.grok;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A cheap check of whether a text may match a grok pattern, that is run before the regular expression of the pattern.
+ *
+ * For each top-level alternative of the pattern, it extracts the literal strings that a text must contain to match the
+ * alternative. The parts of the pattern that it doesn't understand, like references to other patterns, groups and character
+ * classes, just don't contribute any literal: a text that doesn't contain all the literals of any of the alternatives can't
+ * match the pattern, but a text that does may still not match it.
+ */
+final class LiteralPrefilter {
+
+    private final String[][] alternatives;
+
+    private LiteralPrefilter(String[][] alternatives) {
+        this.alternatives = alternatives;
+    }
+
+    /**
+     * Builds the prefilter of a grok pattern.
+     *
+     * @return the prefilter, or <code>null</code> if some alternative of the pattern doesn't require any literal
+     */
+    static LiteralPrefilter build(String grokPattern) {
+        // inline options may turn case-insensitive matching on for the rest of the enclosing group, including other alternatives
+        for (int i = grokPattern.indexOf("(?"); i != -1; i = grokPattern.indexOf("(?", i + 1)) {
+            if (i + 2 < grokPattern.length() && (Character.isLetter(grokPattern.charAt(i + 2)) || grokPattern.charAt(i + 2) == '-')) {
+                return null;
+            }
+        }
+        List<String[]> alternatives = new ArrayList<>();
+        if (collectAlternatives(grokPattern, alternatives) == false) {
+            return null;
+        }
+        return new LiteralPrefilter(alternatives.toArray(new String[0][]));
+    }
+
+    /**
+     * Returns <code>false</code> if the text can't match the pattern.
+     */
+    boolean mayMatch(String text) {
+        for (String[] literals : alternatives) {
+            boolean containsAll = true;
+            for (String literal : literals) {
+                if (text.contains(literal) == false) {
+                    containsAll = false;
+                    break;
+                }
+            }
+            if (containsAll) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Adds the required literals of each alternative of the pattern, returns <code>false</code> if an alternative doesn't
+     * require any literal.
+     */
+    private static boolean collectAlternatives(String pattern, List<String[]> alternatives) {
+        List<String> parts = splitAlternatives(pattern);
+        if (parts == null) {
+            return false;
+        }
+        for (String part : parts) {
+            String groupContent = wholeGroupContent(part);
+            if (groupContent != null) {
+                if (collectAlternatives(groupContent, alternatives) == false) {
+                    return false;
+                }
+            } else {
+                List<String> literals = requiredLiterals(part);
+                if (literals == null || literals.isEmpty()) {
+                    return false;
+                }
+                alternatives.add(literals.toArray(new String[0]));
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Splits the pattern on its top-level <code>|</code>, returns <code>null</code> if the pattern can't be parsed.
+     */
+    private static List<String> splitAlternatives(String pattern) {
+        List<String> parts = new ArrayList<>();
+        int start = 0;
+        int i = 0;
+        while (i < pattern.length()) {
+            char c = pattern.charAt(i);
+            if (c == '\\') {
+                i += 2;
+            } else if (c == '(') {
+                i = skipGroup(pattern, i);
+            } else if (c == '[') {
+                i = skipClass(pattern, i);
+            } else {
+                if (c == '|') {
+                    parts.add(pattern.substring(start, i));
+                    start = i + 1;
+                }
+                i++;
+            }
+            if (i == -1) {
+                return null;
+            }
+        }
+        parts.add(pattern.substring(start));
+        return parts;
+    }
+
+    /**
+     * Returns the content of the pattern if it is a single capturing or non-capturing group, <code>null</code> otherwise.
+     */
+    private static String wholeGroupContent(String pattern) {
+        if (pattern.startsWith("(") == false || skipGroup(pattern, 0) != pattern.length()) {
+            return null;
+        }
+        final int end = pattern.length() - 1;
+        if (pattern.startsWith("(?:")) {
+            return pattern.substring(3, end);
+        } else if (pattern.startsWith("(?<") && pattern.length() > 3 && pattern.charAt(3) != '=' && pattern.charAt(3) != '!') {
+            int nameEnd = pattern.indexOf('>');
+            return nameEnd == -1 || nameEnd > end ? null : pattern.substring(nameEnd + 1, end);
+        } else if (pattern.startsWith("(?") == false) {
+            return pattern.substring(1, end);
+        }
+        return null;
+    }
+
+    /**
+     * Returns the literals that a text must contain to match a pattern without top-level alternatives, or <code>null</code>
+     * if the pattern can't be parsed.
+     */
+    private static List<String> requiredLiterals(String pattern) {
+        List<String> literals = new ArrayList<>();
+        StringBuilder run = new StringBuilder();
+        int i = 0;
+        while (i < pattern.length()) {
+            char c = pattern.charAt(i);
+            switch (c) {
+                case '%':
+                    if (i + 1 < pattern.length() && pattern.charAt(i + 1) == '{') {
+                        // a reference to another pattern
+                        int end = pattern.indexOf('}', i);
+                        if (end == -1) {
+                            return null;
+                        }
+                        endRun(run, literals);
+                        i = end + 1;
+                    } else {
+                        run.append(c);
+                        i++;
+                    }
+                    break;
+                case '(':
+                    endRun(run, literals);
+                    i = skipGroup(pattern, i);
+                    break;
+                case '[':
+                    endRun(run, literals);
+                    i = skipClass(pattern, i);
+                    break;
+                case '\\':
+                    if (i + 1 == pattern.length()) {
+                        return null;
+                    }
+                    char escaped = pattern.charAt(i + 1);
+                    if (Character.isLetterOrDigit(escaped) == false) {
+                        run.append(escaped);
+                    } else if ("sSdDwWbBhHAzZG".indexOf(escaped) != -1) {
+                        endRun(run, literals);
+                    } else {
+                        // escapes of code points, properties or quoted sequences, that we do not try to parse
+                        return null;
+                    }
+                    i += 2;
+                    break;
+                case '?':
+                case '*':
+                case '+':
+                    // the last literal character is optional or repeated
+                    dropLast(run);
+                    endRun(run, literals);
+                    i++;
+                    break;
+                case '{':
+                    dropLast(run);
+                    endRun(run, literals);
+                    int end = pattern.indexOf('}', i);
+                    if (end == -1) {
+                        return null;
+                    }
+                    i = end + 1;
+                    break;
+                case '.':
+                case '^':
+                case '$':
+                    endRun(run, literals);
+                    i++;
+                    break;
+                case ')':
+                case ']':
+                case '}':
+                case '|':
+                    return null;
+                default:
+                    run.append(c);
+                    i++;
+            }
+            if (i == -1) {
+                return null;
+            }
+        }
+        endRun(run, literals);
+        return literals;
+    }
+
+    private static void dropLast(StringBuilder run) {
+        if (run.length() > 0) {
+            run.setLength(run.length() - 1);
+        }
+    }
+
+    private static void endRun(StringBuilder run, List<String> literals) {
+        if (run.length() > 0) {
+            literals.add(run.toString());
+            run.setLength(0);
+        }
+    }
+
+    /**
+     * Returns the index that follows the group that starts at the given index, or -1 if the group isn't closed.
+     */
+    private static int skipGroup(String pattern, int start) {
+        int depth = 0;
+        int i = start;
+        while (i < pattern.length()) {
+            char c = pattern.charAt(i);
+            if (c == '\\') {
+                i += 2;
+                continue;
+            } else if (c == '[') {
+                i = skipClass(pattern, i);
+                if (i == -1) {
+                    return -1;
+                }
+                continue;
+            } else if (c == '(') {
+                depth++;
+            } else if (c == ')') {
+                depth--;
+                if (depth == 0) {
+                    return i + 1;
+                }
+            }
+            i++;
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the index that follows the character class that starts at the given index, or -1 if the class isn't closed.
+     */
+    private static int skipClass(String pattern, int start) {
+        int i = start + 1;
+        if (i < pattern.length() && pattern.charAt(i) == '^') {
+            i++;
+        }
+        if (i < pattern.length() && pattern.charAt(i) == ']') {
+            // a leading ] is a literal
+            i++;
+        }
+        while (i < pattern.length()) {
+            char c = pattern.charAt(i);
+            if (c == '\\') {
+                i += 2;
+            } else if (c == '[') {
+                i = skipClass(pattern, i);
+                if (i == -1) {
+                    return -1;
+                }
+            } else if (c == ']') {
+                return i + 1;
+            } else {
+                i++;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.grok;
+
+import org.elasticsearch.test.ESTestCase;
+
+import java.util.Collections;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+
+public class LiteralPrefilterTests extends ESTestCase {
+
+    public void testLiterals() {
+        LiteralPrefilter prefilter = LiteralPrefilter.build("%{WORD:verb} /index.html HTTP/%{NUMBER:version}");
+        assertTrue(prefilter.mayMatch("GET /index.html HTTP/1.1"));
+        assertFalse(prefilter.mayMatch("GET /other.html HTTP/1.1"));
+
+        prefilter = LiteralPrefilter.build("%{WORD} %{NUMBER}");
+        assertTrue(prefilter.mayMatch("foo 1"));
+        assertFalse(prefilter.mayMatch("foo"));
+    }
+
+    public void testNoLiterals() {
+        assertThat(LiteralPrefilter.build("%{WORD}"), nullValue());
+        assertThat(LiteralPrefilter.build("%{WORD}%{NUMBER}"), nullValue());
+        assertThat(LiteralPrefilter.build("(foo)?%{WORD}"), nullValue());
+        assertThat(LiteralPrefilter.build("[a-z]+"), nullValue());
+    }
+
+    public void testQuantifiers() {
+        LiteralPrefilter prefilter = LiteralPrefilter.build("ab?c");
+        assertTrue(prefilter.mayMatch("ac"));
+        assertTrue(prefilter.mayMatch("abc"));
+        assertFalse(prefilter.mayMatch("ab"));
+
+        prefilter = LiteralPrefilter.build("x*y+z");
+        assertTrue(prefilter.mayMatch("z"));
+        assertFalse(prefilter.mayMatch("xy"));
+
+        prefilter = LiteralPrefilter.build("a{0,2}b");
+        assertTrue(prefilter.mayMatch("b"));
+        assertFalse(prefilter.mayMatch("a"));
+    }
+
+    public void testEscapes() {
+        LiteralPrefilter prefilter = LiteralPrefilter.build("\\[%{HTTPDATE:timestamp}\\]");
+        assertTrue(prefilter.mayMatch("[10/Oct/2000:13:55:36 -0700]"));
+        assertFalse(prefilter.mayMatch("10/Oct/2000:13:55:36 -0700"));
+
+        prefilter = LiteralPrefilter.build("\\s+foo\\d");
+        assertTrue(prefilter.mayMatch("foo1"));
+        assertFalse(prefilter.mayMatch("bar1"));
+
+        assertThat(LiteralPrefilter.build("\\x41"), nullValue());
+        assertThat(LiteralPrefilter.build("\\Qfoo\\E"), nullValue());
+    }
+
+    public void testGroupsAndClasses() {
+        LiteralPrefilter prefilter = LiteralPrefilter.build("a(b|c)d[x)z]e");
+        assertTrue(prefilter.mayMatch("acdye"));
+        assertFalse(prefilter.mayMatch("abd"));
+
+        assertThat(LiteralPrefilter.build("foo(bar"), nullValue());
+        assertThat(LiteralPrefilter.build("foo[bar"), nullValue());
+        assertThat(LiteralPrefilter.build("foo)bar"), nullValue());
+    }
+
+    public void testAlternatives() {
+        LiteralPrefilter prefilter = LiteralPrefilter.build("foo|bar");
+        assertTrue(prefilter.mayMatch("foo"));
+        assertTrue(prefilter.mayMatch("bar"));
+        assertFalse(prefilter.mayMatch("baz"));
+
+        prefilter = LiteralPrefilter.build("(?:foo %{WORD})|(?<_ingest._grok_match_index.1>bar)|(baz)");
+        assertTrue(prefilter.mayMatch("foo x"));
+        assertTrue(prefilter.mayMatch("bar"));
+        assertTrue(prefilter.mayMatch("baz"));
+        assertFalse(prefilter.mayMatch("foo"));
+
+        assertThat(LiteralPrefilter.build("foo|%{WORD}"), nullValue());
+        assertThat(LiteralPrefilter.build("(?:foo)|(?=bar)"), nullValue());
+    }
+
+    public void testInlineOptions() {
+        assertThat(LiteralPrefilter.build("(?i)foo"), nullValue());
+        assertThat(LiteralPrefilter.build("foo|(?i)bar"), nullValue());
+        assertThat(LiteralPrefilter.build("(?i:foo)bar"), nullValue());
+    }
+
+    public void testGrokCaptures() {
+        Grok grok = new Grok(Grok.getBuiltinPatterns(), "%{WORD:verb} /index.html");
+        assertThat(grok.captures("GET /index.html"), equalTo(Collections.singletonMap("verb", "GET")));
+        assertThat(grok.captures("GET /other.html"), nullValue());
+        assertTrue(grok.match("GET /index.html"));
+        assertFalse(grok.match("GET /other.html"));
+    }
+}
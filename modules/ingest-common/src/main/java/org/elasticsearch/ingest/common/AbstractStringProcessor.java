@@ -36,12 +36,16 @@ abstract class AbstractStringProcessor<T> extends AbstractProcessor {
     private final String field;
     private final boolean ignoreMissing;
     private final String targetField;
+    private final IngestDocument.FieldPath fieldPath;
+    private final IngestDocument.FieldPath targetFieldPath;
 
     AbstractStringProcessor(String tag, String field, boolean ignoreMissing, String targetField) {
         super(tag);
         this.field = field;
         this.ignoreMissing = ignoreMissing;
         this.targetField = targetField;
+        this.fieldPath = new IngestDocument.FieldPath(field);
+        this.targetFieldPath = new IngestDocument.FieldPath(targetField);
     }
 
     public String getField() {
@@ -58,7 +62,7 @@ abstract class AbstractStringProcessor<T> extends AbstractProcessor {
 
     @Override
     public final IngestDocument execute(IngestDocument document) {
-        String val = document.getFieldValue(field, String.class, ignoreMissing);
+        String val = document.getFieldValue(fieldPath, String.class, ignoreMissing);
 
         if (val == null && ignoreMissing) {
             return document;
@@ -66,7 +70,7 @@ abstract class AbstractStringProcessor<T> extends AbstractProcessor {
             throw new IllegalArgumentException("field [" + field + "] is null, cannot process it.");
         }
 
-        document.setFieldValue(targetField, process(val));
+        document.setFieldValue(targetFieldPath, process(val));
         return document;
     }
 
@@ -39,12 +39,16 @@ public final class JoinProcessor extends AbstractProcessor {
     private final String field;
     private final String separator;
     private final String targetField;
+    private final IngestDocument.FieldPath fieldPath;
+    private final IngestDocument.FieldPath targetFieldPath;
 
     JoinProcessor(String tag, String field, String separator, String targetField) {
         super(tag);
         this.field = field;
         this.separator = separator;
         this.targetField = targetField;
+        this.fieldPath = new IngestDocument.FieldPath(field);
+        this.targetFieldPath = new IngestDocument.FieldPath(targetField);
     }
 
     String getField() {
@@ -61,14 +65,14 @@ public final class JoinProcessor extends AbstractProcessor {
 
     @Override
     public IngestDocument execute(IngestDocument document) {
-        List<?> list = document.getFieldValue(field, List.class);
+        List<?> list = document.getFieldValue(fieldPath, List.class);
         if (list == null) {
             throw new IllegalArgumentException("field [" + field + "] is null, cannot join.");
         }
         String joined = list.stream()
                 .map(Object::toString)
                 .collect(Collectors.joining(separator));
-        document.setFieldValue(targetField, joined);
+        document.setFieldValue(targetFieldPath, joined);
         return document;
     }
 
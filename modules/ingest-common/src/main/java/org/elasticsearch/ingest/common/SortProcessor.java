@@ -72,12 +72,16 @@ public final class SortProcessor extends AbstractProcessor {
     private final String field;
     private final SortOrder order;
     private final String targetField;
+    private final IngestDocument.FieldPath fieldPath;
+    private final IngestDocument.FieldPath targetFieldPath;
 
     SortProcessor(String tag, String field, SortOrder order, String targetField) {
         super(tag);
         this.field = field;
         this.order = order;
         this.targetField = targetField;
+        this.fieldPath = new IngestDocument.FieldPath(field);
+        this.targetFieldPath = new IngestDocument.FieldPath(targetField);
     }
 
     String getField() {
@@ -95,7 +99,7 @@ public final class SortProcessor extends AbstractProcessor {
     @Override
     @SuppressWarnings("unchecked")
     public IngestDocument execute(IngestDocument document) {
-        List<? extends Comparable<Object>> list = document.getFieldValue(field, List.class);
+        List<? extends Comparable<Object>> list = document.getFieldValue(fieldPath, List.class);
 
         if (list == null) {
             throw new IllegalArgumentException("field [" + field + "] is null, cannot sort.");
@@ -109,7 +113,7 @@ public final class SortProcessor extends AbstractProcessor {
             Collections.sort(copy, Collections.reverseOrder());
         }
 
-        document.setFieldValue(targetField, copy);
+        document.setFieldValue(targetFieldPath, copy);
         return document;
     }
 
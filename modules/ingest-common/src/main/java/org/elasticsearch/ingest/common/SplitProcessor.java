@@ -42,6 +42,8 @@ public final class SplitProcessor extends AbstractProcessor {
     private final String separator;
     private final boolean ignoreMissing;
     private final String targetField;
+    private final IngestDocument.FieldPath fieldPath;
+    private final IngestDocument.FieldPath targetFieldPath;
 
     SplitProcessor(String tag, String field, String separator, boolean ignoreMissing, String targetField) {
         super(tag);
@@ -49,6 +51,8 @@ public final class SplitProcessor extends AbstractProcessor {
         this.separator = separator;
         this.ignoreMissing = ignoreMissing;
         this.targetField = targetField;
+        this.fieldPath = new IngestDocument.FieldPath(field);
+        this.targetFieldPath = new IngestDocument.FieldPath(targetField);
     }
 
     String getField() {
@@ -69,7 +73,7 @@ public final class SplitProcessor extends AbstractProcessor {
 
     @Override
     public IngestDocument execute(IngestDocument document) {
-        String oldVal = document.getFieldValue(field, String.class, ignoreMissing);
+        String oldVal = document.getFieldValue(fieldPath, String.class, ignoreMissing);
 
         if (oldVal == null && ignoreMissing) {
             return document;
@@ -80,7 +84,7 @@ public final class SplitProcessor extends AbstractProcessor {
         String[] strings = oldVal.split(separator);
         List<String> splitList = new ArrayList<>(strings.length);
         Collections.addAll(splitList, strings);
-        document.setFieldValue(targetField, splitList);
+        document.setFieldValue(targetFieldPath, splitList);
         return document;
     }
 
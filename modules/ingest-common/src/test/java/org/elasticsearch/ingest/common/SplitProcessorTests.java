@@ -56,6 +56,15 @@ public class SplitProcessorTests extends ESTestCase {
         }
     }
 
+    public void testSplitInvalidTargetField() throws Exception {
+        IngestDocument ingestDocument = RandomDocumentPicks.randomIngestDocument(random());
+        String fieldName = RandomDocumentPicks.addRandomField(random(), ingestDocument, "127.0.0.1");
+        // the target field is only validated when a document is processed
+        Processor processor = new SplitProcessor(randomAlphaOfLength(10), fieldName, "\\.", false, "_ingest.");
+        IllegalArgumentException e = expectThrows(IllegalArgumentException.class, () -> processor.execute(ingestDocument));
+        assertThat(e.getMessage(), equalTo("path [_ingest.] is not valid"));
+    }
+
     public void testSplitNullValue() throws Exception {
         IngestDocument ingestDocument = RandomDocumentPicks.randomIngestDocument(random(),
             Collections.singletonMap("field", null));
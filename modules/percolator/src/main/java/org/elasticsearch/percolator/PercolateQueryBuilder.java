@@ -36,16 +36,18 @@ import org.apache.lucene.search.ScoreMode;
 import org.apache.lucene.search.Scorer;
 import org.apache.lucene.search.Weight;
 import org.apache.lucene.search.join.BitSetProducer;
-import org.apache.lucene.store.RAMDirectory;
+import org.apache.lucene.store.ByteBuffersDirectory;
 import org.apache.lucene.util.BitDocIdSet;
 import org.apache.lucene.util.BitSet;
 import org.apache.lucene.util.BytesRef;
 import org.apache.lucene.util.SetOnce;
+import org.elasticsearch.Assertions;
 import org.elasticsearch.ElasticsearchException;
 import org.elasticsearch.ResourceNotFoundException;
 import org.elasticsearch.Version;
 import org.elasticsearch.action.ActionListener;
 import org.elasticsearch.action.get.GetRequest;
+import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.ParseField;
 import org.elasticsearch.common.ParsingException;
 import org.elasticsearch.common.bytes.BytesReference;
@@ -632,7 +634,8 @@ public class PercolateQueryBuilder extends AbstractQueryBuilder<PercolateQueryBu
         QueryShardContext percolateShardContext = wrap(context);
         PercolateQuery.QueryStore queryStore = createStore(pft.queryBuilderField,
             percolateShardContext,
-            pft.mapUnmappedFieldsAsText);
+            pft.mapUnmappedFieldsAsText,
+            pft.queryCache);
 
         return pft.percolateQuery(name, queryStore, documents, docSearcher, excludeNestedDocuments, context.indexVersionCreated());
     }
@@ -655,8 +658,12 @@ public class PercolateQueryBuilder extends AbstractQueryBuilder<PercolateQueryBu
     }
 
     static IndexSearcher createMultiDocumentSearcher(Analyzer analyzer, Collection<ParsedDocument> docs) {
-        RAMDirectory ramDirectory = new RAMDirectory();
-        try (IndexWriter indexWriter = new IndexWriter(ramDirectory, new IndexWriterConfig(analyzer))) {
+        ByteBuffersDirectory directory = new ByteBuffersDirectory();
+        // The index only lives for the duration of the request, so there is no need to pack it in a compound file
+        IndexWriterConfig config = new IndexWriterConfig(analyzer)
+            .setUseCompoundFile(false)
+            .setCommitOnClose(false);
+        try (IndexWriter indexWriter = new IndexWriter(directory, config)) {
             // Indexing in order here, so that the user provided order matches with the docid sequencing:
             Iterable<ParseContext.Document> iterable = () -> docs.stream()
                 .map(ParsedDocument::docs)
@@ -677,6 +684,25 @@ public class PercolateQueryBuilder extends AbstractQueryBuilder<PercolateQueryBu
     static PercolateQuery.QueryStore createStore(MappedFieldType queryBuilderFieldType,
                                                  QueryShardContext context,
                                                  boolean mapUnmappedFieldsAsString) {
+        return createStore(queryBuilderFieldType, context, mapUnmappedFieldsAsString, null);
+    }
+
+    /**
+     * Converts a query builder of the {@link PercolatorQueryCache} to a query. Cached query builders are shared by concurrent
+     * requests, which relies on {@link QueryBuilder#toQuery} not modifying them.
+     */
+    private static Query toCachedQuery(QueryShardContext context, boolean mapUnmappedFieldsAsString,
+                                       QueryBuilder queryBuilder) throws IOException {
+        final int hashCode = Assertions.ENABLED ? queryBuilder.hashCode() : 0;
+        Query query = PercolatorFieldMapper.toQuery(context, mapUnmappedFieldsAsString, queryBuilder);
+        assert hashCode == queryBuilder.hashCode() : "cached query builder [" + queryBuilder + "] was modified by toQuery";
+        return query;
+    }
+
+    static PercolateQuery.QueryStore createStore(MappedFieldType queryBuilderFieldType,
+                                                 QueryShardContext context,
+                                                 boolean mapUnmappedFieldsAsString,
+                                                 @Nullable PercolatorQueryCache queryCache) {
         Version indexVersion = context.indexVersionCreated();
         NamedWriteableRegistry registry = context.getWriteableRegistry();
         return ctx -> {
@@ -687,6 +713,12 @@ public class PercolateQueryBuilder extends AbstractQueryBuilder<PercolateQueryBu
             }
             if (indexVersion.onOrAfter(Version.V_6_0_0_beta2)) {
                 return docId -> {
+                    if (queryCache != null) {
+                        QueryBuilder queryBuilder = queryCache.get(leafReader, queryBuilderFieldType.name(), docId);
+                        if (queryBuilder != null) {
+                            return toCachedQuery(context, mapUnmappedFieldsAsString, queryBuilder);
+                        }
+                    }
                     if (binaryDocValues.advanceExact(docId)) {
                         BytesRef qbSource = binaryDocValues.binaryValue();
                         try (InputStream in = new ByteArrayInputStream(qbSource.bytes, qbSource.offset, qbSource.length)) {
@@ -703,6 +735,10 @@ public class PercolateQueryBuilder extends AbstractQueryBuilder<PercolateQueryBu
                                 assert valueLength > 0;
                                 QueryBuilder queryBuilder = input.readNamedWriteable(QueryBuilder.class);
                                 assert in.read() == -1;
+                                if (queryCache != null) {
+                                    queryCache.put(leafReader, queryBuilderFieldType.name(), docId, queryBuilder, qbSource.length);
+                                    return toCachedQuery(context, mapUnmappedFieldsAsString, queryBuilder);
+                                }
                                 return PercolatorFieldMapper.toQuery(context, mapUnmappedFieldsAsString, queryBuilder);
                             }
                         }
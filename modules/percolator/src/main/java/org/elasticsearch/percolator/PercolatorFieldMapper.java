@@ -115,10 +115,16 @@ public class PercolatorFieldMapper extends FieldMapper {
     static class Builder extends FieldMapper.Builder<Builder, PercolatorFieldMapper> {
 
         private final Supplier<QueryShardContext> queryShardContext;
+        private final PercolatorQueryCache queryCache;
 
         Builder(String fieldName, Supplier<QueryShardContext> queryShardContext) {
+            this(fieldName, queryShardContext, null);
+        }
+
+        Builder(String fieldName, Supplier<QueryShardContext> queryShardContext, PercolatorQueryCache queryCache) {
             super(fieldName, FIELD_TYPE, FIELD_TYPE);
             this.queryShardContext = queryShardContext;
+            this.queryCache = queryCache;
         }
 
         @Override
@@ -138,6 +144,7 @@ public class PercolatorFieldMapper extends FieldMapper {
             NumberFieldMapper minimumShouldMatchFieldMapper = createMinimumShouldMatchField(context);
             fieldType.minimumShouldMatchField = minimumShouldMatchFieldMapper.fieldType();
             fieldType.mapUnmappedFieldsAsText = getMapUnmappedFieldAsText(context.indexSettings());
+            fieldType.queryCache = queryCache;
 
             context.path().remove();
             setupFieldType(context);
@@ -188,9 +195,19 @@ public class PercolatorFieldMapper extends FieldMapper {
 
     static class TypeParser implements FieldMapper.TypeParser {
 
+        private final PercolatorQueryCache queryCache;
+
+        TypeParser() {
+            this(null);
+        }
+
+        TypeParser(PercolatorQueryCache queryCache) {
+            this.queryCache = queryCache;
+        }
+
         @Override
         public Builder parse(String name, Map<String, Object> node, ParserContext parserContext) throws MapperParsingException {
-            return new Builder(name, parserContext.queryShardContextSupplier());
+            return new Builder(name, parserContext.queryShardContextSupplier(), queryCache);
         }
     }
 
@@ -203,6 +220,8 @@ public class PercolatorFieldMapper extends FieldMapper {
 
         RangeFieldMapper.RangeFieldType rangeField;
         boolean mapUnmappedFieldsAsText;
+        // may be null, in which case the stored queries are deserialized for every percolate query
+        PercolatorQueryCache queryCache;
 
         FieldType() {
             setIndexOptions(IndexOptions.NONE);
@@ -218,6 +237,7 @@ public class PercolatorFieldMapper extends FieldMapper {
             rangeField = ref.rangeField;
             minimumShouldMatchField = ref.minimumShouldMatchField;
             mapUnmappedFieldsAsText = ref.mapUnmappedFieldsAsText;
+            queryCache = ref.queryCache;
         }
 
         @Override
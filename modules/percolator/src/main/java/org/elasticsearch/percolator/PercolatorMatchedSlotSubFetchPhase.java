@@ -24,10 +24,9 @@ import org.apache.lucene.search.IndexSearcher;
 import org.apache.lucene.search.Query;
 import org.apache.lucene.search.ScoreMode;
 import org.apache.lucene.search.Scorer;
-import org.apache.lucene.search.Sort;
-import org.apache.lucene.search.SortField;
-import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.search.SimpleCollector;
 import org.apache.lucene.search.Weight;
+import org.apache.lucene.util.ArrayUtil;
 import org.apache.lucene.util.BitSet;
 import org.apache.lucene.util.BitSetIterator;
 import org.elasticsearch.Version;
@@ -97,8 +96,8 @@ final class PercolatorMatchedSlotSubFetchPhase implements FetchSubPhase {
                     continue;
                 }
 
-                TopDocs topDocs = percolatorIndexSearcher.search(query, memoryIndexMaxDoc, new Sort(SortField.FIELD_DOC));
-                if (topDocs.totalHits.value == 0) {
+                int[] docIds = matchingDocIds(percolatorIndexSearcher, query);
+                if (docIds.length == 0) {
                     // This hit didn't match with a percolate query,
                     // likely to happen when percolating multiple documents
                     continue;
@@ -109,15 +108,25 @@ final class PercolatorMatchedSlotSubFetchPhase implements FetchSubPhase {
                     fields = new HashMap<>();
                     hit.fields(fields);
                 }
-                IntStream slots = convertTopDocsToSlots(topDocs, rootDocsBySlot);
+                IntStream slots = convertDocIdsToSlots(docIds, rootDocsBySlot);
                 fields.put(fieldName, new DocumentField(fieldName, slots.boxed().collect(Collectors.toList())));
             }
         }
     }
 
-    static IntStream convertTopDocsToSlots(TopDocs topDocs, int[] rootDocsBySlot) {
-        IntStream stream = Arrays.stream(topDocs.scoreDocs)
-            .mapToInt(scoreDoc -> scoreDoc.doc);
+    /**
+     * Returns the ids of the documents of the percolator searcher that match the query, in order. Unlike a search for the
+     * top docs sorted by docid, this doesn't need a priority queue sized by the number of percolated documents, which
+     * matters when a large batch of documents is percolated.
+     */
+    static int[] matchingDocIds(IndexSearcher percolatorIndexSearcher, Query query) throws IOException {
+        MatchingDocIdsCollector collector = new MatchingDocIdsCollector();
+        percolatorIndexSearcher.search(query, collector);
+        return collector.getDocIds();
+    }
+
+    static IntStream convertDocIdsToSlots(int[] docIds, int[] rootDocsBySlot) {
+        IntStream stream = Arrays.stream(docIds);
         if (rootDocsBySlot != null) {
             stream = stream.map(docId -> Arrays.binarySearch(rootDocsBySlot, docId));
         }
@@ -133,4 +142,31 @@ final class PercolatorMatchedSlotSubFetchPhase implements FetchSubPhase {
         }
         return rootDocsBySlot;
     }
+
+    private static final class MatchingDocIdsCollector extends SimpleCollector {
+
+        private int[] docIds = new int[8];
+        private int size;
+        private int docBase;
+
+        @Override
+        protected void doSetNextReader(LeafReaderContext context) {
+            docBase = context.docBase;
+        }
+
+        @Override
+        public void collect(int doc) {
+            docIds = ArrayUtil.grow(docIds, size + 1);
+            docIds[size++] = docBase + doc;
+        }
+
+        @Override
+        public ScoreMode scoreMode() {
+            return ScoreMode.COMPLETE_NO_SCORES;
+        }
+
+        int[] getDocIds() {
+            return Arrays.copyOf(docIds, size);
+        }
+    }
 }
@@ -0,0 +1,185 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.percolator;
+
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.LeafReader;
+import org.apache.lucene.util.RamUsageEstimator;
+import org.elasticsearch.common.cache.Cache;
+import org.elasticsearch.common.cache.CacheBuilder;
+import org.elasticsearch.common.settings.Setting;
+import org.elasticsearch.common.settings.Setting.Property;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.common.util.concurrent.ConcurrentCollections;
+import org.elasticsearch.index.query.QueryBuilder;
+
+import java.io.Closeable;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * A node level cache of the query builders that are stored in the percolator fields of the segments, so that percolate queries
+ * don't have to deserialize the query of every candidate match again on every request. The entries of a segment are
+ * invalidated once the segment is closed.
+ *
+ * Only the query builders are cached, not the Lucene queries that they are converted to, as the latter depend on the
+ * context of the percolate request, for instance on the current time. The cached query builders are shared by concurrent
+ * requests, so they must not be modified once they are cached.
+ */
+final class PercolatorQueryCache implements Closeable {
+
+    static final Setting<ByteSizeValue> QUERY_CACHE_SIZE_SETTING =
+        Setting.memorySizeSetting("indices.percolator.query_cache.size", "1%", Property.NodeScope);
+
+    // The deserialized query builder is estimated to use this many times the size of its serialized form:
+    private static final int QUERY_BUILDER_SIZE_FACTOR = 4;
+
+    // the keys of the cached entries of each segment, so that they can be invalidated when the segment is closed
+    private final ConcurrentMap<IndexReader.CacheKey, Set<Key>> keysByCoreKey = ConcurrentCollections.newConcurrentMap();
+    private final Cache<Key, Value> cache;
+
+    PercolatorQueryCache(Settings settings) {
+        long sizeInBytes = QUERY_CACHE_SIZE_SETTING.get(settings).getBytes();
+        cache = CacheBuilder.<Key, Value>builder()
+            .setMaximumWeight(sizeInBytes)
+            .weigher((k, v) -> Key.BASE_RAM_BYTES_USED + v.ramBytesUsed)
+            .removalListener(notification -> {
+                Set<Key> keys = keysByCoreKey.get(notification.getKey().coreKey);
+                if (keys != null) {
+                    keys.remove(notification.getKey());
+                }
+            })
+            .build();
+    }
+
+    /**
+     * Returns the cached query builder of the given document of a segment, or <code>null</code> if it isn't cached.
+     */
+    QueryBuilder get(LeafReader reader, String field, int docId) {
+        IndexReader.CacheHelper cacheHelper = reader.getCoreCacheHelper();
+        if (cacheHelper == null) {
+            return null;
+        }
+        Value value = cache.get(new Key(cacheHelper.getKey(), field, docId));
+        return value != null ? value.queryBuilder : null;
+    }
+
+    /**
+     * Caches the query builder of the given document of a segment.
+     *
+     * @param serializedSize the size of the serialized query builder in bytes, that is used to estimate its memory usage
+     */
+    void put(LeafReader reader, String field, int docId, QueryBuilder queryBuilder, int serializedSize) {
+        IndexReader.CacheHelper cacheHelper = reader.getCoreCacheHelper();
+        if (cacheHelper == null) {
+            // the reader can't tell when its segment is closed, so we would never invalidate the entry
+            return;
+        }
+        IndexReader.CacheKey coreKey = cacheHelper.getKey();
+        Set<Key> keys = keysByCoreKey.get(coreKey);
+        if (keys == null) {
+            Set<Key> newKeys = ConcurrentCollections.newConcurrentSet();
+            keys = keysByCoreKey.putIfAbsent(coreKey, newKeys);
+            if (keys == null) {
+                keys = newKeys;
+                cacheHelper.addClosedListener(this::onClose);
+            }
+        }
+        Key key = new Key(coreKey, field, docId);
+        long ramBytesUsed = RamUsageEstimator.NUM_BYTES_OBJECT_HEADER + (long) serializedSize * QUERY_BUILDER_SIZE_FACTOR;
+        cache.put(key, new Value(queryBuilder, ramBytesUsed));
+        // the key is tracked after the entry is cached, so that if the entry is evicted concurrently, the segment at worst keeps
+        // tracking a key that is no longer cached until it is closed, rather than keeping an entry that is never invalidated
+        keys.add(key);
+    }
+
+    private void onClose(IndexReader.CacheKey coreKey) {
+        Set<Key> keys = keysByCoreKey.remove(coreKey);
+        if (keys != null) {
+            for (Key key : keys) {
+                cache.invalidate(key);
+            }
+        }
+    }
+
+    /**
+     * Returns the number of cached query builders.
+     */
+    int count() {
+        return cache.count();
+    }
+
+    /**
+     * Returns the estimated memory usage of the cached query builders in bytes.
+     */
+    long ramBytesUsed() {
+        return cache.weight();
+    }
+
+    @Override
+    public void close() {
+        cache.invalidateAll();
+    }
+
+    private static final class Key {
+
+        static final long BASE_RAM_BYTES_USED = RamUsageEstimator.shallowSizeOfInstance(Key.class);
+
+        private final IndexReader.CacheKey coreKey;
+        private final String field;
+        private final int docId;
+
+        Key(IndexReader.CacheKey coreKey, String field, int docId) {
+            this.coreKey = coreKey;
+            this.field = field;
+            this.docId = docId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            Key key = (Key) o;
+            return docId == key.docId && coreKey == key.coreKey && field.equals(key.field);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(coreKey, field, docId);
+        }
+    }
+
+    private static final class Value {
+
+        private final QueryBuilder queryBuilder;
+        private final long ramBytesUsed;
+
+        Value(QueryBuilder queryBuilder, long ramBytesUsed) {
+            this.queryBuilder = queryBuilder;
+            this.ramBytesUsed = ramBytesUsed;
+        }
+    }
+}
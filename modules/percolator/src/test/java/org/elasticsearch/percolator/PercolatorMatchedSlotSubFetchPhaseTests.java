@@ -20,23 +20,26 @@ package org.elasticsearch.percolator;
 
 import org.apache.lucene.analysis.core.WhitespaceAnalyzer;
 import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StringField;
 import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
 import org.apache.lucene.index.RandomIndexWriter;
 import org.apache.lucene.index.Term;
 import org.apache.lucene.index.memory.MemoryIndex;
 import org.apache.lucene.search.IndexSearcher;
 import org.apache.lucene.search.MatchAllDocsQuery;
 import org.apache.lucene.search.MatchNoDocsQuery;
-import org.apache.lucene.search.ScoreDoc;
 import org.apache.lucene.search.TermQuery;
-import org.apache.lucene.search.TopDocs;
-import org.apache.lucene.search.TotalHits;
 import org.apache.lucene.store.Directory;
 import org.apache.lucene.util.FixedBitSet;
 import org.elasticsearch.search.SearchHit;
 import org.elasticsearch.test.ESTestCase;
 
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
 import java.util.stream.IntStream;
 
 public class PercolatorMatchedSlotSubFetchPhaseTests extends ESTestCase {
@@ -95,30 +98,51 @@ public class PercolatorMatchedSlotSubFetchPhaseTests extends ESTestCase {
         }
     }
 
-    public void testConvertTopDocsToSlots() {
-        ScoreDoc[] scoreDocs = new ScoreDoc[randomInt(128)];
-        for (int i = 0; i < scoreDocs.length; i++) {
-            scoreDocs[i] = new ScoreDoc(i, 1f);
+    public void testMatchingDocIds() throws Exception {
+        try (Directory directory = newDirectory()) {
+            int numDocs = randomIntBetween(1, 256);
+            // Adding all documents at once, so that their docids match the order in which they are added:
+            try (IndexWriter indexWriter = new IndexWriter(directory, new IndexWriterConfig())) {
+                List<Document> documents = new ArrayList<>();
+                for (int i = 0; i < numDocs; i++) {
+                    Document document = new Document();
+                    document.add(new StringField("field", i % 3 == 0 ? "value" : "other", Field.Store.NO));
+                    documents.add(document);
+                }
+                indexWriter.addDocuments(documents);
+            }
+
+            try (DirectoryReader reader = DirectoryReader.open(directory)) {
+                IndexSearcher indexSearcher = new IndexSearcher(reader);
+                int[] result = PercolatorMatchedSlotSubFetchPhase.matchingDocIds(indexSearcher, new TermQuery(new Term("field", "value")));
+                assertEquals((numDocs + 2) / 3, result.length);
+                for (int i = 0; i < result.length; i++) {
+                    assertEquals(i * 3, result[i]);
+                }
+
+                result = PercolatorMatchedSlotSubFetchPhase.matchingDocIds(indexSearcher, new MatchNoDocsQuery());
+                assertEquals(0, result.length);
+            }
+        }
+    }
+
+    public void testConvertDocIdsToSlots() {
+        int[] docIds = new int[randomInt(128)];
+        for (int i = 0; i < docIds.length; i++) {
+            docIds[i] = i;
         }
 
-        TopDocs topDocs = new TopDocs(new TotalHits(scoreDocs.length, TotalHits.Relation.EQUAL_TO), scoreDocs);
-        IntStream stream = PercolatorMatchedSlotSubFetchPhase.convertTopDocsToSlots(topDocs, null);
+        IntStream stream = PercolatorMatchedSlotSubFetchPhase.convertDocIdsToSlots(docIds, null);
 
         int[] result = stream.toArray();
-        assertEquals(scoreDocs.length, result.length);
-        for (int i = 0; i < scoreDocs.length; i++) {
-            assertEquals(scoreDocs[i].doc, result[i]);
+        assertEquals(docIds.length, result.length);
+        for (int i = 0; i < docIds.length; i++) {
+            assertEquals(docIds[i], result[i]);
         }
     }
 
-    public void testConvertTopDocsToSlots_nestedDocs() {
-        ScoreDoc[] scoreDocs = new ScoreDoc[5];
-        scoreDocs[0] = new ScoreDoc(2, 1f);
-        scoreDocs[1] = new ScoreDoc(5, 1f);
-        scoreDocs[2] = new ScoreDoc(8, 1f);
-        scoreDocs[3] = new ScoreDoc(11, 1f);
-        scoreDocs[4] = new ScoreDoc(14, 1f);
-        TopDocs topDocs = new TopDocs(new TotalHits(scoreDocs.length, TotalHits.Relation.EQUAL_TO), scoreDocs);
+    public void testConvertDocIdsToSlots_nestedDocs() {
+        int[] docIds = new int[] {2, 5, 8, 11, 14};
 
         FixedBitSet bitSet = new FixedBitSet(15);
         bitSet.set(2);
@@ -128,8 +152,8 @@ public class PercolatorMatchedSlotSubFetchPhaseTests extends ESTestCase {
         bitSet.set(14);
 
         int[] rootDocsBySlot = PercolatorMatchedSlotSubFetchPhase.buildRootDocsSlots(bitSet);
-        int[] result = PercolatorMatchedSlotSubFetchPhase.convertTopDocsToSlots(topDocs, rootDocsBySlot).toArray();
-        assertEquals(scoreDocs.length, result.length);
+        int[] result = PercolatorMatchedSlotSubFetchPhase.convertDocIdsToSlots(docIds, rootDocsBySlot).toArray();
+        assertEquals(docIds.length, result.length);
         assertEquals(0, result[0]);
         assertEquals(1, result[1]);
         assertEquals(2, result[2]);
@@ -48,6 +48,7 @@ import org.elasticsearch.test.ESTestCase;
 import java.io.IOException;
 import java.util.Collections;
 
+import static org.hamcrest.Matchers.greaterThan;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
@@ -108,4 +109,59 @@ public class QueryBuilderStoreTests extends ESTestCase {
         }
     }
 
+    public void testCachingQueryBuilders() throws IOException {
+        try (Directory directory = newDirectory()) {
+            TermQueryBuilder[] queryBuilders = new TermQueryBuilder[randomIntBetween(1, 16)];
+            IndexWriterConfig config = new IndexWriterConfig(new WhitespaceAnalyzer());
+            config.setMergePolicy(NoMergePolicy.INSTANCE);
+            Settings settings = Settings.builder().put(IndexMetaData.SETTING_VERSION_CREATED, Version.CURRENT).build();
+            BinaryFieldMapper fieldMapper = PercolatorFieldMapper.Builder.createQueryBuilderFieldBuilder(
+                new Mapper.BuilderContext(settings, new ContentPath(0)));
+
+            Version version = Version.CURRENT;
+            try (IndexWriter indexWriter = new IndexWriter(directory, config)) {
+                for (int i = 0; i < queryBuilders.length; i++) {
+                    queryBuilders[i] = new TermQueryBuilder(randomAlphaOfLength(4), randomAlphaOfLength(8));
+                    ParseContext parseContext = mock(ParseContext.class);
+                    ParseContext.Document document = new ParseContext.Document();
+                    when(parseContext.doc()).thenReturn(document);
+                    PercolatorFieldMapper.createQueryBuilderField(version,
+                        fieldMapper, queryBuilders[i], parseContext);
+                    indexWriter.addDocument(document);
+                }
+            }
+
+            QueryShardContext queryShardContext = mock(QueryShardContext.class);
+            when(queryShardContext.indexVersionCreated()).thenReturn(version);
+            when(queryShardContext.getWriteableRegistry()).thenReturn(writableRegistry());
+            when(queryShardContext.getXContentRegistry()).thenReturn(xContentRegistry());
+            PercolatorQueryCache queryCache = new PercolatorQueryCache(Settings.EMPTY);
+            PercolateQuery.QueryStore queryStore =
+                PercolateQueryBuilder.createStore(fieldMapper.fieldType(), queryShardContext, false, queryCache);
+
+            // readers that are opened separately have their own segment cores, and so their own cache entries
+            try (IndexReader otherIndexReader = DirectoryReader.open(directory)) {
+                try (IndexReader indexReader = DirectoryReader.open(directory)) {
+                    // the first pass deserializes and caches the query builders, the second one reads them from the cache
+                    for (int pass = 0; pass < 2; pass++) {
+                        for (IndexReader reader : new IndexReader[] { indexReader, otherIndexReader }) {
+                            CheckedFunction<Integer, Query, IOException> queries = queryStore.getQueries(reader.leaves().get(0));
+                            for (int i = 0; i < queryBuilders.length; i++) {
+                                TermQuery query = (TermQuery) queries.apply(i);
+                                assertEquals(queryBuilders[i].fieldName(), query.getTerm().field());
+                                assertEquals(queryBuilders[i].value(), query.getTerm().text());
+                            }
+                        }
+                        assertEquals(2 * queryBuilders.length, queryCache.count());
+                        assertThat(queryCache.ramBytesUsed(), greaterThan(0L));
+                    }
+                }
+                // closing a segment only invalidates its own entries
+                assertEquals(queryBuilders.length, queryCache.count());
+            }
+            assertEquals(0, queryCache.count());
+            assertEquals(0L, queryCache.ramBytesUsed());
+        }
+    }
+
 }
@@ -140,7 +140,9 @@ public class Version implements Comparable<Version>, ToXContentFragment {
     public static final Version V_7_1_0 = new Version(V_7_1_0_ID, org.apache.lucene.util.Version.LUCENE_8_0_0);
     public static final int V_7_1_1_ID = 7010199;
     public static final Version V_7_1_1 = new Version(V_7_1_1_ID, org.apache.lucene.util.Version.LUCENE_8_0_0);
-    public static final Version CURRENT = V_7_1_1;
+    public static final int V_7_1_2_ID = 7010299;
+    public static final Version V_7_1_2 = new Version(V_7_1_2_ID, org.apache.lucene.util.Version.LUCENE_8_0_0);
+    public static final Version CURRENT = V_7_1_2;
 
     static {
         assert CURRENT.luceneVersion.equals(org.apache.lucene.util.Version.LATEST) : "Version must be upgraded to ["
@@ -153,6 +155,8 @@ public class Version implements Comparable<Version>, ToXContentFragment {
 
     public static Version fromId(int id) {
         switch (id) {
+            case V_7_1_2_ID:
+                return V_7_1_2;
             case V_7_1_1_ID:
                 return V_7_1_1;
             case V_7_1_0_ID:
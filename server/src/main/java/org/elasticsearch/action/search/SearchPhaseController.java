@@ -33,15 +33,24 @@ import org.apache.lucene.search.TopFieldDocs;
 import org.apache.lucene.search.TotalHits;
 import org.apache.lucene.search.TotalHits.Relation;
 import org.apache.lucene.search.grouping.CollapseTopFieldDocs;
+import org.elasticsearch.common.breaker.CircuitBreaker;
+import org.elasticsearch.common.breaker.NoopCircuitBreaker;
 import org.elasticsearch.common.collect.HppcMaps;
 import org.elasticsearch.common.lucene.search.TopDocsAndMaxScore;
+import org.elasticsearch.common.settings.ClusterSettings;
+import org.elasticsearch.common.settings.Setting;
+import org.elasticsearch.common.settings.Setting.Property;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.unit.ByteSizeValue;
 import org.elasticsearch.search.DocValueFormat;
 import org.elasticsearch.search.SearchHit;
 import org.elasticsearch.search.SearchHits;
 import org.elasticsearch.search.SearchPhaseResult;
+import org.elasticsearch.search.aggregations.Aggregation;
 import org.elasticsearch.search.aggregations.InternalAggregation;
 import org.elasticsearch.search.aggregations.InternalAggregation.ReduceContext;
 import org.elasticsearch.search.aggregations.InternalAggregations;
+import org.elasticsearch.search.aggregations.InternalMultiBucketAggregation;
 import org.elasticsearch.search.builder.SearchSourceBuilder;
 import org.elasticsearch.search.dfs.AggregatedDfs;
 import org.elasticsearch.search.dfs.DfsSearchResult;
@@ -70,7 +79,20 @@ public final class SearchPhaseController {
 
     private static final ScoreDoc[] EMPTY_DOCS = new ScoreDoc[0];
 
+    /**
+     * The maximum estimated size of the shard aggregation results that are buffered on the coordinating node before they are
+     * reduced, regardless of the batched reduce size of the search request.
+     */
+    public static final Setting<ByteSizeValue> MAX_BUFFERED_AGGS_SIZE_SETTING =
+        Setting.memorySizeSetting("search.max_buffered_aggs_size", "1%", Property.Dynamic, Property.NodeScope);
+
+    // rough estimates of the heap used by an aggregation result and by each of its buckets
+    static final long ESTIMATED_AGGREGATION_BYTES = 1024;
+    static final long ESTIMATED_BUCKET_BYTES = 256;
+
     private final Function<Boolean, ReduceContext> reduceContextFunction;
+    private final CircuitBreaker requestBreaker;
+    private volatile long maxBufferedAggsBytes;
 
     /**
      * Constructor.
@@ -78,6 +100,41 @@ public final class SearchPhaseController {
      */
     public SearchPhaseController(Function<Boolean, ReduceContext> reduceContextFunction) {
         this.reduceContextFunction = reduceContextFunction;
+        this.requestBreaker = new NoopCircuitBreaker(CircuitBreaker.REQUEST);
+        this.maxBufferedAggsBytes = MAX_BUFFERED_AGGS_SIZE_SETTING.get(Settings.EMPTY).getBytes();
+    }
+
+    /**
+     * Constructor.
+     * @param reduceContextFunction A function that builds a context for the reduce of an {@link InternalAggregation}
+     * @param requestBreaker the request circuit breaker, buffered aggregation results are reduced before they could trip it
+     * @param clusterSettings the cluster settings to read {@link #MAX_BUFFERED_AGGS_SIZE_SETTING} from
+     */
+    public SearchPhaseController(Function<Boolean, ReduceContext> reduceContextFunction, CircuitBreaker requestBreaker,
+                                 ClusterSettings clusterSettings) {
+        this.reduceContextFunction = reduceContextFunction;
+        this.requestBreaker = requestBreaker;
+        this.maxBufferedAggsBytes = clusterSettings.get(MAX_BUFFERED_AGGS_SIZE_SETTING).getBytes();
+        clusterSettings.addSettingsUpdateConsumer(MAX_BUFFERED_AGGS_SIZE_SETTING, this::setMaxBufferedAggsSize);
+    }
+
+    private void setMaxBufferedAggsSize(ByteSizeValue maxBufferedAggsSize) {
+        this.maxBufferedAggsBytes = maxBufferedAggsSize.getBytes();
+    }
+
+    /**
+     * Returns a rough estimate of the heap used by the given aggregation results, based on their number of aggregations and buckets.
+     */
+    static long estimateSize(InternalAggregations aggregations) {
+        if (aggregations == null) {
+            return 0;
+        }
+        long size = 0;
+        for (Aggregation aggregation : aggregations.asList()) {
+            size += ESTIMATED_AGGREGATION_BYTES
+                + InternalMultiBucketAggregation.countInnerBucket(aggregation) * ESTIMATED_BUCKET_BYTES;
+        }
+        return size;
     }
 
     public AggregatedDfs aggregateDfs(Collection<DfsSearchResult> results) {
@@ -563,7 +620,8 @@ public final class SearchPhaseController {
      * A {@link InitialSearchPhase.ArraySearchPhaseResults} implementation
      * that incrementally reduces aggregation results as shard results are consumed.
      * This implementation can be configured to batch up a certain amount of results and only reduce them
-     * iff the buffer is exhausted.
+     * iff the buffer is exhausted. Buffered aggregation results are also reduced once their estimated size exceeds
+     * {@link #MAX_BUFFERED_AGGS_SIZE_SETTING} or the room left in the request circuit breaker.
      */
     static final class QueryPhaseResultConsumer extends InitialSearchPhase.ArraySearchPhaseResults<SearchPhaseResult> {
         private final InternalAggregations[] aggsBuffer;
@@ -576,6 +634,10 @@ public final class SearchPhaseController {
         private int numReducePhases = 0;
         private final TopDocsStats topDocsStats;
         private final boolean performFinalReduce;
+        private final long maxBufferedAggsBytes;
+        // the estimated size of the aggregation results buffered since the last partial reduce, and of the result of that reduce
+        private long bufferedAggsBytes;
+        private long reducedAggsBytes;
 
         /**
          * Creates a new {@link QueryPhaseResultConsumer}
@@ -605,6 +667,7 @@ public final class SearchPhaseController {
             this.bufferSize = bufferSize;
             this.topDocsStats = new TopDocsStats(trackTotalHitsUpTo);
             this.performFinalReduce = performFinalReduce;
+            this.maxBufferedAggsBytes = controller.maxBufferedAggsBytes;
         }
 
         @Override
@@ -615,15 +678,20 @@ public final class SearchPhaseController {
         }
 
         private synchronized void consumeInternal(QuerySearchResult querySearchResult) {
-            if (index == bufferSize) {
+            final InternalAggregations aggs = hasAggs ? (InternalAggregations) querySearchResult.consumeAggs() : null;
+            final long aggsBytes = estimateSize(aggs);
+            if (index == bufferSize || (index >= 2 && canBufferAggs(aggsBytes) == false)) {
                 if (hasAggs) {
                     ReduceContext reduceContext = controller.reduceContextFunction.apply(false);
-                    InternalAggregations reducedAggs = InternalAggregations.reduce(Arrays.asList(aggsBuffer), reduceContext);
+                    InternalAggregations reducedAggs = InternalAggregations.reduce(Arrays.asList(aggsBuffer).subList(0, index),
+                        reduceContext);
                     Arrays.fill(aggsBuffer, null);
                     aggsBuffer[0] = reducedAggs;
+                    reducedAggsBytes = estimateSize(reducedAggs);
+                    bufferedAggsBytes = 0;
                 }
                 if (hasTopDocs) {
-                    TopDocs reducedTopDocs = mergeTopDocs(Arrays.asList(topDocsBuffer),
+                    TopDocs reducedTopDocs = mergeTopDocs(Arrays.asList(topDocsBuffer).subList(0, index),
                         // we have to merge here in the same way we collect on a shard
                         querySearchResult.from() + querySearchResult.size(), 0);
                     Arrays.fill(topDocsBuffer, null);
@@ -634,7 +702,8 @@ public final class SearchPhaseController {
             }
             final int i = index++;
             if (hasAggs) {
-                aggsBuffer[i] = (InternalAggregations) querySearchResult.consumeAggs();
+                aggsBuffer[i] = aggs;
+                bufferedAggsBytes += aggsBytes;
             }
             if (hasTopDocs) {
                 final TopDocsAndMaxScore topDocs = querySearchResult.consumeTopDocs(); // can't be null
@@ -644,6 +713,24 @@ public final class SearchPhaseController {
             }
         }
 
+        /**
+         * Returns whether the given aggregation results can be buffered without reducing the ones that are already buffered. Only the
+         * results received since the last partial reduce count towards {@link #MAX_BUFFERED_AGGS_SIZE_SETTING} so that every
+         * reduce merges a significant amount of new results, but all buffered results must fit in the request circuit breaker.
+         */
+        private boolean canBufferAggs(long aggsBytes) {
+            if (hasAggs == false) {
+                return true;
+            }
+            if (bufferedAggsBytes + aggsBytes > maxBufferedAggsBytes) {
+                return false;
+            }
+            final CircuitBreaker breaker = controller.requestBreaker;
+            final long limit = breaker.getLimit();
+            final long bytes = reducedAggsBytes + bufferedAggsBytes + aggsBytes;
+            return limit < 0 || breaker.getUsed() + (long) (bytes * breaker.getOverhead()) <= limit;
+        }
+
         private synchronized List<InternalAggregations> getRemainingAggs() {
             return hasAggs ? Arrays.asList(aggsBuffer).subList(0, index) : null;
         }
@@ -540,8 +540,9 @@ public class TransportSearchAction extends HandledTransportAction<SearchRequest,
                                                        GroupShardsIterator<SearchShardIterator> shardIterators) {
         SearchSourceBuilder source = searchRequest.source();
         return searchRequest.searchType() == QUERY_THEN_FETCH && // we can't do this for DFS it needs to fan out to all shards all the time
-                SearchService.canRewriteToMatchNone(source) &&
-                searchRequest.getPreFilterShardSize() < shardIterators.size();
+                ((SearchService.canRewriteToMatchNone(source) && searchRequest.getPreFilterShardSize() < shardIterators.size())
+                    // skipping the shards that have no documents after the search_after values is worth the extra round trip
+                    || (SearchService.canSkipShardsWithSearchAfter(source) && shardIterators.size() > 1));
     }
 
     static GroupShardsIterator<SearchShardIterator> mergeShardsIterators(GroupShardsIterator<ShardIterator> localShardsIterator,
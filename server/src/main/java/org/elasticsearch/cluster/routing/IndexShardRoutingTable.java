@@ -263,15 +263,15 @@ public class IndexShardRoutingTable implements Iterable<ShardRouting> {
         final int seed = shuffler.nextSeed();
         if (allInitializingShards.isEmpty()) {
             return new PlainShardIterator(shardId,
-                    rankShardsAndUpdateStats(shuffler.shuffle(activeShards, seed), collector, nodeSearchCounts));
+                    rankShardsAndUpdateStats(shuffler.shuffle(activeShards, seed), shardId, collector, nodeSearchCounts));
         }
 
         ArrayList<ShardRouting> ordered = new ArrayList<>(activeShards.size() + allInitializingShards.size());
         List<ShardRouting> rankedActiveShards =
-                rankShardsAndUpdateStats(shuffler.shuffle(activeShards, seed), collector, nodeSearchCounts);
+                rankShardsAndUpdateStats(shuffler.shuffle(activeShards, seed), shardId, collector, nodeSearchCounts);
         ordered.addAll(rankedActiveShards);
         List<ShardRouting> rankedInitializingShards =
-                rankShardsAndUpdateStats(allInitializingShards, collector, nodeSearchCounts);
+                rankShardsAndUpdateStats(allInitializingShards, shardId, collector, nodeSearchCounts);
         ordered.addAll(rankedInitializingShards);
         return new PlainShardIterator(shardId, ordered);
     }
@@ -285,11 +285,11 @@ public class IndexShardRoutingTable implements Iterable<ShardRouting> {
     }
 
     private static Map<String, Optional<ResponseCollectorService.ComputedNodeStats>>
-        getNodeStats(final Set<String> nodeIds, final ResponseCollectorService collector) {
+        getNodeStats(final Set<String> nodeIds, final ShardId shardId, final ResponseCollectorService collector) {
 
         final Map<String, Optional<ResponseCollectorService.ComputedNodeStats>> nodeStats = new HashMap<>(nodeIds.size());
         for (String nodeId : nodeIds) {
-            nodeStats.put(nodeId, collector.getNodeStatistics(nodeId));
+            nodeStats.put(nodeId, collector.getNodeStatistics(nodeId, shardId));
         }
         return nodeStats;
     }
@@ -316,10 +316,12 @@ public class IndexShardRoutingTable implements Iterable<ShardRouting> {
      *
      * This adjustment takes the "winning" node's statistics and adds the average of those statistics with each non-winning node. Let's say
      * the winning node had a queue size of 10 and a non-winning node had a queue of 18. The average queue size is (10 + 18) / 2 = 14 so the
-     * non-winning node will have statistics added for a queue size of 14. This is repeated for the response time and service times as well.
+     * non-winning node will have statistics added for a queue size of 14. This is repeated for the response time, service time and cpu
+     * usage, and for the response time of the ranked shard, as well.
      */
     private static void adjustStats(final ResponseCollectorService collector,
                                     final Map<String, Optional<ResponseCollectorService.ComputedNodeStats>> nodeStats,
+                                    final ShardId shardId,
                                     final String minNodeId,
                                     final ResponseCollectorService.ComputedNodeStats minStats) {
         if (minNodeId != null) {
@@ -331,13 +333,21 @@ public class IndexShardRoutingTable implements Iterable<ShardRouting> {
                     final int updatedQueue = (minStats.queueSize + stats.queueSize) / 2;
                     final long updatedResponse = (long) (minStats.responseTime + stats.responseTime) / 2;
                     final long updatedService = (long) (minStats.serviceTime + stats.serviceTime) / 2;
-                    collector.addNodeStatistics(nodeId, updatedQueue, updatedResponse, updatedService);
+                    final int updatedCpu = minStats.cpuPercent < 0 || stats.cpuPercent < 0
+                        ? -1 : (int) (minStats.cpuPercent + stats.cpuPercent) / 2;
+                    collector.addNodeStatistics(nodeId, null, updatedQueue, updatedResponse, updatedService, updatedCpu);
+                    if (minStats.shardResponseTime >= 0 && stats.shardResponseTime >= 0) {
+                        // only adjusts the response time of the shard, the other statistics were adjusted above
+                        final long updatedShardResponse = (long) (minStats.shardResponseTime + stats.shardResponseTime) / 2;
+                        collector.addShardResponseTime(nodeId, shardId, updatedShardResponse);
+                    }
                 }
             }
         }
     }
 
-    private static List<ShardRouting> rankShardsAndUpdateStats(List<ShardRouting> shards, final ResponseCollectorService collector,
+    private static List<ShardRouting> rankShardsAndUpdateStats(List<ShardRouting> shards, final ShardId shardId,
+                                                               final ResponseCollectorService collector,
                                                                final Map<String, Long> nodeSearchCounts) {
         if (collector == null || nodeSearchCounts == null || shards.size() <= 1) {
             return shards;
@@ -345,7 +355,7 @@ public class IndexShardRoutingTable implements Iterable<ShardRouting> {
 
         // Retrieve which nodes we can potentially send the query to
         final Set<String> nodeIds = getAllNodeIds(shards);
-        final Map<String, Optional<ResponseCollectorService.ComputedNodeStats>> nodeStats = getNodeStats(nodeIds, collector);
+        final Map<String, Optional<ResponseCollectorService.ComputedNodeStats>> nodeStats = getNodeStats(nodeIds, shardId, collector);
 
         // Retrieve all the nodes the shards exist on
         final Map<String, Double> nodeRanks = rankNodes(nodeStats, nodeSearchCounts);
@@ -363,7 +373,7 @@ public class IndexShardRoutingTable implements Iterable<ShardRouting> {
                 String minNodeId = minShard.currentNodeId();
                 Optional<ResponseCollectorService.ComputedNodeStats> maybeMinStats = nodeStats.get(minNodeId);
                 if (maybeMinStats.isPresent()) {
-                    adjustStats(collector, nodeStats, minNodeId, maybeMinStats.get());
+                    adjustStats(collector, nodeStats, shardId, minNodeId, maybeMinStats.get());
                     // Increase the number of searches for the "winning" node by one.
                     // Note that this doesn't actually affect the "real" counts, instead
                     // it only affects the captured node search counts, which is
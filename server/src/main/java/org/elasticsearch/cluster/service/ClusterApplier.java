@@ -39,6 +39,11 @@ public interface ClusterApplier {
      */
     void onNewClusterState(String source, Supplier<ClusterState> clusterStateSupplier, ClusterApplyListener listener);
 
+    /**
+     * Returns how long the steps of applying the cluster states took so far
+     */
+    ClusterApplierRecordingService.Stats getStats();
+
     /**
      * Listener for results of cluster state application
      */
@@ -0,0 +1,239 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.cluster.service;
+
+import org.elasticsearch.common.collect.Tuple;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.common.io.stream.Writeable;
+import org.elasticsearch.common.lease.Releasable;
+import org.elasticsearch.common.metrics.MeanMetric;
+import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.common.xcontent.ToXContentFragment;
+import org.elasticsearch.common.xcontent.XContentBuilder;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.LongSupplier;
+
+/**
+ * Keeps track of how often and for how long each step of applying a cluster state ran: connecting to the nodes, applying the
+ * settings, and calling each of the {@link org.elasticsearch.cluster.ClusterStateApplier}s and
+ * {@link org.elasticsearch.cluster.ClusterStateListener}s. Appliers and listeners are identified by their class name, so that
+ * the instances of the same class, like the listeners of cluster state observers, share a single recording.
+ */
+public final class ClusterApplierRecordingService {
+
+    private final Map<String, MeanMetric> recordedActions = new HashMap<>();
+
+    synchronized Stats getStats() {
+        final List<Map.Entry<String, MeanMetric>> entries = new ArrayList<>(recordedActions.entrySet());
+        // most expensive steps first
+        entries.sort((e1, e2) -> Long.compare(e2.getValue().sum(), e1.getValue().sum()));
+        final Map<String, Recording> recordings = new LinkedHashMap<>();
+        for (Map.Entry<String, MeanMetric> entry : entries) {
+            recordings.put(entry.getKey(), new Recording(entry.getValue().count(), entry.getValue().sum()));
+        }
+        return new Stats(recordings);
+    }
+
+    synchronized void updateStats(Recorder recorder) {
+        for (Tuple<String, Long> recording : recorder.getRecordings()) {
+            recordedActions.computeIfAbsent(recording.v1(), k -> new MeanMetric()).inc(recording.v2());
+        }
+    }
+
+    /**
+     * Records the time spent in the steps of applying a single cluster state. Not thread safe, a recorder is meant to be used by
+     * the cluster applier thread only.
+     */
+    static final class Recorder {
+
+        private final LongSupplier currentTimeInNanos;
+        private final List<Tuple<String, Long>> recordings = new ArrayList<>();
+        private String currentAction;
+        private long startTimeNanos;
+
+        Recorder(LongSupplier currentTimeInNanos) {
+            this.currentTimeInNanos = currentTimeInNanos;
+        }
+
+        /**
+         * Starts recording the given step, the returned {@link Releasable} must be closed once the step is done.
+         */
+        Releasable record(String action) {
+            assert currentAction == null : "step [" + currentAction + "] is still being recorded, cannot record [" + action + "]";
+            currentAction = Objects.requireNonNull(action);
+            startTimeNanos = currentTimeInNanos.getAsLong();
+            return this::stop;
+        }
+
+        private void stop() {
+            assert currentAction != null : "no step is being recorded";
+            final long elapsedMillis = Math.max(0, TimeValue.nsecToMSec(currentTimeInNanos.getAsLong() - startTimeNanos));
+            recordings.add(new Tuple<>(currentAction, elapsedMillis));
+            currentAction = null;
+        }
+
+        /**
+         * Returns a name for the given applier or listener that is stable across instances of the same class, lambdas included.
+         */
+        static String nameOf(Object applierOrListener) {
+            final String name = applierOrListener.getClass().getName();
+            final int lambda = name.indexOf("$$Lambda");
+            return lambda == -1 ? name : name.substring(0, lambda);
+        }
+
+        List<Tuple<String, Long>> getRecordings() {
+            return recordings;
+        }
+    }
+
+    /**
+     * The cumulative execution counts and times of the steps of applying cluster states, see {@link ClusterApplierRecordingService}.
+     */
+    public static final class Stats implements Writeable, ToXContentFragment {
+
+        private final Map<String, Recording> recordings;
+
+        public Stats(Map<String, Recording> recordings) {
+            this.recordings = Collections.unmodifiableMap(new LinkedHashMap<>(recordings));
+        }
+
+        public Stats(StreamInput in) throws IOException {
+            final int size = in.readVInt();
+            final Map<String, Recording> recordings = new LinkedHashMap<>(size);
+            for (int i = 0; i < size; i++) {
+                recordings.put(in.readString(), new Recording(in));
+            }
+            this.recordings = Collections.unmodifiableMap(recordings);
+        }
+
+        /**
+         * The recordings by step name, the most expensive step first.
+         */
+        public Map<String, Recording> getRecordings() {
+            return recordings;
+        }
+
+        @Override
+        public void writeTo(StreamOutput out) throws IOException {
+            out.writeVInt(recordings.size());
+            for (Map.Entry<String, Recording> entry : recordings.entrySet()) {
+                out.writeString(entry.getKey());
+                entry.getValue().writeTo(out);
+            }
+        }
+
+        @Override
+        public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
+            builder.startObject("cluster_applier_stats");
+            builder.startArray("recordings");
+            for (Map.Entry<String, Recording> entry : recordings.entrySet()) {
+                builder.startObject();
+                builder.field("name", entry.getKey());
+                entry.getValue().toXContent(builder, params);
+                builder.endObject();
+            }
+            builder.endArray();
+            builder.endObject();
+            return builder;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Stats stats = (Stats) o;
+            return recordings.equals(stats.recordings);
+        }
+
+        @Override
+        public int hashCode() {
+            return recordings.hashCode();
+        }
+    }
+
+    /**
+     * How many times a step ran, and how long it took in total.
+     */
+    public static final class Recording implements Writeable, ToXContentFragment {
+
+        private final long count;
+        private final long sum;
+
+        public Recording(long count, long sum) {
+            this.count = count;
+            this.sum = sum;
+        }
+
+        public Recording(StreamInput in) throws IOException {
+            this(in.readVLong(), in.readVLong());
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        /**
+         * The total execution time in milliseconds.
+         */
+        public long getSum() {
+            return sum;
+        }
+
+        @Override
+        public void writeTo(StreamOutput out) throws IOException {
+            out.writeVLong(count);
+            out.writeVLong(sum);
+        }
+
+        @Override
+        public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
+            builder.field("cumulative_execution_count", count);
+            builder.humanReadableField("cumulative_execution_time_millis", "cumulative_execution_time", new TimeValue(sum));
+            return builder;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Recording recording = (Recording) o;
+            return count == recording.count && sum == recording.sum;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(count, sum);
+        }
+
+        @Override
+        public String toString() {
+            return "Recording{count=" + count + ", sum=" + sum + "}";
+        }
+    }
+}
@@ -36,6 +36,7 @@ import org.elasticsearch.cluster.node.DiscoveryNodes;
 import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.Priority;
 import org.elasticsearch.common.component.AbstractLifecycleComponent;
+import org.elasticsearch.common.lease.Releasable;
 import org.elasticsearch.common.settings.ClusterSettings;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.unit.TimeValue;
@@ -100,6 +101,8 @@ public class ClusterApplierService extends AbstractLifecycleComponent implements
 
     private NodeConnectionsService nodeConnectionsService;
 
+    private final ClusterApplierRecordingService recordingService = new ClusterApplierRecordingService();
+
     public ClusterApplierService(String nodeName, Settings settings, ClusterSettings clusterSettings, ThreadPool threadPool) {
         this.clusterSettings = clusterSettings;
         this.threadPool = threadPool;
@@ -409,8 +412,10 @@ public class ClusterApplierService extends AbstractLifecycleComponent implements
             } else {
                 logger.debug("cluster state updated, version [{}], source [{}]", newClusterState.version(), task.source);
             }
+            final ClusterApplierRecordingService.Recorder recorder =
+                new ClusterApplierRecordingService.Recorder(this::currentTimeInNanos);
             try {
-                applyChanges(task, previousClusterState, newClusterState);
+                applyChanges(task, previousClusterState, newClusterState, recorder);
                 TimeValue executionTime = TimeValue.timeValueMillis(Math.max(0, TimeValue.nsecToMSec(currentTimeInNanos() - startTimeNS)));
                 logger.debug("processing [{}]: took [{}] done applying updated cluster state (version: {}, uuid: {})", task.source,
                     executionTime, newClusterState.version(),
@@ -429,11 +434,14 @@ public class ClusterApplierService extends AbstractLifecycleComponent implements
                             executionTime, newClusterState.version(), newClusterState.stateUUID(), task.source), e);
                 }
                 task.listener.onFailure(task.source, e);
+            } finally {
+                recordingService.updateStats(recorder);
             }
         }
     }
 
-    private void applyChanges(UpdateTask task, ClusterState previousClusterState, ClusterState newClusterState) {
+    private void applyChanges(UpdateTask task, ClusterState previousClusterState, ClusterState newClusterState,
+                              ClusterApplierRecordingService.Recorder recorder) {
         ClusterChangedEvent clusterChangedEvent = new ClusterChangedEvent(task.source, newClusterState, previousClusterState);
         // new cluster state, notify all listeners
         final DiscoveryNodes.Delta nodesDelta = clusterChangedEvent.nodesDelta();
@@ -446,19 +454,25 @@ public class ClusterApplierService extends AbstractLifecycleComponent implements
         }
 
         logger.trace("connecting to nodes of cluster state with version {}", newClusterState.version());
-        nodeConnectionsService.connectToNodes(newClusterState.nodes());
+        try (Releasable ignored = recorder.record("connecting to new nodes")) {
+            nodeConnectionsService.connectToNodes(newClusterState.nodes());
+        }
 
         // nothing to do until we actually recover from the gateway or any other block indicates we need to disable persistency
         if (clusterChangedEvent.state().blocks().disableStatePersistence() == false && clusterChangedEvent.metaDataChanged()) {
             logger.debug("applying settings from cluster state with version {}", newClusterState.version());
             final Settings incomingSettings = clusterChangedEvent.state().metaData().settings();
-            clusterSettings.applySettings(incomingSettings);
+            try (Releasable ignored = recorder.record("applying settings")) {
+                clusterSettings.applySettings(incomingSettings);
+            }
         }
 
         logger.debug("apply cluster state with version {}", newClusterState.version());
-        callClusterStateAppliers(clusterChangedEvent);
+        callClusterStateAppliers(clusterChangedEvent, recorder);
 
-        nodeConnectionsService.disconnectFromNodesExcept(newClusterState.nodes());
+        try (Releasable ignored = recorder.record("disconnecting from old nodes")) {
+            nodeConnectionsService.disconnectFromNodesExcept(newClusterState.nodes());
+        }
 
         assert newClusterState.coordinationMetaData().getLastAcceptedConfiguration()
             .equals(newClusterState.coordinationMetaData().getLastCommittedConfiguration())
@@ -469,19 +483,23 @@ public class ClusterApplierService extends AbstractLifecycleComponent implements
         logger.debug("set locally applied cluster state to version {}", newClusterState.version());
         state.set(newClusterState);
 
-        callClusterStateListeners(clusterChangedEvent);
+        callClusterStateListeners(clusterChangedEvent, recorder);
     }
 
-    private void callClusterStateAppliers(ClusterChangedEvent clusterChangedEvent) {
+    private void callClusterStateAppliers(ClusterChangedEvent clusterChangedEvent, ClusterApplierRecordingService.Recorder recorder) {
         clusterStateAppliers.forEach(applier -> {
             logger.trace("calling [{}] with change to version [{}]", applier, clusterChangedEvent.state().version());
-            applier.applyClusterState(clusterChangedEvent);
+            final String name = ClusterApplierRecordingService.Recorder.nameOf(applier);
+            try (Releasable ignored = recorder.record("running applier [" + name + "]")) {
+                applier.applyClusterState(clusterChangedEvent);
+            }
         });
     }
 
-    private void callClusterStateListeners(ClusterChangedEvent clusterChangedEvent) {
+    private void callClusterStateListeners(ClusterChangedEvent clusterChangedEvent, ClusterApplierRecordingService.Recorder recorder) {
         Stream.concat(clusterStateListeners.stream(), timeoutClusterStateListeners.stream()).forEach(listener -> {
-            try {
+            final String name = ClusterApplierRecordingService.Recorder.nameOf(listener);
+            try (Releasable ignored = recorder.record("notifying listener [" + name + "]")) {
                 logger.trace("calling [{}] with change to version [{}]", listener, clusterChangedEvent.state().version());
                 listener.clusterChanged(clusterChangedEvent);
             } catch (Exception ex) {
@@ -521,6 +539,11 @@ public class ClusterApplierService extends AbstractLifecycleComponent implements
         }
     }
 
+    @Override
+    public ClusterApplierRecordingService.Stats getStats() {
+        return recordingService.getStats();
+    }
+
     protected void warnAboutSlowTaskIfNeeded(TimeValue executionTime, String source) {
         if (executionTime.getMillis() > slowTaskLoggingThreshold.getMillis()) {
             logger.warn("cluster state applier task [{}] took [{}] which is above the warn threshold of {}", source, executionTime,
@@ -93,8 +93,12 @@ public class PagedBytesReference extends BytesReference {
             @Override
             public BytesRef next() throws IOException {
                 if (nextFragmentSize != 0) {
-                    final boolean materialized = byteArray.get(offset + position, nextFragmentSize, slice);
-                    assert materialized == false : "iteration should be page aligned but array got materialized";
+                    assert (offset + position) / PAGE_SIZE == (offset + position + nextFragmentSize - 1) / PAGE_SIZE
+                        : "iteration should be page aligned but fragment spans several pages";
+                    // arrays without heap pages copy the fragment into the bytes of the slice, which must not be shared with the
+                    // fragments that were already returned
+                    slice.bytes = BytesRef.EMPTY_BYTES;
+                    byteArray.get(offset + position, nextFragmentSize, slice);
                     position += nextFragmentSize;
                     final int remaining = length - position;
                     nextFragmentSize = Math.min(remaining, PAGE_SIZE);
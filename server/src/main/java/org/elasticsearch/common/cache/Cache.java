@@ -52,17 +52,20 @@ import java.util.function.ToLongBiFunction;
  * if they are reading a segment that a writer is writing to).
  * <p>
  * The LRU functionality is backed by a single doubly-linked list chaining the entries in order of insertion. This
- * LRU list is protected by a lock that serializes all writes to it. There are opportunities for improvements
- * here if write throughput is a concern.
- * <ol>
- * <li>LRU list mutations could be inserted into a blocking queue that a single thread is reading from
- * and applying to the LRU list.</li>
- * <li>Promotions could be deferred for entries that were "recently" promoted.</li>
- * <li>Locks on the list could be taken per node being modified instead of globally.</li>
- * </ol>
+ * LRU list is protected by a lock that serializes all writes to it. How cache hits interact with this lock depends on the
+ * {@link EvictionPolicy}:
+ * <ul>
+ * <li>{@link EvictionPolicy#LRU} (the default) promotes an entry to the head of the list on every hit, so every hit
+ * acquires the LRU lock.</li>
+ * <li>{@link EvictionPolicy#TINY_LFU} records hits in a lossy, striped buffer and replays them against the LRU list in
+ * batches by whichever thread manages to acquire the LRU lock without waiting, so hits never block on the LRU lock. The
+ * replayed hits also feed a frequency sketch that is used as an admission filter: when the cache exceeds its maximum
+ * weight, a newly inserted entry that has been requested less often than the least recently used entry is evicted in
+ * place of it. This keeps one-off scans from flushing frequently used entries out of the cache.</li>
+ * </ul>
  * <p>
  * Evictions only occur after a mutation to the cache (meaning an entry promotion, a cache insertion, or a manual
- * invalidation) or an explicit call to {@link #refresh()}.
+ * invalidation), after buffered hits are drained or after an explicit call to {@link #refresh()}.
  *
  * @param <K> The type of the keys
  * @param <V> The type of the values
@@ -97,6 +100,15 @@ public class Cache<K, V> {
     private RemovalListener<K, V> removalListener = notification -> {
     };
 
+    // the policy used to order entries for eviction
+    private EvictionPolicy evictionPolicy = EvictionPolicy.LRU;
+
+    // buffered hits awaiting promotion, non-null iff the eviction policy is TINY_LFU
+    private ReadBuffer<Entry<K, V>> readBuffer;
+
+    // the access frequencies used for admission, non-null iff the eviction policy is TINY_LFU
+    private FrequencySketch frequencySketch;
+
     // use CacheBuilder to construct
     Cache() {
     }
@@ -144,6 +156,23 @@ public class Cache<K, V> {
         this.removalListener = removalListener;
     }
 
+    void setEvictionPolicy(EvictionPolicy evictionPolicy) {
+        Objects.requireNonNull(evictionPolicy);
+        this.evictionPolicy = evictionPolicy;
+        if (evictionPolicy == EvictionPolicy.TINY_LFU) {
+            this.readBuffer = new ReadBuffer<>(ReadBuffer.defaultNumberOfStripes());
+            this.frequencySketch = new FrequencySketch();
+        } else {
+            this.readBuffer = null;
+            this.frequencySketch = null;
+        }
+    }
+
+    // pkg-private for testing
+    EvictionPolicy getEvictionPolicy() {
+        return this.evictionPolicy;
+    }
+
     /**
      * The relative time used to track time-based evictions.
      *
@@ -155,6 +184,21 @@ public class Cache<K, V> {
         return entriesExpireAfterAccess || entriesExpireAfterWrite ? System.nanoTime() : 0;
     }
 
+    /**
+     * The policy used to decide which entries to evict when the cache exceeds its maximum weight.
+     */
+    public enum EvictionPolicy {
+        /**
+         * Evicts the least recently used entry, promoting entries to the head of the LRU list on every hit.
+         */
+        LRU,
+        /**
+         * Evicts approximately the least recently used entry, promoting entries in batches of buffered hits, and rejects new
+         * entries that are accessed less frequently than the entry they would displace.
+         */
+        TINY_LFU
+    }
+
     // the state of an entry in the LRU list
     enum State {
         NEW, EXISTING, DELETED
@@ -366,11 +410,42 @@ public class Cache<K, V> {
         if (entry == null) {
             return null;
         } else {
-            promote(entry, now);
+            if (readBuffer != null) {
+                recordHit(entry, now);
+            } else {
+                promote(entry, now);
+            }
             return entry.value;
         }
     }
 
+    /**
+     * Buffers a hit for later promotion, draining the buffered hits if the buffer is full and nobody else holds the LRU lock.
+     */
+    private void recordHit(Entry<K, V> entry, long now) {
+        if (readBuffer.offer(entry) && lruLock.tryAcquire()) {
+            try {
+                drainReadBuffer();
+                evict(now);
+            } finally {
+                lruLock.close();
+            }
+        }
+    }
+
+    private void drainReadBuffer() {
+        assert lruLock.isHeldByCurrentThread();
+
+        if (readBuffer != null) {
+            readBuffer.drain(entry -> {
+                frequencySketch.increment(entry.key.hashCode());
+                if (entry.state == State.EXISTING) {
+                    relinkAtHead(entry);
+                }
+            });
+        }
+    }
+
     /**
      * If the specified key is not already associated with a value (or is mapped to null), attempts to compute its
      * value using the given mapping function and enters it into this map unless null. The load method for a given key
@@ -571,6 +646,7 @@ public class Cache<K, V> {
     public void refresh() {
         long now = now();
         try (ReleasableLock ignored = lruLock.acquire()) {
+            drainReadBuffer();
             evict(now);
         }
     }
@@ -596,7 +672,8 @@ public class Cache<K, V> {
     /**
      * An LRU sequencing of the keys in the cache that supports removal. This sequence is not protected from mutations
      * to the cache (except for {@link Iterator#remove()}. The result of iteration under any other mutation is
-     * undefined.
+     * undefined. With {@link EvictionPolicy#TINY_LFU} the sequence only reflects hits that have already been drained
+     * from the read buffer.
      *
      * @return an LRU-ordered {@link Iterable} over the keys in the cache
      */
@@ -729,6 +806,8 @@ public class Cache<K, V> {
     private boolean promote(Entry<K, V> entry, long now) {
         boolean promoted = true;
         try (ReleasableLock ignored = lruLock.acquire()) {
+            drainReadBuffer();
+            Entry<K, V> candidate = null;
             switch (entry.state) {
                 case DELETED:
                     promoted = false;
@@ -738,20 +817,42 @@ public class Cache<K, V> {
                     break;
                 case NEW:
                     linkAtHead(entry);
+                    if (frequencySketch != null) {
+                        frequencySketch.ensureCapacity(count);
+                        frequencySketch.increment(entry.key.hashCode());
+                        candidate = entry;
+                    }
                     break;
             }
             if (promoted) {
-                evict(now);
+                evict(now, candidate);
             }
         }
         return promoted;
     }
 
     private void evict(long now) {
+        evict(now, null);
+    }
+
+    /**
+     * Evicts entries from the tail of the LRU list while the cache is over its maximum weight or the tail is expired.
+     *
+     * @param now       the current relative time
+     * @param candidate an entry that was just inserted and that is subject to admission, or null
+     */
+    private void evict(long now, Entry<K, V> candidate) {
         assert lruLock.isHeldByCurrentThread();
 
         while (tail != null && shouldPrune(tail, now)) {
-            evictEntry(tail);
+            if (candidate != null && candidate != tail && candidate.state == State.EXISTING && isExpired(tail, now) == false
+                && frequencySketch.frequency(candidate.key.hashCode()) < frequencySketch.frequency(tail.key.hashCode())) {
+                // the new entry is less popular than the one it would displace, so reject it instead
+                evictEntry(candidate);
+                candidate = null;
+            } else {
+                evictEntry(tail);
+            }
         }
     }
 
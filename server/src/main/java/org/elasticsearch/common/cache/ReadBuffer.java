@@ -0,0 +1,119 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.common.cache;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * A lossy, striped buffer of read events used by {@link Cache} to record hits without taking the LRU lock.
+ * <p>
+ * Readers are spread over a number of stripes by thread id; each stripe is a small ring buffer that accepts events with a
+ * single compare-and-set. If a stripe is full or the compare-and-set is contended the event is simply dropped: losing some
+ * promotions only makes the LRU order slightly less precise, whereas blocking would put the lock back on the read path.
+ * Events are consumed in batches by {@link #drain(Consumer)}, which must only be called by one thread at a time.
+ *
+ * @param <E> the type of the buffered events
+ */
+final class ReadBuffer<E> {
+
+    static final int STRIPE_SIZE = 16;
+    private static final int STRIPE_MASK = STRIPE_SIZE - 1;
+
+    private static final class Stripe<E> {
+        final AtomicReferenceArray<E> buffer = new AtomicReferenceArray<>(STRIPE_SIZE);
+        final AtomicLong writeCounter = new AtomicLong();
+        // only written by the draining thread
+        volatile long readCounter;
+    }
+
+    private final Stripe<E>[] stripes;
+    private final int stripesMask;
+
+    @SuppressWarnings("unchecked")
+    ReadBuffer(int numberOfStripes) {
+        if (numberOfStripes <= 0 || Integer.bitCount(numberOfStripes) != 1) {
+            throw new IllegalArgumentException("number of stripes must be a positive power of two but was [" + numberOfStripes + "]");
+        }
+        stripes = new Stripe[numberOfStripes];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new Stripe<>();
+        }
+        stripesMask = numberOfStripes - 1;
+    }
+
+    /**
+     * Returns a number of stripes suitable for the number of available processors.
+     */
+    static int defaultNumberOfStripes() {
+        final int processors = Math.min(Runtime.getRuntime().availableProcessors(), 64);
+        return Integer.highestOneBit(processors * 2 - 1) * 2;
+    }
+
+    /**
+     * Records an event, dropping it if the buffer is full or contended.
+     *
+     * @param event the event to record
+     * @return {@code true} if the stripe of the calling thread is full and should be drained
+     */
+    boolean offer(E event) {
+        final Stripe<E> stripe = stripes[stripeIndex()];
+        final long readCounter = stripe.readCounter;
+        final long writeCounter = stripe.writeCounter.get();
+        final long size = writeCounter - readCounter;
+        if (size >= STRIPE_SIZE) {
+            return true;
+        }
+        if (stripe.writeCounter.compareAndSet(writeCounter, writeCounter + 1)) {
+            stripe.buffer.lazySet((int) (writeCounter & STRIPE_MASK), event);
+            return size + 1 >= STRIPE_SIZE;
+        }
+        return false;
+    }
+
+    /**
+     * Hands all buffered events to the given consumer, emptying the buffer. Callers must ensure that at most one thread drains
+     * at a time.
+     *
+     * @param consumer the consumer of the buffered events
+     */
+    void drain(Consumer<E> consumer) {
+        for (Stripe<E> stripe : stripes) {
+            long readCounter = stripe.readCounter;
+            final long writeCounter = stripe.writeCounter.get();
+            for (; readCounter < writeCounter; readCounter++) {
+                final int index = (int) (readCounter & STRIPE_MASK);
+                final E event = stripe.buffer.get(index);
+                if (event == null) {
+                    // the writer claimed this slot but has not published its event yet; pick it up on the next drain
+                    break;
+                }
+                stripe.buffer.lazySet(index, null);
+                consumer.accept(event);
+            }
+            stripe.readCounter = readCounter;
+        }
+    }
+
+    private int stripeIndex() {
+        return Long.hashCode(Thread.currentThread().getId()) & stripesMask;
+    }
+}
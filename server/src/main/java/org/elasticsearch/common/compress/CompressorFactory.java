@@ -28,25 +28,71 @@ import org.elasticsearch.common.xcontent.XContentType;
 import org.elasticsearch.core.internal.io.Streams;
 
 import java.io.IOException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 
 public class CompressorFactory {
 
+    /**
+     * The default compressor. This is used for everything that is persisted or that may be read by nodes that do not know about
+     * other compression schemes, so it must remain DEFLATE.
+     */
     public static final Compressor COMPRESSOR = new DeflateCompressor();
 
+    /**
+     * A compressor that is much cheaper on CPU than {@link #COMPRESSOR} at the cost of a lower compression ratio.
+     */
+    public static final Compressor LZ4 = new LZ4Compressor();
+
+    // all the compressors that can be detected on read, by scheme name
+    private static final Map<String, Compressor> COMPRESSORS;
+
+    static {
+        final Map<String, Compressor> compressors = new LinkedHashMap<>();
+        compressors.put("deflate", COMPRESSOR);
+        compressors.put("lz4", LZ4);
+        COMPRESSORS = Collections.unmodifiableMap(compressors);
+    }
+
+    /**
+     * Returns the names of all the compression schemes that this node can decompress.
+     */
+    public static Set<String> schemes() {
+        return COMPRESSORS.keySet();
+    }
+
+    /**
+     * Returns the compressor for the given compression scheme name.
+     *
+     * @throws IllegalArgumentException if the scheme is unknown
+     */
+    public static Compressor compressor(String scheme) {
+        final Compressor compressor = COMPRESSORS.get(scheme.toLowerCase(Locale.ROOT));
+        if (compressor == null) {
+            throw new IllegalArgumentException("unknown compression scheme [" + scheme + "], must be one of " + schemes());
+        }
+        return compressor;
+    }
+
     public static boolean isCompressed(BytesReference bytes) {
         return compressor(bytes) != null;
     }
 
     @Nullable
     public static Compressor compressor(BytesReference bytes) {
-            if (COMPRESSOR.isCompressed(bytes)) {
+        for (Compressor compressor : COMPRESSORS.values()) {
+            if (compressor.isCompressed(bytes)) {
                 // bytes should be either detected as compressed or as xcontent,
                 // if we have bytes that can be either detected as compressed or
                 // as a xcontent, we have a problem
                 assert XContentHelper.xContentType(bytes) == null;
-                return COMPRESSOR;
+                return compressor;
             }
+        }
 
         XContentType contentType = XContentHelper.xContentType(bytes);
         if (contentType == null) {
@@ -0,0 +1,235 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.common.compress;
+
+import org.apache.lucene.codecs.compressing.CompressionMode;
+import org.apache.lucene.codecs.compressing.Decompressor;
+import org.apache.lucene.store.ByteArrayDataInput;
+import org.apache.lucene.store.GrowableByteArrayDataOutput;
+import org.apache.lucene.util.ArrayUtil;
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.io.stream.InputStreamStreamInput;
+import org.elasticsearch.common.io.stream.OutputStreamStreamOutput;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * {@link Compressor} implementation based on the LZ4 compression algorithm, which trades compression ratio for a much
+ * lower CPU cost than {@link DeflateCompressor}. This uses Lucene's pure Java LZ4 implementation.
+ * <p>
+ * The compressed stream is a sequence of independently compressed blocks of at most {@link #BLOCK_SIZE} bytes. Each block
+ * is written as its uncompressed length and its compressed length (both as vInts) followed by the compressed bytes. The
+ * stream is terminated by a block with an uncompressed length of {@code 0}.
+ */
+public class LZ4Compressor implements Compressor {
+
+    // An arbitrary header that we use to identify compressed streams
+    // It needs to be different from other compressors and to not be specific
+    // enough so that no stream starting with these bytes could be detected as
+    // a XContent
+    private static final byte[] HEADER = new byte[]{'L', 'Z', '4', '\0'};
+    // the amount of uncompressed bytes that are buffered and compressed together
+    static final int BLOCK_SIZE = 64 * 1024;
+
+    @Override
+    public boolean isCompressed(BytesReference bytes) {
+        if (bytes.length() < HEADER.length) {
+            return false;
+        }
+        for (int i = 0; i < HEADER.length; ++i) {
+            if (bytes.get(i) != HEADER[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public StreamInput streamInput(StreamInput in) throws IOException {
+        final byte[] headerBytes = new byte[HEADER.length];
+        int len = 0;
+        while (len < headerBytes.length) {
+            final int read = in.read(headerBytes, len, headerBytes.length - len);
+            if (read == -1) {
+                break;
+            }
+            len += read;
+        }
+        if (len != HEADER.length || Arrays.equals(headerBytes, HEADER) == false) {
+            throw new IllegalArgumentException("Input stream is not compressed with LZ4!");
+        }
+        return new InputStreamStreamInput(new BlockInputStream(in));
+    }
+
+    @Override
+    public StreamOutput streamOutput(StreamOutput out) throws IOException {
+        out.writeBytes(HEADER);
+        return new OutputStreamStreamOutput(new BlockOutputStream(out));
+    }
+
+    private static final class BlockOutputStream extends OutputStream {
+
+        private final StreamOutput out;
+        private final org.apache.lucene.codecs.compressing.Compressor compressor = CompressionMode.FAST.newCompressor();
+        private final byte[] buffer = new byte[BLOCK_SIZE];
+        private final GrowableByteArrayDataOutput compressed = new GrowableByteArrayDataOutput(BLOCK_SIZE);
+        private int length;
+        private boolean closed;
+
+        BlockOutputStream(StreamOutput out) {
+            this.out = out;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            if (length == buffer.length) {
+                writeBlock();
+            }
+            buffer[length++] = (byte) b;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            while (len > 0) {
+                if (length == buffer.length) {
+                    writeBlock();
+                }
+                final int toCopy = Math.min(len, buffer.length - length);
+                System.arraycopy(b, off, buffer, length, toCopy);
+                length += toCopy;
+                off += toCopy;
+                len -= toCopy;
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            writeBlock();
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed == false) {
+                closed = true;
+                try {
+                    writeBlock();
+                    // the end of stream marker
+                    out.writeVInt(0);
+                } finally {
+                    out.close();
+                }
+            }
+        }
+
+        private void writeBlock() throws IOException {
+            if (length == 0) {
+                return;
+            }
+            compressed.reset();
+            compressor.compress(buffer, 0, length, compressed);
+            out.writeVInt(length);
+            out.writeVInt(compressed.getPosition());
+            out.writeBytes(compressed.getBytes(), 0, compressed.getPosition());
+            length = 0;
+        }
+    }
+
+    private static final class BlockInputStream extends InputStream {
+
+        private final StreamInput in;
+        private final Decompressor decompressor = CompressionMode.FAST.newDecompressor();
+        private final BytesRef block = new BytesRef();
+        private byte[] compressed = BytesRef.EMPTY_BYTES;
+        private boolean eos;
+
+        BlockInputStream(StreamInput in) {
+            this.in = in;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (ensureAvailable() == false) {
+                return -1;
+            }
+            block.length--;
+            return block.bytes[block.offset++] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            if (ensureAvailable() == false) {
+                return -1;
+            }
+            final int toCopy = Math.min(len, block.length);
+            System.arraycopy(block.bytes, block.offset, b, off, toCopy);
+            block.offset += toCopy;
+            block.length -= toCopy;
+            return toCopy;
+        }
+
+        @Override
+        public int available() {
+            return block.length;
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+
+        /**
+         * Decompresses the next block if the current one has been fully consumed. Returns {@code false} at the end of the stream.
+         */
+        private boolean ensureAvailable() throws IOException {
+            while (block.length == 0) {
+                if (eos) {
+                    return false;
+                }
+                final int uncompressedLength = in.readVInt();
+                if (uncompressedLength == 0) {
+                    eos = true;
+                    return false;
+                }
+                if (uncompressedLength < 0 || uncompressedLength > BLOCK_SIZE) {
+                    throw new IllegalStateException("invalid LZ4 block length [" + uncompressedLength + "]");
+                }
+                final int compressedLength = in.readVInt();
+                if (compressedLength < 0) {
+                    throw new IllegalStateException("invalid LZ4 compressed block length [" + compressedLength + "]");
+                }
+                compressed = ArrayUtil.grow(compressed, compressedLength);
+                in.readBytes(compressed, 0, compressedLength);
+                decompressor.decompress(new ByteArrayDataInput(compressed, 0, compressedLength), uncompressedLength, 0,
+                    uncompressedLength, block);
+            }
+            return true;
+        }
+    }
+}
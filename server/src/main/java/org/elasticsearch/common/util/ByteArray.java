@@ -37,7 +37,8 @@ public interface ByteArray extends BigArray {
     byte set(long index, byte value);
 
     /**
-     * Get a reference to a slice.
+     * Get a reference to a slice. Implementations that materialize the slice may copy it into the existing
+     * <code>byte[]</code> of the given ref, so its previous content must not be needed anymore.
      *
      * @return <code>true</code> when a byte[] was materialized, <code>false</code> otherwise.
      */
@@ -74,10 +74,11 @@ public final class BytesRefHash extends AbstractHash {
      * Get the id associated with <code>key</code>
      */
     public long find(BytesRef key, int code) {
-        final long slot = slot(rehash(code), mask);
+        final int rehashed = rehash(code);
+        final long slot = slot(rehashed, mask);
         for (long index = slot; ; index = nextSlot(index, mask)) {
             final long id = id(index);
-            if (id == -1L || key.bytesEquals(get(id, spare))) {
+            if (id == -1L || keyEquals(id, key, rehashed)) {
                 return id;
             }
         }
@@ -99,12 +100,18 @@ public final class BytesRefHash extends AbstractHash {
                 append(id, key, code);
                 ++size;
                 return id;
-            } else if (key.bytesEquals(get(curId, spare))) {
+            } else if (keyEquals(curId, key, code)) {
                 return -1 - curId;
             }
         }
     }
 
+    private boolean keyEquals(long id, BytesRef key, int code) {
+        // comparing the cached hashes first saves reading the bytes of most colliding keys, which need to be copied when the
+        // bytes are stored off-heap
+        return hashes.get(id) == code && key.bytesEquals(get(id, spare));
+    }
+
     private void append(long id, BytesRef key, int code) {
         assert size == id;
         final long startOffset = startOffsets.get(size);
@@ -30,6 +30,8 @@ import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.unit.ByteSizeValue;
 import org.elasticsearch.common.util.concurrent.EsExecutors;
 
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.util.Arrays;
 import java.util.Locale;
 
@@ -54,6 +56,12 @@ public class PageCacheRecycler implements Releasable {
     // object pages are less useful to us so we give them a lower weight by default
     public static final Setting<Double> WEIGHT_OBJECTS_SETTING  =
         Setting.doubleSetting("cache.recycler.page.weight.objects", 0.1d, 0d, Property.NodeScope);
+    /**
+     * Whether big byte, long and double arrays store their values in direct (off-heap) pages rather than in heap pages
+     * (default: false). Direct pages are still accounted for by the circuit breaker of their {@link BigArrays}.
+     */
+    public static final Setting<Boolean> DIRECT_PAGES_SETTING =
+        Setting.boolSetting("cache.recycler.page.direct", false, Property.NodeScope);
 
     /** Page size in bytes: 16KB */
     public static final int PAGE_SIZE_IN_BYTES = 1 << 14;
@@ -66,6 +74,8 @@ public class PageCacheRecycler implements Releasable {
     private final Recycler<int[]> intPage;
     private final Recycler<long[]> longPage;
     private final Recycler<Object[]> objectPage;
+    private final Recycler<ByteBuffer> directPage;
+    private final boolean directPages;
 
     public static final PageCacheRecycler NON_RECYCLING_INSTANCE;
 
@@ -75,7 +85,7 @@ public class PageCacheRecycler implements Releasable {
 
     @Override
     public void close() {
-        Releasables.close(true, bytePage, intPage, longPage, objectPage);
+        Releasables.close(true, bytePage, intPage, longPage, objectPage, directPage);
     }
 
     public PageCacheRecycler(Settings settings) {
@@ -153,6 +163,28 @@ public class PageCacheRecycler implements Releasable {
         });
 
         assert PAGE_SIZE_IN_BYTES * (maxBytePageCount + maxIntPageCount + maxLongPageCount + maxObjectPageCount) <= limit;
+
+        // direct pages replace the byte and long pages of big arrays, so we allow caching as many of them. They do not count
+        // against the heap limit since they live outside of the heap.
+        directPages = DIRECT_PAGES_SETTING.get(settings);
+        final int maxDirectPageCount = directPages ? maxBytePageCount + maxLongPageCount : 0;
+        directPage = build(type, maxDirectPageCount, availableProcessors, new AbstractRecyclerC<ByteBuffer>() {
+            @Override
+            public ByteBuffer newInstance(int sizing) {
+                return ByteBuffer.allocateDirect(PAGE_SIZE_IN_BYTES).order(ByteOrder.nativeOrder());
+            }
+            @Override
+            public void recycle(ByteBuffer value) {
+                // nothing to do
+            }
+        });
+    }
+
+    /**
+     * Returns <code>true</code> if big arrays should use {@link #directPage(boolean) direct pages} rather than heap pages.
+     */
+    public boolean directPages() {
+        return directPages;
     }
 
     public Recycler.V<byte[]> bytePage(boolean clear) {
@@ -184,6 +216,21 @@ public class PageCacheRecycler implements Releasable {
         return objectPage.obtain();
     }
 
+    /**
+     * Returns a direct page of {@link #PAGE_SIZE_IN_BYTES} bytes in native byte order. Pages that are not retained by this
+     * recycler on release have their memory freed when the buffer is garbage collected.
+     */
+    public Recycler.V<ByteBuffer> directPage(boolean clear) {
+        final Recycler.V<ByteBuffer> v = directPage.obtain();
+        if (v.isRecycled() && clear) {
+            final ByteBuffer page = v.v();
+            for (int i = 0; i < PAGE_SIZE_IN_BYTES; i += Long.BYTES) {
+                page.putLong(i, 0L);
+            }
+        }
+        return v;
+    }
+
     private static <T> Recycler<T> build(Type type, int limit, int availableProcessors, Recycler.C<T> c) {
         final Recycler<T> recycler;
         if (limit == 0) {
@@ -57,6 +57,20 @@ public class ReleasableLock implements Releasable {
         return this;
     }
 
+    /**
+     * Acquires the lock only if it is not held by another thread at the time of invocation. If the lock was acquired it must be
+     * released by calling {@link #close()}.
+     *
+     * @return {@code true} if the lock was acquired, {@code false} otherwise
+     */
+    public boolean tryAcquire() {
+        if (lock.tryLock()) {
+            assert addCurrentThread();
+            return true;
+        }
+        return false;
+    }
+
     private boolean addCurrentThread() {
         final Integer current = holdingThreads.get();
         holdingThreads.set(current == null ? 1 : current + 1);
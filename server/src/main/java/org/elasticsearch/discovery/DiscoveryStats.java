@@ -20,6 +20,8 @@
 package org.elasticsearch.discovery;
 
 import org.elasticsearch.Version;
+import org.elasticsearch.cluster.service.ClusterApplierRecordingService;
+import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.common.io.stream.Writeable;
@@ -34,10 +36,13 @@ public class DiscoveryStats implements Writeable, ToXContentFragment {
 
     private final PendingClusterStateStats queueStats;
     private final PublishClusterStateStats publishStats;
+    private final ClusterApplierRecordingService.Stats applierRecordingStats;
 
-    public DiscoveryStats(PendingClusterStateStats queueStats, PublishClusterStateStats publishStats) {
+    public DiscoveryStats(PendingClusterStateStats queueStats, PublishClusterStateStats publishStats,
+                          @Nullable ClusterApplierRecordingService.Stats applierRecordingStats) {
         this.queueStats = queueStats;
         this.publishStats = publishStats;
+        this.applierRecordingStats = applierRecordingStats;
     }
 
     public DiscoveryStats(StreamInput in) throws IOException {
@@ -48,6 +53,12 @@ public class DiscoveryStats implements Writeable, ToXContentFragment {
         } else {
             publishStats = null;
         }
+
+        if (in.getVersion().onOrAfter(Version.V_7_1_2)) {
+            applierRecordingStats = in.readOptionalWriteable(ClusterApplierRecordingService.Stats::new);
+        } else {
+            applierRecordingStats = null;
+        }
     }
 
     @Override
@@ -57,6 +68,10 @@ public class DiscoveryStats implements Writeable, ToXContentFragment {
         if (out.getVersion().onOrAfter(Version.V_6_1_0)) {
             out.writeOptionalWriteable(publishStats);
         }
+
+        if (out.getVersion().onOrAfter(Version.V_7_1_2)) {
+            out.writeOptionalWriteable(applierRecordingStats);
+        }
     }
 
     @Override
@@ -68,6 +83,9 @@ public class DiscoveryStats implements Writeable, ToXContentFragment {
         if (publishStats != null) {
             publishStats.toXContent(builder, params);
         }
+        if (applierRecordingStats != null) {
+            applierRecordingStats.toXContent(builder, params);
+        }
         builder.endObject();
         return builder;
     }
@@ -83,4 +101,9 @@ public class DiscoveryStats implements Writeable, ToXContentFragment {
     public PublishClusterStateStats getPublishStats() {
         return publishStats;
     }
+
+    @Nullable
+    public ClusterApplierRecordingService.Stats getApplierRecordingStats() {
+        return applierRecordingStats;
+    }
 }
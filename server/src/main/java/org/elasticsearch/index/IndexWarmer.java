@@ -23,7 +23,11 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.apache.logging.log4j.message.ParameterizedMessage;
 import org.apache.lucene.index.DirectoryReader;
+import org.elasticsearch.common.collect.Tuple;
+import org.elasticsearch.common.lease.Releasable;
 import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.common.util.concurrent.ConcurrentCollections;
+import org.elasticsearch.core.internal.io.IOUtils;
 import org.elasticsearch.index.engine.Engine;
 import org.elasticsearch.index.fielddata.IndexFieldData;
 import org.elasticsearch.index.fielddata.IndexFieldDataService;
@@ -31,13 +35,16 @@ import org.elasticsearch.index.mapper.MappedFieldType;
 import org.elasticsearch.index.mapper.MapperService;
 import org.elasticsearch.index.shard.IndexShard;
 import org.elasticsearch.index.shard.IndexShardState;
+import org.elasticsearch.index.shard.ShardId;
 import org.elasticsearch.threadpool.ThreadPool;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
@@ -110,6 +117,8 @@ public final class IndexWarmer {
 
         private final Executor executor;
         private final IndexFieldDataService indexFieldDataService;
+        // the background builds that wait for a warmer thread, at most one per shard and field
+        private final ConcurrentMap<Tuple<ShardId, String>, BackgroundBuild> queuedBuilds = ConcurrentCollections.newConcurrentMap();
 
         FieldDataWarmer(Executor executor, IndexFieldDataService indexFieldDataService) {
             this.executor = executor;
@@ -127,29 +136,18 @@ public final class IndexWarmer {
                 }
                 warmUpGlobalOrdinals.put(indexName, fieldType);
             }
+            final DirectoryReader reader = searcher.getDirectoryReader();
+            if (indexShard.indexSettings().isBackgroundGlobalOrdinals()) {
+                for (final MappedFieldType fieldType : warmUpGlobalOrdinals.values()) {
+                    warmInBackground(indexShard, reader, fieldType);
+                }
+                return TerminationHandle.NO_WAIT;
+            }
             final CountDownLatch latch = new CountDownLatch(warmUpGlobalOrdinals.size());
             for (final MappedFieldType fieldType : warmUpGlobalOrdinals.values()) {
                 executor.execute(() -> {
                     try {
-                        final long start = System.nanoTime();
-                        IndexFieldData.Global ifd = indexFieldDataService.getForField(fieldType);
-                        DirectoryReader reader = searcher.getDirectoryReader();
-                        IndexFieldData<?> global = ifd.loadGlobal(reader);
-                        if (reader.leaves().isEmpty() == false) {
-                            global.load(reader.leaves().get(0));
-                        }
-
-                        if (indexShard.warmerService().logger().isTraceEnabled()) {
-                            indexShard.warmerService().logger().trace(
-                                "warmed global ordinals for [{}], took [{}]",
-                                fieldType.name(),
-                                TimeValue.timeValueNanos(System.nanoTime() - start));
-                        }
-                    } catch (Exception e) {
-                        indexShard
-                            .warmerService()
-                            .logger()
-                            .warn(() -> new ParameterizedMessage("failed to warm-up global ordinals for [{}]", fieldType.name()), e);
+                        warmGlobalOrdinals(indexShard, reader, fieldType);
                     } finally {
                         latch.countDown();
                     }
@@ -157,6 +155,99 @@ public final class IndexWarmer {
             }
             return () -> latch.await();
         }
+
+        /**
+         * Builds the global ordinals of the given field without making the reader wait for them. The reader is kept open until
+         * they are built, and searches can tell that they are being built through the {@link IndexShard#warmerService()}.
+         * A build that still waits for a warmer thread when the next reader of the shard comes in is dropped in favour of the
+         * build for the newer reader, so that a shard never queues more than one build per field and stale readers are released
+         * as soon as they are replaced.
+         */
+        private void warmInBackground(IndexShard indexShard, DirectoryReader reader, MappedFieldType fieldType) {
+            if (reader.tryIncRef() == false) {
+                return;
+            }
+            final Tuple<ShardId, String> key = new Tuple<>(indexShard.shardId(), fieldType.name());
+            final BackgroundBuild build = new BackgroundBuild(indexShard, reader, fieldType,
+                indexShard.warmerService().onBackgroundGlobalOrdinalsBuild(fieldType.name(), reader));
+            final BackgroundBuild replaced = queuedBuilds.put(key, build);
+            if (replaced != null) {
+                // the task that was scheduled for the replaced build has not started yet and will pick up this one instead
+                replaced.release();
+                return;
+            }
+            try {
+                executor.execute(() -> {
+                    final BackgroundBuild next = queuedBuilds.remove(key);
+                    if (next != null) {
+                        next.run();
+                    }
+                });
+            } catch (Exception e) {
+                // a newer build may have replaced this one in the meantime, counting on the task that was just rejected
+                final BackgroundBuild queued = queuedBuilds.remove(key);
+                if (queued != null) {
+                    queued.release();
+                }
+                throw e;
+            }
+        }
+
+        private final class BackgroundBuild {
+
+            private final IndexShard indexShard;
+            private final DirectoryReader reader;
+            private final MappedFieldType fieldType;
+            private final Releasable pending;
+
+            BackgroundBuild(IndexShard indexShard, DirectoryReader reader, MappedFieldType fieldType, Releasable pending) {
+                this.indexShard = indexShard;
+                this.reader = reader;
+                this.fieldType = fieldType;
+                this.pending = pending;
+            }
+
+            void run() {
+                try {
+                    if (indexShard.state() != IndexShardState.CLOSED) {
+                        warmGlobalOrdinals(indexShard, reader, fieldType);
+                    }
+                } finally {
+                    release();
+                }
+            }
+
+            void release() {
+                try {
+                    IOUtils.close(pending, reader::decRef);
+                } catch (IOException e) {
+                    indexShard.warmerService().logger().warn("failed to release the reader after warming global ordinals", e);
+                }
+            }
+        }
+
+        private void warmGlobalOrdinals(IndexShard indexShard, DirectoryReader reader, MappedFieldType fieldType) {
+            try {
+                final long start = System.nanoTime();
+                IndexFieldData.Global ifd = indexFieldDataService.getForField(fieldType);
+                IndexFieldData<?> global = ifd.loadGlobal(reader);
+                if (reader.leaves().isEmpty() == false) {
+                    global.load(reader.leaves().get(0));
+                }
+
+                if (indexShard.warmerService().logger().isTraceEnabled()) {
+                    indexShard.warmerService().logger().trace(
+                        "warmed global ordinals for [{}], took [{}]",
+                        fieldType.name(),
+                        TimeValue.timeValueNanos(System.nanoTime() - start));
+                }
+            } catch (Exception e) {
+                indexShard
+                    .warmerService()
+                    .logger()
+                    .warn(() -> new ParameterizedMessage("failed to warm-up global ordinals for [{}]", fieldType.name()), e);
+            }
+        }
     }
 
 }
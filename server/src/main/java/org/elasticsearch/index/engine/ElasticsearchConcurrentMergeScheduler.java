@@ -25,6 +25,8 @@ import org.apache.lucene.index.IndexWriter;
 import org.apache.lucene.index.MergePolicy;
 import org.apache.lucene.index.MergeScheduler;
 import org.apache.lucene.index.OneMergeHelper;
+import org.apache.lucene.store.Directory;
+import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.logging.Loggers;
 import org.elasticsearch.common.metrics.CounterMetric;
 import org.elasticsearch.common.metrics.MeanMetric;
@@ -38,11 +40,14 @@ import org.elasticsearch.index.MergeSchedulerConfig;
 import org.elasticsearch.index.merge.MergeStats;
 import org.elasticsearch.index.merge.OnGoingMerge;
 import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.indices.MergeBandwidthCoordinator;
 
 import java.io.IOException;
 import java.util.Collections;
 import java.util.Locale;
 import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
 
 /**
  * An extension to the {@link ConcurrentMergeScheduler} that provides tracking on merge times, total
@@ -66,9 +71,15 @@ class ElasticsearchConcurrentMergeScheduler extends ConcurrentMergeScheduler {
     private final Set<OnGoingMerge> onGoingMerges = ConcurrentCollections.newConcurrentSet();
     private final Set<OnGoingMerge> readOnlyOnGoingMerges = Collections.unmodifiableSet(onGoingMerges);
     private final MergeSchedulerConfig config;
+    @Nullable
+    private final MergeBandwidthCoordinator.ShardMergeThrottle mergeThrottle;
+    private final ConcurrentMap<MergePolicy.OneMerge, MergeBandwidthCoordinator.ThrottledMerge> throttledMerges =
+        ConcurrentCollections.newConcurrentMap();
 
-    ElasticsearchConcurrentMergeScheduler(ShardId shardId, IndexSettings indexSettings) {
+    ElasticsearchConcurrentMergeScheduler(ShardId shardId, IndexSettings indexSettings,
+                                          @Nullable MergeBandwidthCoordinator.ShardMergeThrottle mergeThrottle) {
         this.config = indexSettings.getMergeSchedulerConfig();
+        this.mergeThrottle = mergeThrottle;
         this.shardId = shardId;
         this.indexSettings = indexSettings.getSettings();
         this.logger = Loggers.getLogger(getClass(), shardId);
@@ -96,11 +107,20 @@ class ElasticsearchConcurrentMergeScheduler extends ConcurrentMergeScheduler {
                 OneMergeHelper.getSegmentName(merge), merge.segments.size(), totalNumDocs, new ByteSizeValue(totalSizeInBytes),
                 new ByteSizeValue(merge.estimatedMergeBytes));
         }
+        final MergeBandwidthCoordinator.ThrottledMerge throttledMerge =
+            mergeThrottle == null ? null : mergeThrottle.startMerge(totalSizeInBytes);
+        if (throttledMerge != null) {
+            throttledMerges.put(merge, throttledMerge);
+        }
         try {
             beforeMerge(onGoingMerge);
             super.doMerge(writer, merge);
         } finally {
             long tookMS = TimeValue.nsecToMSec(System.nanoTime() - timeNS);
+            if (throttledMerge != null) {
+                throttledMerges.remove(merge);
+                throttledMerge.close();
+            }
 
             onGoingMerges.remove(onGoingMerge);
             afterMerge(onGoingMerge);
@@ -154,6 +174,14 @@ class ElasticsearchConcurrentMergeScheduler extends ConcurrentMergeScheduler {
      */
     protected void afterMerge(OnGoingMerge merge) {}
 
+    @Override
+    public Directory wrapForMerge(MergePolicy.OneMerge merge, Directory in) {
+        final Directory directory = super.wrapForMerge(merge, in);
+        final MergeBandwidthCoordinator.ThrottledMerge throttledMerge = throttledMerges.get(merge);
+        // the writes of coordinated merges are limited by both the rate of this scheduler and the share of the data path
+        return throttledMerge == null ? directory : throttledMerge.wrap(directory);
+    }
+
     @Override
     public MergeScheduler clone() {
         // Lucene IW makes a clone internally but since we hold on to this instance
@@ -182,6 +210,11 @@ class ElasticsearchConcurrentMergeScheduler extends ConcurrentMergeScheduler {
                 totalMergeStoppedTime.count(),
                 totalMergeThrottledTime.count(),
                 config.isAutoThrottle() ? getIORateLimitMBPerSec() : Double.POSITIVE_INFINITY);
+        if (mergeThrottle != null) {
+            mergeStats.addQueueStats(mergeThrottle.currentQueued(),
+                TimeUnit.NANOSECONDS.toMillis(mergeThrottle.totalQueuedTimeInNanos()),
+                TimeUnit.NANOSECONDS.toMillis(mergeThrottle.totalThrottledTimeInNanos()));
+        }
         return mergeStats;
     }
 
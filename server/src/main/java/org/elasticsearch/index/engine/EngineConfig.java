@@ -40,6 +40,7 @@ import org.elasticsearch.index.shard.ShardId;
 import org.elasticsearch.index.store.Store;
 import org.elasticsearch.index.translog.TranslogConfig;
 import org.elasticsearch.indices.IndexingMemoryController;
+import org.elasticsearch.indices.MergeBandwidthCoordinator;
 import org.elasticsearch.indices.breaker.CircuitBreakerService;
 import org.elasticsearch.threadpool.ThreadPool;
 
@@ -94,6 +95,8 @@ public final class EngineConfig {
 
     private final LongSupplier primaryTermSupplier;
     private final TombstoneDocSupplier tombstoneDocSupplier;
+    @Nullable
+    private final MergeBandwidthCoordinator.ShardMergeThrottle mergeThrottle;
 
     /**
      * Index setting to change the low level lucene codec used for writing new segments.
@@ -142,7 +145,8 @@ public final class EngineConfig {
                         CircuitBreakerService circuitBreakerService, LongSupplier globalCheckpointSupplier,
                         Supplier<RetentionLeases> retentionLeasesSupplier,
                         LongSupplier primaryTermSupplier,
-                        TombstoneDocSupplier tombstoneDocSupplier) {
+                        TombstoneDocSupplier tombstoneDocSupplier,
+                        @Nullable MergeBandwidthCoordinator.ShardMergeThrottle mergeThrottle) {
         this.shardId = shardId;
         this.allocationId = allocationId;
         this.indexSettings = indexSettings;
@@ -181,6 +185,7 @@ public final class EngineConfig {
         this.retentionLeasesSupplier = Objects.requireNonNull(retentionLeasesSupplier);
         this.primaryTermSupplier = primaryTermSupplier;
         this.tombstoneDocSupplier = tombstoneDocSupplier;
+        this.mergeThrottle = mergeThrottle;
     }
 
     /**
@@ -399,4 +404,13 @@ public final class EngineConfig {
     public TombstoneDocSupplier getTombstoneDocSupplier() {
         return tombstoneDocSupplier;
     }
+
+    /**
+     * Returns the throttle that coordinates the merges of this shard with the merges of the other shards on the same data path, or
+     * <code>null</code> if merges are not coordinated across shards.
+     */
+    @Nullable
+    public MergeBandwidthCoordinator.ShardMergeThrottle getMergeThrottle() {
+        return mergeThrottle;
+    }
 }
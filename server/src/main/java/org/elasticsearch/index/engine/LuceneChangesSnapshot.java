@@ -19,7 +19,10 @@
 
 package org.elasticsearch.index.engine;
 
+import org.apache.lucene.codecs.StoredFieldsReader;
 import org.apache.lucene.document.LongPoint;
+import org.apache.lucene.index.CodecReader;
+import org.apache.lucene.index.FilterLeafReader;
 import org.apache.lucene.index.LeafReader;
 import org.apache.lucene.index.LeafReaderContext;
 import org.apache.lucene.index.NumericDocValues;
@@ -69,6 +72,9 @@ final class LuceneChangesSnapshot implements Translog.Snapshot {
     private ScoreDoc[] scoreDocs;
     private final ParallelArray parallelArray;
     private final Closeable onClose;
+    // the stored fields reader of the leaf that documents were last loaded from, if the current batch is read sequentially
+    private int storedFieldsReaderOrd = -1;
+    private StoredFieldsReader storedFieldsReader = null;
 
     /**
      * Creates a new "translog" snapshot from Lucene for reading operations whose seq# in the specified range.
@@ -207,11 +213,47 @@ final class LuceneChangesSnapshot implements Translog.Snapshot {
                 parallelArray.isTombStone[index] = combinedDocValues.isTombstone(segmentDocID);
                 parallelArray.hasRecoverySource[index] = combinedDocValues.hasRecoverySource(segmentDocID);
             }
+            parallelArray.useSequentialStoredFieldsReader = hasSequentialAccess(scoreDocs);
             // now sort back based on the shardIndex. we use this to store the previous index
             ArrayUtil.introSort(scoreDocs, Comparator.comparingInt(i -> i.shardIndex));
         }
     }
 
+    /**
+     * Returns <code>true</code> if the documents, sorted by doc ID, are also sorted by the order in which they are read. This is
+     * usually the case for indices without updates, whose documents are indexed in the order of their sequence numbers. The stored
+     * fields of these documents are then loaded with a merge instance of the stored fields reader, which decompresses each block of
+     * documents once rather than once per document.
+     */
+    private static boolean hasSequentialAccess(ScoreDoc[] scoreDocsSortedByDocID) {
+        for (int i = 1; i < scoreDocsSortedByDocID.length; i++) {
+            if (scoreDocsSortedByDocID[i].shardIndex < scoreDocsSortedByDocID[i - 1].shardIndex) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void loadStoredFields(LeafReaderContext leaf, int segmentDocID, FieldsVisitor fields) throws IOException {
+        if (parallelArray.useSequentialStoredFieldsReader) {
+            if (storedFieldsReaderOrd != leaf.ord) {
+                final LeafReader reader = FilterLeafReader.unwrap(leaf.reader());
+                storedFieldsReader = reader instanceof CodecReader ? ((CodecReader) reader).getFieldsReader().getMergeInstance() : null;
+                storedFieldsReaderOrd = leaf.ord;
+            }
+            if (storedFieldsReader != null) {
+                storedFieldsReader.visitDocument(segmentDocID, fields);
+                return;
+            }
+        }
+        leaf.reader().document(segmentDocID, fields);
+    }
+
+    // package private for testing
+    boolean useSequentialStoredFieldsReader() {
+        return parallelArray.useSequentialStoredFieldsReader;
+    }
+
     private TopDocs searchOperations(ScoreDoc after) throws IOException {
         final Query rangeQuery = LongPoint.newRangeQuery(SeqNoFieldMapper.NAME, Math.max(fromSeqNo, lastSeenSeqNo), toSeqNo);
         final Sort sortedBySeqNoThenByTerm = new Sort(
@@ -240,7 +282,7 @@ final class LuceneChangesSnapshot implements Translog.Snapshot {
         final String sourceField = parallelArray.hasRecoverySource[docIndex] ? SourceFieldMapper.RECOVERY_SOURCE_NAME :
             SourceFieldMapper.NAME;
         final FieldsVisitor fields = new FieldsVisitor(true, sourceField);
-        leaf.reader().document(segmentDocID, fields);
+        loadStoredFields(leaf, segmentDocID, fields);
         fields.postProcess(mapperService);
 
         final Translog.Operation op;
@@ -295,6 +337,7 @@ final class LuceneChangesSnapshot implements Translog.Snapshot {
         final long[] primaryTerm;
         final boolean[] isTombStone;
         final boolean[] hasRecoverySource;
+        boolean useSequentialStoredFieldsReader = false;
 
         ParallelArray(int size) {
             version = new long[size];
@@ -0,0 +1,296 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.index.engine;
+
+import org.apache.lucene.util.ArrayUtil;
+import org.apache.lucene.util.BitUtil;
+import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.FutureArrays;
+import org.apache.lucene.util.RamUsageEstimator;
+import org.apache.lucene.util.StringHelper;
+import org.elasticsearch.index.translog.Translog;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Maps uids to their {@link IndexVersionValue} for the {@link LiveVersionMap}. Instead of a hash map entry, a {@link BytesRef}, a
+ * version value and a translog location per uid, the entries are stored in an open addressing hash table whose values are packed
+ * into primitive arrays, and the version values are only materialized on reads. The table is split into segments that are locked
+ * independently, so that indexing threads that work on different uids rarely contend.
+ * <p>
+ * The byte arrays of the uids are used as keys. The bytes of uids that span their whole array, like most encoded ids, are used
+ * as is and must not be modified afterwards, while the bytes of other uids, like utf8 encoded ids, are copied.
+ */
+final class PackedVersionMap {
+
+    private static final int SEGMENT_BITS = 4;
+    private static final int SEGMENTS = 1 << SEGMENT_BITS;
+    private static final int MIN_CAPACITY = 8;
+    private static final float LOAD_FACTOR = 0.75f;
+
+    // the longs of a slot: version, seq no, term, translog generation and translog position
+    private static final int LONGS_PER_SLOT = 5;
+    private static final long BYTES_PER_SLOT = Integer.BYTES // hash
+        + RamUsageEstimator.NUM_BYTES_OBJECT_REF // key
+        + LONGS_PER_SLOT * Long.BYTES
+        + Integer.BYTES // translog size
+        + 1; // whether there is a translog location
+
+    static final PackedVersionMap EMPTY = new PackedVersionMap(0);
+
+    private final Segment[] segments = new Segment[SEGMENTS];
+
+    /**
+     * @param expectedSize the number of entries this map is expected to hold, used to size the segments on their first put
+     */
+    PackedVersionMap(int expectedSize) {
+        final int initialCapacity = capacityFor(expectedSize / SEGMENTS);
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment(initialCapacity);
+        }
+    }
+
+    IndexVersionValue get(BytesRef uid) {
+        final int hash = hash(uid);
+        return segmentFor(hash).get(uid, hash);
+    }
+
+    /**
+     * Associates the given value with the given uid and returns by how many bytes the memory usage of this map changed.
+     */
+    long put(BytesRef uid, IndexVersionValue value) {
+        final byte[] key = uid.offset == 0 && uid.bytes.length == uid.length
+            ? uid.bytes : ArrayUtil.copyOfSubArray(uid.bytes, uid.offset, uid.offset + uid.length);
+        final int hash = hash(uid);
+        return segmentFor(hash).put(key, hash, value);
+    }
+
+    /**
+     * Removes the given uid and returns by how many bytes the memory usage of this map changed.
+     */
+    long remove(BytesRef uid) {
+        final int hash = hash(uid);
+        return segmentFor(hash).remove(uid, hash);
+    }
+
+    int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Returns a point in time copy of the entries of this map.
+     */
+    Map<BytesRef, VersionValue> toMap() {
+        final Map<BytesRef, VersionValue> map = new HashMap<>();
+        for (Segment segment : segments) {
+            segment.copyTo(map);
+        }
+        return map;
+    }
+
+    private Segment segmentFor(int hash) {
+        return segments[hash >>> (Integer.SIZE - SEGMENT_BITS)];
+    }
+
+    private static int hash(BytesRef uid) {
+        return StringHelper.murmurhash3_x86_32(uid, StringHelper.GOOD_FAST_HASH_SEED);
+    }
+
+    private static int capacityFor(int size) {
+        return Math.max(MIN_CAPACITY, BitUtil.nextHighestPowerOfTwo((int) Math.ceil(size / LOAD_FACTOR) + 1));
+    }
+
+    private static long tableBytes(int capacity) {
+        return 5 * RamUsageEstimator.NUM_BYTES_ARRAY_HEADER + capacity * BYTES_PER_SLOT;
+    }
+
+    private static final class Segment {
+
+        private final int initialCapacity;
+        private int size;
+        // the table is only allocated on the first put, since a new map is created on every refresh
+        private int[] hashes;
+        private byte[][] keys;
+        private long[] longs;
+        private int[] sizes;
+        private boolean[] hasLocation;
+
+        Segment(int initialCapacity) {
+            this.initialCapacity = initialCapacity;
+        }
+
+        synchronized int size() {
+            return size;
+        }
+
+        synchronized IndexVersionValue get(BytesRef uid, int hash) {
+            if (keys == null) {
+                return null;
+            }
+            final int slot = find(uid, hash);
+            if (slot == -1) {
+                return null;
+            }
+            final int offset = slot * LONGS_PER_SLOT;
+            final Translog.Location location = hasLocation[slot]
+                ? new Translog.Location(longs[offset + 3], longs[offset + 4], sizes[slot]) : null;
+            return new IndexVersionValue(location, longs[offset], longs[offset + 1], longs[offset + 2]);
+        }
+
+        synchronized long put(byte[] key, int hash, IndexVersionValue value) {
+            long ramBytesDelta = 0;
+            if (keys == null) {
+                allocate(initialCapacity);
+                ramBytesDelta += tableBytes(initialCapacity);
+            }
+            int slot = find(new BytesRef(key), hash);
+            if (slot == -1) {
+                if (size + 1 > keys.length * LOAD_FACTOR) {
+                    ramBytesDelta += resize(keys.length << 1);
+                }
+                slot = freeSlot(hash);
+                hashes[slot] = hash;
+                keys[slot] = key;
+                size++;
+                ramBytesDelta += RamUsageEstimator.sizeOf(key);
+            }
+            final int offset = slot * LONGS_PER_SLOT;
+            longs[offset] = value.version;
+            longs[offset + 1] = value.seqNo;
+            longs[offset + 2] = value.term;
+            final Translog.Location location = value.getLocation();
+            if (location == null) {
+                longs[offset + 3] = 0;
+                longs[offset + 4] = 0;
+                sizes[slot] = 0;
+                hasLocation[slot] = false;
+            } else {
+                longs[offset + 3] = location.generation;
+                longs[offset + 4] = location.translogLocation;
+                sizes[slot] = location.size;
+                hasLocation[slot] = true;
+            }
+            return ramBytesDelta;
+        }
+
+        synchronized long remove(BytesRef uid, int hash) {
+            if (keys == null) {
+                return 0;
+            }
+            final int slot = find(uid, hash);
+            if (slot == -1) {
+                return 0;
+            }
+            final long ramBytesDelta = -RamUsageEstimator.sizeOf(keys[slot]);
+            size--;
+            // shift the following entries of the probe sequence back so that lookups do not stop at the freed slot
+            final int mask = keys.length - 1;
+            int gap = slot;
+            for (int next = (gap + 1) & mask; keys[next] != null; next = (next + 1) & mask) {
+                final int idealSlot = hashes[next] & mask;
+                if (((next - idealSlot) & mask) >= ((next - gap) & mask)) {
+                    move(next, gap);
+                    gap = next;
+                }
+            }
+            keys[gap] = null;
+            return ramBytesDelta;
+        }
+
+        synchronized void copyTo(Map<BytesRef, VersionValue> map) {
+            if (keys == null) {
+                return;
+            }
+            for (int slot = 0; slot < keys.length; slot++) {
+                if (keys[slot] != null) {
+                    final BytesRef uid = new BytesRef(keys[slot]);
+                    map.put(uid, get(uid, hashes[slot]));
+                }
+            }
+        }
+
+        private int find(BytesRef uid, int hash) {
+            final int mask = keys.length - 1;
+            for (int slot = hash & mask; keys[slot] != null; slot = (slot + 1) & mask) {
+                if (hashes[slot] == hash) {
+                    final byte[] key = keys[slot];
+                    if (FutureArrays.equals(key, 0, key.length, uid.bytes, uid.offset, uid.offset + uid.length)) {
+                        return slot;
+                    }
+                }
+            }
+            return -1;
+        }
+
+        private int freeSlot(int hash) {
+            final int mask = keys.length - 1;
+            int slot = hash & mask;
+            while (keys[slot] != null) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+
+        private void allocate(int capacity) {
+            hashes = new int[capacity];
+            keys = new byte[capacity][];
+            longs = new long[capacity * LONGS_PER_SLOT];
+            sizes = new int[capacity];
+            hasLocation = new boolean[capacity];
+        }
+
+        private long resize(int capacity) {
+            final int[] oldHashes = hashes;
+            final byte[][] oldKeys = keys;
+            final long[] oldLongs = longs;
+            final int[] oldSizes = sizes;
+            final boolean[] oldHasLocation = hasLocation;
+            allocate(capacity);
+            for (int oldSlot = 0; oldSlot < oldKeys.length; oldSlot++) {
+                if (oldKeys[oldSlot] != null) {
+                    final int slot = freeSlot(oldHashes[oldSlot]);
+                    hashes[slot] = oldHashes[oldSlot];
+                    keys[slot] = oldKeys[oldSlot];
+                    System.arraycopy(oldLongs, oldSlot * LONGS_PER_SLOT, longs, slot * LONGS_PER_SLOT, LONGS_PER_SLOT);
+                    sizes[slot] = oldSizes[oldSlot];
+                    hasLocation[slot] = oldHasLocation[oldSlot];
+                }
+            }
+            return tableBytes(capacity) - tableBytes(oldKeys.length);
+        }
+
+        private void move(int from, int to) {
+            hashes[to] = hashes[from];
+            keys[to] = keys[from];
+            System.arraycopy(longs, from * LONGS_PER_SLOT, longs, to * LONGS_PER_SLOT, LONGS_PER_SLOT);
+            sizes[to] = sizes[from];
+            hasLocation[to] = hasLocation[from];
+        }
+    }
+}
@@ -19,6 +19,7 @@
 
 package org.elasticsearch.index.merge;
 
+import org.elasticsearch.Version;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.common.io.stream.Streamable;
@@ -47,6 +48,15 @@ public class MergeStats implements Streamable, ToXContentFragment {
 
     private long totalBytesPerSecAutoThrottle;
 
+    /** The number of merges that are queued behind the merges of other shards on the same data path. */
+    private long currentQueued;
+
+    /** Total millis that merges spent queued behind the merges of other shards on the same data path. */
+    private long totalQueuedTimeInMillis;
+
+    /** Total millis that we slept during writes so merges stay within the bandwidth budget of the data path. */
+    private long totalBudgetThrottledTimeInMillis;
+
     public MergeStats() {
 
     }
@@ -71,11 +81,21 @@ public class MergeStats implements Streamable, ToXContentFragment {
         }
     }
 
+    /**
+     * Adds the stats of the merges that are coordinated with the merges of the other shards on the same data path.
+     */
+    public void addQueueStats(long currentQueued, long queuedTimeMillis, long budgetThrottledTimeMillis) {
+        this.currentQueued += currentQueued;
+        this.totalQueuedTimeInMillis += queuedTimeMillis;
+        this.totalBudgetThrottledTimeInMillis += budgetThrottledTimeMillis;
+    }
+
     public void add(MergeStats mergeStats) {
         if (mergeStats == null) {
             return;
         }
         this.current += mergeStats.current;
+        this.currentQueued += mergeStats.currentQueued;
         this.currentNumDocs += mergeStats.currentNumDocs;
         this.currentSizeInBytes += mergeStats.currentSizeInBytes;
 
@@ -92,6 +112,8 @@ public class MergeStats implements Streamable, ToXContentFragment {
         this.totalSizeInBytes += mergeStats.totalSizeInBytes;
         this.totalStoppedTimeInMillis += mergeStats.totalStoppedTimeInMillis;
         this.totalThrottledTimeInMillis += mergeStats.totalThrottledTimeInMillis;
+        this.totalQueuedTimeInMillis += mergeStats.totalQueuedTimeInMillis;
+        this.totalBudgetThrottledTimeInMillis += mergeStats.totalBudgetThrottledTimeInMillis;
         if (this.totalBytesPerSecAutoThrottle == Long.MAX_VALUE || mergeStats.totalBytesPerSecAutoThrottle == Long.MAX_VALUE) {
             this.totalBytesPerSecAutoThrottle = Long.MAX_VALUE;
         } else {
@@ -141,6 +163,34 @@ public class MergeStats implements Streamable, ToXContentFragment {
         return new TimeValue(totalThrottledTimeInMillis);
     }
 
+    /**
+     * The total time merges were queued behind the merges of other shards on the same data path.
+     */
+    public long getTotalQueuedTimeInMillis() {
+        return this.totalQueuedTimeInMillis;
+    }
+
+    /**
+     * The total time merges were queued behind the merges of other shards on the same data path.
+     */
+    public TimeValue getTotalQueuedTime() {
+        return new TimeValue(totalQueuedTimeInMillis);
+    }
+
+    /**
+     * The total time merge IO writes were throttled to stay within the bandwidth budget of the data path.
+     */
+    public long getTotalBudgetThrottledTimeInMillis() {
+        return this.totalBudgetThrottledTimeInMillis;
+    }
+
+    /**
+     * The total time merge IO writes were throttled to stay within the bandwidth budget of the data path.
+     */
+    public TimeValue getTotalBudgetThrottledTime() {
+        return new TimeValue(totalBudgetThrottledTimeInMillis);
+    }
+
     /**
      * The total time merges have been executed.
      */
@@ -183,18 +233,29 @@ public class MergeStats implements Streamable, ToXContentFragment {
         return new ByteSizeValue(currentSizeInBytes);
     }
 
+    /**
+     * The current number of merges queued behind the merges of other shards on the same data path.
+     */
+    public long getCurrentQueued() {
+        return this.currentQueued;
+    }
+
     @Override
     public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
         builder.startObject(Fields.MERGES);
         builder.field(Fields.CURRENT, current);
         builder.field(Fields.CURRENT_DOCS, currentNumDocs);
         builder.humanReadableField(Fields.CURRENT_SIZE_IN_BYTES, Fields.CURRENT_SIZE, getCurrentSize());
+        builder.field(Fields.CURRENT_QUEUED, currentQueued);
         builder.field(Fields.TOTAL, total);
         builder.humanReadableField(Fields.TOTAL_TIME_IN_MILLIS, Fields.TOTAL_TIME, getTotalTime());
         builder.field(Fields.TOTAL_DOCS, totalNumDocs);
         builder.humanReadableField(Fields.TOTAL_SIZE_IN_BYTES, Fields.TOTAL_SIZE, getTotalSize());
         builder.humanReadableField(Fields.TOTAL_STOPPED_TIME_IN_MILLIS, Fields.TOTAL_STOPPED_TIME, getTotalStoppedTime());
         builder.humanReadableField(Fields.TOTAL_THROTTLED_TIME_IN_MILLIS, Fields.TOTAL_THROTTLED_TIME, getTotalThrottledTime());
+        builder.humanReadableField(Fields.TOTAL_QUEUED_TIME_IN_MILLIS, Fields.TOTAL_QUEUED_TIME, getTotalQueuedTime());
+        builder.humanReadableField(Fields.TOTAL_BUDGET_THROTTLED_TIME_IN_MILLIS, Fields.TOTAL_BUDGET_THROTTLED_TIME,
+            getTotalBudgetThrottledTime());
         if (builder.humanReadable() && totalBytesPerSecAutoThrottle != -1) {
             builder.field(Fields.TOTAL_THROTTLE_BYTES_PER_SEC).value(new ByteSizeValue(totalBytesPerSecAutoThrottle).toString());
         }
@@ -209,6 +270,7 @@ public class MergeStats implements Streamable, ToXContentFragment {
         static final String CURRENT_DOCS = "current_docs";
         static final String CURRENT_SIZE = "current_size";
         static final String CURRENT_SIZE_IN_BYTES = "current_size_in_bytes";
+        static final String CURRENT_QUEUED = "current_queued";
         static final String TOTAL = "total";
         static final String TOTAL_TIME = "total_time";
         static final String TOTAL_TIME_IN_MILLIS = "total_time_in_millis";
@@ -216,6 +278,10 @@ public class MergeStats implements Streamable, ToXContentFragment {
         static final String TOTAL_STOPPED_TIME_IN_MILLIS = "total_stopped_time_in_millis";
         static final String TOTAL_THROTTLED_TIME = "total_throttled_time";
         static final String TOTAL_THROTTLED_TIME_IN_MILLIS = "total_throttled_time_in_millis";
+        static final String TOTAL_QUEUED_TIME = "total_queued_time";
+        static final String TOTAL_QUEUED_TIME_IN_MILLIS = "total_queued_time_in_millis";
+        static final String TOTAL_BUDGET_THROTTLED_TIME = "total_budget_throttled_time";
+        static final String TOTAL_BUDGET_THROTTLED_TIME_IN_MILLIS = "total_budget_throttled_time_in_millis";
         static final String TOTAL_DOCS = "total_docs";
         static final String TOTAL_SIZE = "total_size";
         static final String TOTAL_SIZE_IN_BYTES = "total_size_in_bytes";
@@ -236,6 +302,11 @@ public class MergeStats implements Streamable, ToXContentFragment {
         totalStoppedTimeInMillis = in.readVLong();
         totalThrottledTimeInMillis = in.readVLong();
         totalBytesPerSecAutoThrottle = in.readVLong();
+        if (in.getVersion().onOrAfter(Version.V_7_1_2)) {
+            currentQueued = in.readVLong();
+            totalQueuedTimeInMillis = in.readVLong();
+            totalBudgetThrottledTimeInMillis = in.readVLong();
+        }
     }
 
     @Override
@@ -251,5 +322,10 @@ public class MergeStats implements Streamable, ToXContentFragment {
         out.writeVLong(totalStoppedTimeInMillis);
         out.writeVLong(totalThrottledTimeInMillis);
         out.writeVLong(totalBytesPerSecAutoThrottle);
+        if (out.getVersion().onOrAfter(Version.V_7_1_2)) {
+            out.writeVLong(currentQueued);
+            out.writeVLong(totalQueuedTimeInMillis);
+            out.writeVLong(totalBudgetThrottledTimeInMillis);
+        }
     }
 }
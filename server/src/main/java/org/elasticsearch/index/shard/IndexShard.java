@@ -24,6 +24,7 @@ import org.apache.logging.log4j.Logger;
 import org.apache.logging.log4j.message.ParameterizedMessage;
 import org.apache.lucene.index.CheckIndex;
 import org.apache.lucene.index.IndexCommit;
+import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.index.SegmentInfos;
 import org.apache.lucene.index.Term;
 import org.apache.lucene.search.Query;
@@ -128,6 +129,8 @@ import org.elasticsearch.index.warmer.ShardIndexWarmerService;
 import org.elasticsearch.index.warmer.WarmerStats;
 import org.elasticsearch.indices.IndexingMemoryController;
 import org.elasticsearch.indices.IndicesService;
+import org.elasticsearch.indices.MergeBandwidthCoordinator;
+import org.elasticsearch.indices.RefreshScheduler;
 import org.elasticsearch.indices.TypeMissingException;
 import org.elasticsearch.indices.breaker.CircuitBreakerService;
 import org.elasticsearch.indices.cluster.IndicesClusterStateService;
@@ -229,6 +232,9 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
 
     private final ShardPath path;
 
+    @Nullable
+    private final MergeBandwidthCoordinator mergeBandwidthCoordinator;
+
     private final IndexShardOperationPermits indexShardOperationPermits;
 
     private static final EnumSet<IndexShardState> readAllowedStates = EnumSet.of(IndexShardState.STARTED, IndexShardState.POST_RECOVERY);
@@ -254,6 +260,8 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
     private final RefreshListeners refreshListeners;
 
     private final AtomicLong lastSearcherAccess = new AtomicLong();
+    // the relative time in millis of the last refresh requested through this shard, see RefreshScheduler
+    private volatile long lastRefreshTime;
     private final AtomicReference<Translog.Location> pendingRefreshLocation = new AtomicReference<>();
 
     public IndexShard(
@@ -275,7 +283,8 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
             final List<IndexingOperationListener> listeners,
             final Runnable globalCheckpointSyncer,
             final RetentionLeaseSyncer retentionLeaseSyncer,
-            final CircuitBreakerService circuitBreakerService) throws IOException {
+            final CircuitBreakerService circuitBreakerService,
+            final @Nullable MergeBandwidthCoordinator mergeBandwidthCoordinator) throws IOException {
         super(shardRouting.shardId(), indexSettings);
         assert shardRouting.initializing();
         this.shardRouting = shardRouting;
@@ -308,6 +317,7 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
         state = IndexShardState.CREATED;
         this.path = path;
         this.circuitBreakerService = circuitBreakerService;
+        this.mergeBandwidthCoordinator = mergeBandwidthCoordinator;
         /* create engine config */
         logger.debug("state: [CREATED]");
 
@@ -350,6 +360,7 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
         searcherWrapper = indexSearcherWrapper;
         refreshListeners = buildRefreshListeners();
         lastSearcherAccess.set(threadPool.relativeTimeInMillis());
+        lastRefreshTime = threadPool.relativeTimeInMillis();
         persistMetadata(path, indexSettings, shardRouting, null, logger);
     }
 
@@ -388,6 +399,14 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
         return this.shardWarmerService;
     }
 
+    /**
+     * Returns whether the global ordinals of the given field are being built in the background for the given reader.
+     * @see IndexSettings#INDEX_WARMER_BACKGROUND_GLOBAL_ORDINALS_SETTING
+     */
+    public boolean isBuildingGlobalOrdinals(String field, IndexReader reader) {
+        return shardWarmerService.isBuildingGlobalOrdinals(field, reader);
+    }
+
     public ShardRequestCache requestCache() {
         return this.requestCacheStats;
     }
@@ -916,6 +935,7 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
         if (logger.isTraceEnabled()) {
             logger.trace("refresh with source [{}]", source);
         }
+        lastRefreshTime = threadPool.relativeTimeInMillis();
         getEngine().refresh(source);
     }
 
@@ -2494,7 +2514,16 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
                 Collections.singletonList(refreshListeners),
                 Collections.singletonList(new RefreshMetricUpdater(refreshMetric)),
                 indexSort, circuitBreakerService, replicationTracker, replicationTracker::getRetentionLeases,
-                () -> getOperationPrimaryTerm(), tombstoneDocSupplier());
+                () -> getOperationPrimaryTerm(), tombstoneDocSupplier(), newMergeThrottle());
+    }
+
+    @Nullable
+    private MergeBandwidthCoordinator.ShardMergeThrottle newMergeThrottle() {
+        if (mergeBandwidthCoordinator == null || mergeBandwidthCoordinator.isEnabled() == false) {
+            return null;
+        }
+        // merges of shards that are searched are prioritized, they reduce the number of segments that searches have to visit
+        return mergeBandwidthCoordinator.shardMergeThrottle(path.getRootDataPath(), () -> isSearchIdle() == false);
     }
 
     /**
@@ -2957,6 +2986,17 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
      * @return <code>true</code> iff the engine got refreshed otherwise <code>false</code>
      */
     public boolean scheduledRefresh() {
+        return scheduledRefresh(null);
+    }
+
+    /**
+     * Executes a scheduled refresh if necessary. If the given scheduler is enabled, a refresh that is not needed by a refresh
+     * listener may be deferred to a later round depending on the search activity, indexing buffer and merges of this shard, or
+     * skipped if the node already runs as many refreshes as the scheduler allows.
+     *
+     * @return <code>true</code> iff the engine got refreshed otherwise <code>false</code>
+     */
+    public boolean scheduledRefresh(@Nullable RefreshScheduler refreshScheduler) {
         boolean listenerNeedsRefresh = refreshListeners.refreshNeeded();
         if (isReadAllowed() && (listenerNeedsRefresh || getEngine().refreshNeeded())) {
             if (listenerNeedsRefresh == false // if we have a listener that is waiting for a refresh we need to force it
@@ -2970,6 +3010,27 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
                 engine.maybePruneDeletes(); // try to prune the deletes in the engine if we accumulated some
                 setRefreshPending(engine);
                 return false;
+            } else if (listenerNeedsRefresh == false
+                && refreshScheduler != null
+                && refreshScheduler.isEnabled()
+                && indexSettings.isExplicitRefresh() == false) {
+                final Engine engine = getEngine();
+                final boolean merging = engine.getMergeStats().getCurrent() > 0;
+                if (refreshScheduler.shouldDefer(threadPool.relativeTimeInMillis(), lastRefreshTime, lastSearcherAccess.get(), merging,
+                        engine.getIndexBufferRAMBytesUsed()) == false) {
+                    final Releasable permit = refreshScheduler.tryAcquire();
+                    if (permit != null) {
+                        try {
+                            refresh("schedule");
+                        } finally {
+                            permit.close();
+                        }
+                        return true;
+                    }
+                }
+                // the refresh is deferred or the node is busy refreshing other shards, the next round will check again
+                engine.maybePruneDeletes();
+                return false;
             } else {
                 refresh("schedule");
                 return true;
@@ -24,6 +24,7 @@ import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.common.io.stream.Streamable;
 import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.common.unit.TimeValue;
 import org.elasticsearch.common.xcontent.ToXContentFragment;
 import org.elasticsearch.common.xcontent.XContentBuilder;
 
@@ -36,12 +37,20 @@ public class TranslogStats implements Streamable, ToXContentFragment {
     private long uncommittedSizeInBytes;
     private int  uncommittedOperations;
     private long earliestLastModifiedAge;
+    private long syncCount;
+    private long syncTimeInMillis;
+    private long syncRequests;
 
     public TranslogStats() {
     }
 
     public TranslogStats(int numberOfOperations, long translogSizeInBytes, int uncommittedOperations, long uncommittedSizeInBytes,
                          long earliestLastModifiedAge) {
+        this(numberOfOperations, translogSizeInBytes, uncommittedOperations, uncommittedSizeInBytes, earliestLastModifiedAge, 0, 0, 0);
+    }
+
+    public TranslogStats(int numberOfOperations, long translogSizeInBytes, int uncommittedOperations, long uncommittedSizeInBytes,
+                         long earliestLastModifiedAge, long syncCount, long syncTimeInMillis, long syncRequests) {
         if (numberOfOperations < 0) {
             throw new IllegalArgumentException("numberOfOperations must be >= 0");
         }
@@ -57,11 +66,23 @@ public class TranslogStats implements Streamable, ToXContentFragment {
         if (earliestLastModifiedAge < 0) {
             throw new IllegalArgumentException("earliestLastModifiedAge must be >= 0");
         }
+        if (syncCount < 0) {
+            throw new IllegalArgumentException("syncCount must be >= 0");
+        }
+        if (syncTimeInMillis < 0) {
+            throw new IllegalArgumentException("syncTimeInMillis must be >= 0");
+        }
+        if (syncRequests < 0) {
+            throw new IllegalArgumentException("syncRequests must be >= 0");
+        }
         this.numberOfOperations = numberOfOperations;
         this.translogSizeInBytes = translogSizeInBytes;
         this.uncommittedSizeInBytes = uncommittedSizeInBytes;
         this.uncommittedOperations = uncommittedOperations;
         this.earliestLastModifiedAge = earliestLastModifiedAge;
+        this.syncCount = syncCount;
+        this.syncTimeInMillis = syncTimeInMillis;
+        this.syncRequests = syncRequests;
     }
 
     public void add(TranslogStats translogStats) {
@@ -75,6 +96,9 @@ public class TranslogStats implements Streamable, ToXContentFragment {
         this.uncommittedSizeInBytes += translogStats.uncommittedSizeInBytes;
         this.earliestLastModifiedAge =
             Math.min(this.earliestLastModifiedAge, translogStats.earliestLastModifiedAge);
+        this.syncCount += translogStats.syncCount;
+        this.syncTimeInMillis += translogStats.syncTimeInMillis;
+        this.syncRequests += translogStats.syncRequests;
     }
 
     public long getTranslogSizeInBytes() {
@@ -97,6 +121,24 @@ public class TranslogStats implements Streamable, ToXContentFragment {
 
     public long getEarliestLastModifiedAge() { return earliestLastModifiedAge; }
 
+    /** the number of times the translog was fsynced */
+    public long getSyncCount() {
+        return syncCount;
+    }
+
+    /** the total time spent fsyncing the translog */
+    public long getSyncTimeInMillis() {
+        return syncTimeInMillis;
+    }
+
+    /**
+     * the number of locations that callers asked to be synced, which may be coalesced into fewer fsyncs. Divided by the
+     * {@link #getSyncCount() sync count} this gives the average size of a sync batch.
+     */
+    public long getSyncRequests() {
+        return syncRequests;
+    }
+
     @Override
     public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
         builder.startObject("translog");
@@ -105,6 +147,9 @@ public class TranslogStats implements Streamable, ToXContentFragment {
         builder.field("uncommitted_operations", uncommittedOperations);
         builder.humanReadableField("uncommitted_size_in_bytes", "uncommitted_size", new ByteSizeValue(uncommittedSizeInBytes));
         builder.field("earliest_last_modified_age", earliestLastModifiedAge);
+        builder.field("sync_count", syncCount);
+        builder.humanReadableField("sync_time_in_millis", "sync_time", new TimeValue(syncTimeInMillis));
+        builder.field("sync_requests", syncRequests);
         builder.endObject();
         return builder;
     }
@@ -128,6 +173,11 @@ public class TranslogStats implements Streamable, ToXContentFragment {
         if (in.getVersion().onOrAfter(Version.V_6_3_0)) {
             earliestLastModifiedAge = in.readVLong();
         }
+        if (in.getVersion().onOrAfter(Version.V_7_1_2)) {
+            syncCount = in.readVLong();
+            syncTimeInMillis = in.readVLong();
+            syncRequests = in.readVLong();
+        }
     }
 
     @Override
@@ -141,5 +191,10 @@ public class TranslogStats implements Streamable, ToXContentFragment {
         if (out.getVersion().onOrAfter(Version.V_6_3_0)) {
             out.writeVLong(earliestLastModifiedAge);
         }
+        if (out.getVersion().onOrAfter(Version.V_7_1_2)) {
+            out.writeVLong(syncCount);
+            out.writeVLong(syncTimeInMillis);
+            out.writeVLong(syncRequests);
+        }
     }
 }
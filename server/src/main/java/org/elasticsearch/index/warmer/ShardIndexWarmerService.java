@@ -20,18 +20,25 @@
 package org.elasticsearch.index.warmer;
 
 import org.apache.logging.log4j.Logger;
+import org.apache.lucene.index.IndexReader;
+import org.elasticsearch.common.collect.Tuple;
+import org.elasticsearch.common.lease.Releasable;
 import org.elasticsearch.common.metrics.CounterMetric;
 import org.elasticsearch.common.metrics.MeanMetric;
+import org.elasticsearch.common.util.concurrent.ConcurrentCollections;
 import org.elasticsearch.index.IndexSettings;
 import org.elasticsearch.index.shard.AbstractIndexShardComponent;
 import org.elasticsearch.index.shard.ShardId;
 
+import java.util.Set;
 import java.util.concurrent.TimeUnit;
 
 public class ShardIndexWarmerService extends AbstractIndexShardComponent {
 
     private final CounterMetric current = new CounterMetric();
     private final MeanMetric warmerMetric = new MeanMetric();
+    // the fields and the readers for which global ordinals are being built in the background
+    private final Set<Tuple<String, IndexReader.CacheKey>> pendingGlobalOrdinals = ConcurrentCollections.newConcurrentSet();
 
     public ShardIndexWarmerService(ShardId shardId, IndexSettings indexSettings) {
         super(shardId, indexSettings);
@@ -50,6 +57,29 @@ public class ShardIndexWarmerService extends AbstractIndexShardComponent {
         warmerMetric.inc(tookInNanos);
     }
 
+    /**
+     * Marks the global ordinals of the given field as being built in the background for the given reader, until the returned
+     * {@link Releasable} is released.
+     */
+    public Releasable onBackgroundGlobalOrdinalsBuild(String field, IndexReader reader) {
+        final IndexReader.CacheHelper cacheHelper = reader.getReaderCacheHelper();
+        if (cacheHelper == null) {
+            return () -> {};
+        }
+        final Tuple<String, IndexReader.CacheKey> key = new Tuple<>(field, cacheHelper.getKey());
+        pendingGlobalOrdinals.add(key);
+        return () -> pendingGlobalOrdinals.remove(key);
+    }
+
+    /**
+     * Returns whether the global ordinals of the given field are being built in the background for the given reader, in which
+     * case loading them blocks until they are built.
+     */
+    public boolean isBuildingGlobalOrdinals(String field, IndexReader reader) {
+        final IndexReader.CacheHelper cacheHelper = reader.getReaderCacheHelper();
+        return cacheHelper != null && pendingGlobalOrdinals.contains(new Tuple<>(field, cacheHelper.getKey()));
+    }
+
     public WarmerStats stats() {
         return new WarmerStats(current.count(), warmerMetric.count(), TimeUnit.NANOSECONDS.toMillis(warmerMetric.sum()));
     }
@@ -0,0 +1,234 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.indices;
+
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.util.Accountable;
+import org.apache.lucene.util.RamUsageEstimator;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.cache.Cache;
+import org.elasticsearch.common.cache.CacheBuilder;
+import org.elasticsearch.common.cache.RemovalListener;
+import org.elasticsearch.common.cache.RemovalNotification;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.common.io.stream.NamedWriteableAwareStreamInput;
+import org.elasticsearch.common.io.stream.NamedWriteableRegistry;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.settings.Setting;
+import org.elasticsearch.common.settings.Setting.Property;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.common.util.concurrent.ConcurrentCollections;
+import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.search.aggregations.InternalAggregations;
+import org.elasticsearch.search.aggregations.SegmentAggregationCache;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Caches the aggregations of shard level requests per segment, so that a request that misses the {@link IndicesRequestCache}
+ * because the shard was refreshed only needs to aggregate the segments that changed since the previous execution. The entries
+ * are keyed on the reader cache key of the segment, which changes when documents of the segment are deleted, and on the cache
+ * key of the request. They are invalidated as soon as the segment reader they were computed on is closed.
+ * <p>
+ * The cache is disabled by default and can be enabled with {@link #INDICES_SEGMENT_CACHE_ENABLED_SETTING}. It is only used for
+ * requests that can use the {@link IndicesRequestCache} and whose aggregations can be computed per segment, see
+ * {@link org.elasticsearch.search.aggregations.SegmentCachingAggregationCollector}.
+ */
+public final class IndicesSegmentAggregationCache implements RemovalListener<IndicesSegmentAggregationCache.Key, BytesReference>,
+    Closeable {
+
+    public static final Setting<Boolean> INDICES_SEGMENT_CACHE_ENABLED_SETTING =
+        Setting.boolSetting("indices.requests.cache.segments.enabled", false, Property.NodeScope);
+    public static final Setting<ByteSizeValue> INDICES_SEGMENT_CACHE_SIZE_SETTING =
+        Setting.memorySizeSetting("indices.requests.cache.segments.size", "1%", Property.NodeScope);
+
+    private final boolean enabled;
+    private final NamedWriteableRegistry namedWriteableRegistry;
+    private final Cache<Key, BytesReference> cache;
+    // the keys of the cached entries per segment reader, so that they can be invalidated when the reader is closed
+    private final ConcurrentMap<IndexReader.CacheKey, Set<Key>> keysByReader = ConcurrentCollections.newConcurrentMap();
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+
+    IndicesSegmentAggregationCache(Settings settings, NamedWriteableRegistry namedWriteableRegistry) {
+        this.enabled = INDICES_SEGMENT_CACHE_ENABLED_SETTING.get(settings);
+        this.namedWriteableRegistry = namedWriteableRegistry;
+        this.cache = CacheBuilder.<Key, BytesReference>builder()
+            .setMaximumWeight(INDICES_SEGMENT_CACHE_SIZE_SETTING.get(settings).getBytes())
+            .weigher((k, v) -> k.ramBytesUsed() + v.length())
+            .removalListener(this)
+            .build();
+    }
+
+    /**
+     * Returns <code>true</code> if the aggregations of cacheable requests should be cached per segment.
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Returns the cache of the aggregations of the given request on the segments of the given shard.
+     */
+    public SegmentAggregationCache forRequest(ShardId shardId, BytesReference requestCacheKey) {
+        Objects.requireNonNull(shardId);
+        Objects.requireNonNull(requestCacheKey);
+        return new SegmentAggregationCache() {
+            @Override
+            public InternalAggregations get(LeafReaderContext ctx) throws IOException {
+                final IndexReader.CacheHelper cacheHelper = ctx.reader().getReaderCacheHelper();
+                if (cacheHelper == null) {
+                    return null;
+                }
+                final BytesReference value = cache.get(new Key(shardId, cacheHelper.getKey(), requestCacheKey));
+                if (value == null) {
+                    missCount.increment();
+                    return null;
+                }
+                hitCount.increment();
+                try (StreamInput in = new NamedWriteableAwareStreamInput(value.streamInput(), namedWriteableRegistry)) {
+                    return InternalAggregations.readAggregations(in);
+                }
+            }
+
+            @Override
+            public void put(LeafReaderContext ctx, InternalAggregations aggregations) throws IOException {
+                final IndexReader.CacheHelper cacheHelper = ctx.reader().getReaderCacheHelper();
+                if (cacheHelper == null) {
+                    return;
+                }
+                final BytesReference value;
+                // most per segment results are small, see IndicesService#cacheShardLevelResult
+                try (BytesStreamOutput out = new BytesStreamOutput(512)) {
+                    aggregations.writeTo(out);
+                    value = out.bytes();
+                }
+                final Key key = new Key(shardId, cacheHelper.getKey(), requestCacheKey);
+                keysByReader.computeIfAbsent(key.readerCacheKey, readerCacheKey -> {
+                    cacheHelper.addClosedListener(IndicesSegmentAggregationCache.this::onReaderClosed);
+                    return ConcurrentCollections.newConcurrentSet();
+                }).add(key);
+                cache.put(key, value);
+            }
+        };
+    }
+
+    private void onReaderClosed(IndexReader.CacheKey readerCacheKey) {
+        final Set<Key> keys = keysByReader.remove(readerCacheKey);
+        if (keys != null) {
+            for (Key key : keys) {
+                cache.invalidate(key);
+            }
+        }
+    }
+
+    @Override
+    public void onRemoval(RemovalNotification<Key, BytesReference> notification) {
+        if (notification.getRemovalReason() == RemovalNotification.RemovalReason.REPLACED) {
+            // the key is still cached
+            return;
+        }
+        final Key key = notification.getKey();
+        final Set<Key> keys = keysByReader.get(key.readerCacheKey);
+        if (keys != null) {
+            keys.remove(key);
+        }
+    }
+
+    /**
+     * Invalidates all the entries of the given shard.
+     */
+    void clear(ShardId shardId) {
+        for (Iterator<Key> iterator = cache.keys().iterator(); iterator.hasNext(); ) {
+            if (iterator.next().shardId.equals(shardId)) {
+                iterator.remove();
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        cache.invalidateAll();
+    }
+
+    int count() {
+        return cache.count();
+    }
+
+    long hitCount() {
+        return hitCount.sum();
+    }
+
+    long missCount() {
+        return missCount.sum();
+    }
+
+    static final class Key implements Accountable {
+        private static final long BASE_RAM_BYTES_USED = RamUsageEstimator.shallowSizeOfInstance(Key.class);
+
+        final ShardId shardId;
+        final IndexReader.CacheKey readerCacheKey;
+        final BytesReference requestCacheKey;
+
+        Key(ShardId shardId, IndexReader.CacheKey readerCacheKey, BytesReference requestCacheKey) {
+            this.shardId = shardId;
+            this.readerCacheKey = Objects.requireNonNull(readerCacheKey);
+            this.requestCacheKey = requestCacheKey;
+        }
+
+        @Override
+        public long ramBytesUsed() {
+            return BASE_RAM_BYTES_USED + requestCacheKey.length();
+        }
+
+        @Override
+        public Collection<Accountable> getChildResources() {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Key key = (Key) o;
+            return readerCacheKey.equals(key.readerCacheKey)
+                && shardId.equals(key.shardId)
+                && requestCacheKey.equals(key.requestCacheKey);
+        }
+
+        @Override
+        public int hashCode() {
+            int result = shardId.hashCode();
+            result = 31 * result + readerCacheKey.hashCode();
+            result = 31 * result + requestCacheKey.hashCode();
+            return result;
+        }
+    }
+}
@@ -181,6 +181,8 @@ public class IndicesService extends AbstractLifecycleComponent
     private final CacheCleaner cacheCleaner;
     private final ThreadPool threadPool;
     private final CircuitBreakerService circuitBreakerService;
+    private final RefreshScheduler refreshScheduler;
+    private final MergeBandwidthCoordinator mergeBandwidthCoordinator;
     private final BigArrays bigArrays;
     private final ScriptService scriptService;
     private final Client client;
@@ -193,6 +195,7 @@ public class IndicesService extends AbstractLifecycleComponent
     private final IndexingMemoryController indexingMemoryController;
     private final TimeValue cleanInterval;
     final IndicesRequestCache indicesRequestCache; // pkg-private for testing
+    final IndicesSegmentAggregationCache segmentAggregationCache; // pkg-private for testing
     private final IndicesQueryCache indicesQueryCache;
     private final MetaStateService metaStateService;
     private final Collection<Function<IndexSettings, Optional<EngineFactory>>> engineFactoryProviders;
@@ -224,11 +227,14 @@ public class IndicesService extends AbstractLifecycleComponent
         this.indicesQueryCache = new IndicesQueryCache(settings);
         this.mapperRegistry = mapperRegistry;
         this.namedWriteableRegistry = namedWriteableRegistry;
+        this.segmentAggregationCache = new IndicesSegmentAggregationCache(settings, namedWriteableRegistry);
         indexingMemoryController = new IndexingMemoryController(settings, threadPool,
                                                                 // ensure we pull an iter with new shards - flatten makes a copy
                                                                 () -> Iterables.flatten(this).iterator());
         this.indexScopedSettings = indexScopedSettings;
         this.circuitBreakerService = circuitBreakerService;
+        this.refreshScheduler = new RefreshScheduler(settings);
+        this.mergeBandwidthCoordinator = new MergeBandwidthCoordinator(settings);
         this.bigArrays = bigArrays;
         this.scriptService = scriptService;
         this.client = client;
@@ -268,6 +274,7 @@ public class IndicesService extends AbstractLifecycleComponent
                             indicesFieldDataCache,
                             cacheCleaner,
                             indicesRequestCache,
+                            segmentAggregationCache,
                             indicesQueryCache);
                 } catch (IOException e) {
                     throw new UncheckedIOException(e);
@@ -553,7 +560,9 @@ public class IndicesService extends AbstractLifecycleComponent
                 indicesQueryCache,
                 mapperRegistry,
                 indicesFieldDataCache,
-                namedWriteableRegistry
+                namedWriteableRegistry,
+                refreshScheduler,
+                mergeBandwidthCoordinator
         );
     }
 
@@ -1264,6 +1273,10 @@ public class IndicesService extends AbstractLifecycleComponent
     public void loadIntoContext(ShardSearchRequest request, SearchContext context, QueryPhase queryPhase) throws Exception {
         assert canCache(request, context);
         final DirectoryReader directoryReader = context.searcher().getDirectoryReader();
+        if (segmentAggregationCache.isEnabled() && context.aggregations() != null) {
+            // if the shard changed since the request was cached, only the aggregations of the new segments need to be computed
+            context.aggregations().segmentCache(segmentAggregationCache.forRequest(request.shardId(), request.cacheKey()));
+        }
 
         boolean[] loadedFromCache = new boolean[] { true };
         BytesReference bytesReference = cacheShardLevelResult(context.indexShard(), directoryReader, request.cacheKey(),
@@ -1407,6 +1420,7 @@ public class IndicesService extends AbstractLifecycleComponent
             final boolean clearedAtLeastOne = service.clearCaches(queryCache, fieldDataCache, fields);
             if ((requestCache || (clearedAtLeastOne == false && fields.length == 0)) && shard != null) {
                 indicesRequestCache.clear(new IndexShardCacheEntity(shard));
+                segmentAggregationCache.clear(shardId);
             }
         }
     }
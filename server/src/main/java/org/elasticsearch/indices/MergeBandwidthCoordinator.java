@@ -0,0 +1,285 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.indices;
+
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FilterDirectory;
+import org.apache.lucene.store.IOContext;
+import org.apache.lucene.store.IndexOutput;
+import org.apache.lucene.store.RateLimitedIndexOutput;
+import org.apache.lucene.store.RateLimiter;
+import org.elasticsearch.common.Nullable;
+import org.elasticsearch.common.lease.Releasable;
+import org.elasticsearch.common.metrics.CounterMetric;
+import org.elasticsearch.common.settings.Setting;
+import org.elasticsearch.common.settings.Setting.Property;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.unit.ByteSizeUnit;
+import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.common.util.concurrent.ConcurrentCollections;
+import org.elasticsearch.common.util.concurrent.EsExecutors;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Shares a disk write bandwidth budget between the merges of all the shards of a node that share a data path, on top of the
+ * per shard IO throttling of the merge schedulers.
+ * <p>
+ * Merges that are smaller than {@link #SMALL_MERGE_SIZE_SETTING} are not coordinated. Larger merges are ordered by priority:
+ * merges of shards that are not search idle first, then smaller merges first, then in the order in which they started. The
+ * first {@link #MAX_CONCURRENT_MERGES_SETTING} merges of a data path are active and share {@link #MAX_BYTES_PER_SEC_SETTING}
+ * equally. The other merges are queued: they keep writing at {@link #QUEUED_MB_PER_SEC} rather than waiting for a slot, since
+ * the merge scheduler of their shard may have stopped one of the active merges until the queued ones complete. Priorities and
+ * shares are updated whenever a merge starts or completes on the data path.
+ */
+public final class MergeBandwidthCoordinator {
+
+    /** Whether the merges of the shards of this node share a bandwidth budget per data path (default: false). */
+    public static final Setting<Boolean> ENABLED_SETTING =
+        Setting.boolSetting("indices.merge.coordination.enabled", false, Property.NodeScope);
+
+    /** The disk write bandwidth that the merges of a data path may use, <code>0</code> means unlimited (default: 100mb). */
+    public static final Setting<ByteSizeValue> MAX_BYTES_PER_SEC_SETTING =
+        Setting.byteSizeSetting("indices.merge.coordination.max_bytes_per_sec", new ByteSizeValue(100, ByteSizeUnit.MB),
+            Property.NodeScope);
+
+    /** How many merges of a data path are active at the same time (default: half the processors, between 1 and 4). */
+    public static final Setting<Integer> MAX_CONCURRENT_MERGES_SETTING =
+        new Setting<>("indices.merge.coordination.max_concurrent_merges",
+            s -> Integer.toString(Math.max(1, Math.min(4, EsExecutors.numberOfProcessors(s) / 2))),
+            s -> Setting.parseInt(s, 1, "indices.merge.coordination.max_concurrent_merges"), Property.NodeScope);
+
+    /** The size below which merges are neither queued nor throttled (default: 50mb). */
+    public static final Setting<ByteSizeValue> SMALL_MERGE_SIZE_SETTING =
+        Setting.byteSizeSetting("indices.merge.coordination.small_merge_size", new ByteSizeValue(50, ByteSizeUnit.MB),
+            Property.NodeScope);
+
+    /** The rate at which queued merges write. */
+    static final double QUEUED_MB_PER_SEC = 1.0;
+
+    private static final Comparator<ThrottledMerge> PRIORITY = Comparator
+        .comparing((ThrottledMerge merge) -> merge.searchHot == false)
+        .thenComparingLong(merge -> merge.sizeInBytes)
+        .thenComparingLong(merge -> merge.seqNo);
+
+    private final boolean enabled;
+    private final double maxMBPerSec;
+    private final int maxConcurrentMerges;
+    private final long smallMergeSizeInBytes;
+    private final ConcurrentMap<Path, DataPathMerges> dataPaths = ConcurrentCollections.newConcurrentMap();
+    private final AtomicLong seqNoGenerator = new AtomicLong();
+
+    public MergeBandwidthCoordinator(Settings settings) {
+        this.enabled = ENABLED_SETTING.get(settings);
+        final long maxBytesPerSec = MAX_BYTES_PER_SEC_SETTING.get(settings).getBytes();
+        this.maxMBPerSec = maxBytesPerSec <= 0 ? Double.POSITIVE_INFINITY : maxBytesPerSec / 1024d / 1024d;
+        this.maxConcurrentMerges = MAX_CONCURRENT_MERGES_SETTING.get(settings);
+        this.smallMergeSizeInBytes = SMALL_MERGE_SIZE_SETTING.get(settings).getBytes();
+    }
+
+    /**
+     * Returns <code>true</code> if shards should register their merges with this coordinator.
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Returns the throttle that the merge scheduler of a shard on the given data path uses to register its merges.
+     *
+     * @param dataPath  the data path of the shard
+     * @param searchHot returns <code>true</code> if the shard is currently searched, and its merges should be prioritized
+     */
+    public ShardMergeThrottle shardMergeThrottle(Path dataPath, BooleanSupplier searchHot) {
+        return new ShardMergeThrottle(dataPaths.computeIfAbsent(dataPath, p -> new DataPathMerges()), searchHot);
+    }
+
+    /**
+     * The merges of a single shard. Also keeps track of the time that these merges spent queued or throttled.
+     */
+    public final class ShardMergeThrottle {
+
+        private final DataPathMerges dataPathMerges;
+        private final BooleanSupplier searchHot;
+        private final CounterMetric currentQueued = new CounterMetric();
+        private final CounterMetric totalQueuedTimeInNanos = new CounterMetric();
+        private final CounterMetric totalThrottledTimeInNanos = new CounterMetric();
+
+        private ShardMergeThrottle(DataPathMerges dataPathMerges, BooleanSupplier searchHot) {
+            this.dataPathMerges = dataPathMerges;
+            this.searchHot = searchHot;
+        }
+
+        /**
+         * Registers a merge of the given size that is about to start. Returns <code>null</code> if the merge is too small to be
+         * coordinated, otherwise the returned merge must be released once the merge completed.
+         */
+        @Nullable
+        public ThrottledMerge startMerge(long sizeInBytes) {
+            if (sizeInBytes < smallMergeSizeInBytes) {
+                return null;
+            }
+            final ThrottledMerge merge = new ThrottledMerge(this, sizeInBytes, seqNoGenerator.incrementAndGet());
+            dataPathMerges.add(merge);
+            return merge;
+        }
+
+        /**
+         * The number of merges of this shard that are currently queued.
+         */
+        public long currentQueued() {
+            return currentQueued.count();
+        }
+
+        /**
+         * The total time that the merges of this shard spent queued, in nanoseconds.
+         */
+        public long totalQueuedTimeInNanos() {
+            return totalQueuedTimeInNanos.count();
+        }
+
+        /**
+         * The total time that the writes of the merges of this shard were paused to stay within the bandwidth budget of the
+         * data path, in nanoseconds.
+         */
+        public long totalThrottledTimeInNanos() {
+            return totalThrottledTimeInNanos.count();
+        }
+    }
+
+    /**
+     * A coordinated merge, whose writes are rate limited according to its priority on the data path.
+     */
+    public static final class ThrottledMerge implements Releasable {
+
+        private final ShardMergeThrottle shard;
+        private final long sizeInBytes;
+        private final long seqNo;
+        private final RateLimiter rateLimiter;
+        // the following fields are only modified by the DataPathMerges this merge is registered with
+        private boolean searchHot;
+        private volatile boolean queued;
+        private long queuedSinceNanos;
+        private boolean released;
+
+        private ThrottledMerge(ShardMergeThrottle shard, long sizeInBytes, long seqNo) {
+            this.shard = shard;
+            this.sizeInBytes = sizeInBytes;
+            this.seqNo = seqNo;
+            this.rateLimiter = new RateLimiter.SimpleRateLimiter(Double.POSITIVE_INFINITY) {
+                @Override
+                public long pause(long bytes) {
+                    final long pausedNanos = super.pause(bytes);
+                    shard.totalThrottledTimeInNanos.inc(pausedNanos);
+                    return pausedNanos;
+                }
+            };
+        }
+
+        /**
+         * Wraps the directory that the merge writes to, so that its writes are rate limited.
+         */
+        public Directory wrap(Directory directory) {
+            return new FilterDirectory(directory) {
+                @Override
+                public IndexOutput createOutput(String name, IOContext context) throws IOException {
+                    return new RateLimitedIndexOutput(rateLimiter, in.createOutput(name, context));
+                }
+            };
+        }
+
+        /**
+         * The rate at which this merge may currently write.
+         */
+        public double getMBPerSec() {
+            return rateLimiter.getMBPerSec();
+        }
+
+        /**
+         * Returns <code>true</code> if this merge is currently queued.
+         */
+        public boolean isQueued() {
+            return queued;
+        }
+
+        private void update(boolean queued, double mbPerSec) {
+            if (this.queued != queued) {
+                if (queued) {
+                    shard.currentQueued.inc();
+                    queuedSinceNanos = System.nanoTime();
+                } else {
+                    shard.currentQueued.dec();
+                    shard.totalQueuedTimeInNanos.inc(System.nanoTime() - queuedSinceNanos);
+                }
+                this.queued = queued;
+            }
+            if (rateLimiter.getMBPerSec() != mbPerSec) {
+                rateLimiter.setMBPerSec(mbPerSec);
+            }
+        }
+
+        @Override
+        public void close() {
+            shard.dataPathMerges.remove(this);
+        }
+    }
+
+    private final class DataPathMerges {
+
+        private final List<ThrottledMerge> merges = new ArrayList<>();
+
+        synchronized void add(ThrottledMerge merge) {
+            merges.add(merge);
+            rebalance();
+        }
+
+        synchronized void remove(ThrottledMerge merge) {
+            if (merge.released == false) {
+                merge.released = true;
+                merges.remove(merge);
+                merge.update(false, Double.POSITIVE_INFINITY);
+                rebalance();
+            }
+        }
+
+        private void rebalance() {
+            for (ThrottledMerge merge : merges) {
+                merge.searchHot = merge.shard.searchHot.getAsBoolean();
+            }
+            merges.sort(PRIORITY);
+            final int active = Math.min(maxConcurrentMerges, merges.size());
+            final double share = maxMBPerSec / active;
+            for (int i = 0; i < merges.size(); i++) {
+                if (i < active) {
+                    merges.get(i).update(false, share);
+                } else {
+                    merges.get(i).update(true, Math.min(share, QUEUED_MB_PER_SEC));
+                }
+            }
+        }
+    }
+}
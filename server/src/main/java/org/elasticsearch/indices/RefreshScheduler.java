@@ -0,0 +1,126 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.indices;
+
+import org.elasticsearch.common.Nullable;
+import org.elasticsearch.common.lease.Releasable;
+import org.elasticsearch.common.settings.Setting;
+import org.elasticsearch.common.settings.Setting.Property;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.unit.ByteSizeUnit;
+import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.common.util.concurrent.EsExecutors;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Decides, for all the shards of a node, whether a scheduled refresh should run now or can be deferred to a later round of the
+ * refresh interval. Shards that were searched since their last refresh are refreshed on every round so that searches see recent
+ * changes, while shards that only receive writes are refreshed at most every {@link #MAX_DELAY_SETTING}, or twice that while
+ * they are merging, so that they build fewer and larger segments. A refresh is never deferred once the indexing buffer of the
+ * shard reaches {@link #MAX_BUFFER_SIZE_SETTING}, and never deferred if a refresh listener waits for it.
+ * <p>
+ * Refreshes that are not requested by a refresh listener also need one of the {@link #MAX_CONCURRENT_REFRESHES_SETTING}
+ * permits, if none is available the refresh is skipped and retried on the next round of the refresh interval.
+ * <p>
+ * The scheduler is disabled by default and does not apply to indices with an explicit {@code index.refresh_interval}.
+ */
+public final class RefreshScheduler {
+
+    /** Whether scheduled refreshes are adapted to the search and indexing activity of the shards (default: false). */
+    public static final Setting<Boolean> ADAPTIVE_REFRESH_ENABLED_SETTING =
+        Setting.boolSetting("indices.refresh.adaptive.enabled", false, Property.NodeScope);
+
+    /** How long the refresh of a shard that was not searched since its last refresh can be deferred (default: 5s). */
+    public static final Setting<TimeValue> MAX_DELAY_SETTING =
+        Setting.timeSetting("indices.refresh.adaptive.max_delay", TimeValue.timeValueSeconds(5), TimeValue.ZERO, Property.NodeScope);
+
+    /** The indexing buffer size of a shard above which its refresh is not deferred (default: 64mb). */
+    public static final Setting<ByteSizeValue> MAX_BUFFER_SIZE_SETTING =
+        Setting.byteSizeSetting("indices.refresh.adaptive.max_buffer_size", new ByteSizeValue(64, ByteSizeUnit.MB),
+            Property.NodeScope);
+
+    /** How many scheduled refreshes may run concurrently on this node (default: half the processors, at most 10). */
+    public static final Setting<Integer> MAX_CONCURRENT_REFRESHES_SETTING =
+        new Setting<>("indices.refresh.adaptive.max_concurrent_refreshes",
+            s -> Integer.toString(Math.min(10, Math.max(1, (EsExecutors.numberOfProcessors(s) + 1) / 2))),
+            s -> Setting.parseInt(s, 1, "indices.refresh.adaptive.max_concurrent_refreshes"), Property.NodeScope);
+
+    private final boolean enabled;
+    private final long maxDelayInMillis;
+    private final long maxBufferSizeInBytes;
+    private final Semaphore permits;
+
+    public RefreshScheduler(Settings settings) {
+        this.enabled = ADAPTIVE_REFRESH_ENABLED_SETTING.get(settings);
+        this.maxDelayInMillis = MAX_DELAY_SETTING.get(settings).millis();
+        this.maxBufferSizeInBytes = MAX_BUFFER_SIZE_SETTING.get(settings).getBytes();
+        this.permits = new Semaphore(MAX_CONCURRENT_REFRESHES_SETTING.get(settings));
+    }
+
+    /**
+     * Returns <code>true</code> if shards should consult this scheduler before running a scheduled refresh.
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Returns <code>true</code> if the scheduled refresh of a shard can be deferred to a later round of the refresh interval.
+     * All times are relative times in milliseconds.
+     *
+     * @param nowInMillis                 the current time
+     * @param lastRefreshInMillis         the time of the last refresh of the shard
+     * @param lastSearcherAccessInMillis  the time the searcher of the shard was last accessed
+     * @param merging                     whether the shard is currently merging segments
+     * @param indexBufferBytes            the size of the indexing buffer of the shard
+     */
+    public boolean shouldDefer(long nowInMillis, long lastRefreshInMillis, long lastSearcherAccessInMillis, boolean merging,
+                               long indexBufferBytes) {
+        if (lastSearcherAccessInMillis >= lastRefreshInMillis) {
+            // searched since the last refresh, this shard needs fresh results
+            return false;
+        }
+        if (indexBufferBytes >= maxBufferSizeInBytes) {
+            return false;
+        }
+        final long maxDelay = merging ? 2 * maxDelayInMillis : maxDelayInMillis;
+        return nowInMillis - lastRefreshInMillis < maxDelay;
+    }
+
+    /**
+     * Acquires one of the permits for a concurrent refresh. Returns <code>null</code> if all the permits are in use, otherwise the
+     * returned releasable must be closed once the refresh completed.
+     */
+    @Nullable
+    public Releasable tryAcquire() {
+        if (permits.tryAcquire() == false) {
+            return null;
+        }
+        final AtomicBoolean released = new AtomicBoolean();
+        return () -> {
+            if (released.compareAndSet(false, true)) {
+                permits.release();
+            }
+        };
+    }
+}
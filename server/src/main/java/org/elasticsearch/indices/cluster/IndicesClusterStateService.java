@@ -267,7 +267,7 @@ public class IndicesClusterStateService extends AbstractLifecycleComponent imple
 
         createIndices(state);
 
-        createOrUpdateShards(state);
+        createOrUpdateShards(event);
     }
 
     /**
@@ -553,7 +553,8 @@ public class IndicesClusterStateService extends AbstractLifecycleComponent imple
         }
     }
 
-    private void createOrUpdateShards(final ClusterState state) {
+    private void createOrUpdateShards(final ClusterChangedEvent event) {
+        final ClusterState state = event.state();
         RoutingNode localRoutingNode = state.getRoutingNodes().node(state.nodes().getLocalNodeId());
         if (localRoutingNode == null) {
             return;
@@ -571,6 +572,8 @@ public class IndicesClusterStateService extends AbstractLifecycleComponent imple
                 if (shard == null) {
                     assert shardRouting.initializing() : shardRouting + " should have been removed by failMissingShards";
                     createShard(nodes, routingTable, shardRouting, state);
+                } else if (isShardUnchanged(event, shardRouting, shard)) {
+                    logger.trace("{} skipping update of unchanged shard", shardId);
                 } else {
                     updateShard(nodes, shardRouting, shard, routingTable, state);
                 }
@@ -578,6 +581,27 @@ public class IndicesClusterStateService extends AbstractLifecycleComponent imple
         }
     }
 
+    /**
+     * Returns <code>true</code> if nothing that {@link #updateShard} depends on changed since the previous cluster state, so that
+     * applying a cluster state that only touches other indices or shards does not need to visit every shard of the node. Shards
+     * that are initializing or relocating are always updated since their transitions do not only depend on the cluster state.
+     */
+    private static boolean isShardUnchanged(ClusterChangedEvent event, ShardRouting shardRouting, Shard shard) {
+        if (shardRouting.initializing() || shardRouting.relocating() || shard.state() != IndexShardState.STARTED
+            || shardRouting.equals(shard.routingEntry()) == false || event.nodesChanged()) {
+            return false;
+        }
+        final ShardId shardId = shardRouting.shardId();
+        final ClusterState previousState = event.previousState();
+        // unchanged index metadata is carried over by reference when cluster state diffs are applied
+        if (previousState.metaData().index(shardId.getIndex()) != event.state().metaData().index(shardId.getIndex())) {
+            return false;
+        }
+        final IndexShardRoutingTable previousShardRoutingTable = previousState.routingTable().shardRoutingTableOrNull(shardId);
+        return previousShardRoutingTable != null
+            && previousShardRoutingTable.equals(event.state().routingTable().shardRoutingTable(shardId));
+    }
+
     private void createShard(DiscoveryNodes nodes, RoutingTable routingTable, ShardRouting shardRouting, ClusterState state) {
         assert shardRouting.initializing() : "only allow shard creation for initializing shard but was " + shardRouting;
 
@@ -136,6 +136,25 @@ public class MultiFileWriter implements Releasable {
         }
     }
 
+    /**
+     * Discards what was written of the given file, so that it can be written again from its start.
+     */
+    void discardFile(String name) {
+        fileChunkWriters.remove(name);
+        final IndexOutput indexOutput = openIndexOutputs.remove(name);
+        if (indexOutput != null) {
+            try {
+                indexOutput.close();
+            } catch (Exception e) {
+                logger.debug(() -> new ParameterizedMessage("error while closing recovery output [{}]", indexOutput), e);
+            }
+        }
+        final String tempFileName = getTempNameForFile(name);
+        if (tempFileNames.remove(tempFileName) != null) {
+            store.deleteQuiet(tempFileName);
+        }
+    }
+
     @Override
     public void close() {
         fileChunkWriters.clear();
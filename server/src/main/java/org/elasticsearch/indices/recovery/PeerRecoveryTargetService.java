@@ -90,6 +90,7 @@ public class PeerRecoveryTargetService implements IndexEventListener {
         public static final String FILES_INFO = "internal:index/shard/recovery/filesInfo";
         public static final String FILE_CHUNK = "internal:index/shard/recovery/file_chunk";
         public static final String CLEAN_FILES = "internal:index/shard/recovery/clean_files";
+        public static final String RESTORE_FILES_FROM_SNAPSHOT = "internal:index/shard/recovery/restore_files_from_snapshot";
         public static final String TRANSLOG_OPS = "internal:index/shard/recovery/translog_ops";
         public static final String PREPARE_TRANSLOG = "internal:index/shard/recovery/prepare_translog";
         public static final String FINALIZE = "internal:index/shard/recovery/finalize";
@@ -107,12 +108,12 @@ public class PeerRecoveryTargetService implements IndexEventListener {
     private final RecoveriesCollection onGoingRecoveries;
 
     public PeerRecoveryTargetService(ThreadPool threadPool, TransportService transportService,
-            RecoverySettings recoverySettings, ClusterService clusterService) {
+            RecoverySettings recoverySettings, ClusterService clusterService, @Nullable SnapshotFilesProvider snapshotFilesProvider) {
         this.threadPool = threadPool;
         this.transportService = transportService;
         this.recoverySettings = recoverySettings;
         this.clusterService = clusterService;
-        this.onGoingRecoveries = new RecoveriesCollection(logger, threadPool, this::waitForClusterState);
+        this.onGoingRecoveries = new RecoveriesCollection(logger, threadPool, this::waitForClusterState, snapshotFilesProvider);
 
         transportService.registerRequestHandler(Actions.FILES_INFO, RecoveryFilesInfoRequest::new, ThreadPool.Names.GENERIC, new
                 FilesInfoRequestHandler());
@@ -120,6 +121,8 @@ public class PeerRecoveryTargetService implements IndexEventListener {
                 FileChunkTransportRequestHandler());
         transportService.registerRequestHandler(Actions.CLEAN_FILES, RecoveryCleanFilesRequest::new, ThreadPool.Names.GENERIC, new
                 CleanFilesRequestHandler());
+        transportService.registerRequestHandler(Actions.RESTORE_FILES_FROM_SNAPSHOT, ThreadPool.Names.GENERIC,
+                RecoverySnapshotFilesRequest::new, new RestoreFilesFromSnapshotRequestHandler());
         transportService.registerRequestHandler(Actions.PREPARE_TRANSLOG, ThreadPool.Names.GENERIC,
                 RecoveryPrepareForTranslogOperationsRequest::new, new PrepareForTranslogOperationsRequestHandler());
         transportService.registerRequestHandler(Actions.TRANSLOG_OPS, RecoveryTranslogOperationsRequest::new, ThreadPool.Names.GENERIC,
@@ -603,6 +606,21 @@ public class PeerRecoveryTargetService implements IndexEventListener {
         }
     }
 
+    class RestoreFilesFromSnapshotRequestHandler implements TransportRequestHandler<RecoverySnapshotFilesRequest> {
+
+        @Override
+        public void messageReceived(RecoverySnapshotFilesRequest request, TransportChannel channel, Task task) throws Exception {
+            try (RecoveryRef recoveryRef = onGoingRecoveries.getRecoverySafe(request.recoveryId(), request.shardId())) {
+                final ActionListener<TransportResponse> listener =
+                    new ChannelActionListener<>(channel, Actions.RESTORE_FILES_FROM_SNAPSHOT, request);
+                recoveryRef.target().restoreFilesFromSnapshot(request.repository(), request.indexId(), request.snapshotFiles(),
+                    request.totalTranslogOps(),
+                    ActionListener.wrap(failedFiles -> listener.onResponse(new RecoverySnapshotFilesResponse(failedFiles)),
+                        listener::onFailure));
+            }
+        }
+    }
+
     class FileChunkTransportRequestHandler implements TransportRequestHandler<RecoveryFileChunkRequest> {
 
         // How many bytes we've copied since we last called RateLimiter.pause
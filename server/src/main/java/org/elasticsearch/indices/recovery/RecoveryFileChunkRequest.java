@@ -27,10 +27,11 @@ import org.elasticsearch.common.lucene.Lucene;
 import org.elasticsearch.index.shard.ShardId;
 import org.elasticsearch.index.store.StoreFileMetaData;
 import org.elasticsearch.transport.TransportRequest;
+import org.elasticsearch.transport.ZeroCopyTransportMessage;
 
 import java.io.IOException;
 
-public final class RecoveryFileChunkRequest extends TransportRequest {
+public final class RecoveryFileChunkRequest extends TransportRequest implements ZeroCopyTransportMessage {
     private boolean lastChunk;
     private long recoveryId;
     private ShardId shardId;
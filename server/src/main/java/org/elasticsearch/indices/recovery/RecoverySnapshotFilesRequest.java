@@ -0,0 +1,107 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.indices.recovery;
+
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.index.snapshots.blobstore.BlobStoreIndexShardSnapshot.FileInfo;
+import org.elasticsearch.index.store.StoreFileMetaData;
+import org.elasticsearch.repositories.IndexId;
+import org.elasticsearch.transport.TransportRequest;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+class RecoverySnapshotFilesRequest extends TransportRequest {
+
+    private final long recoveryId;
+    private final ShardId shardId;
+    private final String repository;
+    private final IndexId indexId;
+    private final List<FileInfo> snapshotFiles;
+    private final int totalTranslogOps;
+
+    RecoverySnapshotFilesRequest(long recoveryId, ShardId shardId, String repository, IndexId indexId, List<FileInfo> snapshotFiles,
+                                 int totalTranslogOps) {
+        this.recoveryId = recoveryId;
+        this.shardId = shardId;
+        this.repository = repository;
+        this.indexId = indexId;
+        this.snapshotFiles = snapshotFiles;
+        this.totalTranslogOps = totalTranslogOps;
+    }
+
+    RecoverySnapshotFilesRequest(StreamInput in) throws IOException {
+        super(in);
+        recoveryId = in.readLong();
+        shardId = ShardId.readShardId(in);
+        repository = in.readString();
+        indexId = new IndexId(in);
+        final int size = in.readVInt();
+        snapshotFiles = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            snapshotFiles.add(new FileInfo(in.readString(), new StoreFileMetaData(in), in.readOptionalWriteable(ByteSizeValue::new)));
+        }
+        totalTranslogOps = in.readVInt();
+    }
+
+    public long recoveryId() {
+        return recoveryId;
+    }
+
+    public ShardId shardId() {
+        return shardId;
+    }
+
+    public String repository() {
+        return repository;
+    }
+
+    public IndexId indexId() {
+        return indexId;
+    }
+
+    public List<FileInfo> snapshotFiles() {
+        return snapshotFiles;
+    }
+
+    public int totalTranslogOps() {
+        return totalTranslogOps;
+    }
+
+    @Override
+    public void writeTo(StreamOutput out) throws IOException {
+        super.writeTo(out);
+        out.writeLong(recoveryId);
+        shardId.writeTo(out);
+        out.writeString(repository);
+        indexId.writeTo(out);
+        out.writeVInt(snapshotFiles.size());
+        for (FileInfo fileInfo : snapshotFiles) {
+            out.writeString(fileInfo.name());
+            fileInfo.metadata().writeTo(out);
+            out.writeOptionalWriteable(fileInfo.partSize());
+        }
+        out.writeVInt(totalTranslogOps);
+    }
+}
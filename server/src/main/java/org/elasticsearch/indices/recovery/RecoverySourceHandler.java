@@ -33,9 +33,11 @@ import org.elasticsearch.ExceptionsHelper;
 import org.elasticsearch.Version;
 import org.elasticsearch.action.ActionListener;
 import org.elasticsearch.action.StepListener;
+import org.elasticsearch.action.support.PlainActionFuture;
 import org.elasticsearch.cluster.routing.IndexShardRoutingTable;
 import org.elasticsearch.cluster.routing.ShardRouting;
 import org.elasticsearch.common.CheckedSupplier;
+import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.StopWatch;
 import org.elasticsearch.common.bytes.BytesArray;
 import org.elasticsearch.common.collect.Tuple;
@@ -56,6 +58,7 @@ import org.elasticsearch.index.shard.IndexShard;
 import org.elasticsearch.index.shard.IndexShardClosedException;
 import org.elasticsearch.index.shard.IndexShardRelocatedException;
 import org.elasticsearch.index.shard.IndexShardState;
+import org.elasticsearch.index.snapshots.blobstore.BlobStoreIndexShardSnapshot;
 import org.elasticsearch.index.store.Store;
 import org.elasticsearch.index.store.StoreFileMetaData;
 import org.elasticsearch.index.translog.Translog;
@@ -68,14 +71,17 @@ import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
 import java.util.function.Supplier;
+import java.util.stream.Collectors;
 import java.util.stream.StreamSupport;
 
 import static org.elasticsearch.index.seqno.SequenceNumbers.NO_OPS_PERFORMED;
@@ -102,10 +108,18 @@ public class RecoverySourceHandler {
     private final int chunkSizeInBytes;
     private final RecoveryTargetHandler recoveryTarget;
     private final int maxConcurrentFileChunks;
+    private final int maxConcurrentOperations;
+    private final SnapshotFilesProvider snapshotFilesProvider;
     private final CancellableThreads cancellableThreads = new CancellableThreads();
 
     public RecoverySourceHandler(final IndexShard shard, RecoveryTargetHandler recoveryTarget, final StartRecoveryRequest request,
                                  final int fileChunkSizeInBytes, final int maxConcurrentFileChunks) {
+        this(shard, recoveryTarget, request, fileChunkSizeInBytes, maxConcurrentFileChunks, 1, null);
+    }
+
+    public RecoverySourceHandler(final IndexShard shard, RecoveryTargetHandler recoveryTarget, final StartRecoveryRequest request,
+                                 final int fileChunkSizeInBytes, final int maxConcurrentFileChunks, final int maxConcurrentOperations,
+                                 @Nullable final SnapshotFilesProvider snapshotFilesProvider) {
         this.shard = shard;
         this.recoveryTarget = recoveryTarget;
         this.request = request;
@@ -114,6 +128,10 @@ public class RecoverySourceHandler {
         this.chunkSizeInBytes = fileChunkSizeInBytes;
         // if the target is on an old version, it won't be able to handle out-of-order file chunks.
         this.maxConcurrentFileChunks = request.targetNode().getVersion().onOrAfter(Version.V_6_7_0) ? maxConcurrentFileChunks : 1;
+        // if the target is on an old version, it expects to receive the operations of the history of the shard one batch at a time.
+        this.maxConcurrentOperations = request.targetNode().getVersion().onOrAfter(Version.V_7_1_2) ? maxConcurrentOperations : 1;
+        // if the target is on an old version, it won't be able to restore files from snapshot repositories.
+        this.snapshotFilesProvider = request.targetNode().getVersion().onOrAfter(Version.V_7_1_2) ? snapshotFilesProvider : null;
     }
 
     public StartRecoveryRequest getRequest() {
@@ -411,7 +429,7 @@ public class RecoverySourceHandler {
                     phase1ExistingFileNames.size(), new ByteSizeValue(existingTotalSize));
                 cancellableThreads.execute(() -> recoveryTarget.receiveFileInfo(
                     phase1FileNames, phase1FileSizes, phase1ExistingFileNames, phase1ExistingFileSizes, translogOps.get()));
-                sendFiles(store, phase1Files.toArray(new StoreFileMetaData[0]), translogOps);
+                recoverFiles(store, phase1Files, translogOps);
                 // Send the CLEAN_FILES request, which takes all of the files that
                 // were transferred and renames them from their temporary file
                 // names to the actual file names. It also writes checksums for
@@ -494,7 +512,8 @@ public class RecoverySourceHandler {
      * <p>
      * Phase two uses a snapshot of the current translog *without* acquiring the write lock (however, the translog snapshot is
      * point-in-time view of the translog). It then sends each translog operation to the target node so it can be replayed into the new
-     * shard.
+     * shard. Up to {@link RecoverySettings#INDICES_RECOVERY_MAX_CONCURRENT_OPERATIONS_SETTING} batches of operations are sent concurrently,
+     * the target applies them in any order since every operation carries its sequence number.
      *
      * @param startingSeqNo              the sequence number to start recovery from, or {@link SequenceNumbers#UNASSIGNED_SEQ_NO} if all
      *                                   ops should be sent
@@ -521,8 +540,8 @@ public class RecoverySourceHandler {
         final AtomicInteger totalSentOps = new AtomicInteger();
         final AtomicInteger lastBatchCount = new AtomicInteger(); // used to estimate the count of the subsequent batch.
         final CheckedSupplier<List<Translog.Operation>, IOException> readNextBatch = () -> {
-            // We need to synchronized Snapshot#next() because it's called by different threads through sendBatch.
-            // Even though those calls are not concurrent, Snapshot#next() uses non-synchronized state and is not multi-thread-compatible.
+            // We need to synchronized Snapshot#next() because it's called by different threads through sendBatches, possibly concurrently,
+            // and Snapshot#next() uses non-synchronized state and is not multi-thread-compatible.
             synchronized (snapshot) {
                 final List<Translog.Operation> ops = lastBatchCount.get() > 0 ? new ArrayList<>(lastBatchCount.get()) : new ArrayList<>();
                 long batchSizeInBytes = 0L;
@@ -565,53 +584,114 @@ public class RecoverySourceHandler {
             listener::onFailure
         );
 
-        sendBatch(
-                readNextBatch,
-                true,
-                SequenceNumbers.UNASSIGNED_SEQ_NO,
-                snapshot.totalOperations(),
-                maxSeenAutoIdTimestamp,
-                maxSeqNoOfUpdatesOrDeletes,
-                retentionLeases,
-                batchedListener);
+        new BatchSender(readNextBatch, snapshot.totalOperations(), maxSeenAutoIdTimestamp, maxSeqNoOfUpdatesOrDeletes, retentionLeases,
+            batchedListener).sendBatches();
     }
 
-    private void sendBatch(
-            final CheckedSupplier<List<Translog.Operation>, IOException> nextBatch,
-            final boolean firstBatch,
-            final long targetLocalCheckpoint,
-            final int totalTranslogOps,
-            final long maxSeenAutoIdTimestamp,
-            final long maxSeqNoOfUpdatesOrDeletes,
-            final RetentionLeases retentionLeases,
-            final ActionListener<Long> listener) throws IOException {
-        final List<Translog.Operation> operations = nextBatch.get();
-        // send the leftover operations or if no operations were sent, request the target to respond with its local checkpoint
-        if (operations.isEmpty() == false || firstBatch) {
-            cancellableThreads.execute(() -> {
-                recoveryTarget.indexTranslogOperations(
-                        operations,
-                        totalTranslogOps,
-                        maxSeenAutoIdTimestamp,
-                        maxSeqNoOfUpdatesOrDeletes,
-                        retentionLeases,
-                        ActionListener.wrap(
-                                newCheckpoint -> {
-                                    sendBatch(
-                                            nextBatch,
-                                            false,
-                                            SequenceNumbers.max(targetLocalCheckpoint, newCheckpoint),
-                                            totalTranslogOps,
-                                            maxSeenAutoIdTimestamp,
-                                            maxSeqNoOfUpdatesOrDeletes,
-                                            retentionLeases,
-                                            listener);
-                                },
-                                listener::onFailure
-                        ));
-            });
-        } else {
-            listener.onResponse(targetLocalCheckpoint);
+    /**
+     * Sends the batches of operations read by a supplier to the target, keeping up to {@link #maxConcurrentOperations} requests in
+     * flight. At least one request is sent, even if there are no operations, so that the target responds with its local checkpoint.
+     * The listener is notified with the highest local checkpoint that the target responded with once all the batches were applied.
+     */
+    private final class BatchSender {
+
+        private final CheckedSupplier<List<Translog.Operation>, IOException> nextBatch;
+        private final int totalTranslogOps;
+        private final long maxSeenAutoIdTimestamp;
+        private final long maxSeqNoOfUpdatesOrDeletes;
+        private final RetentionLeases retentionLeases;
+        private final ActionListener<Long> listener;
+        // the following fields are guarded by this
+        private int inFlightRequests = 0;
+        private boolean firstBatch = true;
+        private boolean allBatchesRead = false;
+        private boolean completed = false;
+        private long targetLocalCheckpoint = SequenceNumbers.UNASSIGNED_SEQ_NO;
+
+        BatchSender(CheckedSupplier<List<Translog.Operation>, IOException> nextBatch, int totalTranslogOps, long maxSeenAutoIdTimestamp,
+                    long maxSeqNoOfUpdatesOrDeletes, RetentionLeases retentionLeases, ActionListener<Long> listener) {
+            this.nextBatch = nextBatch;
+            this.totalTranslogOps = totalTranslogOps;
+            this.maxSeenAutoIdTimestamp = maxSeenAutoIdTimestamp;
+            this.maxSeqNoOfUpdatesOrDeletes = maxSeqNoOfUpdatesOrDeletes;
+            this.retentionLeases = retentionLeases;
+            this.listener = listener;
+        }
+
+        void sendBatches() {
+            while (true) {
+                synchronized (this) {
+                    if (completed || allBatchesRead || inFlightRequests >= maxConcurrentOperations) {
+                        break;
+                    }
+                    inFlightRequests++;
+                }
+                final List<Translog.Operation> operations;
+                final boolean sendRequest;
+                try {
+                    operations = nextBatch.get();
+                    synchronized (this) {
+                        // send the leftover operations, or if no operations were sent, request the target to respond with its
+                        // local checkpoint
+                        sendRequest = operations.isEmpty() == false || firstBatch;
+                        firstBatch = false;
+                        if (operations.isEmpty()) {
+                            allBatchesRead = true;
+                        }
+                        if (sendRequest == false) {
+                            inFlightRequests--;
+                        }
+                    }
+                } catch (Exception e) {
+                    onFailure(e);
+                    return;
+                }
+                if (sendRequest) {
+                    try {
+                        cancellableThreads.execute(() -> recoveryTarget.indexTranslogOperations(
+                            operations,
+                            totalTranslogOps,
+                            maxSeenAutoIdTimestamp,
+                            maxSeqNoOfUpdatesOrDeletes,
+                            retentionLeases,
+                            ActionListener.wrap(this::onBatchApplied, this::onFailure)));
+                    } catch (Exception e) {
+                        onFailure(e);
+                        return;
+                    }
+                }
+            }
+            maybeComplete();
+        }
+
+        private void onBatchApplied(long newCheckpoint) {
+            synchronized (this) {
+                targetLocalCheckpoint = SequenceNumbers.max(targetLocalCheckpoint, newCheckpoint);
+                inFlightRequests--;
+            }
+            sendBatches();
+        }
+
+        private void maybeComplete() {
+            final long checkpoint;
+            synchronized (this) {
+                if (completed || allBatchesRead == false || inFlightRequests > 0) {
+                    return;
+                }
+                completed = true;
+                checkpoint = targetLocalCheckpoint;
+            }
+            listener.onResponse(checkpoint);
+        }
+
+        private void onFailure(Exception e) {
+            synchronized (this) {
+                if (completed) {
+                    return;
+                }
+                completed = true;
+            }
+            listener.onFailure(e);
         }
     }
 
@@ -681,11 +761,52 @@ public class RecoverySourceHandler {
                 '}';
     }
 
+    /**
+     * Sends the given files to the target. If a snapshot repository is configured for recoveries, the target restores the files that
+     * are identical to files of a snapshot of the shard from the repository, while the other files are sent. The files that the target
+     * fails to restore are sent once the restore completed, as are all the snapshot files if the restore request itself fails.
+     */
+    void recoverFiles(Store store, List<StoreFileMetaData> files, Supplier<Integer> translogOps) throws Exception {
+        final SnapshotFilesProvider.ShardSnapshotFiles snapshotFiles =
+            snapshotFilesProvider == null ? null : snapshotFilesProvider.findSnapshotFiles(request.shardId(), files);
+        if (snapshotFiles == null) {
+            sendFiles(store, files.toArray(new StoreFileMetaData[0]), translogOps);
+            return;
+        }
+        final Set<String> snapshotFileNames = snapshotFiles.files().stream()
+            .map(BlobStoreIndexShardSnapshot.FileInfo::physicalName).collect(Collectors.toSet());
+        logger.trace("recovery [phase1]: restoring [{}] files on the target from snapshot repository [{}]",
+            snapshotFileNames.size(), snapshotFiles.repository());
+        final PlainActionFuture<List<String>> restoreFuture = new PlainActionFuture<>();
+        cancellableThreads.execute(() -> recoveryTarget.restoreFilesFromSnapshot(snapshotFiles.repository(), snapshotFiles.indexId(),
+            snapshotFiles.files(), translogOps.get(), restoreFuture));
+        sendFiles(store, files.stream().filter(md -> snapshotFileNames.contains(md.name()) == false).toArray(StoreFileMetaData[]::new),
+            translogOps);
+        final Set<String> failedFiles = new HashSet<>();
+        try {
+            cancellableThreads.execute(() -> failedFiles.addAll(restoreFuture.actionGet()));
+        } catch (CancellableThreads.ExecutionCancelledException e) {
+            throw e;
+        } catch (Exception e) {
+            logger.warn(() -> new ParameterizedMessage("recovery [phase1]: target failed to restore files from snapshot repository [{}]",
+                snapshotFiles.repository()), e);
+            failedFiles.addAll(snapshotFileNames);
+        }
+        if (failedFiles.isEmpty() == false) {
+            logger.debug("recovery [phase1]: target failed to restore [{}] files from snapshot repository [{}], sending them",
+                failedFiles.size(), snapshotFiles.repository());
+            sendFiles(store, files.stream().filter(md -> failedFiles.contains(md.name())).toArray(StoreFileMetaData[]::new),
+                translogOps);
+        }
+    }
+
     void sendFiles(Store store, StoreFileMetaData[] files, Supplier<Integer> translogOps) throws Exception {
         ArrayUtil.timSort(files, Comparator.comparingLong(StoreFileMetaData::length)); // send smallest first
         final LocalCheckpointTracker requestSeqIdTracker = new LocalCheckpointTracker(NO_OPS_PERFORMED, NO_OPS_PERFORMED);
         final AtomicReference<Tuple<StoreFileMetaData, Exception>> error = new AtomicReference<>();
-        final byte[] buffer = new byte[chunkSizeInBytes];
+        // the transport does not copy the chunks it sends, so a buffer can only be reused once the request that was sent from it
+        // has completed, which is guaranteed for the buffer of the request maxConcurrentFileChunks + 1 requests before.
+        final byte[][] buffers = new byte[maxConcurrentFileChunks + 1][];
         for (final StoreFileMetaData md : files) {
             if (error.get() != null) {
                 break;
@@ -693,16 +814,26 @@ public class RecoverySourceHandler {
             try (IndexInput indexInput = store.directory().openInput(md.name(), IOContext.READONCE);
                  InputStream in = new InputStreamIndexInput(indexInput, md.length())) {
                 long position = 0;
-                int bytesRead;
-                while ((bytesRead = in.read(buffer, 0, buffer.length)) != -1) {
-                    final BytesArray content = new BytesArray(buffer, 0, bytesRead);
-                    final boolean lastChunk = position + content.length() == md.length();
+                while (position < md.length()) {
                     final long requestSeqId = requestSeqIdTracker.generateSeqNo();
                     cancellableThreads.execute(() -> requestSeqIdTracker.waitForOpsToComplete(requestSeqId - maxConcurrentFileChunks));
                     cancellableThreads.checkForCancel();
                     if (error.get() != null) {
                         break;
                     }
+                    final int bufferIndex = (int) (requestSeqId % buffers.length);
+                    if (buffers[bufferIndex] == null) {
+                        buffers[bufferIndex] = new byte[chunkSizeInBytes];
+                    }
+                    final byte[] buffer = buffers[bufferIndex];
+                    final int bytesRead = in.read(buffer, 0, buffer.length);
+                    if (bytesRead == -1) {
+                        // the file is shorter than expected, no request is sent for this seq no so we mark it as completed
+                        requestSeqIdTracker.markSeqNoAsCompleted(requestSeqId);
+                        break;
+                    }
+                    final BytesArray content = new BytesArray(buffer, 0, bytesRead);
+                    final boolean lastChunk = position + content.length() == md.length();
                     final long requestFilePosition = position;
                     cancellableThreads.executeIO(() ->
                         recoveryTarget.writeFileChunk(md, requestFilePosition, content, lastChunk, translogOps.get(),
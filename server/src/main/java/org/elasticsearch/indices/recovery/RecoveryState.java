@@ -609,6 +609,11 @@ public class RecoveryState implements ToXContentFragment, Streamable, Writeable
             recovered += bytes;
         }
 
+        void resetRecoveredBytes() {
+            assert reused == false : "file is marked as reused, can't reset recovered bytes";
+            recovered = 0;
+        }
+
         /**
          * file name *
          */
@@ -735,6 +740,14 @@ public class RecoveryState implements ToXContentFragment, Streamable, Writeable
             file.addRecoveredBytes(bytes);
         }
 
+        /**
+         * Resets the recovered bytes of a file whose transfer has to start over
+         */
+        public synchronized void resetRecoveredBytesOfFile(String name) {
+            File file = fileDetails.get(name);
+            file.resetRecoveredBytes();
+        }
+
         public synchronized long version() {
             return this.version;
         }
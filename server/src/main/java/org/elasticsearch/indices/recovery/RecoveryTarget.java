@@ -29,7 +29,9 @@ import org.elasticsearch.ExceptionsHelper;
 import org.elasticsearch.Version;
 import org.elasticsearch.action.ActionListener;
 import org.elasticsearch.cluster.node.DiscoveryNode;
+import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.UUIDs;
+import org.elasticsearch.common.bytes.BytesArray;
 import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.common.logging.Loggers;
 import org.elasticsearch.common.lucene.Lucene;
@@ -44,17 +46,22 @@ import org.elasticsearch.index.shard.IndexShard;
 import org.elasticsearch.index.shard.IndexShardNotRecoveringException;
 import org.elasticsearch.index.shard.IndexShardState;
 import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.index.snapshots.blobstore.BlobStoreIndexShardSnapshot;
 import org.elasticsearch.index.store.Store;
 import org.elasticsearch.index.store.StoreFileMetaData;
 import org.elasticsearch.index.translog.Translog;
+import org.elasticsearch.repositories.IndexId;
 
+import java.io.EOFException;
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.file.Path;
 import java.util.List;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.LongConsumer;
+import java.util.stream.Collectors;
 
 /**
  * Represents a recovery where the current node is the target node of the recovery. To track recoveries in a central place, instances of
@@ -76,6 +83,7 @@ public class RecoveryTarget extends AbstractRefCounted implements RecoveryTarget
     private final Store store;
     private final PeerRecoveryTargetService.RecoveryListener listener;
     private final LongConsumer ensureClusterStateVersionCallback;
+    private final SnapshotFilesProvider snapshotFilesProvider;
 
     private final AtomicBoolean finished = new AtomicBoolean();
 
@@ -101,6 +109,26 @@ public class RecoveryTarget extends AbstractRefCounted implements RecoveryTarget
                    final DiscoveryNode sourceNode,
                    final PeerRecoveryTargetService.RecoveryListener listener,
                    final LongConsumer ensureClusterStateVersionCallback) {
+        this(indexShard, sourceNode, listener, ensureClusterStateVersionCallback, null);
+    }
+
+    /**
+     * Creates a new recovery target object that represents a recovery to the provided shard.
+     *
+     * @param indexShard                        local shard where we want to recover to
+     * @param sourceNode                        source node of the recovery where we recover from
+     * @param listener                          called when recovery is completed/failed
+     * @param ensureClusterStateVersionCallback callback to ensure that the current node is at least on a cluster state with the provided
+     *                                          version; necessary for primary relocation so that new primary knows about all other ongoing
+     *                                          replica recoveries when replicating documents (see {@link RecoverySourceHandler})
+     * @param snapshotFilesProvider             restores files from snapshot repositories, if <code>null</code> all the files are
+     *                                          received from the source node
+     */
+    public RecoveryTarget(final IndexShard indexShard,
+                   final DiscoveryNode sourceNode,
+                   final PeerRecoveryTargetService.RecoveryListener listener,
+                   final LongConsumer ensureClusterStateVersionCallback,
+                   @Nullable final SnapshotFilesProvider snapshotFilesProvider) {
         super("recovery_status");
         this.cancellableThreads = new CancellableThreads();
         this.recoveryId = idGenerator.incrementAndGet();
@@ -114,6 +142,7 @@ public class RecoveryTarget extends AbstractRefCounted implements RecoveryTarget
             this::ensureRefCount);
         this.store = indexShard.store();
         this.ensureClusterStateVersionCallback = ensureClusterStateVersionCallback;
+        this.snapshotFilesProvider = snapshotFilesProvider;
         // make sure the store is not released until we are done.
         store.incRef();
         indexShard.recoveryStats().incCurrentAsTarget();
@@ -125,7 +154,7 @@ public class RecoveryTarget extends AbstractRefCounted implements RecoveryTarget
      * @return a copy of this recovery target
      */
     public RecoveryTarget retryCopy() {
-        return new RecoveryTarget(indexShard, sourceNode, listener, ensureClusterStateVersionCallback);
+        return new RecoveryTarget(indexShard, sourceNode, listener, ensureClusterStateVersionCallback, snapshotFilesProvider);
     }
 
     public long recoveryId() {
@@ -463,6 +492,49 @@ public class RecoveryTarget extends AbstractRefCounted implements RecoveryTarget
         }
     }
 
+    @Override
+    public void restoreFilesFromSnapshot(String repository, IndexId indexId, List<BlobStoreIndexShardSnapshot.FileInfo> snapshotFiles,
+                                         int totalTranslogOps, ActionListener<List<String>> listener) {
+        state().getTranslog().totalOperations(totalTranslogOps);
+        if (snapshotFilesProvider == null) {
+            listener.onResponse(
+                snapshotFiles.stream().map(BlobStoreIndexShardSnapshot.FileInfo::physicalName).collect(Collectors.toList()));
+            return;
+        }
+        // the files are restored in the background, make sure that the store is not released until we are done
+        incRef();
+        snapshotFilesProvider.restoreFiles(repository, indexId, shardId, snapshotFiles, this::writeSnapshotFile,
+            throttleTimeInNanos -> {
+                state().getIndex().addTargetThrottling(throttleTimeInNanos);
+                indexShard.recoveryStats().addThrottleTime(throttleTimeInNanos);
+            },
+            ActionListener.runAfter(listener, this::decRef));
+    }
+
+    private void writeSnapshotFile(BlobStoreIndexShardSnapshot.FileInfo fileInfo, InputStream stream) throws IOException {
+        final StoreFileMetaData md = fileInfo.metadata();
+        try {
+            // the multi file writer writes the chunks of a file that are received in order right away, so the buffer can be reused
+            final byte[] buffer = new byte[Math.toIntExact(Math.min(md.length(), RecoverySettings.DEFAULT_CHUNK_SIZE.getBytes()))];
+            long position = 0;
+            while (position < md.length()) {
+                cancellableThreads.checkForCancel();
+                final int bytesRead = stream.read(buffer, 0, buffer.length);
+                if (bytesRead == -1) {
+                    throw new EOFException("snapshot file [" + fileInfo.name() + "] is shorter than [" + md + "]");
+                }
+                final boolean lastChunk = position + bytesRead == md.length();
+                multiFileWriter.writeFileChunk(md, position, new BytesArray(buffer, 0, bytesRead), lastChunk);
+                position += bytesRead;
+                setLastAccessTime();
+            }
+        } catch (Exception e) {
+            multiFileWriter.discardFile(md.name());
+            state().getIndex().resetRecoveredBytesOfFile(md.name());
+            throw e;
+        }
+    }
+
     /** Get a temporary name for the provided file name. */
     public String getTempNameForFile(String origFile) {
         return multiFileWriter.getTempNameForFile(origFile);
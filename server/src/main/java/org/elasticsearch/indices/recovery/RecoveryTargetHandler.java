@@ -22,9 +22,11 @@ import org.elasticsearch.action.ActionListener;
 import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.index.seqno.ReplicationTracker;
 import org.elasticsearch.index.seqno.RetentionLeases;
+import org.elasticsearch.index.snapshots.blobstore.BlobStoreIndexShardSnapshot;
 import org.elasticsearch.index.store.Store;
 import org.elasticsearch.index.store.StoreFileMetaData;
 import org.elasticsearch.index.translog.Translog;
+import org.elasticsearch.repositories.IndexId;
 
 import java.io.IOException;
 import java.util.List;
@@ -98,6 +100,19 @@ public interface RecoveryTargetHandler {
      */
     void cleanFiles(int totalTranslogOps, Store.MetadataSnapshot sourceMetaData) throws IOException;
 
+    /**
+     * Restores the given files from a snapshot repository instead of receiving them from the source. Files that cannot be restored are
+     * left for the source to send.
+     *
+     * @param repository       the repository to restore the files from
+     * @param indexId          the index id of the shard in the repository
+     * @param snapshotFiles    the files to restore
+     * @param totalTranslogOps an update number of translog operations that will be replayed later on
+     * @param listener         a listener which will be notified with the names of the files that could not be restored
+     */
+    void restoreFilesFromSnapshot(String repository, IndexId indexId, List<BlobStoreIndexShardSnapshot.FileInfo> snapshotFiles,
+                                  int totalTranslogOps, ActionListener<List<String>> listener);
+
     /** writes a partial file chunk to the target store */
     void writeFileChunk(StoreFileMetaData fileMetaData, long position, BytesReference content,
                         boolean lastChunk, int totalTranslogOps, ActionListener<Void> listener);
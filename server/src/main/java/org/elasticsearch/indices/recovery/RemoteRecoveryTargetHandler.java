@@ -28,9 +28,11 @@ import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.index.seqno.ReplicationTracker;
 import org.elasticsearch.index.seqno.RetentionLeases;
 import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.index.snapshots.blobstore.BlobStoreIndexShardSnapshot;
 import org.elasticsearch.index.store.Store;
 import org.elasticsearch.index.store.StoreFileMetaData;
 import org.elasticsearch.index.translog.Translog;
+import org.elasticsearch.repositories.IndexId;
 import org.elasticsearch.threadpool.ThreadPool;
 import org.elasticsearch.transport.EmptyTransportResponseHandler;
 import org.elasticsearch.transport.TransportRequestOptions;
@@ -154,6 +156,16 @@ public class RemoteRecoveryTargetHandler implements RecoveryTargetHandler {
                 EmptyTransportResponseHandler.INSTANCE_SAME).txGet();
     }
 
+    @Override
+    public void restoreFilesFromSnapshot(String repository, IndexId indexId, List<BlobStoreIndexShardSnapshot.FileInfo> snapshotFiles,
+                                         int totalTranslogOps, ActionListener<List<String>> listener) {
+        transportService.submitRequest(targetNode, PeerRecoveryTargetService.Actions.RESTORE_FILES_FROM_SNAPSHOT,
+            new RecoverySnapshotFilesRequest(recoveryId, shardId, repository, indexId, snapshotFiles, totalTranslogOps),
+            TransportRequestOptions.builder().withTimeout(recoverySettings.internalActionLongTimeout()).build(),
+            new ActionListenerResponseHandler<>(ActionListener.wrap(r -> listener.onResponse(r.failedFiles), listener::onFailure),
+                RecoverySnapshotFilesResponse::new, ThreadPool.Names.GENERIC));
+    }
+
     @Override
     public void writeFileChunk(StoreFileMetaData fileMetaData, long position, BytesReference content,
                                boolean lastChunk, int totalTranslogOps, ActionListener<Void> listener) {
@@ -0,0 +1,258 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.indices.recovery;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.message.ParameterizedMessage;
+import org.apache.lucene.store.RateLimiter;
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.cluster.metadata.IndexMetaData;
+import org.elasticsearch.common.CheckedBiConsumer;
+import org.elasticsearch.common.Nullable;
+import org.elasticsearch.common.Strings;
+import org.elasticsearch.common.util.concurrent.AbstractRunnable;
+import org.elasticsearch.common.util.concurrent.CountDown;
+import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.index.snapshots.blobstore.BlobStoreIndexShardSnapshot.FileInfo;
+import org.elasticsearch.index.snapshots.blobstore.BlobStoreIndexShardSnapshots;
+import org.elasticsearch.index.snapshots.blobstore.RateLimitingInputStream;
+import org.elasticsearch.index.snapshots.blobstore.SnapshotFiles;
+import org.elasticsearch.index.store.StoreFileMetaData;
+import org.elasticsearch.repositories.IndexId;
+import org.elasticsearch.repositories.RepositoriesService;
+import org.elasticsearch.repositories.Repository;
+import org.elasticsearch.repositories.RepositoryData;
+import org.elasticsearch.repositories.blobstore.BlobStoreRepository;
+import org.elasticsearch.snapshots.SnapshotId;
+import org.elasticsearch.threadpool.ThreadPool;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Function;
+import java.util.function.LongConsumer;
+import java.util.stream.Collectors;
+
+/**
+ * Lets peer recoveries use the snapshots of a shard in the snapshot repository configured by
+ * {@link RecoverySettings#INDICES_RECOVERY_SNAPSHOT_REPOSITORY_SETTING}: the source of a recovery looks up which of the files that it
+ * needs to send are identical, by length, checksum and hash, to files of a snapshot of the shard, and the target restores these files
+ * from the repository rather than receiving them from the source. Only the snapshots whose index has the UUID of the recovered index
+ * are considered.
+ */
+public class SnapshotFilesProvider {
+
+    private static final Logger logger = LogManager.getLogger(SnapshotFilesProvider.class);
+
+    private final RepositoriesService repositoriesService;
+    private final RecoverySettings recoverySettings;
+    private final ThreadPool threadPool;
+
+    public SnapshotFilesProvider(RepositoriesService repositoriesService, RecoverySettings recoverySettings, ThreadPool threadPool) {
+        this.repositoriesService = repositoriesService;
+        this.recoverySettings = recoverySettings;
+        this.threadPool = threadPool;
+    }
+
+    /**
+     * Finds the files of the given shard that are identical to files of a snapshot of the shard. Returns <code>null</code> if no
+     * snapshot repository is configured for recoveries, or if none of the files can be restored from it.
+     *
+     * @param shardId the shard to recover
+     * @param files   the files that the target of the recovery needs
+     */
+    @Nullable
+    public ShardSnapshotFiles findSnapshotFiles(ShardId shardId, List<StoreFileMetaData> files) {
+        final String repository = recoverySettings.getSnapshotRepository();
+        if (Strings.isEmpty(repository) || files.isEmpty()) {
+            return null;
+        }
+        try {
+            final BlobStoreRepository blobStoreRepository = blobStoreRepository(repository);
+            final RepositoryData repositoryData = blobStoreRepository.getRepositoryData();
+            final IndexId indexId = repositoryData.getIndices().get(shardId.getIndexName());
+            if (indexId == null) {
+                return null;
+            }
+            final Map<String, SnapshotId> snapshotIds = repositoryData.getSnapshots(indexId).stream()
+                .collect(Collectors.toMap(SnapshotId::getName, Function.identity()));
+            final Map<String, StoreFileMetaData> missingFiles = new HashMap<>();
+            files.forEach(md -> missingFiles.put(md.name(), md));
+            final BlobStoreIndexShardSnapshots shardSnapshots = blobStoreRepository.loadShardSnapshots(indexId, shardId);
+            final List<FileInfo> snapshotFiles = new ArrayList<>();
+            for (SnapshotFiles snapshot : shardSnapshots) {
+                final List<FileInfo> identicalFiles = snapshot.indexFiles().stream()
+                    .filter(fileInfo -> {
+                        final StoreFileMetaData md = missingFiles.get(fileInfo.physicalName());
+                        return md != null && fileInfo.isSame(md);
+                    })
+                    .collect(Collectors.toList());
+                // a deleted index may have had the same name and files of the same length, checksum and hash, so we only
+                // reuse the files of snapshots that were taken of this very index
+                if (identicalFiles.isEmpty() == false
+                    && isSnapshotOfIndex(blobStoreRepository, snapshotIds.get(snapshot.snapshot()), indexId, shardId)) {
+                    for (FileInfo fileInfo : identicalFiles) {
+                        missingFiles.remove(fileInfo.physicalName());
+                        snapshotFiles.add(fileInfo);
+                    }
+                }
+            }
+            return snapshotFiles.isEmpty() ? null : new ShardSnapshotFiles(repository, indexId, snapshotFiles);
+        } catch (Exception e) {
+            logger.debug(() -> new ParameterizedMessage("{} failed to list the snapshot files of the shard in repository [{}]",
+                shardId, repository), e);
+            return null;
+        }
+    }
+
+    private static boolean isSnapshotOfIndex(BlobStoreRepository repository, @Nullable SnapshotId snapshotId, IndexId indexId,
+                                             ShardId shardId) throws IOException {
+        if (snapshotId == null) {
+            return false;
+        }
+        final IndexMetaData indexMetaData = repository.getSnapshotIndexMetaData(snapshotId, indexId);
+        return indexMetaData != null && shardId.getIndex().getUUID().equals(indexMetaData.getIndexUUID());
+    }
+
+    /**
+     * Restores the given snapshot files of a shard, using up to
+     * {@link RecoverySettings#INDICES_RECOVERY_MAX_CONCURRENT_SNAPSHOT_FILE_DOWNLOADS_SETTING} threads of the generic thread pool.
+     * Files that cannot be restored are not retried: the listener is notified with their names once all the files were processed, so
+     * that the source of the recovery sends them instead.
+     *
+     * @param repository the repository to restore the files from
+     * @param indexId    the index id of the shard in the repository
+     * @param shardId    the shard to restore the files of
+     * @param files      the files to restore
+     * @param fileWriter writes a file from the stream of its content, must discard what it wrote of the file if it fails
+     * @param onThrottle called with the time that the restore was paused by the recovery rate limiter, in nanoseconds
+     * @param listener   notified with the names of the files that could not be restored
+     */
+    public void restoreFiles(String repository, IndexId indexId, ShardId shardId, List<FileInfo> files,
+                             CheckedBiConsumer<FileInfo, InputStream, IOException> fileWriter, LongConsumer onThrottle,
+                             ActionListener<List<String>> listener) {
+        final BlobStoreRepository blobStoreRepository;
+        try {
+            blobStoreRepository = blobStoreRepository(repository);
+        } catch (Exception e) {
+            logger.debug(() -> new ParameterizedMessage("{} failed to restore files from repository [{}]", shardId, repository), e);
+            listener.onResponse(files.stream().map(FileInfo::physicalName).collect(Collectors.toList()));
+            return;
+        }
+        if (files.isEmpty()) {
+            listener.onResponse(Collections.emptyList());
+            return;
+        }
+        final Queue<FileInfo> pendingFiles = new ConcurrentLinkedQueue<>(files);
+        final Queue<String> failedFiles = new ConcurrentLinkedQueue<>();
+        final int workers = Math.min(files.size(), recoverySettings.getMaxConcurrentSnapshotFileDownloads());
+        final CountDown countDown = new CountDown(workers);
+        for (int i = 0; i < workers; i++) {
+            threadPool.generic().execute(new AbstractRunnable() {
+                @Override
+                protected void doRun() {
+                    FileInfo fileInfo;
+                    while ((fileInfo = pendingFiles.poll()) != null) {
+                        try (InputStream stream = openFile(blobStoreRepository, indexId, shardId, fileInfo, onThrottle)) {
+                            fileWriter.accept(fileInfo, stream);
+                        } catch (Exception e) {
+                            final String name = fileInfo.physicalName();
+                            logger.debug(() -> new ParameterizedMessage("{} failed to restore file [{}] from repository [{}]",
+                                shardId, name, repository), e);
+                            failedFiles.add(name);
+                        }
+                    }
+                }
+
+                @Override
+                public void onFailure(Exception e) {
+                    // the worker could not run, the files that no other worker picks up are left for the source
+                    assert false : e;
+                    logger.warn(() -> new ParameterizedMessage("{} failed to restore files from repository [{}]", shardId, repository), e);
+                }
+
+                @Override
+                public void onAfter() {
+                    if (countDown.countDown()) {
+                        pendingFiles.forEach(fileInfo -> failedFiles.add(fileInfo.physicalName()));
+                        listener.onResponse(new ArrayList<>(failedFiles));
+                    }
+                }
+            });
+        }
+    }
+
+    private InputStream openFile(BlobStoreRepository repository, IndexId indexId, ShardId shardId, FileInfo fileInfo,
+                                 LongConsumer onThrottle) {
+        final InputStream stream = openSnapshotFile(repository, indexId, shardId, fileInfo);
+        // always fetch the rate limiter - it might be updated in real-time on the recovery settings
+        final RateLimiter rateLimiter = recoverySettings.rateLimiter();
+        return rateLimiter == null ? stream : new RateLimitingInputStream(stream, rateLimiter, onThrottle::accept);
+    }
+
+    // pkg private for testing
+    InputStream openSnapshotFile(BlobStoreRepository repository, IndexId indexId, ShardId shardId, FileInfo fileInfo) {
+        return repository.openShardSnapshotFile(indexId, shardId, fileInfo);
+    }
+
+    // pkg private for testing
+    BlobStoreRepository blobStoreRepository(String name) {
+        final Repository repository = repositoriesService.repository(name);
+        if (repository instanceof BlobStoreRepository == false) {
+            throw new IllegalArgumentException("repository [" + name + "] is not a blob store repository");
+        }
+        return (BlobStoreRepository) repository;
+    }
+
+    /**
+     * The files of a shard that can be restored from a snapshot repository.
+     */
+    public static final class ShardSnapshotFiles {
+
+        private final String repository;
+        private final IndexId indexId;
+        private final List<FileInfo> files;
+
+        ShardSnapshotFiles(String repository, IndexId indexId, List<FileInfo> files) {
+            this.repository = repository;
+            this.indexId = indexId;
+            this.files = files;
+        }
+
+        public String repository() {
+            return repository;
+        }
+
+        public IndexId indexId() {
+            return indexId;
+        }
+
+        public List<FileInfo> files() {
+            return files;
+        }
+    }
+}
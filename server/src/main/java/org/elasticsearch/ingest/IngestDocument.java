@@ -108,9 +108,22 @@ public final class IngestDocument {
      * or if the field that is found at the provided path is not of the expected type.
      */
     public <T> T getFieldValue(String path, Class<T> clazz) {
-        FieldPath fieldPath = new FieldPath(path);
-        Object context = fieldPath.initialContext;
-        for (String pathElement : fieldPath.pathElements) {
+        return getFieldValue(new FieldPath(path), clazz);
+    }
+
+    /**
+     * Returns the value contained in the document for the provided compiled path
+     * @param fieldPath The path within the document
+     * @param clazz The expected class of the field value
+     * @return the value for the provided path if existing, null otherwise
+     * @throws IllegalArgumentException if the field doesn't exist or if the field that is found at the provided path is not of
+     * the expected type.
+     */
+    public <T> T getFieldValue(FieldPath fieldPath, Class<T> clazz) {
+        String path = fieldPath.path;
+        String[] pathElements = fieldPath.pathElements();
+        Object context = initialContext(fieldPath);
+        for (String pathElement : pathElements) {
             context = resolve(pathElement, path, context);
         }
         return cast(path, context, clazz);
@@ -127,10 +140,24 @@ public final class IngestDocument {
      * or if the field that is found at the provided path is not of the expected type.
      */
     public <T> T getFieldValue(String path, Class<T> clazz, boolean ignoreMissing) {
+        return getFieldValue(new FieldPath(path), clazz, ignoreMissing);
+    }
+
+    /**
+     * Returns the value contained in the document for the provided compiled path
+     *
+     * @param fieldPath The path within the document
+     * @param clazz The expected class of the field value
+     * @param ignoreMissing The flag to determine whether to throw an exception when `path` is not found in the document.
+     * @return the value for the provided path if existing, null otherwise.
+     * @throws IllegalArgumentException only if ignoreMissing is false and the field doesn't exist or if the field that is found
+     * at the provided path is not of the expected type.
+     */
+    public <T> T getFieldValue(FieldPath fieldPath, Class<T> clazz, boolean ignoreMissing) {
         try {
-            return getFieldValue(path, clazz);
+            return getFieldValue(fieldPath, clazz);
         } catch (IllegalArgumentException e) {
-            if (ignoreMissing && hasField(path) != true) {
+            if (ignoreMissing && hasField(fieldPath) != true) {
                 return null;
             } else {
                 throw e;
@@ -215,10 +242,30 @@ public final class IngestDocument {
      * @throws IllegalArgumentException if the path is null, empty or invalid.
      */
     public boolean hasField(String path, boolean failOutOfRange) {
-        FieldPath fieldPath = new FieldPath(path);
-        Object context = fieldPath.initialContext;
-        for (int i = 0; i < fieldPath.pathElements.length - 1; i++) {
-            String pathElement = fieldPath.pathElements[i];
+        return hasField(new FieldPath(path), failOutOfRange);
+    }
+
+    /**
+     * Checks whether the document contains a value for the provided compiled path
+     * @param fieldPath The path within the document
+     * @return true if the document contains a value for the field, false otherwise
+     */
+    public boolean hasField(FieldPath fieldPath) {
+        return hasField(fieldPath, false);
+    }
+
+    /**
+     * Checks whether the document contains a value for the provided compiled path
+     * @param fieldPath The path within the document
+     * @param failOutOfRange Whether to throw an IllegalArgumentException if array is accessed outside of its range
+     * @return true if the document contains a value for the field, false otherwise
+     */
+    public boolean hasField(FieldPath fieldPath, boolean failOutOfRange) {
+        String path = fieldPath.path;
+        String[] pathElements = fieldPath.pathElements();
+        Object context = initialContext(fieldPath);
+        for (int i = 0; i < pathElements.length - 1; i++) {
+            String pathElement = pathElements[i];
             if (context == null) {
                 return false;
             }
@@ -249,7 +296,7 @@ public final class IngestDocument {
             }
         }
 
-        String leafKey = fieldPath.pathElements[fieldPath.pathElements.length - 1];
+        String leafKey = pathElements[pathElements.length - 1];
         if (context instanceof Map) {
             @SuppressWarnings("unchecked")
             Map<String, Object> map = (Map<String, Object>) context;
@@ -292,13 +339,23 @@ public final class IngestDocument {
      * @throws IllegalArgumentException if the path is null, empty, invalid or if the field doesn't exist.
      */
     public void removeField(String path) {
-        FieldPath fieldPath = new FieldPath(path);
-        Object context = fieldPath.initialContext;
-        for (int i = 0; i < fieldPath.pathElements.length - 1; i++) {
-            context = resolve(fieldPath.pathElements[i], path, context);
+        removeField(new FieldPath(path));
+    }
+
+    /**
+     * Removes the field identified by the provided compiled path.
+     * @param fieldPath the path of the field to be removed
+     * @throws IllegalArgumentException if the field doesn't exist.
+     */
+    public void removeField(FieldPath fieldPath) {
+        String path = fieldPath.path;
+        String[] pathElements = fieldPath.pathElements();
+        Object context = initialContext(fieldPath);
+        for (int i = 0; i < pathElements.length - 1; i++) {
+            context = resolve(pathElements[i], path, context);
         }
 
-        String leafKey = fieldPath.pathElements[fieldPath.pathElements.length - 1];
+        String leafKey = pathElements[pathElements.length - 1];
         if (context instanceof Map) {
             @SuppressWarnings("unchecked")
             Map<String, Object> map = (Map<String, Object>) context;
@@ -333,6 +390,10 @@ public final class IngestDocument {
                 "] as part of path [" + path + "]");
     }
 
+    private Object initialContext(FieldPath fieldPath) {
+        return fieldPath.ingestMetadata ? ingestMetadata : sourceAndMetadata;
+    }
+
     private static Object resolve(String pathElement, String fullPath, Object context) {
         if (context == null) {
             throw new IllegalArgumentException("cannot resolve [" + pathElement + "] from null as part of path [" + fullPath + "]");
@@ -378,7 +439,16 @@ public final class IngestDocument {
      * @throws IllegalArgumentException if the path is null, empty or invalid.
      */
     public void appendFieldValue(String path, Object value) {
-        setFieldValue(path, value, true);
+        setFieldValue(new FieldPath(path), value, true);
+    }
+
+    /**
+     * Appends the provided value to the provided compiled path in the document, like {@link #appendFieldValue(String, Object)}.
+     * @param fieldPath The path within the document
+     * @param value The value or values to append to the existing ones
+     */
+    public void appendFieldValue(FieldPath fieldPath, Object value) {
+        setFieldValue(fieldPath, value, true);
     }
 
     /**
@@ -409,7 +479,17 @@ public final class IngestDocument {
      * item identified by the provided path.
      */
     public void setFieldValue(String path, Object value) {
-        setFieldValue(path, value, false);
+        setFieldValue(new FieldPath(path), value, false);
+    }
+
+    /**
+     * Sets the provided value to the provided compiled path in the document, like {@link #setFieldValue(String, Object)}.
+     * @param fieldPath The path within the document
+     * @param value The value to put in for the path key
+     * @throws IllegalArgumentException if the value cannot be set to the item identified by the provided path.
+     */
+    public void setFieldValue(FieldPath fieldPath, Object value) {
+        setFieldValue(fieldPath, value, false);
     }
 
     /**
@@ -423,14 +503,15 @@ public final class IngestDocument {
      */
     public void setFieldValue(TemplateScript.Factory fieldPathTemplate, ValueSource valueSource) {
         Map<String, Object> model = createTemplateModel();
-        setFieldValue(fieldPathTemplate.newInstance(model).execute(), valueSource.copyAndResolve(model), false);
+        setFieldValue(new FieldPath(fieldPathTemplate.newInstance(model).execute()), valueSource.copyAndResolve(model), false);
     }
 
-    private void setFieldValue(String path, Object value, boolean append) {
-        FieldPath fieldPath = new FieldPath(path);
-        Object context = fieldPath.initialContext;
-        for (int i = 0; i < fieldPath.pathElements.length - 1; i++) {
-            String pathElement = fieldPath.pathElements[i];
+    private void setFieldValue(FieldPath fieldPath, Object value, boolean append) {
+        String path = fieldPath.path;
+        String[] pathElements = fieldPath.pathElements();
+        Object context = initialContext(fieldPath);
+        for (int i = 0; i < pathElements.length - 1; i++) {
+            String pathElement = pathElements[i];
             if (context == null) {
                 throw new IllegalArgumentException("cannot resolve [" + pathElement + "] from null as part of path [" + path + "]");
             }
@@ -465,7 +546,7 @@ public final class IngestDocument {
             }
         }
 
-        String leafKey = fieldPath.pathElements[fieldPath.pathElements.length - 1];
+        String leafKey = pathElements[pathElements.length - 1];
         if (context == null) {
             throw new IllegalArgumentException("cannot set [" + leafKey + "] with null parent as part of path [" + path + "]");
         }
@@ -699,32 +780,73 @@ public final class IngestDocument {
         }
     }
 
-    private class FieldPath {
+    /**
+     * A path to a field of an ingest document in dot-notation. Resolving a path requires parsing it, so processors that access
+     * the same fields of every document they process should create the paths of these fields once and reuse them.
+     *
+     * Creating a path never fails: like with the accessors that take the path as a string, an invalid path is only reported once
+     * it is used to access a document.
+     */
+    public static final class FieldPath {
 
+        private final String path;
+        private final boolean ingestMetadata;
         private final String[] pathElements;
-        private final Object initialContext;
+        private final String invalidPathMessage;
 
-        private FieldPath(String path) {
+        /**
+         * @param path The path within the document in dot-notation
+         */
+        public FieldPath(String path) {
+            this.path = path;
             if (Strings.isEmpty(path)) {
-                throw new IllegalArgumentException("path cannot be null nor empty");
+                this.ingestMetadata = false;
+                this.pathElements = null;
+                this.invalidPathMessage = "path cannot be null nor empty";
+                return;
             }
             String newPath;
             if (path.startsWith(INGEST_KEY_PREFIX)) {
-                initialContext = ingestMetadata;
+                ingestMetadata = true;
                 newPath = path.substring(INGEST_KEY_PREFIX.length(), path.length());
             } else {
-                initialContext = sourceAndMetadata;
+                ingestMetadata = false;
                 if (path.startsWith(SOURCE_PREFIX)) {
                     newPath = path.substring(SOURCE_PREFIX.length(), path.length());
                 } else {
                     newPath = path;
                 }
             }
-            this.pathElements = newPath.split("\\.");
+            String[] pathElements = newPath.split("\\.");
             if (pathElements.length == 1 && pathElements[0].isEmpty()) {
-                throw new IllegalArgumentException("path [" + path + "] is not valid");
+                this.pathElements = null;
+                this.invalidPathMessage = "path [" + path + "] is not valid";
+            } else {
+                this.pathElements = pathElements;
+                this.invalidPathMessage = null;
             }
         }
 
+        /**
+         * Returns the path in dot-notation
+         */
+        public String getPath() {
+            return path;
+        }
+
+        /**
+         * @throws IllegalArgumentException if the path is null, empty or invalid.
+         */
+        private String[] pathElements() {
+            if (pathElements == null) {
+                throw new IllegalArgumentException(invalidPathMessage);
+            }
+            return pathElements;
+        }
+
+        @Override
+        public String toString() {
+            return path;
+        }
     }
 }
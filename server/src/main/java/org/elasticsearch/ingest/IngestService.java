@@ -42,6 +42,7 @@ import org.elasticsearch.common.collect.Tuple;
 import org.elasticsearch.common.regex.Regex;
 import org.elasticsearch.common.unit.TimeValue;
 import org.elasticsearch.common.util.concurrent.AbstractRunnable;
+import org.elasticsearch.common.util.concurrent.CountDown;
 import org.elasticsearch.common.xcontent.XContentHelper;
 import org.elasticsearch.env.Environment;
 import org.elasticsearch.gateway.GatewayService;
@@ -61,8 +62,11 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
+import java.util.function.IntConsumer;
 
 /**
  * Holder class for several ingest related services.
@@ -71,6 +75,12 @@ public class IngestService implements ClusterStateApplier {
 
     public static final String NOOP_PIPELINE_NAME = "_none";
 
+    /**
+     * The minimum number of requests of a bulk request that each worker of {@link #executeBulkRequest} gets, so that small bulk
+     * requests don't pay for the forking of many workers.
+     */
+    static final int MIN_BULK_REQUESTS_PER_WORKER = 16;
+
     private static final Logger logger = LogManager.getLogger(IngestService.class);
 
     private final ClusterService clusterService;
@@ -382,43 +392,83 @@ public class IngestService implements ClusterStateApplier {
         ExceptionsHelper.rethrowAndSuppress(exceptions);
     }
 
-    public void executeBulkRequest(Iterable<DocWriteRequest<?>> actionRequests,
-        BiConsumer<IndexRequest, Exception> itemFailureHandler, Consumer<Exception> completionHandler,
-        Consumer<IndexRequest> itemDroppedHandler) {
-
-        threadPool.executor(ThreadPool.Names.WRITE).execute(new AbstractRunnable() {
-
-            @Override
-            public void onFailure(Exception e) {
-                completionHandler.accept(e);
-            }
+    /**
+     * Executes the pipelines of the index requests of a bulk request on the {@link ThreadPool.Names#INGEST} thread pool. The
+     * requests are processed concurrently by up to one worker per thread of the pool, and per
+     * {@link #MIN_BULK_REQUESTS_PER_WORKER} requests, that each pull the next request to process until all requests are processed.
+     *
+     * @param actionRequests     the requests of the bulk request
+     * @param itemFailureHandler called with the slot of a request in the bulk request if its pipeline fails, possibly concurrently
+     * @param completionHandler  called once all requests are processed, with an exception if the requests could not be processed
+     * @param itemDroppedHandler called with the slot of a request in the bulk request if its pipeline drops it, possibly concurrently
+     */
+    public void executeBulkRequest(List<DocWriteRequest<?>> actionRequests, BiConsumer<Integer, Exception> itemFailureHandler,
+                                   Consumer<Exception> completionHandler, IntConsumer itemDroppedHandler) {
+        final int numRequests = actionRequests.size();
+        final int workers = numberOfBulkWorkers(numRequests, threadPool.info(ThreadPool.Names.INGEST).getMax());
+        final AtomicInteger nextSlot = new AtomicInteger();
+        final AtomicReference<Exception> failure = new AtomicReference<>();
+        final CountDown countDown = new CountDown(workers);
+        for (int i = 0; i < workers; i++) {
+            threadPool.executor(ThreadPool.Names.INGEST).execute(new AbstractRunnable() {
+
+                @Override
+                public void onFailure(Exception e) {
+                    // the requests that this worker did not process are left to the other workers
+                    failure.compareAndSet(null, e);
+                }
 
-            @Override
-            protected void doRun() {
-                for (DocWriteRequest<?> actionRequest : actionRequests) {
-                    IndexRequest indexRequest = TransportBulkAction.getIndexWriteRequest(actionRequest);
-                    if (indexRequest == null) {
-                        continue;
+                @Override
+                protected void doRun() {
+                    int slot;
+                    while ((slot = nextSlot.getAndIncrement()) < numRequests) {
+                        executeBulkItem(slot, actionRequests.get(slot), itemFailureHandler, itemDroppedHandler);
                     }
-                    String pipelineId = indexRequest.getPipeline();
-                    if (NOOP_PIPELINE_NAME.equals(pipelineId) == false) {
-                        try {
-                            Pipeline pipeline = pipelines.get(pipelineId);
-                            if (pipeline == null) {
-                                throw new IllegalArgumentException("pipeline with id [" + pipelineId + "] does not exist");
-                            }
-                            innerExecute(indexRequest, pipeline, itemDroppedHandler);
-                            //this shouldn't be needed here but we do it for consistency with index api
-                            // which requires it to prevent double execution
-                            indexRequest.setPipeline(NOOP_PIPELINE_NAME);
-                        } catch (Exception e) {
-                            itemFailureHandler.accept(indexRequest, e);
+                }
+
+                @Override
+                public void onAfter() {
+                    if (countDown.countDown()) {
+                        if (nextSlot.get() < numRequests) {
+                            // none of the workers could run to completion
+                            assert failure.get() != null;
+                            completionHandler.accept(failure.get());
+                        } else {
+                            completionHandler.accept(null);
                         }
                     }
                 }
-                completionHandler.accept(null);
+            });
+        }
+    }
+
+    // package private for testing
+    static int numberOfBulkWorkers(int numRequests, int maxWorkers) {
+        final int workers = (numRequests + MIN_BULK_REQUESTS_PER_WORKER - 1) / MIN_BULK_REQUESTS_PER_WORKER;
+        return Math.max(1, Math.min(workers, maxWorkers));
+    }
+
+    private void executeBulkItem(int slot, DocWriteRequest<?> actionRequest, BiConsumer<Integer, Exception> itemFailureHandler,
+                                 IntConsumer itemDroppedHandler) {
+        IndexRequest indexRequest = TransportBulkAction.getIndexWriteRequest(actionRequest);
+        if (indexRequest == null) {
+            return;
+        }
+        String pipelineId = indexRequest.getPipeline();
+        if (NOOP_PIPELINE_NAME.equals(pipelineId) == false) {
+            try {
+                Pipeline pipeline = pipelines.get(pipelineId);
+                if (pipeline == null) {
+                    throw new IllegalArgumentException("pipeline with id [" + pipelineId + "] does not exist");
+                }
+                innerExecute(indexRequest, pipeline, () -> itemDroppedHandler.accept(slot));
+                //this shouldn't be needed here but we do it for consistency with index api
+                // which requires it to prevent double execution
+                indexRequest.setPipeline(NOOP_PIPELINE_NAME);
+            } catch (Exception e) {
+                itemFailureHandler.accept(slot, e);
             }
-        });
+        }
     }
 
     public IngestStats stats() {
@@ -460,7 +510,7 @@ public class IngestService implements ClusterStateApplier {
         return sb.toString();
     }
 
-    private void innerExecute(IndexRequest indexRequest, Pipeline pipeline, Consumer<IndexRequest> itemDroppedHandler) throws Exception {
+    private void innerExecute(IndexRequest indexRequest, Pipeline pipeline, Runnable itemDroppedHandler) throws Exception {
         if (pipeline.getProcessors().isEmpty()) {
             return;
         }
@@ -479,7 +529,7 @@ public class IngestService implements ClusterStateApplier {
             Map<String, Object> sourceAsMap = indexRequest.sourceAsMap();
             IngestDocument ingestDocument = new IngestDocument(index, type, id, routing, version, versionType, sourceAsMap);
             if (pipeline.execute(ingestDocument) == null) {
-                itemDroppedHandler.accept(indexRequest);
+                itemDroppedHandler.run();
             } else {
                 Map<IngestDocument.MetaData, Object> metadataMap = ingestDocument.extractMetadata();
                 //it's fine to set all metadata fields all the time, as ingest document holds their starting values
@@ -19,15 +19,19 @@
 
 package org.elasticsearch.node;
 
+import org.elasticsearch.Version;
 import org.elasticsearch.cluster.ClusterChangedEvent;
 import org.elasticsearch.cluster.ClusterStateListener;
 import org.elasticsearch.cluster.node.DiscoveryNode;
 import org.elasticsearch.cluster.service.ClusterService;
 import org.elasticsearch.common.ExponentiallyWeightedMovingAverage;
+import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.common.io.stream.Writeable;
 import org.elasticsearch.common.util.concurrent.ConcurrentCollections;
+import org.elasticsearch.index.Index;
+import org.elasticsearch.index.shard.ShardId;
 
 import java.io.IOException;
 import java.util.HashMap;
@@ -37,9 +41,11 @@ import java.util.Optional;
 import java.util.concurrent.ConcurrentMap;
 
 /**
- * Collects statistics about queue size, response time, and service time of
- * tasks executed on each node, making the EWMA of the values available to the
- * coordinating node.
+ * Collects statistics about queue size, response time, service time and cpu
+ * usage of tasks executed on each node, making the EWMA of the values available
+ * to the coordinating node. The response time is additionally tracked per shard
+ * copy, since copies of the same shard can be very differently expensive to
+ * search, for instance because they are not merged down to the same segments.
  */
 public final class ResponseCollectorService implements ClusterStateListener {
 
@@ -58,6 +64,11 @@ public final class ResponseCollectorService implements ClusterStateListener {
                 removeNode(removedNode.getId());
             }
         }
+        for (Index deletedIndex : event.indicesDeleted()) {
+            for (NodeStatistics nodeStatistics : nodeIdToStats.values()) {
+                nodeStatistics.shardResponseTime.keySet().removeIf(shardId -> shardId.getIndex().equals(deletedIndex));
+            }
+        }
     }
 
     void removeNode(String nodeId) {
@@ -65,17 +76,54 @@ public final class ResponseCollectorService implements ClusterStateListener {
     }
 
     public void addNodeStatistics(String nodeId, int queueSize, long responseTimeNanos, long avgServiceTimeNanos) {
+        addNodeStatistics(nodeId, null, queueSize, responseTimeNanos, avgServiceTimeNanos, -1);
+    }
+
+    /**
+     * Adds the statistics of a response of the given node.
+     *
+     * @param shardId       the shard that the response is for, or <code>null</code> if the response time is not specific to a shard
+     * @param cpuPercent    the cpu usage of the node, or <code>-1</code> if it is unknown
+     */
+    public void addNodeStatistics(String nodeId, @Nullable ShardId shardId, int queueSize, long responseTimeNanos,
+                                  long avgServiceTimeNanos, int cpuPercent) {
         nodeIdToStats.compute(nodeId, (id, ns) -> {
             if (ns == null) {
                 ExponentiallyWeightedMovingAverage queueEWMA = new ExponentiallyWeightedMovingAverage(ALPHA, queueSize);
                 ExponentiallyWeightedMovingAverage responseEWMA = new ExponentiallyWeightedMovingAverage(ALPHA, responseTimeNanos);
-                return new NodeStatistics(nodeId, queueEWMA, responseEWMA, avgServiceTimeNanos);
+                ns = new NodeStatistics(nodeId, queueEWMA, responseEWMA, avgServiceTimeNanos);
             } else {
                 ns.queueSize.addValue((double) queueSize);
                 ns.responseTime.addValue((double) responseTimeNanos);
                 ns.serviceTime = avgServiceTimeNanos;
-                return ns;
             }
+            if (cpuPercent >= 0) {
+                if (ns.cpuPercent == null) {
+                    ns.cpuPercent = new ExponentiallyWeightedMovingAverage(ALPHA, cpuPercent);
+                } else {
+                    ns.cpuPercent.addValue(cpuPercent);
+                }
+            }
+            return ns;
+        });
+        if (shardId != null) {
+            addShardResponseTime(nodeId, shardId, responseTimeNanos);
+        }
+    }
+
+    /**
+     * Adds a response time of the given shard on the given node, without
+     * affecting the statistics of the node itself.
+     */
+    public void addShardResponseTime(String nodeId, ShardId shardId, long responseTimeNanos) {
+        nodeIdToStats.computeIfPresent(nodeId, (id, ns) -> {
+            ExponentiallyWeightedMovingAverage shardResponseEWMA = ns.shardResponseTime.get(shardId);
+            if (shardResponseEWMA == null) {
+                ns.shardResponseTime.put(shardId, new ExponentiallyWeightedMovingAverage(ALPHA, responseTimeNanos));
+            } else {
+                shardResponseEWMA.addValue(responseTimeNanos);
+            }
+            return ns;
         });
     }
 
@@ -84,7 +132,7 @@ public final class ResponseCollectorService implements ClusterStateListener {
         // Transform the mutable object internally used for accounting into the computed version
         Map<String, ComputedNodeStats> nodeStats = new HashMap<>(nodeIdToStats.size());
         nodeIdToStats.forEach((k, v) -> {
-            nodeStats.put(k, new ComputedNodeStats(clientNum, v));
+            nodeStats.put(k, new ComputedNodeStats(clientNum, v, null));
         });
         return nodeStats;
     }
@@ -99,14 +147,22 @@ public final class ResponseCollectorService implements ClusterStateListener {
      * {@code Optional} if the node was not found.
      */
     public Optional<ComputedNodeStats> getNodeStatistics(final String nodeId) {
+        return getNodeStatistics(nodeId, null);
+    }
+
+    /**
+     * Like {@link #getNodeStatistics(String)}, but also returns the EWMA of
+     * the response time of the given shard on that node, if it is known.
+     */
+    public Optional<ComputedNodeStats> getNodeStatistics(final String nodeId, @Nullable final ShardId shardId) {
         final int clientNum = nodeIdToStats.size();
-        return Optional.ofNullable(nodeIdToStats.get(nodeId)).map(ns -> new ComputedNodeStats(clientNum, ns));
+        return Optional.ofNullable(nodeIdToStats.get(nodeId)).map(ns -> new ComputedNodeStats(clientNum, ns, shardId));
     }
 
     /**
      * Struct-like class encapsulating a point-in-time snapshot of a particular
      * node's statistics. This includes the EWMA of queue size, response time,
-     * and service time.
+     * service time and cpu usage, and optionally of the response time of a shard.
      */
     public static class ComputedNodeStats implements Writeable {
         // We store timestamps with nanosecond precision, however, the
@@ -121,18 +177,31 @@ public final class ResponseCollectorService implements ClusterStateListener {
         public final int queueSize;
         public final double responseTime;
         public final double serviceTime;
+        // -1 if unknown
+        public final double cpuPercent;
+        // the response time of the shard that is being ranked, -1 if unknown, this is not serialized
+        public final double shardResponseTime;
 
         public ComputedNodeStats(String nodeId, int clientNum, int queueSize, double responseTime, double serviceTime) {
+            this(nodeId, clientNum, queueSize, responseTime, serviceTime, -1, -1);
+        }
+
+        public ComputedNodeStats(String nodeId, int clientNum, int queueSize, double responseTime, double serviceTime,
+                                 double cpuPercent, double shardResponseTime) {
             this.nodeId = nodeId;
             this.clientNum = clientNum;
             this.queueSize = queueSize;
             this.responseTime = responseTime;
             this.serviceTime = serviceTime;
+            this.cpuPercent = cpuPercent;
+            this.shardResponseTime = shardResponseTime;
         }
 
-        ComputedNodeStats(int clientNum, NodeStatistics nodeStats) {
+        ComputedNodeStats(int clientNum, NodeStatistics nodeStats, @Nullable ShardId shardId) {
             this(nodeStats.nodeId, clientNum,
-                    (int) nodeStats.queueSize.getAverage(), nodeStats.responseTime.getAverage(), nodeStats.serviceTime);
+                    (int) nodeStats.queueSize.getAverage(), nodeStats.responseTime.getAverage(), nodeStats.serviceTime,
+                    nodeStats.cpuPercent == null ? -1 : nodeStats.cpuPercent.getAverage(),
+                    shardResponseTime(nodeStats, shardId));
         }
 
         ComputedNodeStats(StreamInput in) throws IOException {
@@ -141,6 +210,20 @@ public final class ResponseCollectorService implements ClusterStateListener {
             this.queueSize = in.readInt();
             this.responseTime = in.readDouble();
             this.serviceTime = in.readDouble();
+            if (in.getVersion().onOrAfter(Version.V_7_1_2)) {
+                this.cpuPercent = in.readDouble();
+            } else {
+                this.cpuPercent = -1;
+            }
+            this.shardResponseTime = -1;
+        }
+
+        private static double shardResponseTime(NodeStatistics nodeStats, @Nullable ShardId shardId) {
+            if (shardId == null) {
+                return -1;
+            }
+            final ExponentiallyWeightedMovingAverage shardResponseEWMA = nodeStats.shardResponseTime.get(shardId);
+            return shardResponseEWMA == null ? -1 : shardResponseEWMA.getAverage();
         }
 
         @Override
@@ -150,6 +233,9 @@ public final class ResponseCollectorService implements ClusterStateListener {
             out.writeInt(this.queueSize);
             out.writeDouble(this.responseTime);
             out.writeDouble(this.serviceTime);
+            if (out.getVersion().onOrAfter(Version.V_7_1_2)) {
+                out.writeDouble(this.cpuPercent);
+            }
         }
 
         /**
@@ -168,10 +254,15 @@ public final class ResponseCollectorService implements ClusterStateListener {
 
             // EWMA of queue size
             double qBar = queueSize;
-            double qHatS = 1 + concurrencyCompensation + qBar;
+            // A busy node works off its queue more slowly, so we scale the
+            // queue estimate by up to a factor of two depending on the EWMA of
+            // its cpu usage.
+            double cpuAdjustment = cpuPercent < 0 ? 1 : 1 + Math.min(cpuPercent, 100) / 100;
+            double qHatS = (1 + concurrencyCompensation + qBar) * cpuAdjustment;
 
-            // EWMA of response time
-            double rS = responseTime / FACTOR;
+            // EWMA of response time, of the ranked shard if we know it since
+            // that accounts for how expensive the shard copy is to search
+            double rS = (shardResponseTime < 0 ? responseTime : shardResponseTime) / FACTOR;
             // EWMA of service time
             double muBarS = serviceTime / FACTOR;
 
@@ -195,6 +286,10 @@ public final class ResponseCollectorService implements ClusterStateListener {
             sb.append(", queue: ").append(queueSize);
             sb.append(", response time: ").append(String.format(Locale.ROOT, "%.1f", responseTime));
             sb.append(", service time: ").append(String.format(Locale.ROOT, "%.1f", serviceTime));
+            sb.append(", cpu: ").append(String.format(Locale.ROOT, "%.1f", cpuPercent));
+            if (shardResponseTime >= 0) {
+                sb.append(", shard response time: ").append(String.format(Locale.ROOT, "%.1f", shardResponseTime));
+            }
             sb.append(", rank: ").append(String.format(Locale.ROOT, "%.1f", rank(1)));
             sb.append(")");
             return sb.toString();
@@ -203,14 +298,18 @@ public final class ResponseCollectorService implements ClusterStateListener {
 
     /**
      * Class encapsulating a node's exponentially weighted queue size, response
-     * time, and service time, however, this class is private and intended only
-     * to be used for the internal accounting of {@code ResponseCollectorService}.
+     * time, service time and cpu usage, however, this class is private and
+     * intended only to be used for the internal accounting of
+     * {@code ResponseCollectorService}.
      */
     private static class NodeStatistics {
         final String nodeId;
         final ExponentiallyWeightedMovingAverage queueSize;
         final ExponentiallyWeightedMovingAverage responseTime;
+        final ConcurrentMap<ShardId, ExponentiallyWeightedMovingAverage> shardResponseTime = ConcurrentCollections.newConcurrentMap();
         double serviceTime;
+        // null until the node reported its cpu usage
+        ExponentiallyWeightedMovingAverage cpuPercent;
 
         NodeStatistics(String nodeId,
                        ExponentiallyWeightedMovingAverage queueSizeEWMA,
@@ -78,6 +78,10 @@ public class RepositoriesModule extends AbstractModule {
             internalRepositoryTypes, threadPool);
     }
 
+    public RepositoriesService getRepositoryService() {
+        return repositoriesService;
+    }
+
     @Override
     protected void configure() {
         bind(RepositoriesService.class).toInstance(repositoriesService);
@@ -871,6 +871,34 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
         }
     }
 
+    /**
+     * Loads the files of all the snapshots of a shard that are stored in this repository.
+     *
+     * @param indexId index id of the shard in this repository
+     * @param shardId shard id
+     */
+    public BlobStoreIndexShardSnapshots loadShardSnapshots(IndexId indexId, ShardId shardId) throws IOException {
+        final Context context = new Context(null, indexId, shardId);
+        return context.buildBlobStoreIndexShardSnapshots(context.blobContainer.listBlobs()).v1();
+    }
+
+    /**
+     * Opens a stream over the content of a file of a shard snapshot. The stream is throttled like the streams of shard restores.
+     *
+     * @param indexId  index id of the shard in this repository
+     * @param shardId  shard id
+     * @param fileInfo the file to read, as listed by {@link #loadShardSnapshots(IndexId, ShardId)}
+     */
+    public InputStream openShardSnapshotFile(IndexId indexId, ShardId shardId, BlobStoreIndexShardSnapshot.FileInfo fileInfo) {
+        final BlobPath path = basePath().add("indices").add(indexId.getId()).add(Integer.toString(shardId.getId()));
+        final InputStream stream = new PartSliceStream(blobStore().blobContainer(path), fileInfo);
+        if (restoreRateLimiter == null) {
+            return stream;
+        } else {
+            return new RateLimitingInputStream(stream, restoreRateLimiter, restoreRateLimitingTimeInNanos::inc);
+        }
+    }
+
     @Override
     public IndexShardSnapshotStatus getShardSnapshotStatus(SnapshotId snapshotId, Version version, IndexId indexId, ShardId shardId) {
         Context context = new Context(snapshotId, indexId, shardId);
@@ -21,6 +21,10 @@ package org.elasticsearch.search;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.apache.lucene.document.LongPoint;
+import org.apache.lucene.index.IndexOptions;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.PointValues;
 import org.apache.lucene.search.FieldDoc;
 import org.apache.lucene.search.TopDocs;
 import org.elasticsearch.ElasticsearchException;
@@ -47,6 +51,9 @@ import org.elasticsearch.index.Index;
 import org.elasticsearch.index.IndexService;
 import org.elasticsearch.index.IndexSettings;
 import org.elasticsearch.index.engine.Engine;
+import org.elasticsearch.index.mapper.DateFieldMapper;
+import org.elasticsearch.index.mapper.MappedFieldType;
+import org.elasticsearch.index.mapper.NumberFieldMapper;
 import org.elasticsearch.index.query.InnerHitContextBuilder;
 import org.elasticsearch.index.query.MatchAllQueryBuilder;
 import org.elasticsearch.index.query.MatchNoneQueryBuilder;
@@ -92,8 +99,11 @@ import org.elasticsearch.search.query.QuerySearchResult;
 import org.elasticsearch.search.query.ScrollQuerySearchResult;
 import org.elasticsearch.search.rescore.RescorerBuilder;
 import org.elasticsearch.search.searchafter.SearchAfterBuilder;
+import org.elasticsearch.search.sort.FieldSortBuilder;
 import org.elasticsearch.search.sort.SortAndFormats;
 import org.elasticsearch.search.sort.SortBuilder;
+import org.elasticsearch.search.sort.SortMode;
+import org.elasticsearch.search.sort.SortOrder;
 import org.elasticsearch.search.suggest.Suggest;
 import org.elasticsearch.search.suggest.completion.CompletionSuggestion;
 import org.elasticsearch.threadpool.Scheduler.Cancellable;
@@ -114,6 +124,7 @@ import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executor;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
 import java.util.function.LongSupplier;
 import java.util.function.Supplier;
 
@@ -1020,12 +1031,96 @@ public class SearchService extends AbstractLifecycleComponent implements IndexEv
             SearchSourceBuilder source = context.request().source();
             if (canRewriteToMatchNone(source)) {
                 QueryBuilder queryBuilder = source.query();
-                return queryBuilder instanceof MatchNoneQueryBuilder == false;
+                if (queryBuilder instanceof MatchNoneQueryBuilder) {
+                    return false;
+                }
+            }
+            if (canSkipShardsWithSearchAfter(source)) {
+                return hasDocsSortingAfter(context, (FieldSortBuilder) source.sorts().get(0), (Number) source.searchAfter()[0]);
             }
             return true; // null query means match_all
         }
     }
 
+    /**
+     * Returns true iff shards whose documents all sort before the <code>search_after</code> values of the given search source builder
+     * can be skipped. This is the case if the primary sort is on a field, and if neither the total hit count nor aggregations nor
+     * suggestions need to visit the documents of these shards. Deep paginations with <code>search_after</code> over time based indices,
+     * for instance to export large result sets without keeping scroll contexts open, then only query the shards that still have hits.
+     */
+    public static boolean canSkipShardsWithSearchAfter(SearchSourceBuilder source) {
+        if (source == null || source.searchAfter() == null || source.searchAfter().length == 0
+                || source.searchAfter()[0] instanceof Number == false || source.sorts() == null || source.sorts().isEmpty()
+                || source.aggregations() != null || source.suggest() != null) {
+            return false;
+        }
+        if (source.trackTotalHitsUpTo() == null || source.trackTotalHitsUpTo() != SearchContext.TRACK_TOTAL_HITS_DISABLED) {
+            return false;
+        }
+        SortBuilder<?> primarySort = source.sorts().get(0);
+        if (primarySort instanceof FieldSortBuilder == false) {
+            return false;
+        }
+        FieldSortBuilder fieldSort = (FieldSortBuilder) primarySort;
+        return fieldSort.getNestedSort() == null && fieldSort.getNestedPath() == null && fieldSort.getNestedFilter() == null;
+    }
+
+    /**
+     * Returns true if some documents of the shard may sort after the given value of the primary sort, based on the minimum and
+     * maximum values indexed in the points of the sort field.
+     */
+    private static boolean hasDocsSortingAfter(SearchContext context, FieldSortBuilder sort, Number after) throws IOException {
+        MappedFieldType fieldType = context.mapperService().fullName(sort.getFieldName());
+        if (fieldType == null || fieldType.indexOptions() == IndexOptions.NONE) {
+            return true;
+        }
+        final Function<byte[], Number> converter;
+        if (fieldType instanceof NumberFieldMapper.NumberFieldType) {
+            converter = ((NumberFieldMapper.NumberFieldType) fieldType)::parsePoint;
+        } else if (fieldType.getClass() == DateFieldMapper.DateFieldType.class) {
+            converter = (in) -> LongPoint.decodeDimension(in, 0);
+        } else {
+            return true;
+        }
+        final String field = fieldType.name();
+        final IndexReader reader = context.searcher().getIndexReader();
+        // documents without values sort before the search_after values only if they are sorted first
+        if ("_first".equals(sort.missing()) == false && PointValues.getDocCount(reader, field) != reader.maxDoc()) {
+            return true;
+        }
+        if (PointValues.size(reader, field) == 0) {
+            return false;
+        }
+        // the sort value of a document is only known to be within the range of the indexed values if it is the minimum or maximum
+        // of its values, or if all the documents have a single value: the sum of the values of a document may fall outside of it
+        final SortMode sortMode = sort.sortMode();
+        if (sortMode != null && sortMode != SortMode.MIN && sortMode != SortMode.MAX
+                && PointValues.size(reader, field) != PointValues.getDocCount(reader, field)) {
+            return true;
+        }
+        if (sort.order() == SortOrder.ASC) {
+            return compareSortValues(converter.apply(PointValues.getMaxPackedValue(reader, field)), after) >= 0;
+        } else {
+            return compareSortValues(converter.apply(PointValues.getMinPackedValue(reader, field)), after) <= 0;
+        }
+    }
+
+    /**
+     * Compares an indexed value of the sort field with a <code>search_after</code> value at the precision of the field, as the query
+     * phase converts the <code>search_after</code> value to the sort type of the field before comparing it with the sort values.
+     */
+    private static int compareSortValues(Number value, Number after) {
+        if (value instanceof Long) {
+            return Long.compare(value.longValue(), after.longValue());
+        } else if (value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            return Integer.compare(value.intValue(), after.intValue());
+        } else if (value instanceof Float) {
+            // float and half_float fields are sorted on float values
+            return Float.compare(value.floatValue(), after.floatValue());
+        }
+        return Double.compare(value.doubleValue(), after.doubleValue());
+    }
+
 
     public void canMatch(ShardSearchRequest request, ActionListener<CanMatchResponse> listener) {
         try {
@@ -62,7 +62,10 @@ public class AggregationPhase implements SearchPhase {
                 if (!collectors.isEmpty()) {
                     Collector collector = MultiBucketCollector.wrap(collectors);
                     ((BucketCollector)collector).preCollection();
-                    if (context.getProfilers() != null) {
+                    SegmentAggregationCache segmentCache = context.aggregations().segmentCache();
+                    if (segmentCache != null && SegmentCachingAggregationCollector.supports(context)) {
+                        collector = new SegmentCachingAggregationCollector(context, segmentCache, collector.scoreMode());
+                    } else if (context.getProfilers() != null) {
                         collector = new InternalProfileCollector(collector, CollectorResult.REASON_AGGREGATION,
                                 // TODO: report on child aggs as well
                                 Collections.emptyList());
@@ -122,17 +125,26 @@ public class AggregationPhase implements SearchPhase {
             }
         }
 
-        List<InternalAggregation> aggregations = new ArrayList<>(aggregators.length);
-        context.aggregations().resetBucketMultiConsumer();
-        for (Aggregator aggregator : context.aggregations().aggregators()) {
+        Collector collector = context.queryCollectors().get(AggregationPhase.class);
+        if (collector instanceof SegmentCachingAggregationCollector) {
             try {
-                aggregator.postCollection();
-                aggregations.add(aggregator.buildAggregation(0));
+                context.queryResult().aggregations(((SegmentCachingAggregationCollector) collector).buildShardAggregations());
             } catch (IOException e) {
-                throw new AggregationExecutionException("Failed to build aggregation [" + aggregator.name() + "]", e);
+                throw new AggregationExecutionException("Failed to build aggregations", e);
             }
+        } else {
+            List<InternalAggregation> aggregations = new ArrayList<>(aggregators.length);
+            context.aggregations().resetBucketMultiConsumer();
+            for (Aggregator aggregator : context.aggregations().aggregators()) {
+                try {
+                    aggregator.postCollection();
+                    aggregations.add(aggregator.buildAggregation(0));
+                } catch (IOException e) {
+                    throw new AggregationExecutionException("Failed to build aggregation [" + aggregator.name() + "]", e);
+                }
+            }
+            context.queryResult().aggregations(new InternalAggregations(aggregations));
         }
-        context.queryResult().aggregations(new InternalAggregations(aggregations));
         try {
             List<PipelineAggregator> pipelineAggregators = context.aggregations().factories().createPipelineAggregators();
             List<SiblingPipelineAggregator> siblingPipelineAggregators = new ArrayList<>(pipelineAggregators.size());
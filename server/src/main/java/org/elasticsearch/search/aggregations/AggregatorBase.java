@@ -55,6 +55,8 @@ public abstract class AggregatorBase extends Aggregator {
     private final List<PipelineAggregator> pipelineAggregators;
     private final CircuitBreakerService breakerService;
     private long requestBytesUsed;
+    private BatchingLeafBucketCollector batchingCollector;
+    private int[] batchBuffer;
 
     /**
      * Constructs a new Aggregator.
@@ -163,9 +165,36 @@ public abstract class AggregatorBase extends Aggregator {
 
     @Override
     public final LeafBucketCollector getLeafCollector(LeafReaderContext ctx) throws IOException {
+        // the docs of the previous segment must be collected before we move to the next one
+        flushBatch();
         preGetSubLeafCollectors();
         final LeafBucketCollector sub = collectableSubAggregators.getLeafCollector(ctx);
-        return getLeafCollector(ctx, sub);
+        final LeafBucketCollector collector = getLeafCollector(ctx, sub);
+        if (collector != LeafBucketCollector.NO_OP_COLLECTOR && collectsBatches() && scoreMode().needsScores() == false) {
+            if (batchBuffer == null) {
+                batchBuffer = new int[BatchingLeafBucketCollector.DEFAULT_BATCH_SIZE];
+            }
+            batchingCollector = new BatchingLeafBucketCollector(collector, batchBuffer);
+            return batchingCollector;
+        }
+        return collector;
+    }
+
+    /**
+     * Returns <code>true</code> if the leaf collectors of this aggregator collect a batch of docs in a bucket more efficiently
+     * than one doc at a time, see {@link LeafBucketCollector#collect(int[], int, long)}. Docs are then buffered and handed to
+     * the leaf collectors in batches of consecutive docs that fall into the same bucket, unless scores are needed. Buffered docs
+     * are collected before the next segment is collected and before {@link #doPostCollection()}.
+     */
+    protected boolean collectsBatches() {
+        return false;
+    }
+
+    private void flushBatch() throws IOException {
+        if (batchingCollector != null) {
+            batchingCollector.flush();
+            batchingCollector = null;
+        }
     }
 
     /**
@@ -236,6 +265,7 @@ public abstract class AggregatorBase extends Aggregator {
      */
     @Override
     public final void postCollection() throws IOException {
+        flushBatch();
         // post-collect this agg before subs to make it possible to buffer and then replay in postCollection()
         doPostCollection();
         collectableSubAggregators.postCollection();
@@ -0,0 +1,79 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.search.aggregations;
+
+import org.apache.lucene.search.Scorable;
+
+import java.io.IOException;
+
+/**
+ * A {@link LeafBucketCollector} that buffers consecutive docs that are collected in the same bucket and passes them to the
+ * wrapped collector in batches through {@link LeafBucketCollector#collect(int[], int, long)}. A batch is passed on when it is
+ * full, when a doc is collected in another bucket and on {@link #flush()}, which must be called once all the docs of the
+ * segment have been collected. Scores are not available to the wrapped collector since it collects docs after the scorer
+ * has moved on.
+ */
+public final class BatchingLeafBucketCollector extends LeafBucketCollector {
+
+    /** The default number of docs in a batch. */
+    public static final int DEFAULT_BATCH_SIZE = 256;
+
+    private final LeafBucketCollector in;
+    private final int[] docs;
+    private int count;
+    private long bucket;
+
+    /**
+     * @param in    the collector to pass batches to
+     * @param docs  the buffer for a batch, which may be shared by collectors that are not used concurrently
+     */
+    public BatchingLeafBucketCollector(LeafBucketCollector in, int[] docs) {
+        if (docs.length == 0) {
+            throw new IllegalArgumentException("the batch buffer must not be empty");
+        }
+        this.in = in;
+        this.docs = docs;
+    }
+
+    @Override
+    public void setScorer(Scorable scorer) throws IOException {
+        in.setScorer(scorer);
+    }
+
+    @Override
+    public void collect(int doc, long bucket) throws IOException {
+        if (count > 0 && (count == docs.length || bucket != this.bucket)) {
+            flush();
+        }
+        this.bucket = bucket;
+        docs[count++] = doc;
+    }
+
+    /**
+     * Passes the buffered docs to the wrapped collector.
+     */
+    public void flush() throws IOException {
+        if (count > 0) {
+            final int batchSize = count;
+            count = 0;
+            in.collect(docs, batchSize, bucket);
+        }
+    }
+}
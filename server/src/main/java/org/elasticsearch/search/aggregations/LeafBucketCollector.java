@@ -77,6 +77,19 @@ public abstract class LeafBucketCollector implements LeafCollector {
      */
     public abstract void collect(int doc, long bucket) throws IOException;
 
+    /**
+     * Collect the first <code>count</code> docs of the given array in the given bucket. Docs are passed in non-decreasing order.
+     * Collectors that can read doc values and update their state for many docs at once should override this method, the default
+     * implementation collects docs one by one.
+     *
+     * @see AggregatorBase#collectsBatches()
+     */
+    public void collect(int[] docs, int count, long bucket) throws IOException {
+        for (int i = 0; i < count; i++) {
+            collect(docs[i], bucket);
+        }
+    }
+
     @Override
     public final void collect(int doc) throws IOException {
         collect(doc, 0);
@@ -28,6 +28,7 @@ public class SearchContextAggregations {
     private final AggregatorFactories factories;
     private final MultiBucketConsumer multiBucketConsumer;
     private Aggregator[] aggregators;
+    private SegmentAggregationCache segmentCache;
 
     /**
      * Creates a new aggregation context with the parsed aggregator factories
@@ -62,6 +63,21 @@ public class SearchContextAggregations {
         return multiBucketConsumer;
     }
 
+    /**
+     * Returns the cache of the per segment aggregations of the request, or <code>null</code> if they should not be cached.
+     */
+    public SegmentAggregationCache segmentCache() {
+        return segmentCache;
+    }
+
+    /**
+     * Sets the cache that the aggregations of each segment are cached in and reused from, if the aggregations of the request
+     * can be computed per segment.
+     */
+    public void segmentCache(SegmentAggregationCache segmentCache) {
+        this.segmentCache = segmentCache;
+    }
+
     void resetBucketMultiConsumer() {
         multiBucketConsumer.reset();
     }
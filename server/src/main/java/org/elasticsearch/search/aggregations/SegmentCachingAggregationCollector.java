@@ -0,0 +1,190 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.search.aggregations;
+
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.search.CollectionTerminatedException;
+import org.apache.lucene.search.Collector;
+import org.apache.lucene.search.LeafCollector;
+import org.apache.lucene.search.ScoreMode;
+import org.elasticsearch.common.util.set.Sets;
+import org.elasticsearch.search.aggregations.InternalAggregation.ReduceContext;
+import org.elasticsearch.search.aggregations.bucket.filter.FilterAggregationBuilder;
+import org.elasticsearch.search.aggregations.bucket.filter.FiltersAggregationBuilder;
+import org.elasticsearch.search.aggregations.bucket.histogram.DateHistogramAggregationBuilder;
+import org.elasticsearch.search.aggregations.bucket.histogram.HistogramAggregationBuilder;
+import org.elasticsearch.search.aggregations.bucket.missing.MissingAggregationBuilder;
+import org.elasticsearch.search.aggregations.bucket.range.DateRangeAggregationBuilder;
+import org.elasticsearch.search.aggregations.bucket.range.IpRangeAggregationBuilder;
+import org.elasticsearch.search.aggregations.bucket.range.RangeAggregationBuilder;
+import org.elasticsearch.search.aggregations.metrics.AvgAggregationBuilder;
+import org.elasticsearch.search.aggregations.metrics.CardinalityAggregationBuilder;
+import org.elasticsearch.search.aggregations.metrics.MaxAggregationBuilder;
+import org.elasticsearch.search.aggregations.metrics.MinAggregationBuilder;
+import org.elasticsearch.search.aggregations.metrics.StatsAggregationBuilder;
+import org.elasticsearch.search.aggregations.metrics.SumAggregationBuilder;
+import org.elasticsearch.search.aggregations.metrics.ValueCountAggregationBuilder;
+import org.elasticsearch.search.internal.SearchContext;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A collector that computes the top level aggregations of a request separately for each segment, so that the result of each
+ * segment can be cached and reused by the next execution of the request, see {@link SegmentAggregationCache}. Segments whose
+ * aggregations are cached are not collected at all. The aggregations of the segments are merged with a partial reduce, which
+ * gives the same result as collecting all the segments at once for the {@link #supports(SearchContext) supported} aggregations.
+ */
+public final class SegmentCachingAggregationCollector implements Collector {
+
+    /*
+     * The aggregations whose shard level result is the partial reduction of their per segment results. This excludes aggregations
+     * that prune their buckets on the shard, like terms with its shard_size, and the ones that need to see all the documents of
+     * the shard at once.
+     */
+    private static final Set<String> SUPPORTED_AGGREGATIONS = Sets.newHashSet(
+        AvgAggregationBuilder.NAME,
+        CardinalityAggregationBuilder.NAME,
+        DateHistogramAggregationBuilder.NAME,
+        DateRangeAggregationBuilder.NAME,
+        FilterAggregationBuilder.NAME,
+        FiltersAggregationBuilder.NAME,
+        HistogramAggregationBuilder.NAME,
+        IpRangeAggregationBuilder.NAME,
+        MaxAggregationBuilder.NAME,
+        MinAggregationBuilder.NAME,
+        MissingAggregationBuilder.NAME,
+        RangeAggregationBuilder.NAME,
+        StatsAggregationBuilder.NAME,
+        SumAggregationBuilder.NAME,
+        ValueCountAggregationBuilder.NAME);
+
+    private final SearchContext context;
+    private final SegmentAggregationCache cache;
+    private final ScoreMode scoreMode;
+    private final List<InternalAggregations> segmentAggregations = new ArrayList<>();
+    // the segment that is being collected and its aggregators
+    private LeafReaderContext leaf;
+    private Aggregator[] aggregators;
+
+    /**
+     * @param context       the search context whose aggregations are computed
+     * @param cache         the cache of the aggregations of the request
+     * @param scoreMode     the score mode of the top level aggregators of the request
+     */
+    SegmentCachingAggregationCollector(SearchContext context, SegmentAggregationCache cache, ScoreMode scoreMode) {
+        this.context = context;
+        this.cache = cache;
+        this.scoreMode = scoreMode;
+    }
+
+    /**
+     * Returns <code>true</code> if the aggregations of the given search context can be computed per segment.
+     */
+    static boolean supports(SearchContext context) {
+        if (context.getProfilers() != null || context.terminateAfter() != SearchContext.DEFAULT_TERMINATE_AFTER
+                || context.request().source() == null || context.request().source().aggregations() == null) {
+            return false;
+        }
+        return supports(context.request().source().aggregations().getAggregatorFactories());
+    }
+
+    private static boolean supports(Collection<AggregationBuilder> builders) {
+        for (AggregationBuilder builder : builders) {
+            if (SUPPORTED_AGGREGATIONS.contains(builder.getType()) == false || supports(builder.getSubAggregations()) == false) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public LeafCollector getLeafCollector(LeafReaderContext ctx) throws IOException {
+        finishSegment(true);
+        final InternalAggregations cached = cache.get(ctx);
+        if (cached != null) {
+            segmentAggregations.add(cached);
+            throw new CollectionTerminatedException();
+        }
+        leaf = ctx;
+        aggregators = context.aggregations().factories().createTopLevelAggregators();
+        final BucketCollector collector = MultiBucketCollector.wrap(Arrays.asList(aggregators));
+        collector.preCollection();
+        try {
+            return collector.getLeafCollector(ctx);
+        } catch (CollectionTerminatedException e) {
+            // the aggregators do not need the documents of this segment
+            finishSegment(true);
+            throw e;
+        }
+    }
+
+    @Override
+    public ScoreMode scoreMode() {
+        return scoreMode;
+    }
+
+    /**
+     * Builds the aggregations of the segment that is being collected and caches them if requested.
+     */
+    private void finishSegment(boolean cacheResult) throws IOException {
+        if (aggregators == null) {
+            return;
+        }
+        final InternalAggregations result = buildAggregations(aggregators);
+        segmentAggregations.add(result);
+        if (cacheResult) {
+            cache.put(leaf, result);
+        }
+        leaf = null;
+        aggregators = null;
+    }
+
+    private InternalAggregations buildAggregations(Aggregator[] aggregators) throws IOException {
+        // the bucket limit applies to the aggregations of each segment
+        context.aggregations().resetBucketMultiConsumer();
+        final List<InternalAggregation> aggregations = new ArrayList<>(aggregators.length);
+        for (Aggregator aggregator : aggregators) {
+            aggregator.postCollection();
+            aggregations.add(aggregator.buildAggregation(0));
+        }
+        return new InternalAggregations(aggregations);
+    }
+
+    /**
+     * Merges the aggregations of all the segments into the shard level aggregations of the request.
+     */
+    InternalAggregations buildShardAggregations() throws IOException {
+        // the last segment may have been collected partially if the search timed out
+        finishSegment(context.queryResult().searchTimedOut() == false);
+        if (segmentAggregations.isEmpty()) {
+            return buildAggregations(context.aggregations().aggregators());
+        } else if (segmentAggregations.size() == 1) {
+            return segmentAggregations.get(0);
+        }
+        // scripts only run as part of the final reduction, so the partial reduction does not need the script service
+        final ReduceContext reduceContext = new ReduceContext(context.bigArrays(), null, false);
+        return InternalAggregations.reduce(segmentAggregations, reduceContext);
+    }
+}
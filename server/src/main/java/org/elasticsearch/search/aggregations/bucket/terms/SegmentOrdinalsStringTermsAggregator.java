@@ -0,0 +1,226 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.search.aggregations.bucket.terms;
+
+import org.apache.lucene.index.DocValues;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.SortedDocValues;
+import org.apache.lucene.index.SortedSetDocValues;
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.common.lease.Releasable;
+import org.elasticsearch.common.lease.Releasables;
+import org.elasticsearch.common.util.BigArrays;
+import org.elasticsearch.common.util.IntArray;
+import org.elasticsearch.common.util.LongHash;
+import org.elasticsearch.search.DocValueFormat;
+import org.elasticsearch.search.aggregations.Aggregator;
+import org.elasticsearch.search.aggregations.AggregatorFactories;
+import org.elasticsearch.search.aggregations.BucketOrder;
+import org.elasticsearch.search.aggregations.LeafBucketCollector;
+import org.elasticsearch.search.aggregations.LeafBucketCollectorBase;
+import org.elasticsearch.search.aggregations.pipeline.PipelineAggregator;
+import org.elasticsearch.search.aggregations.support.ValuesSource;
+import org.elasticsearch.search.internal.SearchContext;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.apache.lucene.index.SortedSetDocValues.NO_MORE_ORDS;
+
+/**
+ * An aggregator of string values that counts documents per segment ordinal, and merges the counts of all segments by term
+ * once the collection is done. Unlike {@link GlobalOrdinalsStringTermsAggregator} it doesn't need the global ordinals of the
+ * field, which are costly to build for high-cardinality fields of indices that refresh often, but it doesn't support
+ * sub-aggregations.
+ */
+class SegmentOrdinalsStringTermsAggregator extends StringTermsAggregator {
+
+    private final ValuesSource.Bytes.WithOrdinals valuesSource;
+    private final IncludeExclude.StringFilter includeExclude;
+    private final List<SortedSetDocValues> segmentOrds = new ArrayList<>();
+    private final List<SegmentDocCounts> segmentDocCounts = new ArrayList<>();
+
+    SegmentOrdinalsStringTermsAggregator(String name, AggregatorFactories factories, ValuesSource.Bytes.WithOrdinals valuesSource,
+            BucketOrder order, DocValueFormat format, BucketCountThresholds bucketCountThresholds,
+            IncludeExclude.StringFilter includeExclude, SearchContext context, Aggregator parent, SubAggCollectionMode collectionMode,
+            boolean showTermDocCountError, List<PipelineAggregator> pipelineAggregators, Map<String, Object> metaData) throws IOException {
+        super(name, factories, valuesSource, order, format, bucketCountThresholds, includeExclude, context, parent, collectionMode,
+            showTermDocCountError, pipelineAggregators, metaData);
+        assert factories == null || factories.countAggregators() == 0;
+        this.valuesSource = valuesSource;
+        this.includeExclude = includeExclude;
+    }
+
+    @Override
+    public LeafBucketCollector getLeafCollector(LeafReaderContext ctx, final LeafBucketCollector sub) throws IOException {
+        assert sub == LeafBucketCollector.NO_OP_COLLECTOR;
+        final SortedSetDocValues ords = valuesSource.ordinalsValues(ctx);
+        if (ords.getValueCount() == 0) {
+            return LeafBucketCollector.NO_OP_COLLECTOR;
+        }
+        final SegmentDocCounts docCounts = new SegmentDocCounts(context.bigArrays(), ords.getValueCount());
+        segmentOrds.add(ords);
+        segmentDocCounts.add(docCounts);
+        final SortedDocValues singleValues = DocValues.unwrapSingleton(ords);
+        if (singleValues != null) {
+            return new LeafBucketCollectorBase(sub, ords) {
+                @Override
+                public void collect(int doc, long bucket) throws IOException {
+                    assert bucket == 0;
+                    if (singleValues.advanceExact(doc)) {
+                        docCounts.increment(singleValues.ordValue());
+                    }
+                }
+            };
+        } else {
+            return new LeafBucketCollectorBase(sub, ords) {
+                @Override
+                public void collect(int doc, long bucket) throws IOException {
+                    assert bucket == 0;
+                    if (ords.advanceExact(doc)) {
+                        for (long ord = ords.nextOrd(); ord != NO_MORE_ORDS; ord = ords.nextOrd()) {
+                            docCounts.increment(ord);
+                        }
+                    }
+                }
+            };
+        }
+    }
+
+    @Override
+    protected void doPostCollection() throws IOException {
+        for (int i = 0; i < segmentOrds.size(); i++) {
+            final SortedSetDocValues ords = segmentOrds.get(i);
+            final SegmentDocCounts docCounts = segmentDocCounts.get(i);
+            for (long id = 0; id < docCounts.size(); id++) {
+                final int docCount = docCounts.docCount(id);
+                if (docCount == 0) {
+                    continue;
+                }
+                final BytesRef term = ords.lookupOrd(docCounts.ord(id));
+                if (includeExclude != null && includeExclude.accept(term) == false) {
+                    continue;
+                }
+                long bucketOrd = bucketOrds.add(term);
+                if (bucketOrd < 0) { // already seen
+                    bucketOrd = -1 - bucketOrd;
+                }
+                incrementBucketDocCount(bucketOrd, docCount);
+            }
+            // release the counts of each segment as soon as they are merged
+            segmentDocCounts.set(i, null);
+            docCounts.close();
+        }
+        segmentOrds.clear();
+        segmentDocCounts.clear();
+    }
+
+    @Override
+    public void doClose() {
+        Releasables.close(segmentDocCounts);
+        super.doClose();
+    }
+
+    /**
+     * The document counts of the ordinals of a segment. Queries often match few of the terms of a segment, so the counts are first
+     * kept in a hash keyed by ordinal, and only moved to an array of the size of the value count of the segment once so many
+     * ordinals were collected that the hash would use more memory than the array.
+     */
+    static final class SegmentDocCounts implements Releasable {
+
+        // A hash entry takes about 8 times the memory of an array slot, accounting for the ids, keys and load factor of the hash
+        private static final int SPARSE_MEMORY_FACTOR = 8;
+
+        private final BigArrays bigArrays;
+        private final long valueCount;
+        private LongHash sparseOrds;
+        private IntArray docCounts;
+
+        SegmentDocCounts(BigArrays bigArrays, long valueCount) {
+            this.bigArrays = bigArrays;
+            this.valueCount = valueCount;
+            boolean success = false;
+            try {
+                sparseOrds = new LongHash(1, bigArrays);
+                docCounts = bigArrays.newIntArray(1, true);
+                success = true;
+            } finally {
+                if (success == false) {
+                    close();
+                }
+            }
+        }
+
+        void increment(long ord) {
+            if (sparseOrds == null) {
+                docCounts.increment(ord, 1);
+                return;
+            }
+            long id = sparseOrds.add(ord);
+            if (id < 0) { // already seen
+                docCounts.increment(-1 - id, 1);
+                return;
+            }
+            docCounts = bigArrays.grow(docCounts, id + 1);
+            docCounts.increment(id, 1);
+            if (sparseOrds.size() > valueCount / SPARSE_MEMORY_FACTOR) {
+                toDense();
+            }
+        }
+
+        private void toDense() {
+            final IntArray denseDocCounts = bigArrays.newIntArray(valueCount, true);
+            for (long id = 0; id < sparseOrds.size(); id++) {
+                denseDocCounts.set(sparseOrds.get(id), docCounts.get(id));
+            }
+            Releasables.close(sparseOrds, docCounts);
+            sparseOrds = null;
+            docCounts = denseDocCounts;
+        }
+
+        /**
+         * Returns the number of ids, which go from <code>0</code> to <code>size() - 1</code>.
+         */
+        long size() {
+            return sparseOrds == null ? docCounts.size() : sparseOrds.size();
+        }
+
+        /**
+         * Returns the ordinal of the given id.
+         */
+        long ord(long id) {
+            return sparseOrds == null ? id : sparseOrds.get(id);
+        }
+
+        /**
+         * Returns the document count of the given id, which may be <code>0</code>.
+         */
+        int docCount(long id) {
+            return docCounts.get(id);
+        }
+
+        @Override
+        public void close() {
+            Releasables.close(sparseOrds, docCounts);
+        }
+    }
+}
@@ -20,9 +20,12 @@
 package org.elasticsearch.search.aggregations.bucket.terms;
 
 import org.apache.logging.log4j.LogManager;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.LeafReaderContext;
 import org.apache.lucene.search.IndexSearcher;
 import org.elasticsearch.common.ParseField;
 import org.elasticsearch.common.logging.DeprecationLogger;
+import org.elasticsearch.common.unit.TimeValue;
 import org.elasticsearch.search.DocValueFormat;
 import org.elasticsearch.search.aggregations.AggregationExecutionException;
 import org.elasticsearch.search.aggregations.Aggregator;
@@ -51,6 +54,17 @@ public class TermsAggregatorFactory extends ValuesSourceAggregatorFactory<Values
 
     static Boolean REMAP_GLOBAL_ORDS, COLLECT_SEGMENT_ORDS;
 
+    /**
+     * The minimum sum of the number of unique terms of the segments for which terms aggregations on fields with ordinals use
+     * {@link ExecutionMode#SEGMENT_ORDINALS} rather than building global ordinals, unless an execution hint is given.
+     */
+    static final long SEGMENT_ORDINALS_MIN_CARDINALITY = 1_000_000;
+    /**
+     * The maximum refresh interval of the indices for which terms aggregations use {@link ExecutionMode#SEGMENT_ORDINALS}: the
+     * global ordinals of indices that refresh less often are invalidated less often, which makes them worth building.
+     */
+    static final TimeValue SEGMENT_ORDINALS_MAX_REFRESH_INTERVAL = TimeValue.timeValueSeconds(30);
+
     private final BucketOrder order;
     private final IncludeExclude includeExclude;
     private final String executionHint;
@@ -133,6 +147,9 @@ public class TermsAggregatorFactory extends ValuesSourceAggregatorFactory<Values
             if (valuesSource instanceof ValuesSource.Bytes.WithOrdinals == false) {
                 execution = ExecutionMode.MAP;
             }
+            if (execution == null && useSegmentOrdinals(valuesSource, parent)) {
+                execution = ExecutionMode.SEGMENT_ORDINALS;
+            }
             final long maxOrd = execution == ExecutionMode.GLOBAL_ORDINALS ? getMaxOrd(valuesSource, context.searcher()) : -1;
             if (execution == null) {
                 execution = ExecutionMode.GLOBAL_ORDINALS;
@@ -192,6 +209,39 @@ public class TermsAggregatorFactory extends ValuesSourceAggregatorFactory<Values
                 + "]. It can only be applied to numeric or string fields.");
     }
 
+    /**
+     * Returns whether this aggregation should collect segment ordinals and merge them by term rather than build the global ordinals
+     * of the field: this is the case for high-cardinality fields without eager global ordinals, on indices that refresh often, and
+     * for fields whose eager global ordinals are still being built in the background.
+     */
+    private boolean useSegmentOrdinals(ValuesSource valuesSource, Aggregator parent) throws IOException {
+        if (factories != AggregatorFactories.EMPTY
+                || Aggregator.descendsFromBucketAggregator(parent)
+                || valuesSource instanceof ValuesSource.Bytes.WithOrdinals == false
+                || config.fieldContext() == null) {
+            return false;
+        }
+        final IndexReader reader = context.searcher().getIndexReader();
+        if (config.fieldContext().fieldType().eagerGlobalOrdinals()) {
+            // don't wait for the global ordinals to be built
+            return reader.leaves().size() > 1 && context.indexShard().isBuildingGlobalOrdinals(config.fieldContext().field(), reader);
+        }
+        final List<LeafReaderContext> leaves = reader.leaves();
+        long segmentsMaxOrd = 0;
+        for (LeafReaderContext leaf : leaves) {
+            segmentsMaxOrd += ((ValuesSource.Bytes.WithOrdinals) valuesSource).ordinalsValues(leaf).getValueCount();
+        }
+        return useSegmentOrdinals(leaves.size(), segmentsMaxOrd, context.getQueryShardContext().getIndexSettings().getRefreshInterval());
+    }
+
+    static boolean useSegmentOrdinals(int numSegments, long segmentsMaxOrd, TimeValue refreshInterval) {
+        // global ordinals are the segment ordinals if there is a single segment, and are not invalidated if refreshes are disabled
+        return numSegments > 1
+            && segmentsMaxOrd >= SEGMENT_ORDINALS_MIN_CARDINALITY
+            && refreshInterval.millis() >= 0
+            && refreshInterval.compareTo(SEGMENT_ORDINALS_MAX_REFRESH_INTERVAL) <= 0;
+    }
+
     // return the SubAggCollectionMode that this aggregation should use based on the expected size
     // and the cardinality of the field
     static SubAggCollectionMode subAggCollectionMode(int expectedSize, long maxOrd) {
@@ -305,6 +355,37 @@ public class TermsAggregatorFactory extends ValuesSourceAggregatorFactory<Values
                         format, bucketCountThresholds, filter, context, parent, remapGlobalOrds, subAggCollectMode, showTermDocCountError,
                         pipelineAggregators, metaData);
             }
+        },
+        SEGMENT_ORDINALS(new ParseField("segment_ordinals")) {
+
+            @Override
+            Aggregator create(String name,
+                              AggregatorFactories factories,
+                              ValuesSource valuesSource,
+                              BucketOrder order,
+                              DocValueFormat format,
+                              TermsAggregator.BucketCountThresholds bucketCountThresholds,
+                              IncludeExclude includeExclude,
+                              SearchContext context, Aggregator parent,
+                              SubAggCollectionMode subAggCollectMode,
+                              boolean showTermDocCountError,
+                              List<PipelineAggregator> pipelineAggregators,
+                              Map<String, Object> metaData) throws IOException {
+                if (factories != AggregatorFactories.EMPTY || Aggregator.descendsFromBucketAggregator(parent)) {
+                    /**
+                     * The segment ordinals execution mode can only be used iff this aggregator:
+                     *  - has no sub-aggregator, as buckets are only known once all segments are merged AND
+                     *  - is not a child of a bucket aggregator, since each bucket would keep the counts of all segment ordinals.
+                     * Otherwise we fall back to the map execution mode that doesn't need global ordinals either.
+                     */
+                    return MAP.create(name, factories, valuesSource, order, format, bucketCountThresholds, includeExclude, context,
+                            parent, subAggCollectMode, showTermDocCountError, pipelineAggregators, metaData);
+                }
+                final IncludeExclude.StringFilter filter = includeExclude == null ? null : includeExclude.convertToStringFilter(format);
+                return new SegmentOrdinalsStringTermsAggregator(name, factories, (ValuesSource.Bytes.WithOrdinals) valuesSource, order,
+                        format, bucketCountThresholds, filter, context, parent, subAggCollectMode, showTermDocCountError,
+                        pipelineAggregators, metaData);
+            }
         };
 
         public static ExecutionMode fromString(String value, final DeprecationLogger deprecationLogger) {
@@ -313,8 +394,11 @@ public class TermsAggregatorFactory extends ValuesSourceAggregatorFactory<Values
                     return GLOBAL_ORDINALS;
                 case "map":
                     return MAP;
+                case "segment_ordinals":
+                    return SEGMENT_ORDINALS;
                 default:
-                    throw new IllegalArgumentException("Unknown `execution_hint`: [" + value + "], expected any of [map, global_ordinals]");
+                    throw new IllegalArgumentException("Unknown `execution_hint`: [" + value + "], expected any of [map, global_ordinals, "
+                        + "segment_ordinals]");
             }
         }
 
@@ -26,10 +26,11 @@ import org.elasticsearch.search.SearchHits;
 import org.elasticsearch.search.SearchPhaseResult;
 import org.elasticsearch.search.SearchShardTarget;
 import org.elasticsearch.search.query.QuerySearchResult;
+import org.elasticsearch.transport.ZeroCopyTransportMessage;
 
 import java.io.IOException;
 
-public final class FetchSearchResult extends SearchPhaseResult {
+public final class FetchSearchResult extends SearchPhaseResult implements ZeroCopyTransportMessage {
 
     private SearchHits hits;
     // client side counter
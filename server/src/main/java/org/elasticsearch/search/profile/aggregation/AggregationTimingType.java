@@ -24,6 +24,7 @@ import java.util.Locale;
 public enum AggregationTimingType {
     INITIALIZE,
     COLLECT,
+    POST_COLLECTION,
     BUILD_AGGREGATION,
     REDUCE;
 
@@ -41,8 +41,11 @@ import org.apache.lucene.util.Counter;
 import org.elasticsearch.action.search.SearchTask;
 import org.elasticsearch.common.lucene.Lucene;
 import org.elasticsearch.common.lucene.search.TopDocsAndMaxScore;
+import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.common.util.SingleObjectCache;
 import org.elasticsearch.common.util.concurrent.EsThreadPoolExecutor;
 import org.elasticsearch.common.util.concurrent.QueueResizingEsThreadPoolExecutor;
+import org.elasticsearch.monitor.process.ProcessProbe;
 import org.elasticsearch.search.DocValueFormat;
 import org.elasticsearch.search.SearchPhase;
 import org.elasticsearch.search.SearchService;
@@ -77,6 +80,15 @@ import static org.elasticsearch.search.query.TopDocsCollectorContext.createTopDo
 public class QueryPhase implements SearchPhase {
     private static final Logger LOGGER = LogManager.getLogger(QueryPhase.class);
 
+    // the cpu usage of the process is reported to the coordinating nodes for adaptive replica selection, sampling it is not free
+    private static final SingleObjectCache<Short> PROCESS_CPU_PERCENT =
+        new SingleObjectCache<Short>(TimeValue.timeValueSeconds(1), (short) -1) {
+            @Override
+            protected Short refresh() {
+                return ProcessProbe.getInstance().getProcessCpuPercent();
+            }
+        };
+
     private final AggregationPhase aggregationPhase;
     private final SuggestPhase suggestPhase;
     private RescorePhase rescorePhase;
@@ -298,6 +310,7 @@ public class QueryPhase implements SearchPhase {
                 queryResult.nodeQueueSize(rExecutor.getCurrentQueueSize());
                 queryResult.serviceTimeEWMA((long) rExecutor.getTaskExecutionEWMA());
             }
+            queryResult.nodeCpuPercent(PROCESS_CPU_PERCENT.getOrRefresh());
             if (searchContext.getProfilers() != null) {
                 ProfileShardResult shardResults = SearchProfileShardResults.buildShardResults(searchContext.getProfilers());
                 result.profileResults(shardResults);
@@ -63,6 +63,7 @@ public final class QuerySearchResult extends SearchPhaseResult {
     private boolean hasProfileResults;
     private long serviceTimeEWMA = -1;
     private int nodeQueueSize = -1;
+    private int nodeCpuPercent = -1;
 
     public QuerySearchResult() {
     }
@@ -254,6 +255,18 @@ public final class QuerySearchResult extends SearchPhaseResult {
         return this;
     }
 
+    /**
+     * Returns the recent cpu usage of the process of the node that executed the query, or <code>-1</code> if it is unknown.
+     */
+    public int nodeCpuPercent() {
+        return this.nodeCpuPercent;
+    }
+
+    public QuerySearchResult nodeCpuPercent(int nodeCpuPercent) {
+        this.nodeCpuPercent = nodeCpuPercent;
+        return this;
+    }
+
     /**
      * Returns <code>true</code> if this result has any suggest score docs
      */
@@ -311,6 +324,11 @@ public final class QuerySearchResult extends SearchPhaseResult {
             serviceTimeEWMA = -1;
             nodeQueueSize = -1;
         }
+        if (in.getVersion().onOrAfter(Version.V_7_1_2)) {
+            nodeCpuPercent = in.readInt();
+        } else {
+            nodeCpuPercent = -1;
+        }
     }
 
     @Override
@@ -352,6 +370,9 @@ public final class QuerySearchResult extends SearchPhaseResult {
             out.writeZLong(serviceTimeEWMA);
             out.writeInt(nodeQueueSize);
         }
+        if (out.getVersion().onOrAfter(Version.V_7_1_2)) {
+            out.writeInt(nodeCpuPercent);
+        }
     }
 
     public TotalHits getTotalHits() {
@@ -20,13 +20,18 @@
 package org.elasticsearch.transport;
 
 import org.elasticsearch.core.internal.io.IOUtils;
+import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.bytes.CompositeBytesReference;
+import org.elasticsearch.common.compress.Compressor;
 import org.elasticsearch.common.compress.CompressorFactory;
 import org.elasticsearch.common.io.Streams;
 import org.elasticsearch.common.io.stream.BytesStream;
 import org.elasticsearch.common.io.stream.StreamOutput;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.zip.DeflaterOutputStream;
 
 /**
@@ -41,18 +46,44 @@ import java.util.zip.DeflaterOutputStream;
  *
  * {@link CompressibleBytesOutputStream#close()} will NOT close the underlying stream. The byte stream passed
  * in the constructor must be closed individually.
+ *
+ * If zero copy is enabled and compression is disabled, {@link BytesReference}s of at least {@link #ZERO_COPY_THRESHOLD} bytes
+ * that are written with {@link #writeBytesReference(BytesReference)} are not copied into the underlying stream. Instead the
+ * bytes returned by {@link #materializeBytes()} reference them in between the slices of the underlying stream, so they must not
+ * be modified until the message has been sent. Zero copy is only enabled for {@link ZeroCopyTransportMessage}s.
  */
 final class CompressibleBytesOutputStream extends StreamOutput {
 
+    /**
+     * The minimum size of the bytes references that are referenced rather than copied, smaller ones are not worth an extra
+     * buffer to send.
+     */
+    static final int ZERO_COPY_THRESHOLD = 16 * 1024;
+
     private final StreamOutput stream;
     private final BytesStream bytesStreamOutput;
     private final boolean shouldCompress;
+    private final boolean zeroCopy;
+    // the bytes references that were not copied, in the order they were written, and their positions in the underlying stream
+    private final List<BytesReference> zeroCopyReferences = new ArrayList<>();
+    private final List<Long> zeroCopyPositions = new ArrayList<>();
 
     CompressibleBytesOutputStream(BytesStream bytesStreamOutput, boolean shouldCompress) throws IOException {
+        this(bytesStreamOutput, shouldCompress ? CompressorFactory.COMPRESSOR : null, false);
+    }
+
+    /**
+     * @param bytesStreamOutput the stream to write the possibly compressed bytes to
+     * @param compressor        the compressor to use, or {@code null} to not compress
+     * @param zeroCopy          whether large bytes references may be referenced rather than copied, which requires that they are
+     *                          not modified until the message has been sent
+     */
+    CompressibleBytesOutputStream(BytesStream bytesStreamOutput, @Nullable Compressor compressor, boolean zeroCopy) throws IOException {
         this.bytesStreamOutput = bytesStreamOutput;
-        this.shouldCompress = shouldCompress;
+        this.shouldCompress = compressor != null;
+        this.zeroCopy = zeroCopy;
         if (shouldCompress) {
-            this.stream = CompressorFactory.COMPRESSOR.streamOutput(Streams.flushOnCloseStream(bytesStreamOutput));
+            this.stream = compressor.streamOutput(Streams.flushOnCloseStream(bytesStreamOutput));
         } else {
             this.stream = bytesStreamOutput;
         }
@@ -72,7 +103,54 @@ final class CompressibleBytesOutputStream extends StreamOutput {
             stream.close();
         }
 
-        return bytesStreamOutput.bytes();
+        final BytesReference bytes = bytesStreamOutput.bytes();
+        if (zeroCopyReferences.isEmpty()) {
+            return bytes;
+        }
+        final List<BytesReference> references = new ArrayList<>(2 * zeroCopyReferences.size() + 1);
+        int from = 0;
+        for (int i = 0; i < zeroCopyReferences.size(); i++) {
+            final int to = Math.toIntExact(zeroCopyPositions.get(i));
+            if (to > from) {
+                references.add(bytes.slice(from, to - from));
+            }
+            references.add(zeroCopyReferences.get(i));
+            from = to;
+        }
+        if (bytes.length() > from) {
+            references.add(bytes.slice(from, bytes.length() - from));
+        }
+        return new CompositeBytesReference(references.toArray(new BytesReference[0]));
+    }
+
+    @Override
+    public void writeBytesReference(@Nullable BytesReference bytes) throws IOException {
+        if (bytes != null && canReference(bytes)) {
+            writeVInt(bytes.length());
+            reference(bytes);
+        } else {
+            super.writeBytesReference(bytes);
+        }
+    }
+
+    @Override
+    public void writeOptionalBytesReference(@Nullable BytesReference bytes) throws IOException {
+        if (bytes != null && canReference(bytes)) {
+            writeVInt(bytes.length() + 1);
+            reference(bytes);
+        } else {
+            super.writeOptionalBytesReference(bytes);
+        }
+    }
+
+    private boolean canReference(BytesReference bytes) {
+        return zeroCopy && shouldCompress == false && bytes.length() >= ZERO_COPY_THRESHOLD;
+    }
+
+    private void reference(BytesReference bytes) throws IOException {
+        // the slices of the underlying stream are only taken once all bytes are written, as it may reallocate when growing
+        zeroCopyPositions.add(bytesStreamOutput.position());
+        zeroCopyReferences.add(bytes);
     }
 
     @Override
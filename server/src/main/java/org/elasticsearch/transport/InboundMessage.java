@@ -19,6 +19,7 @@
 package org.elasticsearch.transport;
 
 import org.elasticsearch.Version;
+import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.common.compress.Compressor;
 import org.elasticsearch.common.compress.CompressorFactory;
@@ -39,16 +40,27 @@ import java.util.TreeSet;
 public abstract class InboundMessage extends NetworkMessage implements Closeable {
 
     private final StreamInput streamInput;
+    private final Compressor compressor;
 
-    InboundMessage(ThreadContext threadContext, Version version, byte status, long requestId, StreamInput streamInput) {
+    InboundMessage(ThreadContext threadContext, Version version, byte status, long requestId, StreamInput streamInput,
+                   @Nullable Compressor compressor) {
         super(threadContext, version, status, requestId);
         this.streamInput = streamInput;
+        this.compressor = compressor;
     }
 
     StreamInput getStreamInput() {
         return streamInput;
     }
 
+    /**
+     * Returns the compressor the message body was compressed with, or {@code null} if the message was not compressed.
+     */
+    @Nullable
+    Compressor getCompressor() {
+        return compressor;
+    }
+
     static class Reader {
 
         private final Version version;
@@ -74,8 +86,8 @@ public abstract class InboundMessage extends NetworkMessage implements Closeable
                 Version remoteVersion = Version.fromId(streamInput.readInt());
                 final boolean isHandshake = TransportStatus.isHandshake(status);
                 ensureVersionCompatibility(remoteVersion, version, isHandshake);
+                Compressor compressor = null;
                 if (TransportStatus.isCompress(status) && hasMessageBytesToRead && streamInput.available() > 0) {
-                    Compressor compressor;
                     try {
                         final int bytesConsumed = TcpHeader.REQUEST_ID_SIZE + TcpHeader.STATUS_SIZE + TcpHeader.VERSION_ID_SIZE;
                         compressor = CompressorFactory.compressor(reference.slice(bytesConsumed, reference.length() - bytesConsumed));
@@ -106,9 +118,10 @@ public abstract class InboundMessage extends NetworkMessage implements Closeable
                         features = Collections.emptySet();
                     }
                     final String action = streamInput.readString();
-                    message = new RequestMessage(threadContext, remoteVersion, status, requestId, action, features, streamInput);
+                    message = new RequestMessage(threadContext, remoteVersion, status, requestId, action, features, streamInput,
+                        compressor);
                 } else {
-                    message = new ResponseMessage(threadContext, remoteVersion, status, requestId, streamInput);
+                    message = new ResponseMessage(threadContext, remoteVersion, status, requestId, streamInput, compressor);
                 }
                 success = true;
                 return message;
@@ -144,8 +157,8 @@ public abstract class InboundMessage extends NetworkMessage implements Closeable
         private final Set<String> features;
 
         RequestMessage(ThreadContext threadContext, Version version, byte status, long requestId, String actionName, Set<String> features,
-                       StreamInput streamInput) {
-            super(threadContext, version, status, requestId, streamInput);
+                       StreamInput streamInput, @Nullable Compressor compressor) {
+            super(threadContext, version, status, requestId, streamInput, compressor);
             this.actionName = actionName;
             this.features = features;
         }
@@ -161,8 +174,9 @@ public abstract class InboundMessage extends NetworkMessage implements Closeable
 
     public static class ResponseMessage extends InboundMessage {
 
-        ResponseMessage(ThreadContext threadContext, Version version, byte status, long requestId, StreamInput streamInput) {
-            super(threadContext, version, status, requestId, streamInput);
+        ResponseMessage(ThreadContext threadContext, Version version, byte status, long requestId, StreamInput streamInput,
+                        @Nullable Compressor compressor) {
+            super(threadContext, version, status, requestId, streamInput, compressor);
         }
     }
 }
@@ -19,9 +19,11 @@
 package org.elasticsearch.transport;
 
 import org.elasticsearch.Version;
+import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.bytes.BytesArray;
 import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.common.bytes.CompositeBytesReference;
+import org.elasticsearch.common.compress.Compressor;
 import org.elasticsearch.common.io.stream.BytesStreamOutput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.common.io.stream.Writeable;
@@ -33,10 +35,13 @@ import java.util.Set;
 abstract class OutboundMessage extends NetworkMessage implements Writeable {
 
     private final Writeable message;
+    private final Compressor compressor;
 
-    OutboundMessage(ThreadContext threadContext, Version version, byte status, long requestId, Writeable message) {
+    OutboundMessage(ThreadContext threadContext, Version version, byte status, long requestId, Writeable message,
+                    @Nullable Compressor compressor) {
         super(threadContext, version, status, requestId);
         this.message = message;
+        this.compressor = TransportStatus.isCompress(status) ? compressor : null;
     }
 
     BytesReference serialize(BytesStreamOutput bytesStream) throws IOException {
@@ -46,7 +51,8 @@ abstract class OutboundMessage extends NetworkMessage implements Writeable {
 
         // The compressible bytes stream will not close the underlying bytes stream
         BytesReference reference;
-        try (CompressibleBytesOutputStream stream = new CompressibleBytesOutputStream(bytesStream, TransportStatus.isCompress(status))) {
+        try (CompressibleBytesOutputStream stream =
+                 new CompressibleBytesOutputStream(bytesStream, compressor, message instanceof ZeroCopyTransportMessage)) {
             stream.setVersion(version);
             threadContext.writeTo(stream);
             writeTo(stream);
@@ -89,8 +95,8 @@ abstract class OutboundMessage extends NetworkMessage implements Writeable {
         private final String action;
 
         Request(ThreadContext threadContext, String[] features, Writeable message, Version version, String action, long requestId,
-                boolean isHandshake, boolean compress) {
-            super(threadContext, version, setStatus(compress, isHandshake, message), requestId, message);
+                boolean isHandshake, @Nullable Compressor compressor) {
+            super(threadContext, version, setStatus(compressor != null, isHandshake, message), requestId, message, compressor);
             this.features = features;
             this.action = action;
         }
@@ -122,8 +128,8 @@ abstract class OutboundMessage extends NetworkMessage implements Writeable {
         private final Set<String> features;
 
         Response(ThreadContext threadContext, Set<String> features, Writeable message, Version version, long requestId,
-                 boolean isHandshake, boolean compress) {
-            super(threadContext, version, setStatus(compress, isHandshake, message), requestId, message);
+                 boolean isHandshake, @Nullable Compressor compressor) {
+            super(threadContext, version, setStatus(compressor != null, isHandshake, message), requestId, message, compressor);
             this.features = features;
         }
 
@@ -28,6 +28,7 @@ import org.elasticsearch.Version;
 import org.elasticsearch.action.ActionListener;
 import org.elasticsearch.cluster.node.DiscoveryNode;
 import org.elasticsearch.common.Booleans;
+import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.Strings;
 import org.elasticsearch.common.breaker.CircuitBreaker;
 import org.elasticsearch.common.bytes.BytesArray;
@@ -35,6 +36,8 @@ import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.common.collect.MapBuilder;
 import org.elasticsearch.common.component.AbstractLifecycleComponent;
 import org.elasticsearch.common.component.Lifecycle;
+import org.elasticsearch.common.compress.Compressor;
+import org.elasticsearch.common.compress.CompressorFactory;
 import org.elasticsearch.common.io.stream.NamedWriteableRegistry;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.lease.Releasable;
@@ -109,6 +112,7 @@ public abstract class TcpTransport extends AbstractLifecycleComponent implements
     private static final BytesReference EMPTY_BYTES_REFERENCE = new BytesArray(new byte[0]);
 
     private final String[] features;
+    private final String compressionScheme;
 
     protected final Settings settings;
     private final CircuitBreakerService circuitBreakerService;
@@ -157,13 +161,15 @@ public abstract class TcpTransport extends AbstractLifecycleComponent implements
         this.outboundHandler = new OutboundHandler(threadPool, bigArrays, transportLogger);
         this.handshaker = new TransportHandshaker(version, threadPool,
             (node, channel, requestId, v) -> sendRequestToChannel(node, channel, requestId,
-                TransportHandshaker.HANDSHAKE_ACTION_NAME, new TransportHandshaker.HandshakeRequest(version),
-                TransportRequestOptions.EMPTY, v, false, true),
+                TransportHandshaker.HANDSHAKE_ACTION_NAME,
+                new TransportHandshaker.HandshakeRequest(version, TransportHandshaker.localCompressionSchemes()),
+                TransportRequestOptions.EMPTY, v, null, true),
             (v, features, channel, response, requestId) -> sendResponse(v, features, channel, response, requestId,
-                TransportHandshaker.HANDSHAKE_ACTION_NAME, false, true));
+                TransportHandshaker.HANDSHAKE_ACTION_NAME, null, true));
         this.keepAlive = new TransportKeepAlive(threadPool, this.outboundHandler::sendBytes);
         this.reader = new InboundMessage.Reader(version, namedWriteableRegistry, threadPool.getThreadContext());
         this.nodeName = Node.NODE_NAME_SETTING.get(settings);
+        this.compressionScheme = TransportSettings.TRANSPORT_COMPRESSION_SCHEME.get(settings);
 
         final Settings defaultFeatures = TransportSettings.DEFAULT_FEATURES_SETTING.get(settings);
         if (defaultFeatures == null) {
@@ -210,10 +216,11 @@ public abstract class TcpTransport extends AbstractLifecycleComponent implements
         private final List<TcpChannel> channels;
         private final DiscoveryNode node;
         private final Version version;
-        private final boolean compress;
+        private final Compressor compressor;
         private final AtomicBoolean isClosing = new AtomicBoolean(false);
 
-        NodeChannels(DiscoveryNode node, List<TcpChannel> channels, ConnectionProfile connectionProfile, Version handshakeVersion) {
+        NodeChannels(DiscoveryNode node, List<TcpChannel> channels, ConnectionProfile connectionProfile, Version handshakeVersion,
+                     Set<String> remoteCompressionSchemes) {
             this.node = node;
             this.channels = Collections.unmodifiableList(channels);
             assert channels.size() == connectionProfile.getNumConnections() : "expected channels size to be == "
@@ -224,7 +231,7 @@ public abstract class TcpTransport extends AbstractLifecycleComponent implements
                     typeMapping.put(type, handle);
             }
             version = handshakeVersion;
-            compress = connectionProfile.getCompressionEnabled();
+            compressor = connectionProfile.getCompressionEnabled() ? negotiateCompressor(remoteCompressionSchemes) : null;
         }
 
         @Override
@@ -269,10 +276,22 @@ public abstract class TcpTransport extends AbstractLifecycleComponent implements
                 throw new NodeNotConnectedException(node, "connection already closed");
             }
             TcpChannel channel = channel(options.type());
-            sendRequestToChannel(this.node, channel, requestId, action, request, options, getVersion(), compress);
+            sendRequestToChannel(this.node, channel, requestId, action, request, options, getVersion(), compressor);
         }
     }
 
+    /**
+     * Picks the compressor for requests sent to a node that advertised the given compression schemes during the handshake. The
+     * configured scheme is only used if the remote node can decompress it, otherwise we fall back to the default compressor which
+     * all nodes understand.
+     */
+    Compressor negotiateCompressor(Set<String> remoteCompressionSchemes) {
+        if (remoteCompressionSchemes.contains(compressionScheme)) {
+            return CompressorFactory.compressor(compressionScheme);
+        }
+        return CompressorFactory.COMPRESSOR;
+    }
+
     // This allows transport implementations to potentially override specific connection profiles. This
     // primarily exists for the test implementations.
     protected ConnectionProfile maybeOverrideConnectionProfile(ConnectionProfile connectionProfile) {
@@ -665,16 +684,16 @@ public abstract class TcpTransport extends AbstractLifecycleComponent implements
 
     private void sendRequestToChannel(final DiscoveryNode node, final TcpChannel channel, final long requestId, final String action,
                                       final TransportRequest request, TransportRequestOptions options, Version channelVersion,
-                                      boolean compressRequest) throws IOException, TransportException {
-        sendRequestToChannel(node, channel, requestId, action, request, options, channelVersion, compressRequest, false);
+                                      @Nullable Compressor compressor) throws IOException, TransportException {
+        sendRequestToChannel(node, channel, requestId, action, request, options, channelVersion, compressor, false);
     }
 
     private void sendRequestToChannel(final DiscoveryNode node, final TcpChannel channel, final long requestId, final String action,
                                       final TransportRequest request, TransportRequestOptions options, Version channelVersion,
-                                      boolean compressRequest, boolean isHandshake) throws IOException, TransportException {
+                                      @Nullable Compressor compressor, boolean isHandshake) throws IOException, TransportException {
         Version version = Version.min(this.version, channelVersion);
         OutboundMessage.Request message = new OutboundMessage.Request(threadPool.getThreadContext(), features, request, version, action,
-            requestId, isHandshake, compressRequest);
+            requestId, isHandshake, compressor);
         ActionListener<Void> listener = ActionListener.wrap(() ->
             messageListener.onRequestSent(node, requestId, action, request, options));
         outboundHandler.sendMessage(channel, message, listener);
@@ -701,7 +720,7 @@ public abstract class TcpTransport extends AbstractLifecycleComponent implements
         TransportAddress address = new TransportAddress(channel.getLocalAddress());
         RemoteTransportException tx = new RemoteTransportException(nodeName, address, action, error);
         OutboundMessage.Response message = new OutboundMessage.Response(threadPool.getThreadContext(), features, tx, version, requestId,
-            false, false);
+            false, null);
         ActionListener<Void> listener = ActionListener.wrap(() -> messageListener.onResponseSent(requestId, action, error));
         outboundHandler.sendMessage(channel, message, listener);
     }
@@ -719,7 +738,24 @@ public abstract class TcpTransport extends AbstractLifecycleComponent implements
         final long requestId,
         final String action,
         final boolean compress) throws IOException {
-        sendResponse(nodeVersion, features, channel, response, requestId, action, compress, false);
+        sendResponse(nodeVersion, features, channel, response, requestId, action, compress ? CompressorFactory.COMPRESSOR : null, false);
+    }
+
+    /**
+     * Sends the response to the given channel, compressed with the given compressor. Responses to compressed requests should use the
+     * compressor of the request since the caller is known to support it.
+     *
+     * @see #sendResponse(Version, Set, TcpChannel, TransportResponse, long, String, boolean)
+     */
+    public void sendResponse(
+        final Version nodeVersion,
+        final Set<String> features,
+        final TcpChannel channel,
+        final TransportResponse response,
+        final long requestId,
+        final String action,
+        @Nullable final Compressor compressor) throws IOException {
+        sendResponse(nodeVersion, features, channel, response, requestId, action, compressor, false);
     }
 
     private void sendResponse(
@@ -729,11 +765,11 @@ public abstract class TcpTransport extends AbstractLifecycleComponent implements
         final TransportResponse response,
         final long requestId,
         final String action,
-        boolean compress,
+        @Nullable Compressor compressor,
         boolean isHandshake) throws IOException {
         Version version = Version.min(this.version, nodeVersion);
         OutboundMessage.Response message = new OutboundMessage.Response(threadPool.getThreadContext(), features, response, version,
-            requestId, isHandshake, compress);
+            requestId, isHandshake, compressor);
         ActionListener<Void> listener = ActionListener.wrap(() -> messageListener.onResponseSent(requestId, action, response));
         outboundHandler.sendMessage(channel, message, listener);
     }
@@ -1028,7 +1064,7 @@ public abstract class TcpTransport extends AbstractLifecycleComponent implements
                     getInFlightRequestBreaker().addWithoutBreaking(messageLengthBytes);
                 }
                 transportChannel = new TcpTransportChannel(this, channel, transportName, action, requestId, version, features, profileName,
-                    messageLengthBytes, message.isCompress());
+                    messageLengthBytes, responseCompressor(message));
                 final TransportRequest request = reg.newRequest(stream);
                 request.remoteAddress(new TransportAddress(channel.getRemoteAddress()));
                 // in case we throw an exception, i.e. when the limit is hit, we don't want to verify
@@ -1039,7 +1075,7 @@ public abstract class TcpTransport extends AbstractLifecycleComponent implements
             // the circuit breaker tripped
             if (transportChannel == null) {
                 transportChannel = new TcpTransportChannel(this, channel, transportName, action, requestId, version, features,
-                    profileName, 0, message.isCompress());
+                    profileName, 0, responseCompressor(message));
             }
             try {
                 transportChannel.sendResponse(e);
@@ -1050,6 +1086,15 @@ public abstract class TcpTransport extends AbstractLifecycleComponent implements
         }
     }
 
+    // responses to compressed requests are compressed with the same compressor as the request since the caller supports it
+    @Nullable
+    private static Compressor responseCompressor(InboundMessage.RequestMessage message) {
+        if (message.isCompress() == false) {
+            return null;
+        }
+        return message.getCompressor() == null ? CompressorFactory.COMPRESSOR : message.getCompressor();
+    }
+
     // This template method is needed to inject custom error checking logic in tests.
     protected void validateRequest(StreamInput stream, long requestId, String action) throws IOException {
         final int nextByte = stream.read();
@@ -1263,7 +1308,8 @@ public abstract class TcpTransport extends AbstractLifecycleComponent implements
                     executeHandshake(node, handshakeChannel, connectionProfile, new ActionListener<Version>() {
                         @Override
                         public void onResponse(Version version) {
-                            NodeChannels nodeChannels = new NodeChannels(node, channels, connectionProfile, version);
+                            NodeChannels nodeChannels = new NodeChannels(node, channels, connectionProfile, version,
+                                handshaker.removeRemoteCompressionSchemes(handshakeChannel));
                             long relativeMillisTime = threadPool.relativeTimeInMillis();
                             nodeChannels.channels.forEach(ch -> {
                                 // Mark the channel init time
@@ -20,6 +20,8 @@
 package org.elasticsearch.transport;
 
 import org.elasticsearch.Version;
+import org.elasticsearch.common.Nullable;
+import org.elasticsearch.common.compress.Compressor;
 
 import java.io.IOException;
 import java.util.Set;
@@ -37,10 +39,10 @@ public final class TcpTransportChannel implements TransportChannel {
     private final long reservedBytes;
     private final String channelType;
     private final TcpChannel channel;
-    private final boolean compressResponse;
+    private final Compressor responseCompressor;
 
     TcpTransportChannel(TcpTransport transport, TcpChannel channel, String channelType, String action, long requestId, Version version,
-                        Set<String> features, String profileName, long reservedBytes, boolean compressResponse) {
+                        Set<String> features, String profileName, long reservedBytes, @Nullable Compressor responseCompressor) {
         this.version = version;
         this.features = features;
         this.channel = channel;
@@ -50,7 +52,7 @@ public final class TcpTransportChannel implements TransportChannel {
         this.profileName = profileName;
         this.reservedBytes = reservedBytes;
         this.channelType = channelType;
-        this.compressResponse = compressResponse;
+        this.responseCompressor = responseCompressor;
     }
 
     @Override
@@ -61,7 +63,7 @@ public final class TcpTransportChannel implements TransportChannel {
     @Override
     public void sendResponse(TransportResponse response) throws IOException {
         try {
-            transport.sendResponse(version, features, channel, response, requestId, action, compressResponse);
+            transport.sendResponse(version, features, channel, response, requestId, action, responseCompressor);
         } finally {
             release(false);
         }
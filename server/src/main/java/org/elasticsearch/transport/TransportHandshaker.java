@@ -21,7 +21,9 @@ package org.elasticsearch.transport;
 import org.elasticsearch.Version;
 import org.elasticsearch.action.ActionListener;
 import org.elasticsearch.cluster.node.DiscoveryNode;
+import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.compress.CompressorFactory;
 import org.elasticsearch.common.io.stream.BytesStreamOutput;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
@@ -31,6 +33,9 @@ import org.elasticsearch.threadpool.ThreadPool;
 
 import java.io.EOFException;
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
@@ -39,11 +44,17 @@ import java.util.concurrent.atomic.AtomicBoolean;
 /**
  * Sends and receives transport-level connection handshakes. This class will send the initial handshake,
  * manage state/timeouts while the handshake is in transit, and handle the eventual response.
+ * <p>
+ * The handshake also negotiates the compression schemes that can be used on the connection: the sender lists the schemes it can
+ * decompress after the version in the body of the request, which older nodes ignore, and nodes that understand this list reply
+ * with the schemes they can decompress. The schemes that the remote node advertised are kept per channel until they are consumed
+ * with {@link #removeRemoteCompressionSchemes(TcpChannel)}.
  */
 final class TransportHandshaker {
 
     static final String HANDSHAKE_ACTION_NAME = "internal:tcp/handshake";
     private final ConcurrentMap<Long, HandshakeResponseHandler> pendingHandshakes = new ConcurrentHashMap<>();
+    private final ConcurrentMap<TcpChannel, Set<String>> remoteCompressionSchemes = new ConcurrentHashMap<>();
     private final CounterMetric numHandshakes = new CounterMetric();
 
     private final Version version;
@@ -61,10 +72,12 @@ final class TransportHandshaker {
 
     void sendHandshake(long requestId, DiscoveryNode node, TcpChannel channel, TimeValue timeout, ActionListener<Version> listener) {
         numHandshakes.inc();
-        final HandshakeResponseHandler handler = new HandshakeResponseHandler(requestId, version, listener);
+        final HandshakeResponseHandler handler = new HandshakeResponseHandler(requestId, version, channel, listener);
         pendingHandshakes.put(requestId, handler);
-        channel.addCloseListener(ActionListener.wrap(
-            () -> handler.handleLocalException(new TransportException("handshake failed because connection reset"))));
+        channel.addCloseListener(ActionListener.wrap(() -> {
+            remoteCompressionSchemes.remove(channel);
+            handler.handleLocalException(new TransportException("handshake failed because connection reset"));
+        }));
         boolean success = false;
         try {
             // for the request we use the minCompatVersion since we don't know what's the version of the node we talk to
@@ -96,10 +109,25 @@ final class TransportHandshaker {
             throw new IllegalStateException("Handshake request not fully read for requestId [" + requestId + "], action ["
                 + TransportHandshaker.HANDSHAKE_ACTION_NAME + "], available [" + stream.available() + "]; resetting");
         }
-        HandshakeResponse response = new HandshakeResponse(this.version);
+        // only reply with our compression schemes if the sender advertised its own, otherwise it would not expect them
+        final String[] compressionSchemes = handshakeRequest.compressionSchemes == null ? null : localCompressionSchemes();
+        HandshakeResponse response = new HandshakeResponse(this.version, compressionSchemes);
         handshakeResponseSender.sendResponse(version, features, channel, response, requestId);
     }
 
+    /**
+     * Returns and forgets the compression schemes that the remote node advertised in the handshake that was sent on the given channel.
+     * An empty set means that the remote node only supports the default compression scheme.
+     */
+    Set<String> removeRemoteCompressionSchemes(TcpChannel channel) {
+        final Set<String> schemes = remoteCompressionSchemes.remove(channel);
+        return schemes == null ? Collections.emptySet() : schemes;
+    }
+
+    static String[] localCompressionSchemes() {
+        return CompressorFactory.schemes().toArray(new String[0]);
+    }
+
     TransportResponseHandler<HandshakeResponse> removeHandlerForHandshake(long requestId) {
         return pendingHandshakes.remove(requestId);
     }
@@ -116,12 +144,14 @@ final class TransportHandshaker {
 
         private final long requestId;
         private final Version currentVersion;
+        private final TcpChannel channel;
         private final ActionListener<Version> listener;
         private final AtomicBoolean isDone = new AtomicBoolean(false);
 
-        private HandshakeResponseHandler(long requestId, Version currentVersion, ActionListener<Version> listener) {
+        private HandshakeResponseHandler(long requestId, Version currentVersion, TcpChannel channel, ActionListener<Version> listener) {
             this.requestId = requestId;
             this.currentVersion = currentVersion;
+            this.channel = channel;
             this.listener = listener;
         }
 
@@ -138,6 +168,10 @@ final class TransportHandshaker {
                     listener.onFailure(new IllegalStateException("Received message from unsupported version: [" + version
                         + "] minimal compatible version is: [" + currentVersion.minimumCompatibilityVersion() + "]"));
                 } else {
+                    if (response.compressionSchemes != null) {
+                        remoteCompressionSchemes.put(channel,
+                            Collections.unmodifiableSet(new HashSet<>(Arrays.asList(response.compressionSchemes))));
+                    }
                     listener.onResponse(version);
                 }
             }
@@ -165,9 +199,16 @@ final class TransportHandshaker {
     static final class HandshakeRequest extends TransportRequest {
 
         private final Version version;
+        // the compression schemes the sender can decompress, null if the sender did not advertise any
+        private final String[] compressionSchemes;
 
         HandshakeRequest(Version version) {
+            this(version, null);
+        }
+
+        HandshakeRequest(Version version, @Nullable String[] compressionSchemes) {
             this.version = version;
+            this.compressionSchemes = compressionSchemes;
         }
 
         HandshakeRequest(StreamInput streamInput) throws IOException {
@@ -180,9 +221,12 @@ final class TransportHandshaker {
             }
             if (remainingMessage == null) {
                 version = null;
+                compressionSchemes = null;
             } else {
                 try (StreamInput messageStreamInput = remainingMessage.streamInput()) {
                     this.version = Version.readVersion(messageStreamInput);
+                    // senders that do not know about compression schemes end the message after the version
+                    this.compressionSchemes = messageStreamInput.available() > 0 ? messageStreamInput.readStringArray() : null;
                 }
             }
         }
@@ -198,6 +242,9 @@ final class TransportHandshaker {
             assert version != null;
             try (BytesStreamOutput messageStreamOutput = new BytesStreamOutput(4)) {
                 Version.writeVersion(version, messageStreamOutput);
+                if (compressionSchemes != null) {
+                    messageStreamOutput.writeStringArray(compressionSchemes);
+                }
                 BytesReference reference = messageStreamOutput.bytes();
                 streamOutput.writeBytesReference(reference);
             }
@@ -207,14 +254,23 @@ final class TransportHandshaker {
     static final class HandshakeResponse extends TransportResponse {
 
         private final Version responseVersion;
+        // the compression schemes the responder can decompress, null if the request did not advertise any
+        private final String[] compressionSchemes;
 
         HandshakeResponse(Version responseVersion) {
+            this(responseVersion, null);
+        }
+
+        HandshakeResponse(Version responseVersion, @Nullable String[] compressionSchemes) {
             this.responseVersion = responseVersion;
+            this.compressionSchemes = compressionSchemes;
         }
 
         private HandshakeResponse(StreamInput in) throws IOException {
             super.readFrom(in);
             responseVersion = Version.readVersion(in);
+            // responders only send their compression schemes if we advertised ours, and older ones never do
+            compressionSchemes = in.available() > 0 ? in.readStringArray() : null;
         }
 
         @Override
@@ -227,11 +283,19 @@ final class TransportHandshaker {
             super.writeTo(out);
             assert responseVersion != null;
             Version.writeVersion(responseVersion, out);
+            if (compressionSchemes != null) {
+                out.writeStringArray(compressionSchemes);
+            }
         }
 
         Version getResponseVersion() {
             return responseVersion;
         }
+
+        @Nullable
+        String[] getCompressionSchemes() {
+            return compressionSchemes;
+        }
     }
 
     @FunctionalInterface
@@ -20,6 +20,7 @@
 package org.elasticsearch.action.admin.cluster.node.stats;
 
 import org.elasticsearch.cluster.node.DiscoveryNode;
+import org.elasticsearch.cluster.service.ClusterApplierRecordingService;
 import org.elasticsearch.common.io.stream.BytesStreamOutput;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.discovery.DiscoveryStats;
@@ -259,6 +260,7 @@ public class NodeStatsTests extends ESTestCase {
                         assertEquals(queueStats.getTotal(), deserializedDiscoveryStats.getQueueStats().getTotal());
                         assertEquals(queueStats.getPending(), deserializedDiscoveryStats.getQueueStats().getPending());
                     }
+                    assertEquals(discoveryStats.getApplierRecordingStats(), deserializedDiscoveryStats.getApplierRecordingStats());
                 }
                 IngestStats ingestStats = nodeStats.getIngestStats();
                 IngestStats deserializedIngestStats = deserializedNodeStats.getIngestStats();
@@ -309,6 +311,7 @@ public class NodeStatsTests extends ESTestCase {
                         assertEquals(aStats.queueSize, bStats.queueSize, 0.01);
                         assertEquals(aStats.serviceTime, bStats.serviceTime, 0.01);
                         assertEquals(aStats.responseTime, bStats.responseTime, 0.01);
+                        assertEquals(aStats.cpuPercent, bStats.cpuPercent, 0.01);
                     });
                 }
             }
@@ -437,6 +440,9 @@ public class NodeStatsTests extends ESTestCase {
                     randomNonNegativeLong(),
                     randomNonNegativeLong(),
                     randomNonNegativeLong())
+                : null,
+                randomBoolean()
+                ? createApplierRecordingStats()
                 : null)
             : null;
         IngestStats ingestStats = null;
@@ -478,7 +484,8 @@ public class NodeStatsTests extends ESTestCase {
                     ResponseCollectorService.ComputedNodeStats stats = new ResponseCollectorService.ComputedNodeStats(nodeId,
                             randomIntBetween(1,10), randomIntBetween(0, 2000),
                             randomDoubleBetween(1.0, 10000000.0, true),
-                            randomDoubleBetween(1.0, 10000000.0, true));
+                            randomDoubleBetween(1.0, 10000000.0, true),
+                            randomBoolean() ? -1 : randomDoubleBetween(0.0, 100.0, true), -1);
                     nodeStats.put(nodeId, stats);
                 }
             }
@@ -493,4 +500,14 @@ public class NodeStatsTests extends ESTestCase {
     private IngestStats.Stats getPipelineStats(List<IngestStats.PipelineStat> pipelineStats, String id) {
         return pipelineStats.stream().filter(p1 -> p1.getPipelineId().equals(id)).findFirst().map(p2 -> p2.getStats()).orElse(null);
     }
+
+    private static ClusterApplierRecordingService.Stats createApplierRecordingStats() {
+        int numRecordings = randomIntBetween(0, 10);
+        Map<String, ClusterApplierRecordingService.Recording> recordings = new HashMap<>(numRecordings);
+        for (int i = 0; i < numRecordings; i++) {
+            recordings.put(randomAlphaOfLengthBetween(3, 10),
+                new ClusterApplierRecordingService.Recording(randomNonNegativeLong(), randomNonNegativeLong()));
+        }
+        return new ClusterApplierRecordingService.Stats(recordings);
+    }
 }
@@ -30,6 +30,7 @@ import org.hamcrest.Matchers;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -50,15 +51,12 @@ public class BulkRequestModifierTests extends ESTestCase {
         CaptureActionListener actionListener = new CaptureActionListener();
         TransportBulkAction.BulkRequestModifier bulkRequestModifier = new TransportBulkAction.BulkRequestModifier(bulkRequest);
 
-        int i = 0;
         Set<Integer> failedSlots = new HashSet<>();
-        while (bulkRequestModifier.hasNext()) {
-            bulkRequestModifier.next();
+        for (int i = 0; i < numRequests; i++) {
             if (randomBoolean()) {
-                bulkRequestModifier.markCurrentItemAsFailed(new RuntimeException());
+                bulkRequestModifier.markItemAsFailed(i, new RuntimeException());
                 failedSlots.add(i);
             }
-            i++;
         }
 
         assertThat(bulkRequestModifier.getBulkRequest().requests().size(), equalTo(numRequests - failedSlots.size()));
@@ -90,11 +88,14 @@ public class BulkRequestModifierTests extends ESTestCase {
         }
 
         TransportBulkAction.BulkRequestModifier modifier = new TransportBulkAction.BulkRequestModifier(originalBulkRequest);
-        for (int i = 0; modifier.hasNext(); i++) {
-            modifier.next();
-            if (i % 2 == 0) {
-                modifier.markCurrentItemAsFailed(new RuntimeException());
-            }
+        // the items may be marked as failed out of order when the pipelines of the bulk request are executed concurrently
+        List<Integer> failedSlots = new ArrayList<>();
+        for (int i = 0; i < 32; i += 2) {
+            failedSlots.add(i);
+        }
+        Collections.shuffle(failedSlots, random());
+        for (int slot : failedSlots) {
+            modifier.markItemAsFailed(slot, new RuntimeException());
         }
 
         // So half of the requests have "failed", so only the successful requests are left:
@@ -135,9 +136,6 @@ public class BulkRequestModifierTests extends ESTestCase {
         }
 
         TransportBulkAction.BulkRequestModifier modifier = new TransportBulkAction.BulkRequestModifier(originalBulkRequest);
-        while (modifier.hasNext()) {
-            modifier.next();
-        }
 
         BulkRequest bulkRequest = modifier.getBulkRequest();
         assertThat(bulkRequest, Matchers.sameInstance(originalBulkRequest));
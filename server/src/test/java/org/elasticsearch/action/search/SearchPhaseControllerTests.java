@@ -31,8 +31,12 @@ import org.apache.lucene.search.grouping.CollapseTopFieldDocs;
 import org.apache.lucene.util.BytesRef;
 import org.elasticsearch.action.OriginalIndices;
 import org.elasticsearch.common.Strings;
+import org.elasticsearch.common.breaker.CircuitBreaker;
+import org.elasticsearch.common.breaker.NoopCircuitBreaker;
 import org.elasticsearch.common.lucene.Lucene;
 import org.elasticsearch.common.lucene.search.TopDocsAndMaxScore;
+import org.elasticsearch.common.settings.ClusterSettings;
+import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.text.Text;
 import org.elasticsearch.common.util.BigArrays;
 import org.elasticsearch.common.util.concurrent.AtomicArray;
@@ -57,6 +61,7 @@ import org.elasticsearch.test.ESTestCase;
 import org.junit.Before;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
@@ -64,6 +69,7 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -379,6 +385,110 @@ public class SearchPhaseControllerTests extends ESTestCase {
         assertNull(reduce.sortedTopDocs.collapseValues);
     }
 
+    public void testEstimateSize() {
+        assertEquals(0, SearchPhaseController.estimateSize(null));
+        InternalAggregations aggs = new InternalAggregations(Arrays.asList(
+            new InternalMax("max", 1.0D, DocValueFormat.RAW, Collections.emptyList(), Collections.emptyMap()),
+            new InternalMax("other_max", 2.0D, DocValueFormat.RAW, Collections.emptyList(), Collections.emptyMap())));
+        assertEquals(2 * SearchPhaseController.ESTIMATED_AGGREGATION_BYTES, SearchPhaseController.estimateSize(aggs));
+    }
+
+    public void testConsumerReducesBufferedAggsOverMaxSize() {
+        ClusterSettings clusterSettings = new ClusterSettings(Settings.builder()
+            .put(SearchPhaseController.MAX_BUFFERED_AGGS_SIZE_SETTING.getKey(),
+                (2 * SearchPhaseController.ESTIMATED_AGGREGATION_BYTES + 1) + "b")
+            .build(), ClusterSettings.BUILT_IN_CLUSTER_SETTINGS);
+        searchPhaseController = new SearchPhaseController(
+            (finalReduce) -> {
+                reductions.add(finalReduce);
+                return new InternalAggregation.ReduceContext(BigArrays.NON_RECYCLING_INSTANCE, null, finalReduce);
+            }, new NoopCircuitBreaker(CircuitBreaker.REQUEST), clusterSettings);
+        SearchPhaseController.QueryPhaseResultConsumer consumer = newMaxConsumer(10, 5);
+        for (int i = 0; i < 10; i++) {
+            consumer.consumeResult(newMaxResult(i, i));
+        }
+        // only the results received since the last partial reduce count towards the limit
+        assertEquals(4, consumer.getNumReducePhases());
+        assertEquals(3, consumer.getNumBuffered());
+        SearchPhaseController.ReducedQueryPhase reduce = consumer.reduce();
+        assertEquals(5, reduce.numReducePhases);
+        assertEquals(9.0D, ((InternalMax) reduce.aggregations.asList().get(0)).getValue(), 0.0D);
+
+        // the limit is dynamic, and the batched reduce size still applies
+        clusterSettings.applySettings(Settings.builder()
+            .put(SearchPhaseController.MAX_BUFFERED_AGGS_SIZE_SETTING.getKey(), "1mb").build());
+        consumer = newMaxConsumer(10, 5);
+        for (int i = 0; i < 10; i++) {
+            consumer.consumeResult(newMaxResult(i, i));
+        }
+        assertEquals(2, consumer.getNumReducePhases());
+        assertEquals(2, consumer.getNumBuffered());
+    }
+
+    public void testConsumerReducesBufferedAggsBeforeTrippingTheBreaker() {
+        AtomicLong used = new AtomicLong();
+        CircuitBreaker breaker = new NoopCircuitBreaker(CircuitBreaker.REQUEST) {
+            @Override
+            public long getUsed() {
+                return used.get();
+            }
+
+            @Override
+            public long getLimit() {
+                return 10 * SearchPhaseController.ESTIMATED_AGGREGATION_BYTES;
+            }
+
+            @Override
+            public double getOverhead() {
+                return 1.0D;
+            }
+        };
+        searchPhaseController = new SearchPhaseController(
+            (finalReduce) -> {
+                reductions.add(finalReduce);
+                return new InternalAggregation.ReduceContext(BigArrays.NON_RECYCLING_INSTANCE, null, finalReduce);
+            }, breaker, new ClusterSettings(Settings.EMPTY, ClusterSettings.BUILT_IN_CLUSTER_SETTINGS));
+        SearchPhaseController.QueryPhaseResultConsumer consumer = newMaxConsumer(20, 10);
+        for (int i = 0; i < 3; i++) {
+            consumer.consumeResult(newMaxResult(i, i));
+        }
+        assertEquals(0, consumer.getNumReducePhases());
+        assertEquals(3, consumer.getNumBuffered());
+
+        // other requests use the breaker, only 3 aggregation results fit in it
+        used.set(7 * SearchPhaseController.ESTIMATED_AGGREGATION_BYTES);
+        consumer.consumeResult(newMaxResult(3, 3));
+        assertEquals(1, consumer.getNumReducePhases());
+        assertEquals(2, consumer.getNumBuffered());
+        consumer.consumeResult(newMaxResult(4, 4));
+        assertEquals(1, consumer.getNumReducePhases());
+        assertEquals(3, consumer.getNumBuffered());
+        consumer.consumeResult(newMaxResult(5, 5));
+        assertEquals(2, consumer.getNumReducePhases());
+        assertEquals(2, consumer.getNumBuffered());
+    }
+
+    private SearchPhaseController.QueryPhaseResultConsumer newMaxConsumer(int numShards, int bufferSize) {
+        SearchRequest request = new SearchRequest();
+        request.source(new SearchSourceBuilder().aggregation(AggregationBuilders.max("test").field("foo")).size(0));
+        request.setBatchedReduceSize(bufferSize);
+        InitialSearchPhase.ArraySearchPhaseResults<SearchPhaseResult> consumer =
+            searchPhaseController.newSearchPhaseResults(request, numShards);
+        assertThat(consumer, instanceOf(SearchPhaseController.QueryPhaseResultConsumer.class));
+        return (SearchPhaseController.QueryPhaseResultConsumer) consumer;
+    }
+
+    private static QuerySearchResult newMaxResult(int shardIndex, double value) {
+        QuerySearchResult result = new QuerySearchResult(shardIndex, new SearchShardTarget("node", new ShardId("a", "b", shardIndex),
+            null, OriginalIndices.NONE));
+        result.topDocs(new TopDocsAndMaxScore(new TopDocs(new TotalHits(0, TotalHits.Relation.EQUAL_TO), new ScoreDoc[0]), Float.NaN),
+            new DocValueFormat[0]);
+        result.aggregations(new InternalAggregations(Collections.singletonList(new InternalMax("test", value, DocValueFormat.RAW,
+            Collections.emptyList(), Collections.emptyMap()))));
+        result.setShardIndex(shardIndex);
+        return result;
+    }
+
     public void testConsumerConcurrently() throws InterruptedException {
         int expectedNumResults = randomIntBetween(1, 100);
         int bufferSize = randomIntBetween(2, 200);
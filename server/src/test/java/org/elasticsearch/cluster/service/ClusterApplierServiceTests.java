@@ -48,6 +48,7 @@ import org.junit.AfterClass;
 import org.junit.Before;
 import org.junit.BeforeClass;
 
+import java.util.Map;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
@@ -56,6 +57,7 @@ import static java.util.Collections.emptyMap;
 import static java.util.Collections.emptySet;
 import static org.elasticsearch.test.ClusterServiceUtils.setState;
 import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.is;
 
 public class ClusterApplierServiceTests extends ESTestCase {
@@ -499,6 +501,44 @@ public class ClusterApplierServiceTests extends ESTestCase {
         assertTrue(applierCalled.get());
     }
 
+    public void testRecordsTheTimeSpentInAppliersAndListeners() throws InterruptedException {
+        clusterApplierService.currentTimeOverride = System.nanoTime();
+        clusterApplierService.addStateApplier(event ->
+            clusterApplierService.currentTimeOverride += TimeValue.timeValueSeconds(2).nanos());
+        clusterApplierService.addListener(event ->
+            clusterApplierService.currentTimeOverride += TimeValue.timeValueSeconds(1).nanos());
+
+        final int numberOfUpdates = randomIntBetween(1, 5);
+        for (int i = 0; i < numberOfUpdates; i++) {
+            CountDownLatch latch = new CountDownLatch(1);
+            clusterApplierService.onNewClusterState("test", () -> ClusterState.builder(clusterApplierService.state()).build(),
+                new ClusterApplyListener() {
+                    @Override
+                    public void onSuccess(String source) {
+                        latch.countDown();
+                    }
+
+                    @Override
+                    public void onFailure(String source, Exception e) {
+                        throw new AssertionError(e);
+                    }
+                });
+            latch.await();
+        }
+
+        final String name = ClusterApplierServiceTests.class.getName();
+        final Map<String, ClusterApplierRecordingService.Recording> recordings = clusterApplierService.getStats().getRecordings();
+        final ClusterApplierRecordingService.Recording applierRecording = recordings.get("running applier [" + name + "]");
+        assertThat(applierRecording.getCount(), equalTo((long) numberOfUpdates));
+        assertThat(applierRecording.getSum(), equalTo(2000L * numberOfUpdates));
+        final ClusterApplierRecordingService.Recording listenerRecording = recordings.get("notifying listener [" + name + "]");
+        assertThat(listenerRecording.getCount(), equalTo((long) numberOfUpdates));
+        assertThat(listenerRecording.getSum(), equalTo(1000L * numberOfUpdates));
+        assertThat(recordings.get("connecting to new nodes").getCount(), equalTo((long) numberOfUpdates));
+        // the most expensive step comes first
+        assertThat(recordings.keySet().iterator().next(), equalTo("running applier [" + name + "]"));
+    }
+
     static class TimedClusterApplierService extends ClusterApplierService {
 
         final ClusterSettings clusterSettings;
@@ -20,11 +20,20 @@
 package org.elasticsearch.common.bytes;
 
 import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.BytesRefBuilder;
+import org.apache.lucene.util.BytesRefIterator;
+import org.elasticsearch.common.breaker.CircuitBreaker;
 import org.elasticsearch.common.io.stream.ReleasableBytesStreamOutput;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.util.BigArrays;
 import org.elasticsearch.common.util.ByteArray;
+import org.elasticsearch.common.util.MockPageCacheRecycler;
+import org.elasticsearch.common.util.PageCacheRecycler;
 import org.hamcrest.Matchers;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 
 public class PagedBytesReferenceTests extends AbstractBytesReferenceTestCase {
 
@@ -129,4 +138,28 @@ public class PagedBytesReferenceTests extends AbstractBytesReferenceTestCase {
         assertNotEquals(pbr, pbr2);
     }
 
+
+    public void testIteratorOverDirectPages() throws IOException {
+        final BigArrays directBigArrays = new BigArrays(new MockPageCacheRecycler(
+            Settings.builder().put(PageCacheRecycler.DIRECT_PAGES_SETTING.getKey(), true).build()), null, CircuitBreaker.REQUEST);
+        final int length = randomIntBetween(PAGE_SIZE + 1, PAGE_SIZE * randomIntBetween(2, 5));
+        final byte[] content = randomByteArrayOfLength(length);
+        try (ReleasableBytesStreamOutput out = new ReleasableBytesStreamOutput(length, directBigArrays)) {
+            out.writeBytes(content);
+            final int offset = randomIntBetween(0, length - 1);
+            final BytesReference slice = out.bytes().slice(offset, length - offset);
+            // the fragments must stay valid while the iteration goes on, since they may be wrapped rather than copied
+            final List<BytesRef> fragments = new ArrayList<>();
+            final BytesRefIterator iterator = slice.iterator();
+            BytesRef fragment;
+            while ((fragment = iterator.next()) != null) {
+                fragments.add(new BytesRef(fragment.bytes, fragment.offset, fragment.length));
+            }
+            final BytesRefBuilder builder = new BytesRefBuilder();
+            for (BytesRef bytesRef : fragments) {
+                builder.append(bytesRef);
+            }
+            assertEquals(new BytesRef(content, offset, length - offset), builder.get());
+        }
+    }
 }
@@ -26,6 +26,7 @@ import org.junit.Before;
 import java.lang.management.ManagementFactory;
 import java.lang.management.ThreadMXBean;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -48,7 +49,9 @@ import java.util.stream.Collectors;
 
 import static org.hamcrest.CoreMatchers.instanceOf;
 import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
 
 public class CacheTests extends ESTestCase {
     private int numberOfEntries;
@@ -943,4 +946,119 @@ public class CacheTests extends ESTestCase {
             assertEquals(RemovalNotification.RemovalReason.INVALIDATED, removalNotifications.get(i).getRemovalReason());
         }
     }
+
+    // with TinyLFU admission, a scan over keys that are accessed only once must not evict the frequently accessed keys
+    public void testTinyLfuIsScanResistant() {
+        final int maximumWeight = randomIntBetween(64, 256);
+        Cache<Integer, String> cache =
+            CacheBuilder.<Integer, String>builder()
+                .setMaximumWeight(maximumWeight)
+                .setEvictionPolicy(Cache.EvictionPolicy.TINY_LFU)
+                .build();
+        for (int i = 0; i < maximumWeight; i++) {
+            cache.put(i, Integer.toString(i));
+        }
+        for (int round = 0; round < 3; round++) {
+            for (int i = 0; i < maximumWeight; i++) {
+                assertEquals(Integer.toString(i), cache.get(i));
+            }
+            cache.refresh();
+        }
+        for (int i = maximumWeight; i < 3 * maximumWeight; i++) {
+            cache.put(i, Integer.toString(i));
+        }
+        cache.refresh();
+        assertEquals(maximumWeight, cache.count());
+        int retained = 0;
+        for (int i = 0; i < maximumWeight; i++) {
+            if (cache.get(i) != null) {
+                retained++;
+            }
+        }
+        // the frequency sketch is probabilistic so a few scanned keys may collide with frequently accessed ones
+        assertThat(retained, greaterThanOrEqualTo(maximumWeight * 9 / 10));
+    }
+
+    // hits are buffered with TinyLFU, so promotions only become visible once the buffer is drained
+    public void testTinyLfuPromotion() {
+        final int maximumWeight = randomIntBetween(2, 128);
+        List<Integer> evictedKeys = new ArrayList<>();
+        Cache<Integer, String> cache =
+            CacheBuilder.<Integer, String>builder()
+                .setMaximumWeight(maximumWeight)
+                .setEvictionPolicy(Cache.EvictionPolicy.TINY_LFU)
+                .removalListener(notification -> {
+                    assertEquals(RemovalNotification.RemovalReason.EVICTED, notification.getRemovalReason());
+                    evictedKeys.add(notification.getKey());
+                })
+                .build();
+        for (int i = 0; i < maximumWeight; i++) {
+            cache.put(i, Integer.toString(i));
+        }
+        // touch the first entry so that it is no longer the least recently used one
+        assertEquals("0", cache.get(0));
+        cache.refresh();
+        Integer leastRecentlyUsed = null;
+        for (Integer key : cache.keys()) {
+            leastRecentlyUsed = key;
+        }
+        assertEquals(1, leastRecentlyUsed.intValue());
+        // a new key has the same frequency as the least recently used key so it is admitted
+        cache.put(maximumWeight, Integer.toString(maximumWeight));
+        assertEquals(Collections.singletonList(1), evictedKeys);
+        assertEquals(maximumWeight, cache.count());
+        assertEquals(1, cache.stats().getHits());
+    }
+
+    public void testTinyLfuTorture() throws BrokenBarrierException, InterruptedException {
+        int numberOfThreads = randomIntBetween(2, 32);
+        final Cache<Integer, String> cache =
+            CacheBuilder.<Integer, String>builder()
+                .setMaximumWeight(1000)
+                .weigher((k, v) -> 2)
+                .setEvictionPolicy(Cache.EvictionPolicy.TINY_LFU)
+                .build();
+        AtomicLong lookups = new AtomicLong();
+
+        CyclicBarrier barrier = new CyclicBarrier(1 + numberOfThreads);
+        for (int i = 0; i < numberOfThreads; i++) {
+            Thread thread = new Thread(() -> {
+                try {
+                    barrier.await();
+                    Random random = new Random(random().nextLong());
+                    for (int j = 0; j < numberOfEntries; j++) {
+                        Integer key = random.nextInt(numberOfEntries);
+                        if (random.nextBoolean()) {
+                            cache.put(key, Integer.toString(key));
+                        } else {
+                            String value = cache.get(key);
+                            lookups.incrementAndGet();
+                            if (value != null) {
+                                assertEquals(Integer.toString(key), value);
+                            }
+                        }
+                    }
+                    barrier.await();
+                } catch (BrokenBarrierException | InterruptedException e) {
+                    throw new AssertionError(e);
+                }
+            });
+            thread.start();
+        }
+
+        // wait for all threads to be ready
+        barrier.await();
+        // wait for all threads to finish
+        barrier.await();
+
+        cache.refresh();
+        assertThat(cache.count(), lessThanOrEqualTo(500));
+        assertEquals(cache.count() * 2L, cache.weight());
+        assertEquals(lookups.get(), cache.stats().getHits() + cache.stats().getMisses());
+        int keys = 0;
+        for (Integer ignored : cache.keys()) {
+            keys++;
+        }
+        assertEquals(cache.count(), keys);
+    }
 }
@@ -0,0 +1,74 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.common.cache;
+
+import org.elasticsearch.test.ESTestCase;
+
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.lessThan;
+
+public class FrequencySketchTests extends ESTestCase {
+
+    public void testIncrement() {
+        FrequencySketch sketch = new FrequencySketch();
+        int key = randomInt();
+        assertEquals(0, sketch.frequency(key));
+        int times = randomIntBetween(1, FrequencySketch.MAXIMUM_FREQUENCY);
+        for (int i = 0; i < times; i++) {
+            sketch.increment(key);
+        }
+        // count-min sketches may over-estimate but never under-estimate
+        assertThat(sketch.frequency(key), greaterThanOrEqualTo(times));
+    }
+
+    public void testFrequencySaturates() {
+        FrequencySketch sketch = new FrequencySketch();
+        int key = randomInt();
+        for (int i = 0; i < 2 * FrequencySketch.MAXIMUM_FREQUENCY; i++) {
+            sketch.increment(key);
+        }
+        assertEquals(FrequencySketch.MAXIMUM_FREQUENCY, sketch.frequency(key));
+    }
+
+    public void testReset() {
+        FrequencySketch sketch = new FrequencySketch();
+        int hotKey = randomInt();
+        for (int i = 0; i < FrequencySketch.MAXIMUM_FREQUENCY; i++) {
+            sketch.increment(hotKey);
+        }
+        // the sample size is ten times the capacity, so enough distinct increments trigger at least one halving
+        for (int i = 0; i < 20 * sketch.capacity(); i++) {
+            sketch.increment(hotKey + 1 + i);
+        }
+        assertThat(sketch.frequency(hotKey), lessThan(FrequencySketch.MAXIMUM_FREQUENCY));
+    }
+
+    public void testEnsureCapacity() {
+        FrequencySketch sketch = new FrequencySketch();
+        assertEquals(FrequencySketch.MINIMUM_CAPACITY, sketch.capacity());
+        sketch.ensureCapacity(randomIntBetween(0, FrequencySketch.MINIMUM_CAPACITY));
+        assertEquals(FrequencySketch.MINIMUM_CAPACITY, sketch.capacity());
+        int capacity = randomIntBetween(FrequencySketch.MINIMUM_CAPACITY + 1, 1 << 16);
+        sketch.ensureCapacity(capacity);
+        assertThat(sketch.capacity(), greaterThanOrEqualTo(capacity));
+        assertEquals(1, Integer.bitCount(sketch.capacity()));
+        assertThat(sketch.capacity(), lessThan(2 * capacity));
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.common.cache;
+
+import org.elasticsearch.test.ESTestCase;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+
+public class ReadBufferTests extends ESTestCase {
+
+    public void testInvalidNumberOfStripes() {
+        IllegalArgumentException e = expectThrows(IllegalArgumentException.class, () -> new ReadBuffer<>(randomIntBetween(-8, 0)));
+        assertThat(e.getMessage(), containsString("number of stripes must be a positive power of two"));
+        expectThrows(IllegalArgumentException.class, () -> new ReadBuffer<>(3));
+        assertEquals(1, Integer.bitCount(ReadBuffer.defaultNumberOfStripes()));
+    }
+
+    public void testOfferAndDrain() {
+        ReadBuffer<Integer> buffer = new ReadBuffer<>(1);
+        for (int i = 0; i < ReadBuffer.STRIPE_SIZE - 1; i++) {
+            assertFalse(buffer.offer(i));
+        }
+        // the last slot fills the stripe, asking the caller to drain it
+        assertTrue(buffer.offer(ReadBuffer.STRIPE_SIZE - 1));
+        // events are dropped while the stripe is full
+        assertTrue(buffer.offer(-1));
+
+        List<Integer> drained = new ArrayList<>();
+        buffer.drain(drained::add);
+        assertEquals(ReadBuffer.STRIPE_SIZE, drained.size());
+        for (int i = 0; i < ReadBuffer.STRIPE_SIZE; i++) {
+            assertEquals(i, drained.get(i).intValue());
+        }
+
+        drained.clear();
+        assertFalse(buffer.offer(42));
+        buffer.drain(drained::add);
+        buffer.drain(drained::add);
+        assertEquals(1, drained.size());
+        assertEquals(42, drained.get(0).intValue());
+    }
+
+    public void testConcurrentOffers() throws Exception {
+        int numberOfThreads = randomIntBetween(2, 16);
+        int numberOfEvents = randomIntBetween(100, 1000);
+        ReadBuffer<Integer> buffer = new ReadBuffer<>(ReadBuffer.defaultNumberOfStripes());
+        AtomicInteger offered = new AtomicInteger();
+        AtomicInteger drained = new AtomicInteger();
+        Object drainLock = new Object();
+        CyclicBarrier barrier = new CyclicBarrier(numberOfThreads);
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < numberOfThreads; i++) {
+            Thread thread = new Thread(() -> {
+                try {
+                    barrier.await();
+                } catch (Exception e) {
+                    throw new AssertionError(e);
+                }
+                for (int j = 0; j < numberOfEvents; j++) {
+                    offered.incrementAndGet();
+                    if (buffer.offer(j)) {
+                        synchronized (drainLock) {
+                            buffer.drain(e -> drained.incrementAndGet());
+                        }
+                    }
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        buffer.drain(e -> drained.incrementAndGet());
+        // the buffer is lossy, but it never hands out more events than were offered
+        assertThat(drained.get(), lessThanOrEqualTo(offered.get()));
+        assertEquals(numberOfThreads * numberOfEvents, offered.get());
+    }
+}
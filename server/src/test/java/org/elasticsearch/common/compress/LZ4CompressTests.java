@@ -0,0 +1,72 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.common.compress;
+
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+
+import java.io.IOException;
+
+/**
+ * Runs the streaming compression tests against {@link LZ4Compressor}
+ */
+public class LZ4CompressTests extends DeflateCompressTests {
+
+    @Override
+    protected Compressor newCompressor() {
+        return new LZ4Compressor();
+    }
+
+    public void testMultipleBlocks() throws IOException {
+        final byte[] bytes = new byte[randomIntBetween(LZ4Compressor.BLOCK_SIZE + 1, 4 * LZ4Compressor.BLOCK_SIZE)];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) randomIntBetween(0, 8);
+        }
+        final BytesStreamOutput bytesStreamOutput = new BytesStreamOutput();
+        try (StreamOutput out = CompressorFactory.LZ4.streamOutput(bytesStreamOutput)) {
+            for (byte b : bytes) {
+                if (randomBoolean()) {
+                    out.writeByte(b);
+                } else {
+                    out.writeBytes(new byte[]{b});
+                }
+            }
+        }
+        final BytesReference compressed = bytesStreamOutput.bytes();
+        assertTrue(compressed.length() < bytes.length);
+        assertSame(CompressorFactory.LZ4, CompressorFactory.compressor(compressed));
+        assertFalse(CompressorFactory.COMPRESSOR.isCompressed(compressed));
+        try (StreamInput in = CompressorFactory.LZ4.streamInput(compressed.streamInput())) {
+            final byte[] uncompressed = new byte[bytes.length];
+            in.readBytes(uncompressed, 0, uncompressed.length);
+            assertArrayEquals(bytes, uncompressed);
+            assertEquals(-1, in.read());
+        }
+    }
+
+    public void testSchemes() {
+        assertSame(CompressorFactory.COMPRESSOR, CompressorFactory.compressor("deflate"));
+        assertSame(CompressorFactory.LZ4, CompressorFactory.compressor("lz4"));
+        IllegalArgumentException e = expectThrows(IllegalArgumentException.class, () -> CompressorFactory.compressor("snappy"));
+        assertEquals("unknown compression scheme [snappy], must be one of [deflate, lz4]", e.getMessage());
+    }
+}
@@ -22,6 +22,7 @@ package org.elasticsearch.common.util;
 import org.apache.lucene.util.BytesRef;
 import org.elasticsearch.common.breaker.CircuitBreaker;
 import org.elasticsearch.common.breaker.CircuitBreakingException;
+import org.elasticsearch.common.lease.Releasables;
 import org.elasticsearch.common.settings.ClusterSettings;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.unit.ByteSizeUnit;
@@ -38,11 +39,13 @@ import java.util.function.Function;
 
 import static org.elasticsearch.indices.breaker.HierarchyCircuitBreakerService.REQUEST_CIRCUIT_BREAKER_LIMIT_SETTING;
 import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.instanceOf;
 
 public class BigArraysTests extends ESTestCase {
 
     private BigArrays randombigArrays() {
-        return new MockBigArrays(new MockPageCacheRecycler(Settings.EMPTY), new NoneCircuitBreakerService());
+        final Settings settings = Settings.builder().put(PageCacheRecycler.DIRECT_PAGES_SETTING.getKey(), randomBoolean()).build();
+        return new MockBigArrays(new MockPageCacheRecycler(settings), new NoneCircuitBreakerService());
     }
 
     private BigArrays bigArrays;
@@ -387,6 +390,73 @@ public class BigArraysTests extends ESTestCase {
         }
     }
 
+    public void testDirectPagesAreAccountedForByTheBreaker() {
+        final long maxSize = 1 << 26;
+        final HierarchyCircuitBreakerService hcbs = new HierarchyCircuitBreakerService(
+            Settings.builder()
+                .put(REQUEST_CIRCUIT_BREAKER_LIMIT_SETTING.getKey(), maxSize, ByteSizeUnit.BYTES)
+                .put(HierarchyCircuitBreakerService.USE_REAL_MEMORY_USAGE_SETTING.getKey(), false)
+                .build(),
+            new ClusterSettings(Settings.EMPTY, ClusterSettings.BUILT_IN_CLUSTER_SETTINGS));
+        final PageCacheRecycler recycler = new MockPageCacheRecycler(
+            Settings.builder().put(PageCacheRecycler.DIRECT_PAGES_SETTING.getKey(), true).build());
+        final BigArrays bigArrays = new BigArrays(recycler, hcbs, CircuitBreaker.REQUEST).withCircuitBreaking();
+        final CircuitBreaker breaker = hcbs.getBreaker(CircuitBreaker.REQUEST);
+        final long size = randomIntBetween(PageCacheRecycler.BYTE_PAGE_SIZE + 1, 1 << 20);
+
+        final ByteArray bytes = bigArrays.newByteArray(size);
+        assertThat(bytes, instanceOf(DirectBigByteArray.class));
+        assertEquals(DirectBigByteArray.estimateRamBytes(size), breaker.getUsed());
+        final LongArray longs = bigArrays.newLongArray(size);
+        assertThat(longs, instanceOf(DirectBigLongArray.class));
+        final DoubleArray doubles = bigArrays.newDoubleArray(size);
+        assertThat(doubles, instanceOf(DirectBigDoubleArray.class));
+        assertEquals(DirectBigByteArray.estimateRamBytes(size) + DirectBigLongArray.estimateRamBytes(size)
+            + DirectBigDoubleArray.estimateRamBytes(size), breaker.getUsed());
+
+        final ByteArray grown = bigArrays.grow(bytes, size + PageCacheRecycler.BYTE_PAGE_SIZE);
+        assertSame(bytes, grown);
+        assertEquals(DirectBigByteArray.estimateRamBytes(grown.size()) + DirectBigLongArray.estimateRamBytes(size)
+            + DirectBigDoubleArray.estimateRamBytes(size), breaker.getUsed());
+
+        expectThrows(CircuitBreakingException.class, () -> bigArrays.newLongArray(maxSize));
+        Releasables.close(grown, longs, doubles);
+        assertEquals(0, breaker.getUsed());
+    }
+
+    public void testDirectByteArrayReadsIntoTheBytesOfTheRef() {
+        final PageCacheRecycler recycler = new MockPageCacheRecycler(
+            Settings.builder().put(PageCacheRecycler.DIRECT_PAGES_SETTING.getKey(), true).build());
+        final BigArrays bigArrays = new BigArrays(recycler, null, CircuitBreaker.REQUEST);
+        final int size = randomIntBetween(2 * PageCacheRecycler.BYTE_PAGE_SIZE, 4 * PageCacheRecycler.BYTE_PAGE_SIZE);
+        final byte[] values = randomByteArrayOfLength(size);
+        try (ByteArray bytes = bigArrays.newByteArray(size)) {
+            assertThat(bytes, instanceOf(DirectBigByteArray.class));
+            bytes.set(0, values, 0, size);
+
+            final BytesRef ref = new BytesRef();
+            // a slice that spans two pages
+            final int len = PageCacheRecycler.BYTE_PAGE_SIZE + randomIntBetween(1, 100);
+            final int index = randomIntBetween(0, size - len);
+            assertTrue(bytes.get(index, len, ref));
+            assertEquals(new BytesRef(values, index, len), ref);
+
+            // reading the same or a smaller slice must reuse the bytes of the ref
+            final byte[] scratch = ref.bytes;
+            final int smallerLen = randomIntBetween(0, len);
+            final int smallerIndex = randomIntBetween(0, size - smallerLen);
+            assertTrue(bytes.get(smallerIndex, smallerLen, ref));
+            assertSame(scratch, ref.bytes);
+            assertEquals(new BytesRef(values, smallerIndex, smallerLen), ref);
+
+            // a larger slice grows them
+            final int largerLen = scratch.length + 1;
+            assertTrue(bytes.get(0, largerLen, ref));
+            assertNotSame(scratch, ref.bytes);
+            assertEquals(new BytesRef(values, 0, largerLen), ref);
+        }
+    }
+
     private List<BigArraysHelper> bigArrayCreators(final long maxSize, final boolean withBreaking) {
         final BigArrays byteBigArrays = newBigArraysInstance(maxSize, withBreaking);
         BigArraysHelper byteHelper = new BigArraysHelper(byteBigArrays,
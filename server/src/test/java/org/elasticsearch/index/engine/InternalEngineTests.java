@@ -114,6 +114,7 @@ import org.elasticsearch.index.mapper.ParsedDocument;
 import org.elasticsearch.index.mapper.RootObjectMapper;
 import org.elasticsearch.index.mapper.SeqNoFieldMapper;
 import org.elasticsearch.index.mapper.SourceFieldMapper;
+import org.elasticsearch.index.merge.MergeStats;
 import org.elasticsearch.index.seqno.LocalCheckpointTracker;
 import org.elasticsearch.index.seqno.ReplicationTracker;
 import org.elasticsearch.index.seqno.RetentionLease;
@@ -127,6 +128,7 @@ import org.elasticsearch.index.store.Store;
 import org.elasticsearch.index.translog.SnapshotMatchers;
 import org.elasticsearch.index.translog.Translog;
 import org.elasticsearch.index.translog.TranslogConfig;
+import org.elasticsearch.indices.MergeBandwidthCoordinator;
 import org.elasticsearch.indices.breaker.NoneCircuitBreakerService;
 import org.elasticsearch.test.IndexSettingsModule;
 import org.elasticsearch.test.VersionUtils;
@@ -1422,6 +1424,29 @@ public class InternalEngineTests extends EngineTestCase {
         assertThat(indexResult.getVersion(), equalTo(1L));
     }
 
+    public void testForceMergeWithMergeCoordination() throws IOException {
+        final MergeBandwidthCoordinator coordinator = new MergeBandwidthCoordinator(Settings.builder()
+            .put(MergeBandwidthCoordinator.ENABLED_SETTING.getKey(), true)
+            .put(MergeBandwidthCoordinator.SMALL_MERGE_SIZE_SETTING.getKey(), "0b")
+            .build());
+        final MergeBandwidthCoordinator.ShardMergeThrottle mergeThrottle = coordinator.shardMergeThrottle(createTempDir(), () -> true);
+        try (Store store = createStore();
+             InternalEngine engine = createEngine(copy(config(defaultSettings, store, createTempDir(), new TieredMergePolicy(), null),
+                 mergeThrottle))) {
+            final int numDocs = randomIntBetween(2, 10);
+            for (int i = 0; i < numDocs; i++) {
+                engine.index(indexForDoc(testParsedDocument(Integer.toString(i), null, testDocument(), B_1, null)));
+                engine.flush();
+            }
+            engine.forceMerge(true);
+            assertThat(engine.segments(false).size(), equalTo(1));
+            final MergeStats mergeStats = engine.getMergeStats();
+            assertThat(mergeStats.getTotal(), greaterThanOrEqualTo(1L));
+            assertThat(mergeStats.getCurrentQueued(), equalTo(0L));
+            assertThat(mergeStats.getTotalQueuedTimeInMillis(), equalTo(0L));
+        }
+    }
+
     public void testForceMergeWithoutSoftDeletes() throws IOException {
         Settings settings = Settings.builder()
             .put(defaultSettings.getSettings())
@@ -3076,7 +3101,8 @@ public class InternalEngineTests extends EngineTestCase {
                 () -> UNASSIGNED_SEQ_NO,
                 () -> RetentionLeases.EMPTY,
                 primaryTerm::get,
-                tombstoneDocSupplier());
+                tombstoneDocSupplier(),
+                null);
         expectThrows(EngineCreationFailureException.class, () -> new InternalEngine(brokenConfig));
 
         engine = createEngine(store, primaryTranslogDir); // and recover again!
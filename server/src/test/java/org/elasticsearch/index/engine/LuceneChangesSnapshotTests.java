@@ -31,6 +31,7 @@ import org.junit.Before;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -293,6 +294,40 @@ public class LuceneChangesSnapshotTests extends EngineTestCase {
         return operations;
     }
 
+    public void testAccessStoredFieldsSequentially() throws Exception {
+        final int numOps = between(2, 100);
+        final List<Long> seqNos = new ArrayList<>();
+        for (long seqNo = 0; seqNo < numOps; seqNo++) {
+            seqNos.add(seqNo);
+        }
+        // documents whose doc IDs are in the order of their sequence numbers are read sequentially
+        final boolean sequential = randomBoolean();
+        if (sequential == false) {
+            Collections.reverse(seqNos);
+        }
+        for (long seqNo : seqNos) {
+            applyOperation(engine, replicaIndexForDoc(createParsedDoc(Long.toString(seqNo), null), 1, seqNo, false));
+        }
+        engine.refresh("test");
+        Engine.Searcher searcher = engine.acquireSearcher("test", Engine.SearcherScope.INTERNAL);
+        try (LuceneChangesSnapshot snapshot = new LuceneChangesSnapshot(
+            searcher, mapperService, between(2, LuceneChangesSnapshot.DEFAULT_BATCH_SIZE), 0, numOps - 1, true)) {
+            searcher = null;
+            Translog.Operation op = snapshot.next();
+            assertThat(snapshot.useSequentialStoredFieldsReader(), equalTo(sequential));
+            long expectedSeqNo = 0;
+            while (op != null) {
+                assertThat(op.seqNo(), equalTo(expectedSeqNo));
+                assertThat(((Translog.Index) op).id(), equalTo(Long.toString(expectedSeqNo)));
+                expectedSeqNo++;
+                op = snapshot.next();
+            }
+            assertThat(expectedSeqNo, equalTo((long) numOps));
+        } finally {
+            IOUtils.close(searcher);
+        }
+    }
+
     public void testOverFlow() throws Exception {
         long fromSeqNo = randomLongBetween(0, 5);
         long toSeqNo = randomLongBetween(Long.MAX_VALUE - 5, Long.MAX_VALUE);
@@ -0,0 +1,127 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.index.engine;
+
+import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.RamUsageTester;
+import org.elasticsearch.index.mapper.Uid;
+import org.elasticsearch.index.translog.Translog;
+import org.elasticsearch.test.ESTestCase;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.lessThan;
+
+public class PackedVersionMapTests extends ESTestCase {
+
+    public void testBasics() {
+        final PackedVersionMap map = new PackedVersionMap(randomIntBetween(0, 100));
+        assertTrue(map.isEmpty());
+        assertNull(map.get(uid("foo")));
+        assertThat(map.remove(uid("foo")), equalTo(0L));
+
+        final IndexVersionValue value = new IndexVersionValue(new Translog.Location(1, 2, 3), 4, 5, 6);
+        assertThat(map.put(uid("foo"), value), greaterThan(0L));
+        assertEquals(value, map.get(uid("foo")));
+        // a slice of a larger array
+        assertEquals(value, map.get(new BytesRef(new byte[] {'x', 'f', 'o', 'o', 'y'}, 1, 3)));
+
+        final IndexVersionValue withoutLocation = new IndexVersionValue(null, 7, 8, 9);
+        assertThat(map.put(uid("foo"), withoutLocation), equalTo(0L));
+        assertEquals(withoutLocation, map.get(uid("foo")));
+        assertEquals(1, map.size());
+
+        assertThat(map.remove(uid("foo")), lessThan(0L));
+        assertNull(map.get(uid("foo")));
+        assertTrue(map.isEmpty());
+    }
+
+    public void testUtf8Ids() {
+        final PackedVersionMap map = new PackedVersionMap(randomIntBetween(0, 100));
+        final String id = randomRealisticUnicodeOfCodepointLengthBetween(1, 20) + " " + randomAlphaOfLength(5);
+        // utf8 encoded ids don't span their whole byte array
+        final BytesRef encodedId = Uid.encodeId(id);
+        assertThat(encodedId.bytes.length, greaterThan(encodedId.length));
+
+        final IndexVersionValue value = randomIndexVersionValue();
+        assertThat(map.put(encodedId, value), greaterThan(0L));
+        assertEquals(value, map.get(encodedId));
+        assertEquals(value, map.get(BytesRef.deepCopyOf(encodedId)));
+        assertEquals(Collections.singletonMap(BytesRef.deepCopyOf(encodedId), value), map.toMap());
+
+        final IndexVersionValue newValue = randomIndexVersionValue();
+        assertThat(map.put(Uid.encodeId(id), newValue), equalTo(0L));
+        assertEquals(newValue, map.get(encodedId));
+        assertEquals(1, map.size());
+        assertThat(map.remove(Uid.encodeId(id)), lessThan(0L));
+        assertTrue(map.isEmpty());
+    }
+
+    public void testRandomOperations() {
+        final PackedVersionMap map = new PackedVersionMap(randomIntBetween(0, 100));
+        final Map<BytesRef, VersionValue> expected = new HashMap<>();
+        final List<String> ids = new ArrayList<>();
+        final int numIds = randomIntBetween(1, 2000);
+        for (int i = 0; i < numIds; i++) {
+            ids.add(randomAlphaOfLengthBetween(1, 20) + i);
+        }
+        long ramBytesUsed = 0;
+        final int iterations = randomIntBetween(1, 20000);
+        for (int i = 0; i < iterations; i++) {
+            final BytesRef uid = uid(randomFrom(ids));
+            if (randomBoolean()) {
+                final IndexVersionValue value = randomIndexVersionValue();
+                ramBytesUsed += map.put(uid, value);
+                expected.put(uid, value);
+            } else {
+                ramBytesUsed += map.remove(uid);
+                expected.remove(uid);
+            }
+            assertThat(ramBytesUsed, greaterThanOrEqualTo(0L));
+        }
+        assertEquals(expected, map.toMap());
+        assertEquals(expected.size(), map.size());
+        for (String id : ids) {
+            assertEquals(expected.get(uid(id)), map.get(uid(id)));
+        }
+        if (expected.isEmpty() == false) {
+            final long actualRamBytesUsed = RamUsageTester.sizeOf(map);
+            // less than 10% off
+            assertEquals(actualRamBytesUsed, ramBytesUsed, actualRamBytesUsed / 10);
+        }
+    }
+
+    private static BytesRef uid(String id) {
+        return BytesRef.deepCopyOf(new BytesRef(id));
+    }
+
+    private static IndexVersionValue randomIndexVersionValue() {
+        final Translog.Location location = randomBoolean() ? null
+            : new Translog.Location(randomNonNegativeLong(), randomNonNegativeLong(), randomInt());
+        return new IndexVersionValue(location, randomNonNegativeLong(), randomNonNegativeLong(), randomNonNegativeLong());
+    }
+}
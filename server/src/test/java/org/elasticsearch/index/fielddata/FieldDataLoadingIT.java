@@ -19,11 +19,30 @@
 
 package org.elasticsearch.index.fielddata;
 
+import org.apache.lucene.index.DirectoryReader;
 import org.elasticsearch.action.admin.cluster.stats.ClusterStatsResponse;
+import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.index.IndexService;
+import org.elasticsearch.index.IndexSettings;
+import org.elasticsearch.index.engine.Engine;
+import org.elasticsearch.index.shard.IndexShard;
+import org.elasticsearch.indices.IndicesService;
+import org.elasticsearch.search.aggregations.AggregationBuilders;
+import org.elasticsearch.search.aggregations.bucket.terms.Terms;
+import org.elasticsearch.search.profile.ProfileResult;
+import org.elasticsearch.search.profile.ProfileShardResult;
 import org.elasticsearch.test.ESIntegTestCase;
+import org.elasticsearch.threadpool.ThreadPool;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
 
 import static org.elasticsearch.common.xcontent.XContentFactory.jsonBuilder;
 import static org.elasticsearch.test.hamcrest.ElasticsearchAssertions.assertAcked;
+import static org.elasticsearch.test.hamcrest.ElasticsearchAssertions.assertHitCount;
+import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.greaterThan;
 
 public class FieldDataLoadingIT extends ESIntegTestCase {
@@ -46,4 +65,132 @@ public class FieldDataLoadingIT extends ESIntegTestCase {
         assertThat(response.getIndicesStats().getFieldData().getMemorySizeInBytes(), greaterThan(0L));
     }
 
+    public void testEagerGlobalOrdinalsBuiltInBackground() throws Exception {
+        assertAcked(prepareCreate("test")
+                .setSettings(Settings.builder()
+                        .put("index.number_of_shards", 1)
+                        .put("index.number_of_replicas", 0)
+                        .put(IndexSettings.INDEX_WARMER_BACKGROUND_GLOBAL_ORDINALS_SETTING.getKey(), true))
+                .addMapping("type", jsonBuilder().startObject().startObject("type").startObject("properties")
+                        .startObject("name")
+                        .field("type", "keyword")
+                        .field("eager_global_ordinals", true)
+                        .endObject()
+                        .endObject().endObject().endObject()));
+        ensureGreen();
+
+        // occupy all warmer threads, so that the global ordinals stay pending until they are released
+        final CountDownLatch release = blockWarmerThreads();
+        try {
+            // the ordinals of a single segment are already global, so the aggregation only falls back to segment ordinals
+            // when the reader has several segments
+            client().prepareIndex("test", "type", "1").setSource("name", "foo").get();
+            client().admin().indices().prepareRefresh("test").get();
+            client().prepareIndex("test", "type", "2").setSource("name", "bar").get();
+            client().admin().indices().prepareRefresh("test").get();
+
+            assertTermsAggregator("SegmentOrdinalsStringTermsAggregator");
+        } finally {
+            release.countDown();
+        }
+
+        assertBusy(() -> assertTermsAggregator("GlobalOrdinalsStringTermsAggregator"));
+        ClusterStatsResponse response = client().admin().cluster().prepareClusterStats().get();
+        assertThat(response.getIndicesStats().getFieldData().getMemorySizeInBytes(), greaterThan(0L));
+    }
+
+    public void testBackgroundGlobalOrdinalsBuildsAreReplacedByNewerReaders() throws Exception {
+        assertAcked(prepareCreate("test")
+                .setSettings(Settings.builder()
+                        .put("index.number_of_shards", 1)
+                        .put("index.number_of_replicas", 0)
+                        .put(IndexSettings.INDEX_WARMER_BACKGROUND_GLOBAL_ORDINALS_SETTING.getKey(), true))
+                .addMapping("type", jsonBuilder().startObject().startObject("type").startObject("properties")
+                        .startObject("name")
+                        .field("type", "keyword")
+                        .field("eager_global_ordinals", true)
+                        .endObject()
+                        .endObject().endObject().endObject()));
+        ensureGreen();
+        final IndexShard shard = getShard("test");
+
+        // refresh several times while the warmer threads are busy: only the build for the latest reader must stay queued, and
+        // the readers of the replaced builds must not be kept open
+        final CountDownLatch release = blockWarmerThreads();
+        DirectoryReader latest = null;
+        try {
+            final int refreshes = randomIntBetween(2, 5);
+            for (int i = 0; i < refreshes; i++) {
+                client().prepareIndex("test", "type", Integer.toString(i)).setSource("name", "value-" + i).get();
+                client().admin().indices().prepareRefresh("test").get();
+                final DirectoryReader previous = latest;
+                try (Engine.Searcher searcher = shard.acquireSearcher("test")) {
+                    latest = searcher.getDirectoryReader();
+                }
+                assertTrue(shard.isBuildingGlobalOrdinals("name", latest));
+                if (previous != null) {
+                    assertFalse(shard.isBuildingGlobalOrdinals("name", previous));
+                    assertThat(previous.getRefCount(), equalTo(0));
+                }
+            }
+        } finally {
+            release.countDown();
+        }
+
+        final DirectoryReader lastReader = latest;
+        assertBusy(() -> assertFalse(shard.isBuildingGlobalOrdinals("name", lastReader)));
+    }
+
+    private IndexShard getShard(String index) {
+        for (IndicesService indicesService : internalCluster().getDataNodeInstances(IndicesService.class)) {
+            IndexService indexService = indicesService.indexService(resolveIndex(index));
+            if (indexService != null) {
+                return indexService.getShard(0);
+            }
+        }
+        throw new AssertionError("no shard found for index [" + index + "]");
+    }
+
+    /**
+     * Occupies all the warmer threads of the cluster until the returned latch is released.
+     */
+    private CountDownLatch blockWarmerThreads() throws InterruptedException {
+        final CountDownLatch release = new CountDownLatch(1);
+        final List<CountDownLatch> startedLatches = new ArrayList<>();
+        for (ThreadPool threadPool : internalCluster().getInstances(ThreadPool.class)) {
+            final int maxThreads = threadPool.info(ThreadPool.Names.WARMER).getMax();
+            final CountDownLatch started = new CountDownLatch(maxThreads);
+            startedLatches.add(started);
+            for (int i = 0; i < maxThreads; i++) {
+                threadPool.executor(ThreadPool.Names.WARMER).execute(() -> {
+                    started.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        throw new AssertionError(e);
+                    }
+                });
+            }
+        }
+        for (CountDownLatch started : startedLatches) {
+            started.await();
+        }
+        return release;
+    }
+
+    private void assertTermsAggregator(String aggregatorName) {
+        SearchResponse searchResponse = client().prepareSearch("test")
+                .setProfile(true)
+                .addAggregation(AggregationBuilders.terms("names").field("name"))
+                .get();
+        assertHitCount(searchResponse, 2);
+        Terms terms = searchResponse.getAggregations().get("names");
+        assertThat(terms.getBuckets().size(), equalTo(2));
+        assertThat(searchResponse.getProfileResults().size(), equalTo(1));
+        for (ProfileShardResult profileShardResult : searchResponse.getProfileResults().values()) {
+            List<ProfileResult> aggProfileResults = profileShardResult.getAggregationProfileResults().getProfileResults();
+            assertThat(aggProfileResults.size(), equalTo(1));
+            assertThat(aggProfileResults.get(0).getQueryName(), equalTo(aggregatorName));
+        }
+    }
 }
@@ -113,6 +113,7 @@ import org.elasticsearch.index.translog.Translog;
 import org.elasticsearch.index.translog.TranslogStats;
 import org.elasticsearch.index.translog.TranslogTests;
 import org.elasticsearch.indices.IndicesQueryCache;
+import org.elasticsearch.indices.RefreshScheduler;
 import org.elasticsearch.indices.breaker.NoneCircuitBreakerService;
 import org.elasticsearch.indices.fielddata.cache.IndicesFieldDataCache;
 import org.elasticsearch.indices.recovery.RecoveryState;
@@ -3352,6 +3353,49 @@ public class IndexShardTests extends IndexShardTestCase {
         closeShards(primary);
     }
 
+    public void testScheduledRefreshWithAdaptiveScheduler() throws IOException, InterruptedException {
+        final IndexShard primary = newStartedShard(true);
+        final RefreshScheduler refreshScheduler = new RefreshScheduler(Settings.builder()
+            .put(RefreshScheduler.ADAPTIVE_REFRESH_ENABLED_SETTING.getKey(), true)
+            .put(RefreshScheduler.MAX_DELAY_SETTING.getKey(), TimeValue.timeValueHours(1))
+            .put(RefreshScheduler.MAX_CONCURRENT_REFRESHES_SETTING.getKey(), 1)
+            .build());
+        // wait until the thread-pool has moved the timestamp so that the shard was not searched since the next refresh
+        final long lastSearchAccess = primary.getLastSearcherAccess();
+        awaitBusy(() -> primary.getThreadPool().relativeTimeInMillis() > lastSearchAccess);
+        primary.refresh("test");
+
+        indexDoc(primary, "_doc", "0");
+        assertTrue(primary.getEngine().refreshNeeded());
+        assertFalse("the shard was not searched since its last refresh", primary.scheduledRefresh(refreshScheduler));
+        assertTrue(primary.getEngine().refreshNeeded());
+
+        try (Engine.Searcher searcher = primary.acquireSearcher("test")) {
+            assertEquals(0, searcher.reader().numDocs());
+        }
+        try (Releasable ignored = refreshScheduler.tryAcquire()) {
+            assertNotNull(ignored);
+            assertFalse("all the refresh permits are in use", primary.scheduledRefresh(refreshScheduler));
+        }
+        assertTrue(primary.scheduledRefresh(refreshScheduler));
+        try (Engine.Searcher searcher = primary.acquireSearcher("test")) {
+            assertEquals(1, searcher.reader().numDocs());
+        }
+
+        // a full indexing buffer is refreshed even if the shard was not searched
+        final RefreshScheduler smallBufferScheduler = new RefreshScheduler(Settings.builder()
+            .put(RefreshScheduler.ADAPTIVE_REFRESH_ENABLED_SETTING.getKey(), true)
+            .put(RefreshScheduler.MAX_DELAY_SETTING.getKey(), TimeValue.timeValueHours(1))
+            .put(RefreshScheduler.MAX_BUFFER_SIZE_SETTING.getKey(), "1b")
+            .build());
+        final long lastAccess = primary.getLastSearcherAccess();
+        awaitBusy(() -> primary.getThreadPool().relativeTimeInMillis() > lastAccess);
+        primary.refresh("test");
+        indexDoc(primary, "_doc", "1");
+        assertTrue(primary.scheduledRefresh(smallBufferScheduler));
+        closeShards(primary);
+    }
+
     public void testRefreshIsNeededWithRefreshListeners() throws IOException, InterruptedException {
         Settings settings = Settings.builder().put(IndexMetaData.SETTING_VERSION_CREATED, Version.CURRENT)
             .put(IndexMetaData.SETTING_NUMBER_OF_REPLICAS, 1)
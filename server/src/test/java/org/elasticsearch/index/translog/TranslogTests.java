@@ -487,7 +487,9 @@ public class TranslogTests extends ESTestCase {
                 builder.endObject();
                 assertThat(Strings.toString(builder), equalTo("{\"translog\":{\"operations\":4,\"size_in_bytes\":" + expectedSizeInBytes
                     + ",\"uncommitted_operations\":4,\"uncommitted_size_in_bytes\":" + expectedSizeInBytes
-                    + ",\"earliest_last_modified_age\":" + stats.getEarliestLastModifiedAge() + "}}"));
+                    + ",\"earliest_last_modified_age\":" + stats.getEarliestLastModifiedAge()
+                    + ",\"sync_count\":" + copy.getSyncCount() + ",\"sync_time_in_millis\":" + copy.getSyncTimeInMillis()
+                    + ",\"sync_requests\":" + copy.getSyncRequests() + "}}"));
             }
         }
 
@@ -502,6 +504,34 @@ public class TranslogTests extends ESTestCase {
         }
     }
 
+    public void testSyncStats() throws IOException {
+        assertThat(translog.stats().getSyncCount(), equalTo(0L));
+        assertThat(translog.stats().getSyncRequests(), equalTo(0L));
+
+        final List<Translog.Location> locations = new ArrayList<>();
+        final int operations = randomIntBetween(1, 10);
+        for (int i = 0; i < operations; i++) {
+            locations.add(translog.add(new Translog.Index("test", Integer.toString(i), i, primaryTerm.get(), new byte[]{1})));
+        }
+        // all the locations are covered by a single fsync
+        assertTrue(translog.ensureSynced(locations.stream()));
+        TranslogStats stats = translog.stats();
+        assertThat(stats.getSyncCount(), equalTo(1L));
+        assertThat(stats.getSyncRequests(), equalTo((long) operations));
+
+        // locations that are already synced are counted as requests but do not cause an fsync
+        assertFalse(translog.ensureSynced(randomFrom(locations)));
+        stats = translog.stats();
+        assertThat(stats.getSyncCount(), equalTo(1L));
+        assertThat(stats.getSyncRequests(), equalTo(operations + 1L));
+
+        translog.add(new Translog.Index("test", "last", operations, primaryTerm.get(), new byte[]{1}));
+        translog.sync();
+        stats = translog.stats();
+        assertThat(stats.getSyncCount(), equalTo(2L));
+        assertThat(stats.getSyncRequests(), equalTo(operations + 1L));
+    }
+
     public void testUncommittedOperations() throws Exception {
         final TranslogDeletionPolicy deletionPolicy = translog.getDeletionPolicy();
         deletionPolicy.setRetentionAgeInMillis(randomLong());
@@ -534,7 +564,8 @@ public class TranslogTests extends ESTestCase {
         final List<TranslogStats> statsList = new ArrayList<>(n);
         for (int i = 0; i < n; i++) {
             final TranslogStats stats = new TranslogStats(randomIntBetween(1, 4096), randomIntBetween(1, 1 << 20),
-                randomIntBetween(1, 1 << 20), randomIntBetween(1, 4096), randomIntBetween(1, 1 << 20));
+                randomIntBetween(1, 1 << 20), randomIntBetween(1, 4096), randomIntBetween(1, 1 << 20),
+                randomIntBetween(0, 4096), randomIntBetween(0, 1 << 20), randomIntBetween(0, 1 << 20));
             statsList.add(stats);
             total.add(stats);
         }
@@ -554,6 +585,15 @@ public class TranslogTests extends ESTestCase {
         assertThat(
             total.getEarliestLastModifiedAge(),
             equalTo(1L));
+        assertThat(
+            total.getSyncCount(),
+            equalTo(statsList.stream().mapToLong(TranslogStats::getSyncCount).sum()));
+        assertThat(
+            total.getSyncTimeInMillis(),
+            equalTo(statsList.stream().mapToLong(TranslogStats::getSyncTimeInMillis).sum()));
+        assertThat(
+            total.getSyncRequests(),
+            equalTo(statsList.stream().mapToLong(TranslogStats::getSyncRequests).sum()));
     }
 
     public void testNegativeNumberOfOperations() {
@@ -581,6 +621,16 @@ public class TranslogTests extends ESTestCase {
         assertThat(e, hasToString(containsString("earliestLastModifiedAge must be >= 0")));
     }
 
+    public void testNegativeSyncStats() {
+        IllegalArgumentException e =
+            expectThrows(IllegalArgumentException.class, () -> new TranslogStats(1, 1, 1, 1, 1, -1, 1, 1));
+        assertThat(e, hasToString(containsString("syncCount must be >= 0")));
+        e = expectThrows(IllegalArgumentException.class, () -> new TranslogStats(1, 1, 1, 1, 1, 1, -1, 1));
+        assertThat(e, hasToString(containsString("syncTimeInMillis must be >= 0")));
+        e = expectThrows(IllegalArgumentException.class, () -> new TranslogStats(1, 1, 1, 1, 1, 1, 1, -1));
+        assertThat(e, hasToString(containsString("syncRequests must be >= 0")));
+    }
+
     public void testSnapshot() throws IOException {
         ArrayList<Translog.Operation> ops = new ArrayList<>();
         try (Translog.Snapshot snapshot = translog.newSnapshot()) {
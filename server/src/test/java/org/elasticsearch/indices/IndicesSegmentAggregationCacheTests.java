@@ -0,0 +1,144 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.indices;
+
+import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.search.aggregations.AggregationBuilder;
+import org.elasticsearch.search.aggregations.AggregationBuilders;
+import org.elasticsearch.search.aggregations.bucket.histogram.Histogram;
+import org.elasticsearch.search.aggregations.metrics.Avg;
+import org.elasticsearch.search.aggregations.metrics.Sum;
+import org.elasticsearch.test.ESSingleNodeTestCase;
+
+import java.util.List;
+
+import static org.elasticsearch.test.hamcrest.ElasticsearchAssertions.assertSearchResponse;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+
+public class IndicesSegmentAggregationCacheTests extends ESSingleNodeTestCase {
+
+    @Override
+    protected Settings nodeSettings() {
+        return Settings.builder().put(IndicesSegmentAggregationCache.INDICES_SEGMENT_CACHE_ENABLED_SETTING.getKey(), true).build();
+    }
+
+    public void testReusesTheAggregationsOfUnchangedSegments() {
+        createIndex("index", Settings.builder()
+            .put("index.number_of_shards", 1)
+            .put("index.number_of_replicas", 0)
+            .put("index.refresh_interval", -1)
+            .build(), "type", "value", "type=long");
+        final IndicesSegmentAggregationCache cache = getInstanceFromNode(IndicesService.class).segmentAggregationCache;
+        // the node is shared with the other tests
+        final long hits = cache.hitCount();
+        final long misses = cache.missCount();
+        int numDocs = 0;
+        final int numSegments = randomIntBetween(2, 4);
+        for (int i = 0; i < numSegments; i++) {
+            numDocs = indexDocs(numDocs, randomIntBetween(1, 20));
+        }
+
+        assertAggregations(numDocs);
+        assertThat(cache.count(), equalTo(numSegments));
+        assertThat(cache.hitCount(), equalTo(hits));
+        assertThat(cache.missCount(), equalTo(misses + numSegments));
+
+        // the cached shard level result is used as is
+        assertAggregations(numDocs);
+        assertThat(cache.hitCount(), equalTo(hits));
+        assertThat(cache.missCount(), equalTo(misses + numSegments));
+
+        // only the new segment is aggregated
+        numDocs = indexDocs(numDocs, randomIntBetween(1, 20));
+        assertAggregations(numDocs);
+        assertThat(cache.count(), equalTo(numSegments + 1));
+        assertThat(cache.hitCount(), equalTo(hits + numSegments));
+        assertThat(cache.missCount(), equalTo(misses + numSegments + 1));
+
+        // deletes change the reader cache key of the segment, the delete tombstone may add a segment
+        client().prepareDelete("index", "type", "0").get();
+        client().admin().indices().prepareRefresh("index").get();
+        assertAggregations(numDocs, 0);
+        assertThat(cache.hitCount(), equalTo(hits + numSegments * 2));
+        assertThat(cache.missCount(), greaterThanOrEqualTo(misses + numSegments + 2));
+
+        client().admin().indices().prepareClearCache("index").setRequestCache(true).get();
+        assertThat(cache.count(), equalTo(0));
+    }
+
+    public void testUnsupportedAggregationsAreNotCachedPerSegment() {
+        createIndex("index", Settings.builder().put("index.number_of_shards", 1).build(), "type", "value", "type=long");
+        indexDocs(0, randomIntBetween(1, 20));
+        final IndicesSegmentAggregationCache cache = getInstanceFromNode(IndicesService.class).segmentAggregationCache;
+        final long misses = cache.missCount();
+        final AggregationBuilder aggregation = randomBoolean()
+            ? AggregationBuilders.terms("terms").field("value")
+            : AggregationBuilders.histogram("histogram").field("value").interval(5)
+                .subAggregation(AggregationBuilders.terms("terms").field("value"));
+        final SearchResponse response = client().prepareSearch("index").setSize(0).setRequestCache(true)
+            .addAggregation(aggregation).get();
+        assertSearchResponse(response);
+        assertThat(cache.count(), equalTo(0));
+        assertThat(cache.missCount(), equalTo(misses));
+    }
+
+    private int indexDocs(int from, int count) {
+        for (int i = from; i < from + count; i++) {
+            client().prepareIndex("index", "type", Integer.toString(i)).setSource("value", i).get();
+        }
+        client().admin().indices().prepareRefresh("index").get();
+        return from + count;
+    }
+
+    private void assertAggregations(int numDocs, int... deletedDocs) {
+        final SearchResponse response = client().prepareSearch("index").setSize(0).setRequestCache(true)
+            .addAggregation(AggregationBuilders.sum("sum").field("value"))
+            .addAggregation(AggregationBuilders.histogram("histogram").field("value").interval(5)
+                .subAggregation(AggregationBuilders.avg("avg").field("value")))
+            .get();
+        assertSearchResponse(response);
+        final SearchResponse uncached = client().prepareSearch("index").setSize(0).setRequestCache(false)
+            .addAggregation(AggregationBuilders.histogram("histogram").field("value").interval(5)
+                .subAggregation(AggregationBuilders.avg("avg").field("value")))
+            .get();
+        assertSearchResponse(uncached);
+
+        long expectedSum = (long) numDocs * (numDocs - 1) / 2;
+        for (int deletedDoc : deletedDocs) {
+            expectedSum -= deletedDoc;
+        }
+        assertThat(response.getHits().getTotalHits().value, equalTo((long) numDocs - deletedDocs.length));
+        final Sum sum = response.getAggregations().get("sum");
+        assertThat(sum.getValue(), equalTo((double) expectedSum));
+
+        final List<? extends Histogram.Bucket> buckets = ((Histogram) response.getAggregations().get("histogram")).getBuckets();
+        final List<? extends Histogram.Bucket> expectedBuckets = ((Histogram) uncached.getAggregations().get("histogram")).getBuckets();
+        assertThat(buckets.size(), equalTo(expectedBuckets.size()));
+        for (int i = 0; i < buckets.size(); i++) {
+            assertThat(buckets.get(i).getKey(), equalTo(expectedBuckets.get(i).getKey()));
+            assertThat(buckets.get(i).getDocCount(), equalTo(expectedBuckets.get(i).getDocCount()));
+            final Avg avg = buckets.get(i).getAggregations().get("avg");
+            final Avg expectedAvg = expectedBuckets.get(i).getAggregations().get("avg");
+            assertThat(avg.getValue(), equalTo(expectedAvg.getValue()));
+        }
+    }
+}
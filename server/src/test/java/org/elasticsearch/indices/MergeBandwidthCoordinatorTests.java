@@ -0,0 +1,154 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.indices;
+
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.IOContext;
+import org.apache.lucene.store.IndexOutput;
+import org.apache.lucene.store.RateLimitedIndexOutput;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.unit.ByteSizeUnit;
+import org.elasticsearch.test.ESTestCase;
+
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.instanceOf;
+
+public class MergeBandwidthCoordinatorTests extends ESTestCase {
+
+    private static final long MB = ByteSizeUnit.MB.toBytes(1);
+
+    public void testSettings() {
+        MergeBandwidthCoordinator coordinator = new MergeBandwidthCoordinator(Settings.EMPTY);
+        assertFalse(coordinator.isEnabled());
+        coordinator = new MergeBandwidthCoordinator(
+            Settings.builder().put(MergeBandwidthCoordinator.ENABLED_SETTING.getKey(), true).build());
+        assertTrue(coordinator.isEnabled());
+
+        final int processors = randomIntBetween(1, 64);
+        final int maxConcurrentMerges = MergeBandwidthCoordinator.MAX_CONCURRENT_MERGES_SETTING.get(
+            Settings.builder().put("processors", processors).build());
+        assertThat(maxConcurrentMerges, equalTo(Math.max(1, Math.min(4, processors / 2))));
+    }
+
+    public void testSmallMergesAreNotCoordinated() {
+        final MergeBandwidthCoordinator coordinator = new MergeBandwidthCoordinator(Settings.builder()
+            .put(MergeBandwidthCoordinator.SMALL_MERGE_SIZE_SETTING.getKey(), "10mb").build());
+        final MergeBandwidthCoordinator.ShardMergeThrottle shard = coordinator.shardMergeThrottle(createTempDir(), () -> false);
+        assertNull(shard.startMerge(randomLongBetween(0, 10 * MB - 1)));
+        try (MergeBandwidthCoordinator.ThrottledMerge merge = shard.startMerge(randomLongBetween(10 * MB, 100 * MB))) {
+            assertNotNull(merge);
+            assertFalse(merge.isQueued());
+        }
+    }
+
+    public void testBudgetIsSharedByTheActiveMergesOfADataPath() {
+        final MergeBandwidthCoordinator coordinator = new MergeBandwidthCoordinator(Settings.builder()
+            .put(MergeBandwidthCoordinator.MAX_BYTES_PER_SEC_SETTING.getKey(), "60mb")
+            .put(MergeBandwidthCoordinator.MAX_CONCURRENT_MERGES_SETTING.getKey(), 2)
+            .put(MergeBandwidthCoordinator.SMALL_MERGE_SIZE_SETTING.getKey(), "0b")
+            .build());
+        final Path dataPath = createTempDir();
+        final MergeBandwidthCoordinator.ShardMergeThrottle first = coordinator.shardMergeThrottle(dataPath, () -> false);
+        final MergeBandwidthCoordinator.ShardMergeThrottle second = coordinator.shardMergeThrottle(dataPath, () -> false);
+        final MergeBandwidthCoordinator.ShardMergeThrottle otherPath = coordinator.shardMergeThrottle(createTempDir(), () -> false);
+
+        final MergeBandwidthCoordinator.ThrottledMerge large = first.startMerge(300 * MB);
+        assertThat(large.getMBPerSec(), closeTo(60.0, 0.001));
+        final MergeBandwidthCoordinator.ThrottledMerge medium = second.startMerge(200 * MB);
+        assertThat(large.getMBPerSec(), closeTo(30.0, 0.001));
+        assertThat(medium.getMBPerSec(), closeTo(30.0, 0.001));
+
+        // a third merge on the same data path is queued behind the smaller ones
+        final MergeBandwidthCoordinator.ThrottledMerge small = first.startMerge(100 * MB);
+        assertTrue(large.isQueued());
+        assertFalse(medium.isQueued());
+        assertFalse(small.isQueued());
+        assertThat(large.getMBPerSec(), closeTo(MergeBandwidthCoordinator.QUEUED_MB_PER_SEC, 0.001));
+        assertThat(first.currentQueued(), equalTo(1L));
+        assertThat(second.currentQueued(), equalTo(0L));
+
+        // other data paths have their own budget
+        try (MergeBandwidthCoordinator.ThrottledMerge other = otherPath.startMerge(100 * MB)) {
+            assertThat(other.getMBPerSec(), closeTo(60.0, 0.001));
+            assertThat(medium.getMBPerSec(), closeTo(30.0, 0.001));
+        }
+
+        small.close();
+        assertFalse(large.isQueued());
+        assertThat(first.currentQueued(), equalTo(0L));
+        assertThat(large.getMBPerSec(), closeTo(30.0, 0.001));
+
+        // releasing a merge twice has no effect
+        small.close();
+        medium.close();
+        assertThat(large.getMBPerSec(), closeTo(60.0, 0.001));
+        large.close();
+        assertThat(large.getMBPerSec(), equalTo(Double.POSITIVE_INFINITY));
+    }
+
+    public void testSearchHotShardsArePrioritized() {
+        final MergeBandwidthCoordinator coordinator = new MergeBandwidthCoordinator(Settings.builder()
+            .put(MergeBandwidthCoordinator.MAX_BYTES_PER_SEC_SETTING.getKey(), "0b")
+            .put(MergeBandwidthCoordinator.MAX_CONCURRENT_MERGES_SETTING.getKey(), 1)
+            .put(MergeBandwidthCoordinator.SMALL_MERGE_SIZE_SETTING.getKey(), "0b")
+            .build());
+        final Path dataPath = createTempDir();
+        final AtomicBoolean searchHot = new AtomicBoolean();
+        final MergeBandwidthCoordinator.ShardMergeThrottle idle = coordinator.shardMergeThrottle(dataPath, () -> false);
+        final MergeBandwidthCoordinator.ShardMergeThrottle hot = coordinator.shardMergeThrottle(dataPath, searchHot::get);
+
+        final MergeBandwidthCoordinator.ThrottledMerge idleMerge = idle.startMerge(10 * MB);
+        assertThat(idleMerge.getMBPerSec(), equalTo(Double.POSITIVE_INFINITY));
+        final MergeBandwidthCoordinator.ThrottledMerge hotMerge = hot.startMerge(20 * MB);
+        assertFalse(idleMerge.isQueued());
+        assertTrue(hotMerge.isQueued());
+
+        // priorities are re-evaluated when merges start or complete
+        searchHot.set(true);
+        try (MergeBandwidthCoordinator.ThrottledMerge another = idle.startMerge(5 * MB)) {
+            assertFalse(hotMerge.isQueued());
+            assertThat(hotMerge.getMBPerSec(), equalTo(Double.POSITIVE_INFINITY));
+            assertTrue(idleMerge.isQueued());
+            assertTrue(another.isQueued());
+            assertThat(idle.currentQueued(), equalTo(2L));
+        }
+        hotMerge.close();
+        idleMerge.close();
+        assertThat(idle.currentQueued(), equalTo(0L));
+        assertThat(hot.currentQueued(), equalTo(0L));
+        assertTrue(hot.totalQueuedTimeInNanos() > 0);
+    }
+
+    public void testWrapRateLimitsOutputs() throws Exception {
+        final MergeBandwidthCoordinator coordinator = new MergeBandwidthCoordinator(Settings.builder()
+            .put(MergeBandwidthCoordinator.SMALL_MERGE_SIZE_SETTING.getKey(), "0b").build());
+        final MergeBandwidthCoordinator.ShardMergeThrottle shard = coordinator.shardMergeThrottle(createTempDir(), () -> false);
+        try (MergeBandwidthCoordinator.ThrottledMerge merge = shard.startMerge(MB);
+             Directory directory = merge.wrap(newDirectory());
+             IndexOutput output = directory.createOutput("test", IOContext.DEFAULT)) {
+            assertThat(output, instanceOf(RateLimitedIndexOutput.class));
+            output.writeBytes(new byte[1024], 1024);
+        }
+    }
+}
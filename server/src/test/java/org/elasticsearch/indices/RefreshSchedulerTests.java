@@ -0,0 +1,108 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.indices;
+
+import org.elasticsearch.common.lease.Releasable;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.test.ESTestCase;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.Matchers.equalTo;
+
+public class RefreshSchedulerTests extends ESTestCase {
+
+    public void testSettings() {
+        RefreshScheduler scheduler = new RefreshScheduler(Settings.EMPTY);
+        assertFalse(scheduler.isEnabled());
+        scheduler = new RefreshScheduler(Settings.builder().put(RefreshScheduler.ADAPTIVE_REFRESH_ENABLED_SETTING.getKey(), true).build());
+        assertTrue(scheduler.isEnabled());
+
+        final int processors = randomIntBetween(1, 64);
+        final int maxConcurrentRefreshes = RefreshScheduler.MAX_CONCURRENT_REFRESHES_SETTING.get(
+            Settings.builder().put("processors", processors).build());
+        assertThat(maxConcurrentRefreshes, equalTo(Math.min(10, (processors + 1) / 2)));
+
+        final Settings zeroRefreshes = Settings.builder().put(RefreshScheduler.MAX_CONCURRENT_REFRESHES_SETTING.getKey(), 0).build();
+        IllegalArgumentException e = expectThrows(IllegalArgumentException.class,
+            () -> RefreshScheduler.MAX_CONCURRENT_REFRESHES_SETTING.get(zeroRefreshes));
+        assertThat(e.getMessage(),
+            equalTo("Failed to parse value [0] for setting [indices.refresh.adaptive.max_concurrent_refreshes] must be >= 1"));
+    }
+
+    public void testShouldDefer() {
+        final RefreshScheduler scheduler = new RefreshScheduler(Settings.builder()
+            .put(RefreshScheduler.ADAPTIVE_REFRESH_ENABLED_SETTING.getKey(), true)
+            .put(RefreshScheduler.MAX_DELAY_SETTING.getKey(), "10s")
+            .put(RefreshScheduler.MAX_BUFFER_SIZE_SETTING.getKey(), "1kb")
+            .build());
+        final long lastRefresh = randomLongBetween(0, 1000);
+
+        // searched since the last refresh
+        assertFalse(scheduler.shouldDefer(lastRefresh + 1, lastRefresh, lastRefresh + randomIntBetween(0, 1), randomBoolean(), 0));
+
+        // only written to since the last refresh
+        final long lastSearch = lastRefresh - randomIntBetween(1, 1000);
+        assertTrue(scheduler.shouldDefer(lastRefresh + randomIntBetween(0, 9999), lastRefresh, lastSearch, false, 1023));
+        assertFalse(scheduler.shouldDefer(lastRefresh + 10000, lastRefresh, lastSearch, false, 1023));
+
+        // merging shards can wait for twice as long
+        assertTrue(scheduler.shouldDefer(lastRefresh + randomIntBetween(10000, 19999), lastRefresh, lastSearch, true, 0));
+        assertFalse(scheduler.shouldDefer(lastRefresh + 20000, lastRefresh, lastSearch, true, 0));
+
+        // a full indexing buffer is always refreshed
+        assertFalse(scheduler.shouldDefer(lastRefresh + 1, lastRefresh, lastSearch, randomBoolean(), randomIntBetween(1024, 4096)));
+    }
+
+    public void testConcurrentRefreshesBudget() {
+        final int maxConcurrentRefreshes = randomIntBetween(1, 10);
+        final RefreshScheduler scheduler = new RefreshScheduler(Settings.builder()
+            .put(RefreshScheduler.MAX_CONCURRENT_REFRESHES_SETTING.getKey(), maxConcurrentRefreshes).build());
+        final List<Releasable> permits = new ArrayList<>();
+        for (int i = 0; i < maxConcurrentRefreshes; i++) {
+            final Releasable permit = scheduler.tryAcquire();
+            assertNotNull(permit);
+            permits.add(permit);
+        }
+        assertNull(scheduler.tryAcquire());
+
+        // releasing a permit twice only returns it once
+        final Releasable permit = randomFrom(permits);
+        permits.remove(permit);
+        permit.close();
+        permit.close();
+        final Releasable newPermit = scheduler.tryAcquire();
+        assertNotNull(newPermit);
+        assertNull(scheduler.tryAcquire());
+        permits.add(newPermit);
+
+        // all the permits are available again once released
+        permits.forEach(Releasable::close);
+        permits.clear();
+        for (int i = 0; i < maxConcurrentRefreshes; i++) {
+            final Releasable released = scheduler.tryAcquire();
+            assertNotNull(released);
+            permits.add(released);
+        }
+        assertNull(scheduler.tryAcquire());
+        permits.forEach(Releasable::close);
+    }
+}
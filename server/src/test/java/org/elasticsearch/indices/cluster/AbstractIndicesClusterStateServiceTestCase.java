@@ -333,6 +333,7 @@ public abstract class AbstractIndicesClusterStateServiceTestCase extends ESTestC
         private volatile Set<String> inSyncAllocationIds;
         private volatile IndexShardRoutingTable routingTable;
         private volatile long term;
+        private volatile int updates;
 
         public MockIndexShard(ShardRouting shardRouting, long term) {
             this.shardRouting = shardRouting;
@@ -357,6 +358,7 @@ public abstract class AbstractIndicesClusterStateServiceTestCase extends ESTestC
                                      Set<String> inSyncAllocationIds,
                                      IndexShardRoutingTable routingTable,
                                      Set<String> pre60AllocationIds) throws IOException {
+            updates++;
             failRandomly();
             assertThat(this.shardId(), equalTo(shardRouting.shardId()));
             assertTrue("current: " + this.shardRouting + ", got: " + shardRouting, this.shardRouting.isSameAllocation(shardRouting));
@@ -390,13 +392,21 @@ public abstract class AbstractIndicesClusterStateServiceTestCase extends ESTestC
 
         @Override
         public IndexShardState state() {
-            return null;
+            // shards are started by the master once they recovered, the mock has nothing to recover
+            return shardRouting.active() ? IndexShardState.STARTED : IndexShardState.RECOVERING;
         }
 
         public long term() {
             return term;
         }
 
+        /**
+         * Returns how many times the state of this shard was updated from a cluster state.
+         */
+        public int updates() {
+            return updates;
+        }
+
         public void updateTerm(long newTerm) {
             assertThat("term can only be incremented: " + shardRouting, newTerm, greaterThanOrEqualTo(term));
             if (shardRouting.primary() && shardRouting.active()) {
@@ -39,6 +39,8 @@ import org.elasticsearch.cluster.metadata.IndexMetaData;
 import org.elasticsearch.cluster.metadata.MetaData;
 import org.elasticsearch.cluster.node.DiscoveryNode;
 import org.elasticsearch.cluster.node.DiscoveryNodes;
+import org.elasticsearch.cluster.routing.IndexRoutingTable;
+import org.elasticsearch.cluster.routing.IndexShardRoutingTable;
 import org.elasticsearch.cluster.routing.RoutingTable;
 import org.elasticsearch.cluster.routing.ShardRouting;
 import org.elasticsearch.cluster.routing.ShardRoutingState;
@@ -77,6 +79,7 @@ import static org.elasticsearch.cluster.metadata.IndexMetaData.SETTING_AUTO_EXPA
 import static org.elasticsearch.cluster.metadata.IndexMetaData.SETTING_NUMBER_OF_REPLICAS;
 import static org.elasticsearch.cluster.metadata.IndexMetaData.SETTING_NUMBER_OF_SHARDS;
 import static org.elasticsearch.cluster.routing.ShardRoutingState.INITIALIZING;
+import static org.elasticsearch.cluster.routing.ShardRoutingState.UNASSIGNED;
 import static org.hamcrest.Matchers.equalTo;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
@@ -254,6 +257,96 @@ public class IndicesClusterStateServiceRandomUpdatesTests extends AbstractIndice
 
     }
 
+    public void testOnlyChangedShardsAreUpdated() {
+        disableRandomFailures();
+        String index = "index_" + randomAlphaOfLength(8).toLowerCase(Locale.ROOT);
+        ClusterState state = ClusterStateCreationUtils.state(index, randomBoolean(),
+            ShardRoutingState.STARTED, ShardRoutingState.INITIALIZING, ShardRoutingState.UNASSIGNED);
+        ClusterState previousState = ClusterState.builder(state)
+            .metaData(MetaData.builder(state.metaData()).remove(index))
+            .routingTable(RoutingTable.builder().build())
+            .build();
+        final ShardRouting replica = state.routingTable().index(index).shard(0).replicaShardsWithState(INITIALIZING).get(0);
+        final ShardId shardId = replica.shardId();
+        final DiscoveryNode node = state.nodes().get(replica.currentNodeId());
+        final IndicesClusterStateService indicesCSSvc = createIndicesClusterStateService(node, MockIndicesService::new);
+        indicesCSSvc.start();
+        applyClusterState(indicesCSSvc, node, previousState, state);
+
+        // start the replica
+        previousState = state;
+        state = replaceShardRouting(state, replica, replica.moveToStarted());
+        applyClusterState(indicesCSSvc, node, previousState, state);
+        final MockIndexShard shard = ((MockIndicesService) indicesCSSvc.indicesService).getShardOrNull(shardId);
+        assertThat(shard.routingEntry(), equalTo(replica.moveToStarted()));
+        int updates = shard.updates();
+
+        // a cluster state that does not touch the index leaves the shard alone
+        previousState = state;
+        state = ClusterState.builder(state)
+            .metaData(MetaData.builder(state.metaData())
+                .persistentSettings(Settings.builder().put("cluster.routing.allocation.enable", "all").build()))
+            .build();
+        assertSame(previousState.metaData().index(index), state.metaData().index(index));
+        applyClusterState(indicesCSSvc, node, previousState, state);
+        assertThat(shard.updates(), equalTo(updates));
+
+        // a change to the routing of another copy of the shard is applied
+        previousState = state;
+        final ShardRouting otherReplica = state.routingTable().shardRoutingTable(shardId).replicaShardsWithState(UNASSIGNED).get(0);
+        final List<String> freeNodeIds = new ArrayList<>();
+        for (DiscoveryNode dataNode : state.nodes()) {
+            if (dataNode.isDataNode() && state.getRoutingNodes().node(dataNode.getId()).getByShardId(shardId) == null) {
+                freeNodeIds.add(dataNode.getId());
+            }
+        }
+        state = replaceShardRouting(state, otherReplica, otherReplica.initialize(randomFrom(freeNodeIds), null, -1L));
+        assertSame(previousState.metaData().index(index), state.metaData().index(index));
+        applyClusterState(indicesCSSvc, node, previousState, state);
+        assertThat(shard.updates(), equalTo(++updates));
+
+        // so is a new primary term
+        previousState = state;
+        final long primaryTerm = state.metaData().index(index).primaryTerm(0) + 1;
+        state = ClusterState.builder(state)
+            .metaData(MetaData.builder(state.metaData())
+                .put(IndexMetaData.builder(state.metaData().index(index)).primaryTerm(0, primaryTerm)))
+            .build();
+        applyClusterState(indicesCSSvc, node, previousState, state);
+        assertThat(shard.updates(), equalTo(++updates));
+        assertThat(shard.term(), equalTo(primaryTerm));
+
+        // and so are new in-sync allocation ids
+        previousState = state;
+        final Set<String> inSyncAllocationIds = Sets.newHashSet(state.metaData().index(index).inSyncAllocationIds(0));
+        inSyncAllocationIds.add(replica.allocationId().getId());
+        state = ClusterState.builder(state)
+            .metaData(MetaData.builder(state.metaData())
+                .put(IndexMetaData.builder(state.metaData().index(index)).putInSyncAllocationIds(0, inSyncAllocationIds)))
+            .build();
+        applyClusterState(indicesCSSvc, node, previousState, state);
+        assertThat(shard.updates(), equalTo(++updates));
+    }
+
+    private static ClusterState replaceShardRouting(ClusterState state, ShardRouting shardRouting, ShardRouting newShardRouting) {
+        final IndexShardRoutingTable.Builder builder = new IndexShardRoutingTable.Builder(shardRouting.shardId());
+        for (ShardRouting copy : state.routingTable().shardRoutingTable(shardRouting.shardId())) {
+            builder.addShard(copy == shardRouting ? newShardRouting : copy);
+        }
+        return ClusterState.builder(state)
+            .routingTable(RoutingTable.builder(state.routingTable())
+                .add(IndexRoutingTable.builder(shardRouting.index()).addIndexShard(builder.build())).build())
+            .build();
+    }
+
+    private void applyClusterState(IndicesClusterStateService indicesCSSvc, DiscoveryNode node, ClusterState previousState,
+                                   ClusterState state) {
+        ClusterState localState = adaptClusterStateToLocalNode(state, node);
+        indicesCSSvc.applyClusterState(
+            new ClusterChangedEvent("cluster state change", localState, adaptClusterStateToLocalNode(previousState, node)));
+        assertClusterStateMatchesNodeState(localState, indicesCSSvc);
+    }
+
     public ClusterState randomInitialClusterState(Map<DiscoveryNode, IndicesClusterStateService> clusterStateServiceMap,
                                                   Supplier<MockIndicesService> indicesServiceSupplier) {
         List<DiscoveryNode> allNodes = new ArrayList<>();
@@ -464,7 +557,7 @@ public class IndicesClusterStateServiceRandomUpdatesTests extends AbstractIndice
         final RepositoriesService repositoriesService = new RepositoriesService(settings, clusterService,
             transportService, Collections.emptyMap(), Collections.emptyMap(), threadPool);
         final PeerRecoveryTargetService recoveryTargetService = new PeerRecoveryTargetService(threadPool,
-            transportService, null, clusterService);
+            transportService, null, clusterService, null);
         final ShardStateAction shardStateAction = mock(ShardStateAction.class);
         final PrimaryReplicaSyncer primaryReplicaSyncer = mock(PrimaryReplicaSyncer.class);
         return new IndicesClusterStateService(
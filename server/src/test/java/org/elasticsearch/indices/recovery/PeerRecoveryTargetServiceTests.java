@@ -28,23 +28,34 @@ import org.apache.lucene.store.IOContext;
 import org.apache.lucene.store.IndexInput;
 import org.elasticsearch.action.ActionListener;
 import org.elasticsearch.action.admin.indices.flush.FlushRequest;
+import org.elasticsearch.action.support.PlainActionFuture;
 import org.elasticsearch.cluster.node.DiscoveryNode;
 import org.elasticsearch.common.Randomness;
 import org.elasticsearch.common.UUIDs;
 import org.elasticsearch.common.bytes.BytesArray;
 import org.elasticsearch.common.lucene.Lucene;
+import org.elasticsearch.common.settings.ClusterSettings;
+import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.index.seqno.SequenceNumbers;
 import org.elasticsearch.index.shard.IndexShard;
 import org.elasticsearch.index.shard.IndexShardTestCase;
+import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.index.snapshots.blobstore.BlobStoreIndexShardSnapshot.FileInfo;
 import org.elasticsearch.index.store.Store;
 import org.elasticsearch.index.store.StoreFileMetaData;
 import org.elasticsearch.index.translog.Translog;
+import org.elasticsearch.repositories.IndexId;
+import org.elasticsearch.repositories.blobstore.BlobStoreRepository;
 
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.CyclicBarrier;
@@ -196,4 +207,79 @@ public class PeerRecoveryTargetServiceTests extends IndexShardTestCase {
         assertThat(diff.different, empty());
         closeShards(sourceShard, targetShard);
     }
+
+    public void testRestoreFilesFromSnapshot() throws Exception {
+        IndexShard sourceShard = newStartedShard(true);
+        int numDocs = between(20, 100);
+        for (int i = 0; i < numDocs; i++) {
+            indexDoc(sourceShard, "_doc", Integer.toString(i));
+        }
+        sourceShard.flush(new FlushRequest());
+        Store.MetadataSnapshot sourceSnapshot = sourceShard.store().getMetadata(null);
+        List<StoreFileMetaData> mdFiles = new ArrayList<>();
+        for (StoreFileMetaData md : sourceSnapshot) {
+            mdFiles.add(md);
+        }
+        final Map<String, BytesArray> contents = new HashMap<>();
+        for (StoreFileMetaData md : mdFiles) {
+            try (IndexInput in = sourceShard.store().directory().openInput(md.name(), IOContext.READONCE)) {
+                final byte[] content = new byte[Math.toIntExact(md.length())];
+                in.readBytes(content, 0, content.length);
+                contents.put(md.name(), new BytesArray(content));
+            }
+        }
+        final Set<String> failingFiles = new HashSet<>(randomSubsetOf(contents.keySet()));
+        final RecoverySettings recoverySettings = new RecoverySettings(Settings.builder()
+            .put(RecoverySettings.INDICES_RECOVERY_MAX_CONCURRENT_SNAPSHOT_FILE_DOWNLOADS_SETTING.getKey(), between(1, 5)).build(),
+            new ClusterSettings(Settings.EMPTY, ClusterSettings.BUILT_IN_CLUSTER_SETTINGS));
+        final SnapshotFilesProvider snapshotFilesProvider = new SnapshotFilesProvider(null, recoverySettings, threadPool) {
+            @Override
+            BlobStoreRepository blobStoreRepository(String name) {
+                assertThat(name, equalTo("repo"));
+                return null;
+            }
+
+            @Override
+            InputStream openSnapshotFile(BlobStoreRepository repository, IndexId indexId, ShardId shardId, FileInfo fileInfo) {
+                final BytesArray content = contents.get(fileInfo.physicalName());
+                if (failingFiles.contains(fileInfo.physicalName())) {
+                    // a truncated file fails the restore of the file after some of it was written
+                    return new ByteArrayInputStream(content.array(), content.offset(), content.length() / 2);
+                }
+                return new ByteArrayInputStream(content.array(), content.offset(), content.length());
+            }
+        };
+
+        final IndexShard targetShard = newShard(false);
+        final DiscoveryNode pNode = getFakeDiscoNode(sourceShard.routingEntry().currentNodeId());
+        final DiscoveryNode rNode = getFakeDiscoNode(targetShard.routingEntry().currentNodeId());
+        targetShard.markAsRecovering("test-peer-recovery", new RecoveryState(targetShard.routingEntry(), rNode, pNode));
+        final RecoveryTarget recoveryTarget = new RecoveryTarget(targetShard, null, null, null, snapshotFilesProvider);
+        recoveryTarget.receiveFileInfo(
+            mdFiles.stream().map(StoreFileMetaData::name).collect(Collectors.toList()),
+            mdFiles.stream().map(StoreFileMetaData::length).collect(Collectors.toList()),
+            Collections.emptyList(), Collections.emptyList(), 0
+        );
+        final List<FileInfo> snapshotFiles = mdFiles.stream()
+            .map(md -> new FileInfo("__" + md.name(), md, null)).collect(Collectors.toList());
+        final PlainActionFuture<List<String>> future = new PlainActionFuture<>();
+        recoveryTarget.restoreFilesFromSnapshot("repo", new IndexId("index", UUIDs.randomBase64UUID()), snapshotFiles, 0, future);
+        assertThat(new HashSet<>(future.actionGet()), equalTo(failingFiles));
+
+        // the files that failed to be restored are sent by the source, from their start
+        for (StoreFileMetaData md : mdFiles) {
+            if (failingFiles.contains(md.name())) {
+                assertThat(targetShard.recoveryState().getIndex().getFileDetails(md.name()).recovered(), equalTo(0L));
+                final PlainActionFuture<Void> chunkFuture = new PlainActionFuture<>();
+                recoveryTarget.writeFileChunk(md, 0, contents.get(md.name()), true, 0, chunkFuture);
+                chunkFuture.actionGet();
+            }
+        }
+        recoveryTarget.cleanFiles(0, sourceSnapshot);
+        recoveryTarget.decRef();
+        Store.MetadataSnapshot targetSnapshot = targetShard.snapshotStoreMetadata();
+        Store.RecoveryDiff diff = sourceSnapshot.recoveryDiff(targetSnapshot);
+        assertThat(diff.different, empty());
+        closeShards(sourceShard, targetShard);
+    }
 }
@@ -34,6 +34,7 @@ import org.apache.lucene.store.Directory;
 import org.apache.lucene.store.IOContext;
 import org.apache.lucene.util.BytesRef;
 import org.apache.lucene.util.BytesRefIterator;
+import org.elasticsearch.ElasticsearchException;
 import org.elasticsearch.ExceptionsHelper;
 import org.elasticsearch.Version;
 import org.elasticsearch.action.ActionListener;
@@ -52,6 +53,7 @@ import org.elasticsearch.common.settings.ClusterSettings;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.unit.TimeValue;
 import org.elasticsearch.common.util.CancellableThreads;
+import org.elasticsearch.common.util.concurrent.ConcurrentCollections;
 import org.elasticsearch.common.xcontent.XContentType;
 import org.elasticsearch.core.internal.io.IOUtils;
 import org.elasticsearch.index.IndexSettings;
@@ -70,9 +72,11 @@ import org.elasticsearch.index.shard.IndexShard;
 import org.elasticsearch.index.shard.IndexShardRelocatedException;
 import org.elasticsearch.index.shard.IndexShardState;
 import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.index.snapshots.blobstore.BlobStoreIndexShardSnapshot;
 import org.elasticsearch.index.store.Store;
 import org.elasticsearch.index.store.StoreFileMetaData;
 import org.elasticsearch.index.translog.Translog;
+import org.elasticsearch.repositories.IndexId;
 import org.elasticsearch.test.CorruptionUtils;
 import org.elasticsearch.test.DummyShardLock;
 import org.elasticsearch.test.ESTestCase;
@@ -89,7 +93,9 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -97,6 +103,7 @@ import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.IntSupplier;
 import java.util.function.Supplier;
+import java.util.stream.Collectors;
 import java.util.zip.CRC32;
 
 import static java.util.Collections.emptyMap;
@@ -104,6 +111,7 @@ import static java.util.Collections.emptySet;
 import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
 import static org.hamcrest.core.IsNull.notNullValue;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyBoolean;
@@ -197,6 +205,68 @@ public class RecoverySourceHandlerTests extends ESTestCase {
         IOUtils.close(reader, store, targetStore);
     }
 
+    public void testRecoverFilesFromSnapshot() throws Throwable {
+        final RecoverySettings recoverySettings = new RecoverySettings(Settings.EMPTY, service);
+        final StartRecoveryRequest request = getStartRecoveryRequest();
+        final Store store = newStore(createTempDir());
+        final List<StoreFileMetaData> files = generateFiles(store, between(1, 10), () -> between(1, 1024));
+        final List<BlobStoreIndexShardSnapshot.FileInfo> snapshotFiles = new ArrayList<>();
+        final Set<String> failedFiles = new HashSet<>();
+        for (StoreFileMetaData md : randomSubsetOf(files)) {
+            snapshotFiles.add(new BlobStoreIndexShardSnapshot.FileInfo("__" + md.name(), md, null));
+            if (rarely()) {
+                failedFiles.add(md.name());
+            }
+        }
+        // the target may fail the restore request as a whole, for instance if it doesn't know about it
+        final boolean restoreRequestFails = rarely();
+        final IndexId indexId = new IndexId(shardId.getIndexName(), UUIDs.randomBase64UUID());
+        final SnapshotFilesProvider snapshotFilesProvider = new SnapshotFilesProvider(null, recoverySettings, threadPool) {
+            @Override
+            public ShardSnapshotFiles findSnapshotFiles(ShardId shardId, List<StoreFileMetaData> files) {
+                return snapshotFiles.isEmpty() ? null : new ShardSnapshotFiles("repo", indexId, snapshotFiles);
+            }
+        };
+        final Set<String> restoredFiles = ConcurrentCollections.newConcurrentSet();
+        final Set<String> sentFiles = ConcurrentCollections.newConcurrentSet();
+        final RecoveryTargetHandler target = new TestRecoveryTargetHandler() {
+            @Override
+            public void restoreFilesFromSnapshot(String repository, IndexId snapshotIndexId,
+                                                 List<BlobStoreIndexShardSnapshot.FileInfo> files, int totalTranslogOps,
+                                                 ActionListener<List<String>> listener) {
+                assertThat(repository, equalTo("repo"));
+                assertThat(snapshotIndexId, equalTo(indexId));
+                threadPool.generic().execute(() -> {
+                    if (restoreRequestFails) {
+                        listener.onFailure(new ElasticsearchException("simulated"));
+                    } else {
+                        files.forEach(fileInfo -> restoredFiles.add(fileInfo.physicalName()));
+                        listener.onResponse(new ArrayList<>(failedFiles));
+                    }
+                });
+            }
+
+            @Override
+            public void writeFileChunk(StoreFileMetaData md, long position, BytesReference content, boolean lastChunk,
+                                       int totalTranslogOps, ActionListener<Void> listener) {
+                sentFiles.add(md.name());
+                listener.onResponse(null);
+            }
+        };
+        final RecoverySourceHandler handler = new RecoverySourceHandler(null, target, request,
+            Math.toIntExact(recoverySettings.getChunkSize().getBytes()), between(1, 5), between(1, 4), snapshotFilesProvider);
+        handler.recoverFiles(store, files, () -> 0);
+
+        final Set<String> snapshotFileNames = snapshotFiles.stream()
+            .map(BlobStoreIndexShardSnapshot.FileInfo::physicalName).collect(Collectors.toSet());
+        assertThat(restoredFiles, equalTo(restoreRequestFails ? Collections.emptySet() : snapshotFileNames));
+        final Set<String> expectedSentFiles = new HashSet<>(restoreRequestFails ? snapshotFileNames : failedFiles);
+        files.stream().map(StoreFileMetaData::name).filter(name -> snapshotFileNames.contains(name) == false)
+            .forEach(expectedSentFiles::add);
+        assertThat(sentFiles, equalTo(expectedSentFiles));
+        store.close();
+    }
+
     public StartRecoveryRequest getStartRecoveryRequest() throws IOException {
         Store.MetadataSnapshot metadataSnapshot = randomBoolean() ? Store.MetadataSnapshot.EMPTY :
             new Store.MetadataSnapshot(Collections.emptyMap(),
@@ -243,7 +313,8 @@ public class RecoverySourceHandlerTests extends ESTestCase {
                 maybeExecuteAsync(() -> listener.onResponse(checkpointOnTarget.get()));
             }
         };
-        RecoverySourceHandler handler = new RecoverySourceHandler(shard, recoveryTarget, request, fileChunkSizeInBytes, between(1, 10));
+        RecoverySourceHandler handler = new RecoverySourceHandler(shard, recoveryTarget, request, fileChunkSizeInBytes, between(1, 10),
+            between(1, 4), null);
         PlainActionFuture<RecoverySourceHandler.SendSnapshotResult> future = new PlainActionFuture<>();
         handler.phase2(startingSeqNo, endingSeqNo, newTranslogSnapshot(operations, Collections.emptyList()),
             randomNonNegativeLong(), randomNonNegativeLong(), RetentionLeases.EMPTY, future);
@@ -281,7 +352,8 @@ public class RecoverySourceHandlerTests extends ESTestCase {
                 }
             }
         };
-        RecoverySourceHandler handler = new RecoverySourceHandler(shard, recoveryTarget, request, fileChunkSizeInBytes, between(1, 10));
+        RecoverySourceHandler handler = new RecoverySourceHandler(shard, recoveryTarget, request, fileChunkSizeInBytes, between(1, 10),
+            between(1, 4), null);
         PlainActionFuture<RecoverySourceHandler.SendSnapshotResult> future = new PlainActionFuture<>();
         final long startingSeqNo = randomLongBetween(0, ops.size() - 1L);
         final long endingSeqNo = randomLongBetween(startingSeqNo, ops.size() - 1L);
@@ -292,6 +364,52 @@ public class RecoverySourceHandlerTests extends ESTestCase {
         }
     }
 
+    public void testSendSnapshotOpsConcurrently() throws IOException {
+        final StartRecoveryRequest request = getStartRecoveryRequest();
+        final IndexShard shard = mock(IndexShard.class);
+        when(shard.state()).thenReturn(IndexShardState.STARTED);
+        final List<Translog.Operation> operations = new ArrayList<>();
+        for (int numOps = between(1, 100), i = 0; i < numOps; i++) {
+            final Engine.Index index = getIndex(Integer.toString(i));
+            operations.add(new Translog.Index(index, new Engine.IndexResult(1, 1, i, true)));
+        }
+        final List<Translog.Operation> shippedOps = new CopyOnWriteArrayList<>();
+        final List<ActionListener<Long>> unrepliedBatches = new CopyOnWriteArrayList<>();
+        final RecoveryTargetHandler recoveryTarget = new TestRecoveryTargetHandler() {
+            @Override
+            public void indexTranslogOperations(List<Translog.Operation> operations, int totalTranslogOps, long timestamp, long msu,
+                                                RetentionLeases retentionLeases, ActionListener<Long> listener) {
+                shippedOps.addAll(operations);
+                unrepliedBatches.add(listener);
+            }
+        };
+        final int maxConcurrentOperations = between(1, 4);
+        // every operation is sent in its own batch
+        final RecoverySourceHandler handler = new RecoverySourceHandler(shard, recoveryTarget, request, 1, between(1, 10),
+            maxConcurrentOperations, null);
+        final PlainActionFuture<RecoverySourceHandler.SendSnapshotResult> future = new PlainActionFuture<>();
+        handler.phase2(0, operations.size() - 1, newTranslogSnapshot(operations, Collections.emptyList()),
+            randomNonNegativeLong(), randomNonNegativeLong(), RetentionLeases.EMPTY, future);
+        long maxCheckpoint = SequenceNumbers.UNASSIGNED_SEQ_NO;
+        while (unrepliedBatches.isEmpty() == false) {
+            assertThat(unrepliedBatches.size(), lessThanOrEqualTo(maxConcurrentOperations));
+            assertThat(unrepliedBatches.size(), equalTo(Math.min(maxConcurrentOperations, operations.size() - shippedOps.size()
+                + unrepliedBatches.size())));
+            assertFalse(future.isDone());
+            final List<ActionListener<Long>> batchesToAck = randomSubsetOf(between(1, unrepliedBatches.size()), unrepliedBatches);
+            unrepliedBatches.removeAll(batchesToAck);
+            for (ActionListener<Long> batch : batchesToAck) {
+                final long checkpoint = randomLongBetween(0, operations.size() - 1);
+                maxCheckpoint = Math.max(maxCheckpoint, checkpoint);
+                batch.onResponse(checkpoint);
+            }
+        }
+        final RecoverySourceHandler.SendSnapshotResult result = future.actionGet();
+        assertThat(result.totalOperations, equalTo(operations.size()));
+        assertThat(result.targetLocalCheckpoint, equalTo(maxCheckpoint));
+        assertThat(shippedOps, equalTo(operations));
+    }
+
     private Engine.Index getIndex(final String id) {
         final String type = "test";
         final ParseContext.Document document = new ParseContext.Document();
@@ -721,6 +839,11 @@ public class RecoverySourceHandlerTests extends ESTestCase {
         public void cleanFiles(int totalTranslogOps, Store.MetadataSnapshot sourceMetaData) {
         }
 
+        @Override
+        public void restoreFilesFromSnapshot(String repository, IndexId indexId, List<BlobStoreIndexShardSnapshot.FileInfo> snapshotFiles,
+                                             int totalTranslogOps, ActionListener<List<String>> listener) {
+        }
+
         @Override
         public void writeFileChunk(StoreFileMetaData fileMetaData, long position, BytesReference content, boolean lastChunk,
                                    int totalTranslogOps, ActionListener<Void> listener) {
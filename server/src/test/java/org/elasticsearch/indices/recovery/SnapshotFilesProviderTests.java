@@ -0,0 +1,92 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.indices.recovery;
+
+import org.elasticsearch.common.UUIDs;
+import org.elasticsearch.common.settings.ClusterSettings;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.index.Index;
+import org.elasticsearch.index.IndexService;
+import org.elasticsearch.index.shard.IndexShard;
+import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.index.snapshots.blobstore.BlobStoreIndexShardSnapshot;
+import org.elasticsearch.index.store.Store;
+import org.elasticsearch.index.store.StoreFileMetaData;
+import org.elasticsearch.repositories.RepositoriesService;
+import org.elasticsearch.test.ESIntegTestCase;
+import org.elasticsearch.test.ESSingleNodeTestCase;
+import org.elasticsearch.threadpool.ThreadPool;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.elasticsearch.test.hamcrest.ElasticsearchAssertions.assertAcked;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+
+public class SnapshotFilesProviderTests extends ESSingleNodeTestCase {
+
+    public void testFindSnapshotFiles() throws Exception {
+        assertAcked(client().admin().cluster().preparePutRepository("repo")
+            .setType("fs")
+            .setSettings(Settings.builder().put("location", ESIntegTestCase.randomRepoPath(node().settings()))));
+        final IndexService indexService = createIndex("index", Settings.builder().put("index.number_of_shards", 1).build());
+        final int numDocs = randomIntBetween(1, 20);
+        for (int i = 0; i < numDocs; i++) {
+            client().prepareIndex("index", "_doc", Integer.toString(i)).setSource("field", "value").get();
+        }
+        client().admin().indices().prepareFlush("index").get();
+        assertThat(client().admin().cluster().prepareCreateSnapshot("repo", "snapshot").setWaitForCompletion(true)
+            .setIndices("index").get().getSnapshotInfo().successfulShards(), equalTo(1));
+
+        final IndexShard shard = indexService.getShard(0);
+        final List<StoreFileMetaData> files = new ArrayList<>();
+        final Store store = shard.store();
+        store.incRef();
+        try {
+            store.getMetadata(null).forEach(files::add);
+        } finally {
+            store.decRef();
+        }
+
+        final RecoverySettings recoverySettings = new RecoverySettings(
+            Settings.builder().put(RecoverySettings.INDICES_RECOVERY_SNAPSHOT_REPOSITORY_SETTING.getKey(), "repo").build(),
+            new ClusterSettings(Settings.EMPTY, ClusterSettings.BUILT_IN_CLUSTER_SETTINGS));
+        final ThreadPool threadPool = getInstanceFromNode(ThreadPool.class);
+        final SnapshotFilesProvider snapshotFilesProvider = new SnapshotFilesProvider(getInstanceFromNode(RepositoriesService.class),
+            recoverySettings, threadPool);
+
+        // the repository is accessed from the generic thread pool, like during recoveries
+        final SnapshotFilesProvider.ShardSnapshotFiles snapshotFiles =
+            threadPool.generic().submit(() -> snapshotFilesProvider.findSnapshotFiles(shard.shardId(), files)).get();
+        assertThat(snapshotFiles, notNullValue());
+        assertThat(snapshotFiles.repository(), equalTo("repo"));
+        final Set<String> snapshotFileNames = snapshotFiles.files().stream()
+            .map(BlobStoreIndexShardSnapshot.FileInfo::physicalName).collect(Collectors.toSet());
+        assertThat(snapshotFileNames, equalTo(files.stream().map(StoreFileMetaData::name).collect(Collectors.toSet())));
+
+        // the snapshot files of another index with the same name, like a deleted index, must not be used
+        final ShardId otherShardId = new ShardId(new Index("index", UUIDs.randomBase64UUID()), 0);
+        assertThat(threadPool.generic().submit(() -> snapshotFilesProvider.findSnapshotFiles(otherShardId, files)).get(), nullValue());
+    }
+}
@@ -92,6 +92,47 @@ public class IngestDocumentTests extends ESTestCase {
             equalTo(BOGUS_TIMESTAMP));
     }
 
+    public void testFieldPath() {
+        IngestDocument.FieldPath fieldPath = new IngestDocument.FieldPath("fizz.buzz");
+        assertThat(fieldPath.getPath(), equalTo("fizz.buzz"));
+        assertThat(ingestDocument.getFieldValue(fieldPath, String.class), equalTo("hello world"));
+        assertTrue(ingestDocument.hasField(fieldPath));
+        ingestDocument.setFieldValue(fieldPath, "bye world");
+        assertThat(ingestDocument.getFieldValue("fizz.buzz", String.class), equalTo("bye world"));
+        ingestDocument.appendFieldValue(fieldPath, "hello world");
+        assertThat(ingestDocument.getFieldValue(fieldPath, List.class), equalTo(Arrays.asList("bye world", "hello world")));
+        ingestDocument.removeField(fieldPath);
+        assertFalse(ingestDocument.hasField(fieldPath));
+        assertThat(ingestDocument.getFieldValue(fieldPath, String.class, true), nullValue());
+        IllegalArgumentException e = expectThrows(IllegalArgumentException.class,
+            () -> ingestDocument.getFieldValue(fieldPath, String.class));
+        assertThat(e.getMessage(), equalTo("field [buzz] not present as part of path [fizz.buzz]"));
+
+        // the same compiled path is resolved against each document
+        IngestDocument.FieldPath sourcePath = new IngestDocument.FieldPath("_source.foo");
+        assertThat(ingestDocument.getFieldValue(sourcePath, String.class), equalTo("bar"));
+        Map<String, Object> otherSource = new HashMap<>();
+        otherSource.put("foo", "baz");
+        IngestDocument otherDocument = new IngestDocument("index", "type", "id", null, null, null, otherSource);
+        assertThat(otherDocument.getFieldValue(sourcePath, String.class), equalTo("baz"));
+
+        IngestDocument.FieldPath ingestPath = new IngestDocument.FieldPath("_ingest.timestamp");
+        assertThat(ingestDocument.getFieldValue(ingestPath, ZonedDateTime.class),
+            both(notNullValue()).and(not(equalTo(BOGUS_TIMESTAMP))));
+
+        // invalid paths are only reported when they are used, like the paths given as strings
+        IngestDocument.FieldPath emptyPath = new IngestDocument.FieldPath("");
+        e = expectThrows(IllegalArgumentException.class, () -> ingestDocument.getFieldValue(emptyPath, Object.class));
+        assertThat(e.getMessage(), equalTo("path cannot be null nor empty"));
+        IngestDocument.FieldPath invalidPath = new IngestDocument.FieldPath("_ingest.");
+        e = expectThrows(IllegalArgumentException.class, () -> ingestDocument.setFieldValue(invalidPath, "value"));
+        assertThat(e.getMessage(), equalTo("path [_ingest.] is not valid"));
+        e = expectThrows(IllegalArgumentException.class, () -> ingestDocument.hasField(invalidPath));
+        assertThat(e.getMessage(), equalTo("path [_ingest.] is not valid"));
+        e = expectThrows(IllegalArgumentException.class, () -> ingestDocument.removeField(invalidPath));
+        assertThat(e.getMessage(), equalTo("path [_ingest.] is not valid"));
+    }
+
     public void testGetSourceObject() {
         try {
             ingestDocument.getFieldValue("_source", Object.class);
@@ -386,7 +427,7 @@ public class IngestDocumentTests extends ESTestCase {
 
     public void testSetFieldValueNullName() {
         try {
-            ingestDocument.setFieldValue(null, "bar");
+            ingestDocument.setFieldValue((String) null, "bar");
             fail("add field should have failed");
         } catch (IllegalArgumentException e) {
             assertThat(e.getMessage(), equalTo("path cannot be null nor empty"));
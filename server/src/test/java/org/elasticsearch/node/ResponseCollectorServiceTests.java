@@ -22,12 +22,15 @@ package org.elasticsearch.node;
 import org.elasticsearch.cluster.ClusterChangedEvent;
 import org.elasticsearch.cluster.ClusterName;
 import org.elasticsearch.cluster.ClusterState;
+import org.elasticsearch.cluster.metadata.IndexMetaData;
+import org.elasticsearch.cluster.metadata.MetaData;
 import org.elasticsearch.cluster.node.DiscoveryNode;
 import org.elasticsearch.cluster.node.DiscoveryNodes;
 import org.elasticsearch.cluster.service.ClusterService;
 import org.elasticsearch.common.settings.ClusterSettings;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.transport.TransportAddress;
+import org.elasticsearch.index.shard.ShardId;
 import org.elasticsearch.test.ESTestCase;
 import org.elasticsearch.threadpool.TestThreadPool;
 import org.elasticsearch.threadpool.ThreadPool;
@@ -39,6 +42,7 @@ import java.util.concurrent.CountDownLatch;
 
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.lessThan;
 
 public class ResponseCollectorServiceTests extends ESTestCase {
 
@@ -136,4 +140,64 @@ public class ResponseCollectorServiceTests extends ESTestCase {
         assertTrue(nodeStats.containsKey("node1"));
         assertFalse(nodeStats.containsKey("node2"));
     }
+
+    public void testCpuUsage() {
+        collector.addNodeStatistics("node1", null, 1, 100, 10, -1);
+        assertThat(collector.getNodeStatistics("node1").get().cpuPercent, equalTo(-1.0));
+        collector.addNodeStatistics("node1", null, 1, 100, 10, 50);
+        assertThat(collector.getNodeStatistics("node1").get().cpuPercent, equalTo(50.0));
+        // unknown values do not reset the average
+        collector.addNodeStatistics("node1", null, 1, 100, 10, -1);
+        assertThat(collector.getNodeStatistics("node1").get().cpuPercent, equalTo(50.0));
+
+        // all else being equal, the busier node is ranked worse
+        collector.addNodeStatistics("node2", null, 1, 100, 10, 90);
+        final double rank1 = collector.getNodeStatistics("node1").get().rank(1);
+        final double rank2 = collector.getNodeStatistics("node2").get().rank(1);
+        assertThat(rank1, lessThan(rank2));
+    }
+
+    public void testShardResponseTime() {
+        final ShardId shardId = new ShardId("index", "_na_", 0);
+        final ShardId otherShardId = new ShardId("index", "_na_", 1);
+        collector.addNodeStatistics("node1", shardId, 1, 1000, 10, -1);
+        collector.addNodeStatistics("node1", otherShardId, 1, 100, 10, -1);
+        assertThat(collector.getNodeStatistics("node1", shardId).get().shardResponseTime, equalTo(1000.0));
+        assertThat(collector.getNodeStatistics("node1", otherShardId).get().shardResponseTime, equalTo(100.0));
+        assertThat(collector.getNodeStatistics("node1", new ShardId("index", "_na_", 2)).get().shardResponseTime, equalTo(-1.0));
+        assertThat(collector.getNodeStatistics("node1").get().shardResponseTime, equalTo(-1.0));
+
+        collector.addShardResponseTime("node1", otherShardId, 100);
+        assertThat(collector.getNodeStatistics("node1", otherShardId).get().shardResponseTime, equalTo(100.0));
+        // the node does not have to be known for the shard response time to be added
+        collector.addShardResponseTime("node2", shardId, 100);
+        assertFalse(collector.getNodeStatistics("node2", shardId).isPresent());
+
+        // the response time of the shard is used for ranking rather than the one of the node
+        collector.addNodeStatistics("node2", shardId, 1, 100, 10, -1);
+        collector.addNodeStatistics("node2", otherShardId, 1, 1000, 10, -1);
+        assertThat(collector.getNodeStatistics("node1", shardId).get().rank(1),
+            greaterThan(collector.getNodeStatistics("node2", shardId).get().rank(1)));
+        assertThat(collector.getNodeStatistics("node1", otherShardId).get().rank(1),
+            lessThan(collector.getNodeStatistics("node2", otherShardId).get().rank(1)));
+    }
+
+    public void testIndexDeletion() {
+        final IndexMetaData indexMetaData = IndexMetaData.builder("index")
+            .settings(Settings.builder().put(IndexMetaData.SETTING_VERSION_CREATED, org.elasticsearch.Version.CURRENT))
+            .numberOfShards(1).numberOfReplicas(0).build();
+        final ShardId shardId = new ShardId(indexMetaData.getIndex(), 0);
+        collector.addNodeStatistics("node1", shardId, 1, 1000, 10, -1);
+
+        DiscoveryNodes nodes = DiscoveryNodes.builder()
+            .add(DiscoveryNode.createLocal(Settings.EMPTY, new TransportAddress(TransportAddress.META_ADDRESS, 9200), "node1"))
+            .build();
+        ClusterState previousState = ClusterState.builder(new ClusterName("cluster")).nodes(nodes)
+            .metaData(MetaData.builder().put(indexMetaData, false)).build();
+        ClusterState newState = ClusterState.builder(previousState).metaData(MetaData.builder()).build();
+        collector.clusterChanged(new ClusterChangedEvent("test", newState, previousState));
+
+        assertThat(collector.getNodeStatistics("node1", shardId).get().shardResponseTime, equalTo(-1.0));
+        assertThat(collector.getNodeStatistics("node1").get().responseTime, equalTo(1000.0));
+    }
 }
@@ -20,6 +20,7 @@ package org.elasticsearch.search;
 
 import com.carrotsearch.hppc.IntArrayList;
 
+import org.apache.lucene.document.HalfFloatPoint;
 import org.apache.lucene.search.Query;
 import org.apache.lucene.store.AlreadyClosedException;
 import org.elasticsearch.ElasticsearchException;
@@ -75,10 +76,16 @@ import org.elasticsearch.search.internal.AliasFilter;
 import org.elasticsearch.search.internal.SearchContext;
 import org.elasticsearch.search.internal.ShardSearchLocalRequest;
 import org.elasticsearch.search.internal.ShardSearchTransportRequest;
+import org.elasticsearch.search.sort.FieldSortBuilder;
+import org.elasticsearch.search.sort.NestedSortBuilder;
+import org.elasticsearch.search.sort.SortBuilders;
+import org.elasticsearch.search.sort.SortMode;
+import org.elasticsearch.search.sort.SortOrder;
 import org.elasticsearch.search.suggest.SuggestBuilder;
 import org.elasticsearch.test.ESSingleNodeTestCase;
 
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.LinkedList;
@@ -565,6 +572,109 @@ public class SearchServiceTests extends ESSingleNodeTestCase {
             new AliasFilter(null, Strings.EMPTY_ARRAY), 1f, allowPartialSearchResults, null, null)));
     }
 
+    public void testCanMatchSearchAfter() throws IOException {
+        createIndex("index", Settings.EMPTY, "_doc", "rank", "type=long", "timestamp", "type=date");
+        final int numDocs = between(1, 10);
+        for (int i = 0; i < numDocs; i++) {
+            client().prepareIndex("index", "_doc", Integer.toString(i)).setSource("rank", 10 + i, "timestamp", 1000L + i).get();
+        }
+        client().admin().indices().prepareRefresh("index").get();
+        final SearchService service = getInstanceFromNode(SearchService.class);
+        final IndexShard indexShard = getInstanceFromNode(IndicesService.class).indexServiceSafe(resolveIndex("index")).getShard(0);
+        final Function<SearchSourceBuilder, Boolean> canMatch = source -> {
+            try {
+                return service.canMatch(new ShardSearchLocalRequest(indexShard.shardId(), 1, SearchType.QUERY_THEN_FETCH,
+                    source.trackTotalHits(false), Strings.EMPTY_ARRAY, false, new AliasFilter(null, Strings.EMPTY_ARRAY), 1f, true,
+                    null, null));
+            } catch (IOException e) {
+                throw new AssertionError(e);
+            }
+        };
+        final long maxRank = 10 + numDocs - 1;
+        assertTrue(canMatch.apply(new SearchSourceBuilder().sort("rank", SortOrder.ASC).searchAfter(new Object[] {maxRank})));
+        assertFalse(canMatch.apply(new SearchSourceBuilder().sort("rank", SortOrder.ASC).searchAfter(new Object[] {maxRank + 1})));
+        // the search_after value is converted to a long, like the query phase does, so documents equal to it may still match
+        assertTrue(canMatch.apply(new SearchSourceBuilder().sort("rank", SortOrder.ASC).searchAfter(new Object[] {maxRank + 0.5})));
+        assertFalse(canMatch.apply(new SearchSourceBuilder().sort("rank", SortOrder.ASC).searchAfter(new Object[] {maxRank + 1.5})));
+        assertTrue(canMatch.apply(new SearchSourceBuilder().sort("rank", SortOrder.DESC).searchAfter(new Object[] {10})));
+        assertFalse(canMatch.apply(new SearchSourceBuilder().sort("rank", SortOrder.DESC).searchAfter(new Object[] {9})));
+        assertFalse(canMatch.apply(new SearchSourceBuilder().sort("timestamp", SortOrder.DESC).searchAfter(new Object[] {999L})));
+        assertTrue(canMatch.apply(new SearchSourceBuilder().sort("timestamp", SortOrder.DESC).searchAfter(new Object[] {1000L})));
+        // fields without points and unmapped fields are not used to skip shards
+        assertTrue(canMatch.apply(new SearchSourceBuilder().sort("_id", SortOrder.ASC).searchAfter(new Object[] {maxRank + 1})));
+        assertTrue(canMatch.apply(new SearchSourceBuilder()
+            .sort(new FieldSortBuilder("unknown").unmappedType("long")).searchAfter(new Object[] {maxRank + 1})));
+
+        // documents without values sort after the search_after values, unless they are sorted first
+        client().prepareIndex("index", "_doc", "missing").setSource("timestamp", 0L).setRefreshPolicy(IMMEDIATE).get();
+        assertTrue(canMatch.apply(new SearchSourceBuilder().sort("rank", SortOrder.ASC).searchAfter(new Object[] {maxRank + 1})));
+        assertFalse(canMatch.apply(new SearchSourceBuilder()
+            .sort(new FieldSortBuilder("rank").order(SortOrder.ASC).missing("_first")).searchAfter(new Object[] {maxRank + 1})));
+    }
+
+    public void testCanMatchSearchAfterSortModeAndPrecision() throws IOException {
+        createIndex("index", Settings.EMPTY, "_doc", "rank", "type=long", "price", "type=float", "weight", "type=half_float");
+        client().prepareIndex("index", "_doc", "1").setSource("rank", Arrays.asList(10, 20), "price", 0.1f, "weight", 0.1f).get();
+        client().prepareIndex("index", "_doc", "2").setSource("rank", 15, "price", 0.05f, "weight", 0.05f).get();
+        client().admin().indices().prepareRefresh("index").get();
+        final SearchService service = getInstanceFromNode(SearchService.class);
+        final IndexShard indexShard = getInstanceFromNode(IndicesService.class).indexServiceSafe(resolveIndex("index")).getShard(0);
+        final Function<SearchSourceBuilder, Boolean> canMatch = source -> {
+            try {
+                return service.canMatch(new ShardSearchLocalRequest(indexShard.shardId(), 1, SearchType.QUERY_THEN_FETCH,
+                    source.trackTotalHits(false), Strings.EMPTY_ARRAY, false, new AliasFilter(null, Strings.EMPTY_ARRAY), 1f, true,
+                    null, null));
+            } catch (IOException e) {
+                throw new AssertionError(e);
+            }
+        };
+        // the min and max of the values of a document are within the range of the indexed values
+        assertFalse(canMatch.apply(new SearchSourceBuilder()
+            .sort(new FieldSortBuilder("rank").order(SortOrder.ASC).sortMode(SortMode.MAX)).searchAfter(new Object[] {21})));
+        assertFalse(canMatch.apply(new SearchSourceBuilder()
+            .sort(new FieldSortBuilder("rank").order(SortOrder.DESC).sortMode(SortMode.MIN)).searchAfter(new Object[] {9})));
+        // but not the sum of the values of a multi-valued document
+        assertTrue(canMatch.apply(new SearchSourceBuilder()
+            .sort(new FieldSortBuilder("rank").order(SortOrder.ASC).sortMode(SortMode.SUM)).searchAfter(new Object[] {21})));
+        assertTrue(canMatch.apply(new SearchSourceBuilder()
+            .sort(new FieldSortBuilder("rank").order(SortOrder.ASC).sortMode(SortMode.AVG)).searchAfter(new Object[] {21})));
+        // single-valued fields can use any sort mode
+        assertFalse(canMatch.apply(new SearchSourceBuilder()
+            .sort(new FieldSortBuilder("price").order(SortOrder.ASC).sortMode(SortMode.SUM)).searchAfter(new Object[] {0.2})));
+
+        // float values are compared at the precision of the field
+        assertTrue(canMatch.apply(new SearchSourceBuilder().sort("price", SortOrder.DESC).searchAfter(new Object[] {0.05})));
+        assertTrue(canMatch.apply(new SearchSourceBuilder().sort("price", SortOrder.ASC).searchAfter(new Object[] {0.1})));
+        assertFalse(canMatch.apply(new SearchSourceBuilder().sort("price", SortOrder.ASC).searchAfter(new Object[] {0.11})));
+        assertTrue(canMatch.apply(new SearchSourceBuilder().sort("weight", SortOrder.DESC).searchAfter(new Object[] {
+            HalfFloatPoint.sortableShortToHalfFloat(HalfFloatPoint.halfFloatToSortableShort(0.05f))})));
+        assertTrue(canMatch.apply(new SearchSourceBuilder().sort("weight", SortOrder.ASC).searchAfter(new Object[] {
+            (double) HalfFloatPoint.sortableShortToHalfFloat(HalfFloatPoint.halfFloatToSortableShort(0.1f))})));
+        assertFalse(canMatch.apply(new SearchSourceBuilder().sort("weight", SortOrder.ASC).searchAfter(new Object[] {0.2})));
+    }
+
+    public void testCanSkipShardsWithSearchAfter() {
+        final Object[] searchAfter = new Object[] {randomLong()};
+        assertTrue(SearchService.canSkipShardsWithSearchAfter(new SearchSourceBuilder().trackTotalHits(false)
+            .sort("field", randomFrom(SortOrder.values())).searchAfter(searchAfter)));
+        assertFalse(SearchService.canSkipShardsWithSearchAfter(null));
+        assertFalse(SearchService.canSkipShardsWithSearchAfter(new SearchSourceBuilder().trackTotalHits(false)
+            .sort("field").searchAfter(new Object[] {"value"})));
+        // the total hit count must not be tracked
+        assertFalse(SearchService.canSkipShardsWithSearchAfter(new SearchSourceBuilder()
+            .sort("field").searchAfter(searchAfter)));
+        assertFalse(SearchService.canSkipShardsWithSearchAfter(new SearchSourceBuilder().trackTotalHits(true)
+            .sort("field").searchAfter(searchAfter)));
+        assertFalse(SearchService.canSkipShardsWithSearchAfter(new SearchSourceBuilder().trackTotalHits(false)
+            .sort("field")));
+        assertFalse(SearchService.canSkipShardsWithSearchAfter(new SearchSourceBuilder().trackTotalHits(false)
+            .sort("field").searchAfter(searchAfter).aggregation(new GlobalAggregationBuilder("test"))));
+        assertFalse(SearchService.canSkipShardsWithSearchAfter(new SearchSourceBuilder().trackTotalHits(false)
+            .sort(SortBuilders.scoreSort()).searchAfter(searchAfter)));
+        assertFalse(SearchService.canSkipShardsWithSearchAfter(new SearchSourceBuilder().trackTotalHits(false)
+            .sort(new FieldSortBuilder("field").setNestedSort(new NestedSortBuilder("nested"))).searchAfter(searchAfter)));
+    }
+
     public void testCanRewriteToMatchNone() {
         assertFalse(SearchService.canRewriteToMatchNone(new SearchSourceBuilder().query(new MatchNoneQueryBuilder())
             .aggregation(new GlobalAggregationBuilder("test"))));
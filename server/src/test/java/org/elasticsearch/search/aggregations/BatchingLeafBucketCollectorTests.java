@@ -0,0 +1,109 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.search.aggregations;
+
+import org.elasticsearch.test.ESTestCase;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+
+public class BatchingLeafBucketCollectorTests extends ESTestCase {
+
+    private static class Batch {
+        final int[] docs;
+        final long bucket;
+
+        Batch(int[] docs, long bucket) {
+            this.docs = docs;
+            this.bucket = bucket;
+        }
+    }
+
+    private static class RecordingCollector extends LeafBucketCollector {
+        final List<Batch> batches = new ArrayList<>();
+
+        @Override
+        public void collect(int doc, long bucket) {
+            throw new AssertionError("docs should be collected in batches");
+        }
+
+        @Override
+        public void collect(int[] docs, int count, long bucket) {
+            batches.add(new Batch(Arrays.copyOf(docs, count), bucket));
+        }
+    }
+
+    public void testBatches() throws IOException {
+        final int batchSize = randomIntBetween(1, 16);
+        final RecordingCollector recorder = new RecordingCollector();
+        final BatchingLeafBucketCollector collector = new BatchingLeafBucketCollector(recorder, new int[batchSize]);
+        final int numDocs = randomIntBetween(0, 1000);
+        final List<Integer> docs = new ArrayList<>();
+        final List<Long> buckets = new ArrayList<>();
+        long bucket = randomIntBetween(0, 3);
+        for (int doc = 0; doc < numDocs; doc++) {
+            if (rarely()) {
+                bucket = randomIntBetween(0, 3);
+            }
+            collector.collect(doc, bucket);
+            docs.add(doc);
+            buckets.add(bucket);
+        }
+        collector.flush();
+
+        int doc = 0;
+        for (int i = 0; i < recorder.batches.size(); i++) {
+            final Batch batch = recorder.batches.get(i);
+            assertThat(batch.docs.length, lessThanOrEqualTo(batchSize));
+            for (int batchDoc : batch.docs) {
+                assertThat(batchDoc, equalTo(docs.get(doc)));
+                assertThat(batch.bucket, equalTo(buckets.get(doc)));
+                doc++;
+            }
+            if (i < recorder.batches.size() - 1 && batch.docs.length < batchSize) {
+                // a batch is only passed on before it is full if the next doc falls into another bucket
+                assertNotEquals(batch.bucket, (long) buckets.get(doc));
+            }
+        }
+        assertThat(doc, equalTo(numDocs));
+
+        // flushing again does not collect anything
+        collector.flush();
+        assertThat(doc, equalTo(recorder.batches.stream().mapToInt(b -> b.docs.length).sum()));
+    }
+
+    public void testDefaultCollectsOneByOne() throws IOException {
+        final List<Integer> collected = new ArrayList<>();
+        final LeafBucketCollector collector = new LeafBucketCollector() {
+            @Override
+            public void collect(int doc, long bucket) {
+                assertThat(bucket, equalTo(3L));
+                collected.add(doc);
+            }
+        };
+        collector.collect(new int[] {1, 4, 7, 9}, 3, 3);
+        assertThat(collected, equalTo(Arrays.asList(1, 4, 7)));
+    }
+}
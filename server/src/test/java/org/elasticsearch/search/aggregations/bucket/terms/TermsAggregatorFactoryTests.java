@@ -19,6 +19,7 @@
 
 package org.elasticsearch.search.aggregations.bucket.terms;
 
+import org.elasticsearch.common.unit.TimeValue;
 import org.elasticsearch.search.aggregations.Aggregator;
 import org.elasticsearch.test.ESTestCase;
 
@@ -41,4 +42,19 @@ public class TermsAggregatorFactoryTests extends ESTestCase {
         assertThat(TermsAggregatorFactory.subAggCollectionMode(1, 100),
             equalTo(Aggregator.SubAggCollectionMode.BREADTH_FIRST));
     }
+
+    public void testUseSegmentOrdinals() {
+        final long minCardinality = TermsAggregatorFactory.SEGMENT_ORDINALS_MIN_CARDINALITY;
+        final TimeValue refreshInterval = TimeValue.timeValueSeconds(1);
+        assertTrue(TermsAggregatorFactory.useSegmentOrdinals(2, minCardinality, refreshInterval));
+        assertTrue(TermsAggregatorFactory.useSegmentOrdinals(10, minCardinality * 10,
+            TermsAggregatorFactory.SEGMENT_ORDINALS_MAX_REFRESH_INTERVAL));
+        // global ordinals are the segment ordinals
+        assertFalse(TermsAggregatorFactory.useSegmentOrdinals(1, minCardinality, refreshInterval));
+        // low cardinality
+        assertFalse(TermsAggregatorFactory.useSegmentOrdinals(10, minCardinality - 1, refreshInterval));
+        // global ordinals are not invalidated often
+        assertFalse(TermsAggregatorFactory.useSegmentOrdinals(10, minCardinality, TimeValue.MINUS_ONE));
+        assertFalse(TermsAggregatorFactory.useSegmentOrdinals(10, minCardinality, TimeValue.timeValueMinutes(1)));
+    }
 }
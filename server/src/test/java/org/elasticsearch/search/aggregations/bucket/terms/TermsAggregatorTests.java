@@ -30,9 +30,12 @@ import org.apache.lucene.index.DirectoryReader;
 import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.index.IndexableField;
 import org.apache.lucene.index.RandomIndexWriter;
+import org.apache.lucene.index.Term;
 import org.apache.lucene.search.DocValuesFieldExistsQuery;
 import org.apache.lucene.search.IndexSearcher;
 import org.apache.lucene.search.MatchAllDocsQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.TermQuery;
 import org.apache.lucene.search.TotalHits;
 import org.apache.lucene.store.Directory;
 import org.apache.lucene.util.BytesRef;
@@ -95,6 +98,7 @@ import static org.elasticsearch.search.aggregations.PipelineAggregatorBuilders.b
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.greaterThan;
 import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.not;
 
 public class TermsAggregatorTests extends AggregatorTestCase {
 
@@ -154,6 +158,71 @@ public class TermsAggregatorTests extends AggregatorTestCase {
         directory.close();
     }
 
+    public void testSegmentOrdinalsExecutionHint() throws Exception {
+        try (Directory directory = newDirectory()) {
+            final Map<String, Long> expectedCounts = new HashMap<>();
+            // the counts of the few documents of the selected group are kept sparse
+            final Map<String, Long> expectedSelectedCounts = new HashMap<>();
+            try (RandomIndexWriter indexWriter = new RandomIndexWriter(random(), directory)) {
+                final int numDocs = randomIntBetween(1, 200);
+                final int maxValue = randomFrom(50, 1000);
+                for (int i = 0; i < numDocs; i++) {
+                    Document document = new Document();
+                    final boolean selected = randomIntBetween(0, 9) == 0;
+                    document.add(new StringField("group", selected ? "selected" : "other", Field.Store.NO));
+                    final int numValues = randomIntBetween(0, 3);
+                    final List<String> values = new ArrayList<>();
+                    for (int j = 0; j < numValues; j++) {
+                        final String value = "val" + randomIntBetween(0, maxValue);
+                        document.add(new SortedSetDocValuesField("string", new BytesRef(value)));
+                        if (values.contains(value) == false) {
+                            values.add(value);
+                            expectedCounts.merge(value, 1L, Long::sum);
+                            if (selected) {
+                                expectedSelectedCounts.merge(value, 1L, Long::sum);
+                            }
+                        }
+                    }
+                    indexWriter.addDocument(document);
+                    if (rarely()) {
+                        indexWriter.commit();
+                    }
+                }
+                try (IndexReader indexReader = maybeWrapReaderEs(indexWriter.getReader())) {
+                    IndexSearcher indexSearcher = newIndexSearcher(indexReader);
+                    MappedFieldType fieldType = new KeywordFieldMapper.KeywordFieldType();
+                    fieldType.setName("string");
+                    fieldType.setHasDocValues(true);
+                    TermsAggregationBuilder aggregationBuilder = new TermsAggregationBuilder("_name", ValueType.STRING)
+                        .executionHint("segment_ordinals")
+                        .field("string")
+                        .size(1000);
+
+                    for (boolean selectedOnly : new boolean[] { false, true }) {
+                        Query query = selectedOnly ? new TermQuery(new Term("group", "selected")) : new MatchAllDocsQuery();
+                        Map<String, Long> counts = selectedOnly ? expectedSelectedCounts : expectedCounts;
+                        TermsAggregator aggregator = createAggregator(aggregationBuilder, indexSearcher, fieldType);
+                        assertThat(aggregator, instanceOf(SegmentOrdinalsStringTermsAggregator.class));
+                        aggregator.preCollection();
+                        indexSearcher.search(query, aggregator);
+                        aggregator.postCollection();
+                        Terms result = (Terms) aggregator.buildAggregation(0L);
+                        assertEquals(counts.size(), result.getBuckets().size());
+                        for (Terms.Bucket bucket : result.getBuckets()) {
+                            assertEquals(counts.get(bucket.getKeyAsString()).longValue(), bucket.getDocCount());
+                        }
+                    }
+
+                    // segment ordinals can't be merged by term with sub-aggregations
+                    aggregationBuilder.subAggregation(AggregationBuilders.cardinality("card").field("string"));
+                    TermsAggregator aggregator = createAggregator(aggregationBuilder, indexSearcher, fieldType);
+                    assertThat(aggregator, instanceOf(StringTermsAggregator.class));
+                    assertThat(aggregator, not(instanceOf(SegmentOrdinalsStringTermsAggregator.class)));
+                }
+            }
+        }
+    }
+
     public void testSimple() throws Exception {
         try (Directory directory = newDirectory()) {
             try (RandomIndexWriter indexWriter = new RandomIndexWriter(random(), directory)) {
@@ -0,0 +1,78 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.search.fetch;
+
+import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.search.SearchHit;
+import org.elasticsearch.search.fetch.FetchPhase.DocIdToIndex;
+import org.elasticsearch.search.sort.SortOrder;
+import org.elasticsearch.test.ESSingleNodeTestCase;
+
+import static org.elasticsearch.test.hamcrest.ElasticsearchAssertions.assertHitCount;
+import static org.hamcrest.Matchers.equalTo;
+
+public class FetchPhaseTests extends ESSingleNodeTestCase {
+
+    public void testHasDenseDocs() {
+        final DocIdToIndex[] docs = new DocIdToIndex[30];
+        for (int i = 0; i < docs.length; i++) {
+            docs[i] = new DocIdToIndex(i * 2, i);
+        }
+        // too few hits
+        assertFalse(FetchPhase.hasDenseDocs(docs, 0, 9));
+        assertTrue(FetchPhase.hasDenseDocs(docs, 0, 10));
+        assertTrue(FetchPhase.hasDenseDocs(docs, 5, 30));
+
+        // less than half of the documents between the first and the last hit are hits
+        docs[29] = new DocIdToIndex(1000, 29);
+        assertFalse(FetchPhase.hasDenseDocs(docs, 0, 30));
+        assertTrue(FetchPhase.hasDenseDocs(docs, 0, 29));
+    }
+
+    public void testHitsAreReturnedInTheOrderOfTheQueryPhase() {
+        client().admin().indices().prepareCreate("test")
+            .setSettings(Settings.builder().put("index.number_of_shards", 1))
+            .addMapping("_doc", "rank", "type=long")
+            .get();
+        final int numDocs = between(1, 200);
+        for (int i = 0; i < numDocs; i++) {
+            client().prepareIndex("test", "_doc", Integer.toString(i)).setSource("rank", i).get();
+            if (rarely()) {
+                client().admin().indices().prepareRefresh("test").get();
+            }
+        }
+        client().admin().indices().prepareRefresh("test").get();
+
+        final SearchResponse response = client().prepareSearch("test")
+            .setSize(numDocs)
+            .addSort("rank", SortOrder.DESC)
+            .addDocValueField("rank")
+            .setFetchSource(randomBoolean())
+            .get();
+        assertHitCount(response, numDocs);
+        final SearchHit[] hits = response.getHits().getHits();
+        for (int i = 0; i < numDocs; i++) {
+            final int rank = numDocs - 1 - i;
+            assertThat(hits[i].getId(), equalTo(Integer.toString(rank)));
+            assertThat(hits[i].field("rank").getValue(), equalTo((long) rank));
+        }
+    }
+}
@@ -110,6 +110,7 @@ public class AggregationProfilerIT extends ESIntegTestCase {
             assertThat(breakdown.get(AggregationTimingType.INITIALIZE.toString()), greaterThan(0L));
             assertThat(breakdown.get(AggregationTimingType.COLLECT.toString()), notNullValue());
             assertThat(breakdown.get(AggregationTimingType.COLLECT.toString()), greaterThan(0L));
+            assertThat(breakdown.get(AggregationTimingType.POST_COLLECTION.toString()), notNullValue());
             assertThat(breakdown.get(AggregationTimingType.BUILD_AGGREGATION.toString()), notNullValue());
             assertThat(breakdown.get(AggregationTimingType.BUILD_AGGREGATION.toString()), greaterThan(0L));
             assertThat(breakdown.get(AggregationTimingType.REDUCE.toString()), notNullValue());
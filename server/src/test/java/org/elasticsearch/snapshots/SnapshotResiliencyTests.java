@@ -109,6 +109,7 @@ import org.elasticsearch.indices.mapper.MapperRegistry;
 import org.elasticsearch.indices.recovery.PeerRecoverySourceService;
 import org.elasticsearch.indices.recovery.PeerRecoveryTargetService;
 import org.elasticsearch.indices.recovery.RecoverySettings;
+import org.elasticsearch.indices.recovery.SnapshotFilesProvider;
 import org.elasticsearch.plugins.MapperPlugin;
 import org.elasticsearch.plugins.PluginsService;
 import org.elasticsearch.repositories.RepositoriesService;
@@ -847,6 +848,8 @@ public class SnapshotResiliencyTests extends ESTestCase {
                 emptyMap()
             );
             final RecoverySettings recoverySettings = new RecoverySettings(settings, clusterSettings);
+            final SnapshotFilesProvider snapshotFilesProvider =
+                new SnapshotFilesProvider(repositoriesService, recoverySettings, threadPool);
             final ActionFilters actionFilters = new ActionFilters(emptySet());
             snapshotShardsService = new SnapshotShardsService(
                 settings, clusterService, snapshotsService, threadPool,
@@ -861,13 +864,13 @@ public class SnapshotResiliencyTests extends ESTestCase {
                 indicesService,
                 clusterService,
                 threadPool,
-                new PeerRecoveryTargetService(threadPool, transportService, recoverySettings, clusterService),
+                new PeerRecoveryTargetService(threadPool, transportService, recoverySettings, clusterService, snapshotFilesProvider),
                 shardStateAction,
                 new NodeMappingRefreshAction(transportService, new MetaDataMappingService(clusterService, indicesService)),
                 repositoriesService,
                 mock(SearchService.class),
                 new SyncedFlushService(indicesService, clusterService, transportService, indexNameExpressionResolver),
-                new PeerRecoverySourceService(transportService, indicesService, recoverySettings),
+                new PeerRecoverySourceService(transportService, indicesService, recoverySettings, snapshotFilesProvider),
                 snapshotShardsService,
                 new PrimaryReplicaSyncer(
                     transportService,
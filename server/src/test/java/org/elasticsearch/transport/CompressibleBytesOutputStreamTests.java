@@ -19,7 +19,11 @@
 
 package org.elasticsearch.transport;
 
+import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.BytesRefIterator;
+import org.elasticsearch.common.bytes.BytesArray;
 import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.bytes.CompositeBytesReference;
 import org.elasticsearch.common.compress.CompressorFactory;
 import org.elasticsearch.common.io.stream.BytesStream;
 import org.elasticsearch.common.io.stream.BytesStreamOutput;
@@ -28,6 +32,12 @@ import org.elasticsearch.test.ESTestCase;
 
 import java.io.EOFException;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.not;
 
 public class CompressibleBytesOutputStreamTests extends ESTestCase {
 
@@ -102,6 +112,77 @@ public class CompressibleBytesOutputStreamTests extends ESTestCase {
         stream.close();
     }
 
+    public void testLargeBytesReferencesAreNotCopiedWithoutCompression() throws IOException {
+        BytesStream bStream = new ZeroOutOnCloseStream();
+        CompressibleBytesOutputStream stream = new CompressibleBytesOutputStream(bStream, null, true);
+
+        final BytesReference small = new BytesArray(randomBytes(randomInt(CompressibleBytesOutputStream.ZERO_COPY_THRESHOLD - 1)));
+        final BytesReference large = new BytesArray(randomBytes(
+            randomIntBetween(CompressibleBytesOutputStream.ZERO_COPY_THRESHOLD, 2 * CompressibleBytesOutputStream.ZERO_COPY_THRESHOLD)));
+        final BytesReference optionalLarge = new BytesArray(randomBytes(CompressibleBytesOutputStream.ZERO_COPY_THRESHOLD));
+        final int trailer = randomInt();
+        stream.writeBytesReference(small);
+        stream.writeBytesReference(large);
+        stream.writeOptionalBytesReference(optionalLarge);
+        stream.writeInt(trailer);
+
+        BytesReference bytesRef = stream.materializeBytes();
+        stream.close();
+
+        // the large references are part of the materialized bytes, the small one was copied
+        assertThat(bytesRef, instanceOf(CompositeBytesReference.class));
+        final List<BytesRef> components = new ArrayList<>();
+        final BytesRefIterator iterator = bytesRef.iterator();
+        BytesRef component;
+        while ((component = iterator.next()) != null) {
+            components.add(component);
+        }
+        assertTrue(components.stream().anyMatch(ref -> ref.bytes == large.toBytesRef().bytes));
+        assertTrue(components.stream().anyMatch(ref -> ref.bytes == optionalLarge.toBytesRef().bytes));
+        assertTrue(components.stream().noneMatch(ref -> small.length() > 0 && ref.bytes == small.toBytesRef().bytes));
+
+        StreamInput streamInput = bytesRef.streamInput();
+        assertEquals(small, streamInput.readBytesReference());
+        assertEquals(large, streamInput.readBytesReference());
+        assertEquals(optionalLarge, streamInput.readOptionalBytesReference());
+        assertEquals(trailer, streamInput.readInt());
+        assertEquals(-1, streamInput.read());
+    }
+
+    public void testLargeBytesReferencesAreCopiedWithCompression() throws IOException {
+        BytesStream bStream = new ZeroOutOnCloseStream();
+        CompressibleBytesOutputStream stream = new CompressibleBytesOutputStream(bStream, true);
+
+        final BytesReference large = new BytesArray(randomBytes(CompressibleBytesOutputStream.ZERO_COPY_THRESHOLD));
+        stream.writeBytesReference(large);
+
+        BytesReference bytesRef = stream.materializeBytes();
+        stream.close();
+
+        assertThat(bytesRef, not(instanceOf(CompositeBytesReference.class)));
+        StreamInput streamInput = CompressorFactory.COMPRESSOR.streamInput(bytesRef.streamInput());
+        assertEquals(large, streamInput.readBytesReference());
+        assertEquals(-1, streamInput.read());
+    }
+
+    public void testLargeBytesReferencesAreCopiedWithoutZeroCopy() throws IOException {
+        BytesStream bStream = new ZeroOutOnCloseStream();
+        CompressibleBytesOutputStream stream = new CompressibleBytesOutputStream(bStream, false);
+
+        final byte[] largeBytes = randomBytes(CompressibleBytesOutputStream.ZERO_COPY_THRESHOLD);
+        final BytesReference large = new BytesArray(largeBytes.clone());
+        stream.writeBytesReference(large);
+        BytesReference bytesRef = stream.materializeBytes();
+        stream.close();
+
+        // the bytes were copied, so they can be reused as soon as they are written
+        Arrays.fill(large.toBytesRef().bytes, (byte) 0);
+        assertThat(bytesRef, not(instanceOf(CompositeBytesReference.class)));
+        StreamInput streamInput = bytesRef.streamInput();
+        assertEquals(new BytesArray(largeBytes), streamInput.readBytesReference());
+        assertEquals(-1, streamInput.read());
+    }
+
     private static byte[] randomBytes(int length) {
         byte[] bytes = new byte[length];
         for (int i = 0; i < bytes.length; ++i) {
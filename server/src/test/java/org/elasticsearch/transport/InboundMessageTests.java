@@ -20,6 +20,8 @@ package org.elasticsearch.transport;
 
 import org.elasticsearch.Version;
 import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.compress.Compressor;
+import org.elasticsearch.common.compress.CompressorFactory;
 import org.elasticsearch.common.io.stream.BytesStreamOutput;
 import org.elasticsearch.common.io.stream.NamedWriteableRegistry;
 import org.elasticsearch.common.io.stream.StreamInput;
@@ -47,10 +49,11 @@ public class InboundMessageTests extends ESTestCase {
         long requestId = randomLong();
         boolean isHandshake = randomBoolean();
         boolean compress = randomBoolean();
+        Compressor compressor = compress ? randomFrom(CompressorFactory.COMPRESSOR, CompressorFactory.LZ4) : null;
         threadContext.putHeader("header", "header_value");
         Version version = randomFrom(Version.CURRENT, Version.CURRENT.minimumCompatibilityVersion());
         OutboundMessage.Request request = new OutboundMessage.Request(threadContext, features, message, version, action, requestId,
-            isHandshake, compress);
+            isHandshake, compressor);
         BytesReference reference;
         try (BytesStreamOutput streamOutput = new BytesStreamOutput()) {
             reference = request.serialize(streamOutput);
@@ -70,6 +73,7 @@ public class InboundMessageTests extends ESTestCase {
         assertEquals("header_value", threadContext.getHeader("header"));
         assertEquals(isHandshake, inboundMessage.isHandshake());
         assertEquals(compress, inboundMessage.isCompress());
+        assertSame(compressor, inboundMessage.getCompressor());
         assertEquals(version, inboundMessage.getVersion());
         assertEquals(action, inboundMessage.getActionName());
         assertEquals(new HashSet<>(Arrays.asList(features)), inboundMessage.getFeatures());
@@ -86,10 +90,11 @@ public class InboundMessageTests extends ESTestCase {
         long requestId = randomLong();
         boolean isHandshake = randomBoolean();
         boolean compress = randomBoolean();
+        Compressor compressor = compress ? randomFrom(CompressorFactory.COMPRESSOR, CompressorFactory.LZ4) : null;
         threadContext.putHeader("header", "header_value");
         Version version = randomFrom(Version.CURRENT, Version.CURRENT.minimumCompatibilityVersion());
         OutboundMessage.Response request = new OutboundMessage.Response(threadContext, features, message, version, requestId, isHandshake,
-            compress);
+            compressor);
         BytesReference reference;
         try (BytesStreamOutput streamOutput = new BytesStreamOutput()) {
             reference = request.serialize(streamOutput);
@@ -109,6 +114,7 @@ public class InboundMessageTests extends ESTestCase {
         assertEquals("header_value", threadContext.getHeader("header"));
         assertEquals(isHandshake, inboundMessage.isHandshake());
         assertEquals(compress, inboundMessage.isCompress());
+        assertSame(compressor, inboundMessage.getCompressor());
         assertEquals(version, inboundMessage.getVersion());
         assertTrue(inboundMessage.isResponse());
         assertFalse(inboundMessage.isRequest());
@@ -122,10 +128,11 @@ public class InboundMessageTests extends ESTestCase {
         long requestId = randomLong();
         boolean isHandshake = randomBoolean();
         boolean compress = randomBoolean();
+        Compressor compressor = compress ? randomFrom(CompressorFactory.COMPRESSOR, CompressorFactory.LZ4) : null;
         threadContext.putHeader("header", "header_value");
         Version version = randomFrom(Version.CURRENT, Version.CURRENT.minimumCompatibilityVersion());
         OutboundMessage.Response request = new OutboundMessage.Response(threadContext, features, exception, version, requestId,
-            isHandshake, compress);
+            isHandshake, compressor);
         BytesReference reference;
         try (BytesStreamOutput streamOutput = new BytesStreamOutput()) {
             reference = request.serialize(streamOutput);
@@ -145,6 +152,7 @@ public class InboundMessageTests extends ESTestCase {
         assertEquals("header_value", threadContext.getHeader("header"));
         assertEquals(isHandshake, inboundMessage.isHandshake());
         assertEquals(compress, inboundMessage.isCompress());
+        assertSame(compressor, inboundMessage.getCompressor());
         assertEquals(version, inboundMessage.getVersion());
         assertTrue(inboundMessage.isResponse());
         assertFalse(inboundMessage.isRequest());
@@ -188,8 +196,9 @@ public class InboundMessageTests extends ESTestCase {
         String action = randomAlphaOfLength(10);
         long requestId = randomLong();
         boolean compress = randomBoolean();
+        Compressor compressor = compress ? randomFrom(CompressorFactory.COMPRESSOR, CompressorFactory.LZ4) : null;
         OutboundMessage.Request request = new OutboundMessage.Request(threadContext, features, message, version, action, requestId,
-            isHandshake, compress);
+            isHandshake, compressor);
         BytesReference reference;
         try (BytesStreamOutput streamOutput = new BytesStreamOutput()) {
             reference = request.serialize(streamOutput);
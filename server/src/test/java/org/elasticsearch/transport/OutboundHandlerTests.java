@@ -23,11 +23,18 @@ import org.elasticsearch.Version;
 import org.elasticsearch.action.ActionListener;
 import org.elasticsearch.common.bytes.BytesArray;
 import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.bytes.ReleasablePagedBytesReference;
+import org.elasticsearch.common.compress.Compressor;
+import org.elasticsearch.common.compress.CompressorFactory;
 import org.elasticsearch.common.io.stream.NamedWriteableRegistry;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.common.io.stream.Writeable;
+import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.util.BigArrays;
+import org.elasticsearch.common.util.ByteArray;
+import org.elasticsearch.common.util.MockPageCacheRecycler;
+import org.elasticsearch.common.util.PageCacheRecycler;
 import org.elasticsearch.common.util.concurrent.ThreadContext;
 import org.elasticsearch.test.ESTestCase;
 import org.elasticsearch.threadpool.TestThreadPool;
@@ -96,6 +103,7 @@ public class OutboundHandlerTests extends ESTestCase {
         long requestId = randomLongBetween(0, 300);
         boolean isHandshake = randomBoolean();
         boolean compress = randomBoolean();
+        Compressor compressor = compress ? randomFrom(CompressorFactory.COMPRESSOR, CompressorFactory.LZ4) : null;
         String value = "message";
         threadContext.putHeader("header", "header_value");
         Writeable writeable = new Message(value);
@@ -103,9 +111,9 @@ public class OutboundHandlerTests extends ESTestCase {
         boolean isRequest = randomBoolean();
         if (isRequest) {
             message = new OutboundMessage.Request(threadContext, new String[0], writeable, version, actionName, requestId, isHandshake,
-                compress);
+                compressor);
         } else {
-            message = new OutboundMessage.Response(threadContext, new HashSet<>(), writeable, version, requestId, isHandshake, compress);
+            message = new OutboundMessage.Response(threadContext, new HashSet<>(), writeable, version, requestId, isHandshake, compressor);
         }
 
         AtomicBoolean isSuccess = new AtomicBoolean(false);
@@ -144,6 +152,7 @@ public class OutboundHandlerTests extends ESTestCase {
             }
             if (compress) {
                 assertTrue(inboundMessage.isCompress());
+                assertSame(compressor, inboundMessage.getCompressor());
             } else {
                 assertFalse(inboundMessage.isCompress());
             }
@@ -160,6 +169,42 @@ public class OutboundHandlerTests extends ESTestCase {
         }
     }
 
+    public void testSendResponseReleasingItsBytesOnceSent() throws IOException {
+        // like the file chunks of CCR, the response is backed by a recycled page that is reused as soon as it has been sent
+        final BigArrays bigArrays = new BigArrays(new MockPageCacheRecycler(Settings.EMPTY), null, "test");
+        final int length = randomIntBetween(CompressibleBytesOutputStream.ZERO_COPY_THRESHOLD, 4 * PageCacheRecycler.BYTE_PAGE_SIZE);
+        final byte[] expected = randomByteArrayOfLength(length);
+        final ByteArray array = bigArrays.newByteArray(length, false);
+        array.set(0, expected, 0, length);
+        try (ReleasablePagedBytesReference chunk = new ReleasablePagedBytesReference(array, length, array)) {
+            OutboundMessage message = new OutboundMessage.Response(threadPool.getThreadContext(), new HashSet<>(),
+                new BytesMessage(chunk), Version.CURRENT, randomNonNegativeLong(), false, null);
+            handler.sendMessage(fakeTcpChannel, message, ActionListener.wrap(() -> {}));
+            array.fill(0, length, (byte) 0);
+        }
+
+        BytesReference reference = fakeTcpChannel.getMessageCaptor().get();
+        fakeTcpChannel.getListenerCaptor().get().onResponse(null);
+        InboundMessage.Reader reader = new InboundMessage.Reader(Version.CURRENT, namedWriteableRegistry, threadPool.getThreadContext());
+        try (InboundMessage inboundMessage = reader.deserialize(reference.slice(6, reference.length() - 6))) {
+            assertEquals(new BytesArray(expected), inboundMessage.getStreamInput().readBytesReference());
+        }
+    }
+
+    private static final class BytesMessage extends TransportMessage {
+
+        private final BytesReference bytes;
+
+        private BytesMessage(BytesReference bytes) {
+            this.bytes = bytes;
+        }
+
+        @Override
+        public void writeTo(StreamOutput out) throws IOException {
+            out.writeBytesReference(bytes);
+        }
+    }
+
     private static final class Message extends TransportMessage {
 
         public String value;
@@ -45,6 +45,7 @@ import java.io.StreamCorruptedException;
 import java.net.InetAddress;
 import java.net.InetSocketAddress;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
 
@@ -191,7 +192,7 @@ public class TcpTransportTests extends ESTestCase {
                     for (int i = 0; i < numConnections; ++i) {
                         fakeChannels.add(new FakeTcpChannel(false, messageCaptor));
                     }
-                    listener.onResponse(new NodeChannels(node, fakeChannels, profile, Version.CURRENT));
+                    listener.onResponse(new NodeChannels(node, fakeChannels, profile, Version.CURRENT, Collections.emptySet()));
                     return () -> CloseableChannel.closeChannels(fakeChannels, false);
                 }
             };
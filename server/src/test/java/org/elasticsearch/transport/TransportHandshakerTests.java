@@ -21,6 +21,7 @@ package org.elasticsearch.transport;
 import org.elasticsearch.Version;
 import org.elasticsearch.action.support.PlainActionFuture;
 import org.elasticsearch.cluster.node.DiscoveryNode;
+import org.elasticsearch.common.compress.CompressorFactory;
 import org.elasticsearch.common.io.stream.BytesStreamOutput;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.unit.TimeValue;
@@ -95,6 +96,61 @@ public class TransportHandshakerTests extends ESTestCase {
         assertEquals(Version.CURRENT, versionFuture.actionGet());
     }
 
+    public void testHandshakeExchangesCompressionSchemes() throws IOException {
+        PlainActionFuture<Version> versionFuture = PlainActionFuture.newFuture();
+        long reqId = randomLongBetween(1, 10);
+        handshaker.sendHandshake(reqId, node, channel, new TimeValue(30, TimeUnit.SECONDS), versionFuture);
+
+        TcpChannel mockChannel = mock(TcpChannel.class);
+        TransportHandshaker.HandshakeRequest handshakeRequest =
+            new TransportHandshaker.HandshakeRequest(Version.CURRENT, TransportHandshaker.localCompressionSchemes());
+        BytesStreamOutput bytesStreamOutput = new BytesStreamOutput();
+        handshakeRequest.writeTo(bytesStreamOutput);
+        handshaker.handleHandshake(Version.CURRENT, Collections.emptySet(), mockChannel, reqId, bytesStreamOutput.bytes().streamInput());
+
+        ArgumentCaptor<TransportResponse> responseCaptor = ArgumentCaptor.forClass(TransportResponse.class);
+        verify(responseSender).sendResponse(eq(Version.CURRENT), eq(Collections.emptySet()), eq(mockChannel), responseCaptor.capture(),
+            eq(reqId));
+        TransportHandshaker.HandshakeResponse response = (TransportHandshaker.HandshakeResponse) responseCaptor.getValue();
+        assertArrayEquals(TransportHandshaker.localCompressionSchemes(), response.getCompressionSchemes());
+
+        // round-trip the response as it would go over the wire
+        BytesStreamOutput responseOutput = new BytesStreamOutput();
+        response.writeTo(responseOutput);
+        TransportResponseHandler<TransportHandshaker.HandshakeResponse> handler = handshaker.removeHandlerForHandshake(reqId);
+        handler.handleResponse(handler.read(responseOutput.bytes().streamInput()));
+
+        assertEquals(Version.CURRENT, versionFuture.actionGet());
+        assertEquals(CompressorFactory.schemes(), handshaker.removeRemoteCompressionSchemes(channel));
+        assertEquals(Collections.emptySet(), handshaker.removeRemoteCompressionSchemes(channel));
+    }
+
+    public void testHandshakeWithoutCompressionSchemes() throws IOException {
+        PlainActionFuture<Version> versionFuture = PlainActionFuture.newFuture();
+        long reqId = randomLongBetween(1, 10);
+        handshaker.sendHandshake(reqId, node, channel, new TimeValue(30, TimeUnit.SECONDS), versionFuture);
+
+        // a request from a node that does not know about compression schemes gets a response without them
+        TcpChannel mockChannel = mock(TcpChannel.class);
+        BytesStreamOutput bytesStreamOutput = new BytesStreamOutput();
+        new TransportHandshaker.HandshakeRequest(Version.CURRENT).writeTo(bytesStreamOutput);
+        handshaker.handleHandshake(Version.CURRENT, Collections.emptySet(), mockChannel, reqId, bytesStreamOutput.bytes().streamInput());
+
+        ArgumentCaptor<TransportResponse> responseCaptor = ArgumentCaptor.forClass(TransportResponse.class);
+        verify(responseSender).sendResponse(eq(Version.CURRENT), eq(Collections.emptySet()), eq(mockChannel), responseCaptor.capture(),
+            eq(reqId));
+        TransportHandshaker.HandshakeResponse response = (TransportHandshaker.HandshakeResponse) responseCaptor.getValue();
+        assertNull(response.getCompressionSchemes());
+
+        BytesStreamOutput responseOutput = new BytesStreamOutput();
+        response.writeTo(responseOutput);
+        TransportResponseHandler<TransportHandshaker.HandshakeResponse> handler = handshaker.removeHandlerForHandshake(reqId);
+        handler.handleResponse(handler.read(responseOutput.bytes().streamInput()));
+
+        assertEquals(Version.CURRENT, versionFuture.actionGet());
+        assertEquals(Collections.emptySet(), handshaker.removeRemoteCompressionSchemes(channel));
+    }
+
     public void testHandshakeRequestFutureVersionsCompatibility() throws IOException {
         long reqId = randomLongBetween(1, 10);
         handshaker.sendHandshake(reqId, node, channel, new TimeValue(30, TimeUnit.SECONDS), PlainActionFuture.newFuture());
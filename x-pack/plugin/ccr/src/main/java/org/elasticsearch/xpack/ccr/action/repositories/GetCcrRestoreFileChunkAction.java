@@ -70,7 +70,8 @@ public class GetCcrRestoreFileChunkAction extends Action<GetCcrRestoreFileChunkA
             String fileName = request.getFileName();
             String sessionUUID = request.getSessionUUID();
             // This is currently safe to do because calling `onResponse` will serialize the bytes to the network layer data
-            // structure on the same thread. So the bytes will be copied before the reference is released.
+            // structure on the same thread. So the bytes will be copied before the reference is released. The response must
+            // therefore not be a ZeroCopyTransportMessage, whose bytes are sent without being copied.
             try (ReleasablePagedBytesReference reference = new ReleasablePagedBytesReference(array, bytesRequested, array)) {
                 try (CcrRestoreSourceService.SessionReader sessionReader = restoreSourceService.getSessionReader(sessionUUID)) {
                     long offsetAfterRead = sessionReader.readFileBytes(fileName, reference);